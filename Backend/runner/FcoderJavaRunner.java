@@ -0,0 +1,648 @@
+/*
+ * fcoder-java-runner: runs the tests of a Java submission inside the judge sandbox in one warm JVM.
+ *
+ * Speaks the protocol of fcoder-runner (see fcoder-runner.c), but instead of starting "java Main" once
+ * per test it runs every test of the session in this JVM. Each test gets a fresh class loader over the
+ * working directory, so static state starts over, its own System.in/out/err (stdout and stderr both go
+ * to <dir>/i.out) and a thread group of its own whose "main" thread runs main() with the default stack
+ * size. Like a JVM, a test ends when main and every non-daemon thread it started are done, or at
+ * System.exit. The judge throws the JVM away at the end of the session.
+ *
+ * Measured differently from a JVM per test:
+ *   cpu ms   CPU time of the whole JVM during the test, JIT and GC included, JVM start-up not
+ *   peak KB  peak RSS of the JVM during the test (VmHWM, reset through /proc/self/clear_refs before
+ *            each test), so it includes the JVM itself like the RSS of a JVM per test does
+ * A test that reaches the wall-clock limit, leaves threads running or leaves the JVM more than 16 MB
+ * larger than at the start of the session (after a GC) is the last one of the session;
+ * the judge runs the tests the session did not report on with a JVM each. So are sessions of classes
+ * using java.io.FileDescriptor (raw stdin/stdout) or replacing System.in/out/err, which end with an
+ * error before running anything, and every session on a JDK newer than 21 (the security manager is
+ * going away) unless started with -Dfcoder.runner.newer-jdk=true.
+ *
+ * Submitted classes run under a security manager that turns System.exit into the exit status of the
+ * test and only grants them reading files of the working directory outside the tests directory,
+ * reading system properties and setting the default locale and time zone (restored after each test).
+ * Everything else is denied: threads and thread groups of the runner, stack traces of other threads,
+ * System.setIn/setOut/setErr, class loaders, reflection, file descriptors, native libraries, writing
+ * files, so a submission cannot write result frames of its own. The container stays the isolation
+ * boundary.
+ *
+ * Build: javac -d classes FcoderJavaRunner.java && jar cf fcoder-java-runner.jar -C classes .
+ * Run:   java -Djava.security.manager=allow -cp fcoder-java-runner.jar FcoderJavaRunner
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.FilePermission;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Permission;
+import java.security.Permissions;
+import java.security.Policy;
+import java.security.ProtectionDomain;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.PropertyPermission;
+import java.util.TimeZone;
+import java.util.stream.Stream;
+
+public final class FcoderJavaRunner {
+
+    private static final int MAGIC = 0x46435231; // "FCR1"
+    private static final int FLAG_TIMED_OUT = 1;
+    private static final int FLAG_OUTPUT_LIMIT = 2;
+    private static final int SIGKILL = 9;
+    private static final int SIGXFSZ = 25;
+    private static final int BUFFER_SIZE = 65536;
+    private static final long EXIT_GRACE_NANOS = 100_000_000;
+    private static final int LAST_SUPPORTED_JDK = 21;
+    private static final byte[] FILE_DESCRIPTOR = "java/io/FileDescriptor".getBytes(StandardCharsets.US_ASCII);
+    // Constant pool entries (u2 length, name) of System.setIn/setOut/setErr
+    private static final byte[][] SET_IO = {utf8Entry("setIn"), utf8Entry("setOut"), utf8Entry("setErr")};
+    private static final Path CLEAR_REFS = Paths.get("/proc/self/clear_refs");
+    private static final Path STATUS = Paths.get("/proc/self/status");
+    // RSS a test may leave behind (code cache, metaspace) before the JVM is no longer fit for the next one
+    private static final long RSS_SLACK_KB = 16 * 1024;
+
+    private static final PrintStream RUNNER_OUT = System.out;
+    private static final PrintStream RUNNER_ERR = System.err;
+    private static final InputStream RUNNER_IN = System.in;
+
+    // The test running now, for the security manager
+    private static volatile Test current;
+
+    private final DataOutputStream frames;
+    private final Path workspace = Paths.get("").toAbsolutePath();
+    private final Charset charset = Charset.forName(System.getProperty("stdout.encoding",
+            System.getProperty("native.encoding", Charset.defaultCharset().name())));
+    private final com.sun.management.OperatingSystemMXBean os =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    private FcoderJavaRunner(DataOutputStream frames) {
+        this.frames = frames;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Frames go to the real stdout, which submitted code never gets to see
+        DataOutputStream frames = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), BUFFER_SIZE));
+        FcoderJavaRunner runner = new FcoderJavaRunner(frames);
+        try {
+            runner.session(new DataInputStream(new BufferedInputStream(RUNNER_IN)));
+            runner.frame('D', new byte[0]);
+        } catch (SessionException e) {
+            runner.frame('E', e.getMessage().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException | RuntimeException e) {
+            runner.frame('E', ("runner failed: " + e).getBytes(StandardCharsets.UTF_8));
+        }
+        frames.flush();
+        // Threads left behind by a test must not keep the JVM alive
+        Runtime.getRuntime().halt(0);
+    }
+
+    private void session(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new SessionException("bad request");
+        }
+        long wallMs = Integer.toUnsignedLong(in.readInt());
+        long outputLimit = in.readLong();
+        in.readInt(); // core: the judge pins the whole JVM
+        Path testsDir = workspace.resolve(readString(in));
+        int argc = in.readUnsignedShort();
+        if (argc == 0) {
+            throw new SessionException("bad request");
+        }
+        String mainClass = null;
+        for (int i = 0; i < argc; i++) {
+            mainClass = readString(in); // "java [options] Main": the class is the last argument
+        }
+        int first = in.readInt();
+        int count = in.readInt();
+
+        if (Runtime.version().feature() > LAST_SUPPORTED_JDK && !Boolean.getBoolean("fcoder.runner.newer-jdk")) {
+            throw new SessionException("JDK " + Runtime.version().feature() + " is not supported, it needs a JVM per test");
+        }
+        String usage = unsupportedUsage();
+        if (usage != null) {
+            throw new SessionException("submission uses " + usage + ", it needs a JVM per test");
+        }
+        try {
+            resetPeakRss();
+        } catch (IOException e) {
+            throw new SessionException("cannot measure memory per test: " + e.getMessage());
+        }
+        installSecurityManager(testsDir);
+        System.gc();
+        long baselineKb = rssKb("VmRSS:");
+
+        for (int index = first; index < first + count; index++) {
+            Integer stop = stopAfter(testsDir);
+            if (stop != null && index > stop) {
+                break;
+            }
+            if (!runTest(index, testsDir, mainClass, wallMs, outputLimit, baselineKb)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Run one test and report it
+     *
+     * @return false when the JVM is no longer fit for another test
+     */
+    private boolean runTest(int index, Path testsDir, String mainClass, long wallMs, long outputLimit,
+                            long baselineKb) throws IOException {
+        Locale locale = Locale.getDefault();
+        TimeZone timeZone = TimeZone.getDefault();
+        Properties properties = (Properties) System.getProperties().clone();
+        resetPeakRss();
+
+        TestOutput output = new TestOutput(Files.newOutputStream(testsDir.resolve(index + ".out")), outputLimit);
+        PrintStream stream = new PrintStream(new BufferedOutputStream(output, BUFFER_SIZE), false, charset);
+        Test test;
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(testsDir.resolve(index + ".in")),
+                BUFFER_SIZE)) {
+            System.setIn(input);
+            System.setOut(stream);
+            System.setErr(stream);
+            test = new Test(new TestGroup(index), new SubmissionLoader(workspace));
+            current = test;
+
+            long cpuStart = os.getProcessCpuTime();
+            test.start = System.nanoTime();
+            Thread main = new Thread(test.group, () -> test.runMain(mainClass), "main");
+            main.setContextClassLoader(test.loader);
+            main.start();
+            test.await(test.start + wallMs * 1_000_000);
+            test.cpuNanos = os.getProcessCpuTime() - cpuStart;
+            if (test.exitRequest != null) {
+                // Let the threads unwinding from the exit finish
+                test.group.settle(System.nanoTime() + EXIT_GRACE_NANOS);
+            }
+        } finally {
+            current = null;
+            System.setIn(RUNNER_IN);
+            System.setOut(RUNNER_OUT);
+            System.setErr(RUNNER_ERR);
+            Locale.setDefault(locale);
+            TimeZone.setDefault(timeZone);
+            System.setProperties(properties);
+        }
+        try {
+            stream.flush();
+        } catch (OutputLimitExceeded e) {
+            // Flagged by the output
+        }
+        output.close();
+
+        long peakKb = rssKb("VmHWM:");
+        int flags = (test.timedOut ? FLAG_TIMED_OUT : 0) | (output.size > outputLimit ? FLAG_OUTPUT_LIMIT : 0);
+        int signal = test.timedOut ? SIGKILL : output.size > outputLimit ? SIGXFSZ : 0;
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(payload);
+        out.writeInt(index);
+        out.writeInt(signal != 0 ? -1 : test.exitStatus());
+        out.writeInt(signal);
+        out.writeInt((int) Math.min(0xffffffffL, test.cpuNanos / 1_000_000));
+        out.writeInt((int) Math.min(0xffffffffL, (test.end - test.start) / 1_000_000));
+        out.writeLong(peakKb);
+        out.writeLong(output.size);
+        out.writeByte(flags);
+        out.write(output.digest.digest());
+        frame('R', payload.toByteArray());
+        if (test.timedOut || test.group.hasLiveThreads()) {
+            return false;
+        }
+        // Heap the test grew stays resident, the peak of the next test would be counted from there
+        System.gc();
+        return rssKb("VmRSS:") <= baselineKb + RSS_SLACK_KB;
+    }
+
+    private void frame(char type, byte[] payload) throws IOException {
+        int length = Math.min(payload.length, 0xffff);
+        frames.writeByte(type);
+        frames.writeShort(length);
+        frames.write(payload, 0, length);
+        frames.flush();
+    }
+
+    /**
+     * What the submitted classes use that only works with a JVM per test, null when nothing
+     */
+    private String unsupportedUsage() throws IOException {
+        try (Stream<Path> files = Files.walk(workspace, 8)) {
+            for (Path file : (Iterable<Path>) files.filter(path -> path.toString().endsWith(".class"))::iterator) {
+                byte[] data = Files.readAllBytes(file);
+                if (contains(data, FILE_DESCRIPTOR)) {
+                    return "java.io.FileDescriptor";
+                }
+                for (byte[] method : SET_IO) {
+                    if (contains(data, method)) {
+                        return "System." + new String(method, 2, method.length - 2, StandardCharsets.US_ASCII);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static byte[] utf8Entry(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+        byte[] entry = new byte[bytes.length + 2];
+        entry[1] = (byte) bytes.length;
+        System.arraycopy(bytes, 0, entry, 2, bytes.length);
+        return entry;
+    }
+
+    // Peak RSS (VmHWM) starts over from the current RSS
+    private static void resetPeakRss() throws IOException {
+        Files.writeString(CLEAR_REFS, "5");
+    }
+
+    private static long rssKb(String field) throws IOException {
+        for (String line : Files.readAllLines(STATUS)) {
+            if (line.startsWith(field)) {
+                return Long.parseLong(line.substring(field.length()).replace("kB", "").trim());
+            }
+        }
+        return 0;
+    }
+
+    private static boolean contains(byte[] data, byte[] pattern) {
+        outer:
+        for (int i = 0; i + pattern.length <= data.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static Integer stopAfter(Path testsDir) {
+        try {
+            Path stop = testsDir.resolve(".stop");
+            return Files.exists(stop) ? Integer.valueOf(Files.readString(stop).trim()) : null;
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("removal")
+    private void installSecurityManager(Path testsDir) {
+        try {
+            Policy.setPolicy(new SubmissionPolicy(workspace, testsDir));
+            System.setSecurityManager(new SubmissionSecurityManager());
+        } catch (UnsupportedOperationException e) {
+            throw new SessionException("security manager not allowed, start with -Djava.security.manager=allow");
+        }
+    }
+
+    /**
+     * One test: its thread group, class loader and how it ended
+     */
+    private static final class Test {
+        private final TestGroup group;
+        private final SubmissionLoader loader;
+        private volatile long start;
+        private volatile long end;
+        private volatile long cpuNanos;
+        private volatile boolean timedOut;
+        private volatile boolean failed;
+        // Status of the first System.exit, null without one
+        private volatile Integer exitRequest;
+
+        private Test(TestGroup group, SubmissionLoader loader) {
+            this.group = group;
+            this.loader = loader;
+        }
+
+        private void runMain(String mainClass) {
+            try {
+                Method main = loader.loadClass(mainClass).getDeclaredMethod("main", String[].class);
+                main.setAccessible(true);
+                main.invoke(null, (Object) new String[0]);
+            } catch (InvocationTargetException e) {
+                group.uncaughtException(Thread.currentThread(), e.getCause());
+            } catch (ReflectiveOperationException | LinkageError e) {
+                group.uncaughtException(Thread.currentThread(), e);
+            }
+        }
+
+        /**
+         * Wait until the test is over like a JVM would be: main and the non-daemon threads done, or an exit
+         */
+        private void await(long deadline) {
+            while (exitRequest == null) {
+                Thread waitFor = group.liveNonDaemonThread();
+                if (waitFor == null) {
+                    break;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    timedOut = true;
+                    break;
+                }
+                try {
+                    // Short slices, a System.exit from another thread ends the wait too
+                    waitFor.join(Math.max(1, Math.min(50, remaining / 1_000_000)));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    timedOut = true;
+                    break;
+                }
+            }
+            if (end == 0) {
+                end = System.nanoTime();
+            }
+        }
+
+        private void requestExit(int status) {
+            if (exitRequest == null) {
+                exitRequest = status;
+                end = System.nanoTime();
+            }
+        }
+
+        private int exitStatus() {
+            if (exitRequest != null) {
+                return exitRequest;
+            }
+            return failed ? 1 : 0;
+        }
+    }
+
+    /**
+     * Threads of one test. Uncaught exceptions are printed like the JVM does; an exit or the output limit
+     * unwinding a thread is not an error.
+     */
+    private static final class TestGroup extends ThreadGroup {
+
+        private TestGroup(int index) {
+            super("test-" + index);
+        }
+
+        @Override
+        public void uncaughtException(Thread thread, Throwable error) {
+            if (error instanceof ExitRequest || error instanceof OutputLimitExceeded) {
+                return;
+            }
+            Test test = current;
+            if (test != null && "main".equals(thread.getName()) && thread.getThreadGroup() == this) {
+                test.failed = true;
+            }
+            System.err.print("Exception in thread \"" + thread.getName() + "\" ");
+            error.printStackTrace(System.err);
+        }
+
+        private Thread liveNonDaemonThread() {
+            for (Thread thread : threads()) {
+                if (thread.isAlive() && !thread.isDaemon()) {
+                    return thread;
+                }
+            }
+            return null;
+        }
+
+        private void settle(long until) {
+            for (Thread thread : threads()) {
+                long remaining = until - System.nanoTime();
+                if (remaining <= 0) {
+                    return;
+                }
+                try {
+                    thread.join(Math.max(1, remaining / 1_000_000));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private boolean hasLiveThreads() {
+            for (Thread thread : threads()) {
+                if (thread.isAlive()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Thread[] threads() {
+            Thread[] threads = new Thread[Math.max(16, activeCount() * 2)];
+            int count = enumerate(threads, true);
+            return Arrays.copyOf(threads, count);
+        }
+    }
+
+    /**
+     * Loads the submission's classes from the workspace. The runner's own classes are not visible to them.
+     */
+    private static final class SubmissionLoader extends URLClassLoader {
+
+        private SubmissionLoader(Path workspace) throws IOException {
+            super(new URL[] {workspace.toUri().toURL()}, ClassLoader.getPlatformClassLoader());
+        }
+    }
+
+    /**
+     * Everything for the runner and the JDK, only the permissions granted below for submitted classes
+     */
+    @SuppressWarnings("removal")
+    private static final class SubmissionPolicy extends Policy {
+        private final Permissions granted = new Permissions();
+        private final Path workspace;
+        private final Path testsDir;
+
+        private SubmissionPolicy(Path workspace, Path testsDir) {
+            this.workspace = workspace;
+            this.testsDir = testsDir;
+            granted.add(new PropertyPermission("*", "read"));
+            // ExecutorService.shutdown and ForkJoinPool need it; the security manager keeps it to the test's threads
+            granted.add(new RuntimePermission("modifyThread"));
+            // Locale.setDefault and TimeZone.setDefault, common in solutions; the runner restores them
+            for (String property : new String[] {"user.language", "user.country", "user.script", "user.variant",
+                    "user.timezone"}) {
+                granted.add(new PropertyPermission(property, "write"));
+            }
+            granted.setReadOnly();
+        }
+
+        @Override
+        public boolean implies(ProtectionDomain domain, Permission permission) {
+            if (!(domain.getClassLoader() instanceof SubmissionLoader)) {
+                return true;
+            }
+            if (permission instanceof FilePermission) {
+                return readable(permission);
+            }
+            return granted.implies(permission);
+        }
+
+        // Reading under the working directory, but not the inputs and outputs of the tests: the runner
+        // hands each test its own
+        private boolean readable(Permission permission) {
+            if (!"read".equals(permission.getActions())) {
+                return false;
+            }
+            Path path;
+            try {
+                path = workspace.resolve(permission.getName()).normalize();
+            } catch (InvalidPathException e) {
+                return false;
+            }
+            return path.startsWith(workspace) && !path.startsWith(testsDir);
+        }
+    }
+
+    /**
+     * Turns a System.exit of submitted code into the exit status of its test
+     */
+    @SuppressWarnings("removal")
+    private static final class SubmissionSecurityManager extends SecurityManager {
+        // Held by the runner and the JDK only, not granted to submitted classes
+        private static final Permission RUNNER_THREADS = new RuntimePermission("fcoder.runnerThreads");
+
+        // The runner's thread group, holding its threads and the groups of the tests
+        private final ThreadGroup runnerGroup = Thread.currentThread().getThreadGroup();
+
+        /**
+         * The runner's threads and those of other tests are off limits to submitted code, the default
+         * only protects the system thread group
+         */
+        @Override
+        public void checkAccess(Thread thread) {
+            ThreadGroup group = thread.getThreadGroup();
+            if (group != null && isRunners(group)) {
+                checkPermission(RUNNER_THREADS);
+            }
+            super.checkAccess(thread);
+        }
+
+        @Override
+        public void checkAccess(ThreadGroup group) {
+            if (isRunners(group)) {
+                checkPermission(RUNNER_THREADS);
+            }
+            super.checkAccess(group);
+        }
+
+        private boolean isRunners(ThreadGroup group) {
+            Test test = current;
+            return test != null && runnerGroup.parentOf(group) && !test.group.parentOf(group);
+        }
+
+        @Override
+        public void checkExit(int status) {
+            try {
+                super.checkExit(status);
+            } catch (SecurityException e) {
+                Test test = current;
+                if (test != null) {
+                    test.requestExit(status);
+                }
+                throw new ExitRequest(status);
+            }
+        }
+    }
+
+    /**
+     * Unwinds the thread that called System.exit
+     */
+    private static final class ExitRequest extends SecurityException {
+        private ExitRequest(int status) {
+            super("System.exit(" + status + ")");
+        }
+    }
+
+    /**
+     * Unwinds the thread that wrote past the output limit, like SIGXFSZ stops a process
+     */
+    private static final class OutputLimitExceeded extends Error {
+        private OutputLimitExceeded() {
+            super("output limit exceeded");
+        }
+    }
+
+    /**
+     * Output file of a test: counts and hashes what is written and keeps at most one byte past the limit
+     */
+    private static final class TestOutput extends OutputStream {
+        private final OutputStream file;
+        private final long limit;
+        private final MessageDigest digest;
+        private long size;
+
+        private TestOutput(OutputStream file, long limit) {
+            this.file = file;
+            this.limit = limit;
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] buffer, int offset, int length) throws IOException {
+            long room = limit + 1 - size;
+            int kept = (int) Math.min(length, Math.max(0, room));
+            file.write(buffer, offset, kept);
+            digest.update(buffer, offset, kept);
+            size += kept;
+            if (kept < length) {
+                throw new OutputLimitExceeded();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+
+    /**
+     * The session cannot run, reported as an error frame
+     */
+    private static final class SessionException extends RuntimeException {
+        private SessionException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,568 @@
+/*
+ * fcoder-runner: runs the tests of a submission inside the judge sandbox.
+ *
+ * The judge starts it once per batch session and writes a single request on stdin; the runner
+ * starts the program once per test with its own rlimits and seccomp filter, waits for it with a
+ * wall-clock ceiling and writes one result frame per test on stdout as soon as it finishes.
+ * Everything is big-endian, strings are a u16 length followed by UTF-8 bytes.
+ *
+ * Request:
+ *   u32 magic "FCR1"
+ *   u32 wall-clock limit per test (ms)
+ *   u64 output limit (bytes)
+ *   i32 core to pin to, -1 for none
+ *   str tests directory: test i reads <dir>/i.in, its stdout/stderr go to <dir>/i.out
+ *   u16 argc, argc x str: command of the program
+ *   u32 first test, u32 test count
+ *
+ * Frames: u8 type, u16 payload length, payload
+ *   'R' result: u32 test, i32 exit code (-1 when killed by a signal), i32 signal, u32 cpu ms
+ *               (user + sys), u32 wall ms, u64 peak RSS (KB), u64 output size, u8 flags
+ *               (1 = wall-clock limit, 2 = output limit), 32 bytes sha256 of the output
+ *   'E' error:  message, the session is over
+ *   'D' done:   empty, every test ran (or <dir>/.stop cut the session short)
+ *
+ * When <dir>/.stop holds a test number, tests after it are not run (stop on first failure).
+ *
+ * Each program runs in a session of its own and may not leave it (setsid/setpgid are denied); after
+ * a test every process of that session is killed before its output is hashed. Installed setuid root,
+ * the runner runs the programs as JUDGE_UID so they can neither signal nor trace it, and it is not
+ * dumpable either way. Without that privilege the programs run as the invoking user.
+ *
+ * Build: gcc -O2 -static -o fcoder-runner fcoder-runner.c, then chown root and chmod 4755
+ */
+#define _GNU_SOURCE
+#include <errno.h>
+#include <dirent.h>
+#include <fcntl.h>
+#include <grp.h>
+#include <linux/audit.h>
+#include <linux/filter.h>
+#include <linux/seccomp.h>
+#include <sched.h>
+#include <signal.h>
+#include <stddef.h>
+#include <stdint.h>
+#include <stdio.h>
+#include <stdlib.h>
+#include <string.h>
+#include <sys/prctl.h>
+#include <sys/resource.h>
+#include <sys/stat.h>
+#include <sys/syscall.h>
+#include <sys/types.h>
+#include <sys/wait.h>
+#include <time.h>
+#include <unistd.h>
+
+#define MAGIC 0x46435231u
+#define MAX_ARGS 64
+#define MAX_STRING 4096
+#define FLAG_TIMED_OUT 1
+#define FLAG_OUTPUT_LIMIT 2
+#define KILL_ROUNDS 1000
+
+/* The user programs run as when the runner is setuid root, see the judge user of Dockerfile.compiler */
+#ifndef JUDGE_UID
+#define JUDGE_UID 2001
+#endif
+#ifndef JUDGE_GID
+#define JUDGE_GID 2001
+#endif
+
+/* Whether the runner can switch users (setuid root), and the user that started it */
+static int privileged;
+static uid_t caller_uid;
+
+/* ---------------------------------------------------------------- io */
+
+static int read_full(int fd, void *buf, size_t len) {
+    char *p = buf;
+    while (len > 0) {
+        ssize_t n = read(fd, p, len);
+        if (n < 0 && errno == EINTR) continue;
+        if (n <= 0) return -1;
+        p += n;
+        len -= (size_t) n;
+    }
+    return 0;
+}
+
+static int write_full(int fd, const void *buf, size_t len) {
+    const char *p = buf;
+    while (len > 0) {
+        ssize_t n = write(fd, p, len);
+        if (n < 0 && errno == EINTR) continue;
+        if (n <= 0) return -1;
+        p += n;
+        len -= (size_t) n;
+    }
+    return 0;
+}
+
+static int read_u16(uint16_t *v) {
+    unsigned char b[2];
+    if (read_full(0, b, 2)) return -1;
+    *v = (uint16_t) (b[0] << 8 | b[1]);
+    return 0;
+}
+
+static int read_u32(uint32_t *v) {
+    unsigned char b[4];
+    if (read_full(0, b, 4)) return -1;
+    *v = (uint32_t) b[0] << 24 | (uint32_t) b[1] << 16 | (uint32_t) b[2] << 8 | b[3];
+    return 0;
+}
+
+static int read_u64(uint64_t *v) {
+    uint32_t hi, lo;
+    if (read_u32(&hi) || read_u32(&lo)) return -1;
+    *v = (uint64_t) hi << 32 | lo;
+    return 0;
+}
+
+static char *read_str(void) {
+    uint16_t len;
+    if (read_u16(&len) || len >= MAX_STRING) return NULL;
+    char *s = malloc(len + 1u);
+    if (!s || read_full(0, s, len)) return NULL;
+    s[len] = 0;
+    return s;
+}
+
+static unsigned char *put_u32(unsigned char *p, uint32_t v) {
+    p[0] = v >> 24; p[1] = v >> 16; p[2] = v >> 8; p[3] = v;
+    return p + 4;
+}
+
+static unsigned char *put_u64(unsigned char *p, uint64_t v) {
+    return put_u32(put_u32(p, (uint32_t) (v >> 32)), (uint32_t) v);
+}
+
+static void frame(char type, const void *payload, uint16_t len) {
+    unsigned char head[3] = {(unsigned char) type, (unsigned char) (len >> 8), (unsigned char) len};
+    write_full(1, head, 3);
+    if (len) write_full(1, payload, len);
+}
+
+static void fail(const char *message) {
+    frame('E', message, (uint16_t) strlen(message));
+    exit(1);
+}
+
+/* ------------------------------------------------------------ sha256 */
+
+typedef struct {
+    uint32_t h[8];
+    uint64_t length;
+    unsigned char block[64];
+    size_t used;
+} sha256_ctx;
+
+static const uint32_t K[64] = {
+    0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
+    0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
+    0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+    0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,
+    0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,
+    0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+    0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,
+    0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2};
+
+#define ROR(x, n) ((x) >> (n) | (x) << (32 - (n)))
+
+static void sha256_block(sha256_ctx *c, const unsigned char *p) {
+    uint32_t w[64], a, b, d, e, f, g, h, cc, t1, t2;
+    for (int i = 0; i < 16; i++)
+        w[i] = (uint32_t) p[4 * i] << 24 | (uint32_t) p[4 * i + 1] << 16 | (uint32_t) p[4 * i + 2] << 8 | p[4 * i + 3];
+    for (int i = 16; i < 64; i++) {
+        uint32_t s0 = ROR(w[i - 15], 7) ^ ROR(w[i - 15], 18) ^ (w[i - 15] >> 3);
+        uint32_t s1 = ROR(w[i - 2], 17) ^ ROR(w[i - 2], 19) ^ (w[i - 2] >> 10);
+        w[i] = w[i - 16] + s0 + w[i - 7] + s1;
+    }
+    a = c->h[0]; b = c->h[1]; cc = c->h[2]; d = c->h[3];
+    e = c->h[4]; f = c->h[5]; g = c->h[6]; h = c->h[7];
+    for (int i = 0; i < 64; i++) {
+        t1 = h + (ROR(e, 6) ^ ROR(e, 11) ^ ROR(e, 25)) + ((e & f) ^ (~e & g)) + K[i] + w[i];
+        t2 = (ROR(a, 2) ^ ROR(a, 13) ^ ROR(a, 22)) + ((a & b) ^ (a & cc) ^ (b & cc));
+        h = g; g = f; f = e; e = d + t1;
+        d = cc; cc = b; b = a; a = t1 + t2;
+    }
+    c->h[0] += a; c->h[1] += b; c->h[2] += cc; c->h[3] += d;
+    c->h[4] += e; c->h[5] += f; c->h[6] += g; c->h[7] += h;
+}
+
+static void sha256_init(sha256_ctx *c) {
+    static const uint32_t init[8] = {0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a,
+                                     0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19};
+    memcpy(c->h, init, sizeof(init));
+    c->length = 0;
+    c->used = 0;
+}
+
+static void sha256_update(sha256_ctx *c, const unsigned char *p, size_t len) {
+    c->length += len;
+    while (len > 0) {
+        size_t take = 64 - c->used < len ? 64 - c->used : len;
+        memcpy(c->block + c->used, p, take);
+        c->used += take;
+        p += take;
+        len -= take;
+        if (c->used == 64) {
+            sha256_block(c, c->block);
+            c->used = 0;
+        }
+    }
+}
+
+static void sha256_final(sha256_ctx *c, unsigned char out[32]) {
+    uint64_t bits = c->length * 8;
+    unsigned char pad = 0x80, zero = 0, len[8];
+    sha256_update(c, &pad, 1);
+    while (c->used != 56) sha256_update(c, &zero, 1);
+    put_u64(len, bits);
+    sha256_update(c, len, 8);
+    for (int i = 0; i < 8; i++) put_u32(out + 4 * i, c->h[i]);
+}
+
+/* ----------------------------------------------------------- sandbox */
+
+/* Calls a solution has no business making; they fail with EPERM instead of killing the program */
+static const int denied_syscalls[] = {
+#ifdef __NR_ptrace
+    __NR_ptrace,
+#endif
+#ifdef __NR_mount
+    __NR_mount,
+#endif
+#ifdef __NR_umount2
+    __NR_umount2,
+#endif
+#ifdef __NR_pivot_root
+    __NR_pivot_root,
+#endif
+#ifdef __NR_chroot
+    __NR_chroot,
+#endif
+#ifdef __NR_setns
+    __NR_setns,
+#endif
+#ifdef __NR_unshare
+    __NR_unshare,
+#endif
+#ifdef __NR_reboot
+    __NR_reboot,
+#endif
+#ifdef __NR_kexec_load
+    __NR_kexec_load,
+#endif
+#ifdef __NR_init_module
+    __NR_init_module,
+#endif
+#ifdef __NR_finit_module
+    __NR_finit_module,
+#endif
+#ifdef __NR_delete_module
+    __NR_delete_module,
+#endif
+#ifdef __NR_swapon
+    __NR_swapon,
+#endif
+#ifdef __NR_swapoff
+    __NR_swapoff,
+#endif
+#ifdef __NR_bpf
+    __NR_bpf,
+#endif
+#ifdef __NR_perf_event_open
+    __NR_perf_event_open,
+#endif
+#ifdef __NR_keyctl
+    __NR_keyctl,
+#endif
+#ifdef __NR_add_key
+    __NR_add_key,
+#endif
+#ifdef __NR_request_key
+    __NR_request_key,
+#endif
+    /* Leaving the session would survive the kill at the end of the test */
+#ifdef __NR_setsid
+    __NR_setsid,
+#endif
+#ifdef __NR_setpgid
+    __NR_setpgid,
+#endif
+};
+
+#if defined(__x86_64__)
+#define SECCOMP_ARCH AUDIT_ARCH_X86_64
+#elif defined(__aarch64__)
+#define SECCOMP_ARCH AUDIT_ARCH_AARCH64
+#endif
+
+static void install_seccomp(void) {
+#ifdef SECCOMP_ARCH
+    enum { N = sizeof(denied_syscalls) / sizeof(denied_syscalls[0]) };
+    struct sock_filter filter[N + 6];
+    int i = 0;
+    filter[i++] = (struct sock_filter) BPF_STMT(BPF_LD | BPF_W | BPF_ABS, offsetof(struct seccomp_data, arch));
+    filter[i++] = (struct sock_filter) BPF_JUMP(BPF_JMP | BPF_JEQ | BPF_K, SECCOMP_ARCH, 1, 0);
+    filter[i++] = (struct sock_filter) BPF_STMT(BPF_RET | BPF_K, SECCOMP_RET_KILL_PROCESS);
+    filter[i++] = (struct sock_filter) BPF_STMT(BPF_LD | BPF_W | BPF_ABS, offsetof(struct seccomp_data, nr));
+    for (int s = 0; s < N; s++) {
+        /* Jump over the remaining comparisons and the allow, onto the EPERM return */
+        filter[i++] = (struct sock_filter) BPF_JUMP(BPF_JMP | BPF_JEQ | BPF_K, (unsigned) denied_syscalls[s],
+                                                    (unsigned char) (N - s), 0);
+    }
+    filter[i++] = (struct sock_filter) BPF_STMT(BPF_RET | BPF_K, SECCOMP_RET_ALLOW);
+    filter[i++] = (struct sock_filter) BPF_STMT(BPF_RET | BPF_K, SECCOMP_RET_ERRNO | (EPERM & SECCOMP_RET_DATA));
+    struct sock_fprog prog = {(unsigned short) i, filter};
+    prctl(PR_SET_NO_NEW_PRIVS, 1, 0, 0, 0);
+    /* Best effort: the container's own seccomp profile still applies if this is refused */
+    prctl(PR_SET_SECCOMP, SECCOMP_MODE_FILTER, &prog);
+#endif
+}
+
+static void set_limit(int resource, rlim_t soft, rlim_t hard) {
+    struct rlimit limit = {soft, hard};
+    setrlimit(resource, &limit);
+}
+
+/* In the forked child: wire the test files, apply the limits and become the program */
+static void exec_test(const char *input, const char *output, char **argv, uint32_t wall_ms,
+                      uint64_t output_limit, int32_t core) {
+    /* The test files belong to the caller, the program only gets the descriptors */
+    int in = open(input, O_RDONLY);
+    int out = open(output, O_WRONLY | O_CREAT | O_TRUNC, 0644);
+    if (in < 0 || out < 0) _exit(126);
+    dup2(in, 0);
+    dup2(out, 1);
+    dup2(out, 2);
+    if (in > 2) close(in);
+    if (out > 2) close(out);
+
+    setsid();
+    if (privileged) {
+        if (seteuid(0) || setgroups(0, NULL) || setresgid(JUDGE_GID, JUDGE_GID, JUDGE_GID)
+            || setresuid(JUDGE_UID, JUDGE_UID, JUDGE_UID)) {
+            dprintf(2, "fcoder-runner: cannot switch to the judge user: %s\n", strerror(errno));
+            _exit(126);
+        }
+        /* The judge user has no home, runtimes that write there get a scratch directory */
+        setenv("HOME", "/tmp", 1);
+    }
+    sigset_t all;
+    sigemptyset(&all);
+    sigprocmask(SIG_SETMASK, &all, NULL);
+
+    if (core >= 0) {
+        cpu_set_t cpus;
+        CPU_ZERO(&cpus);
+        CPU_SET(core, &cpus);
+        sched_setaffinity(0, sizeof(cpus), &cpus);
+    }
+    /* One byte over the output limit so going over it can be seen */
+    set_limit(RLIMIT_FSIZE, output_limit + 1, output_limit + 1);
+    /* CPU time can't usefully exceed the wall-clock ceiling, a backstop for busy multi-threaded programs */
+    rlim_t cpu = wall_ms / 1000 + 2;
+    set_limit(RLIMIT_CPU, cpu, cpu + 1);
+    set_limit(RLIMIT_CORE, 0, 0);
+    struct rlimit stack;
+    if (getrlimit(RLIMIT_STACK, &stack) == 0) {
+        /* Deep recursion is common in solutions, memory itself is capped by the container */
+        set_limit(RLIMIT_STACK, stack.rlim_max, stack.rlim_max);
+    }
+    install_seccomp();
+
+    execvp(argv[0], argv);
+    dprintf(2, "fcoder-runner: cannot execute %s: %s\n", argv[0], strerror(errno));
+    _exit(127);
+}
+
+/* Signals as root when the programs run as the judge user, the runner otherwise runs as its caller */
+static void raise_privileges(int raise) {
+    if (privileged) seteuid(raise ? 0 : caller_uid);
+}
+
+/* Session of a process from /proc/<pid>/stat, -1 when it is gone */
+static pid_t session_of(pid_t pid, char *state) {
+    char path[64], buf[512];
+    snprintf(path, sizeof(path), "/proc/%d/stat", (int) pid);
+    int fd = open(path, O_RDONLY);
+    if (fd < 0) return -1;
+    ssize_t n = read(fd, buf, sizeof(buf) - 1);
+    close(fd);
+    if (n <= 0) return -1;
+    buf[n] = 0;
+    /* The command name may hold anything, the fields start after its closing parenthesis */
+    char *p = strrchr(buf, ')');
+    int ppid, pgrp, session;
+    if (!p || sscanf(p + 1, " %c %d %d %d", state, &ppid, &pgrp, &session) != 4) return -1;
+    return session;
+}
+
+/*
+ * Kill every process of the session of a test, including the ones that left its process group,
+ * and reap the ones handed over to the runner (it is their subreaper)
+ */
+static void kill_session(pid_t session) {
+    raise_privileges(1);
+    for (int round = 0; round < KILL_ROUNDS; round++) {
+        int left = 0;
+        DIR *proc = opendir("/proc");
+        if (!proc) break;
+        struct dirent *entry;
+        while ((entry = readdir(proc)) != NULL) {
+            if (entry->d_name[0] < '1' || entry->d_name[0] > '9') continue;
+            pid_t pid = (pid_t) atoi(entry->d_name);
+            char state;
+            if (pid == getpid() || session_of(pid, &state) != session) continue;
+            if (state != 'Z') kill(pid, SIGKILL);
+            left++;
+        }
+        closedir(proc);
+        while (waitpid(-1, NULL, WNOHANG) > 0) {
+        }
+        if (left == 0) {
+            raise_privileges(0);
+            return;
+        }
+        struct timespec pause = {0, 1000000};
+        nanosleep(&pause, NULL);
+    }
+    raise_privileges(0);
+    fail("processes of the test survived the kill");
+}
+
+static uint64_t now_ms(void) {
+    struct timespec ts;
+    clock_gettime(CLOCK_MONOTONIC, &ts);
+    return (uint64_t) ts.tv_sec * 1000 + (uint64_t) ts.tv_nsec / 1000000;
+}
+
+static int stop_after(const char *dir) {
+    char path[MAX_STRING + 16];
+    snprintf(path, sizeof(path), "%s/.stop", dir);
+    FILE *f = fopen(path, "r");
+    if (!f) return -1;
+    int stop = -1;
+    if (fscanf(f, "%d", &stop) != 1) stop = -1;
+    fclose(f);
+    return stop;
+}
+
+static uint64_t hash_output(const char *output, unsigned char digest[32]) {
+    sha256_ctx ctx;
+    unsigned char buf[65536];
+    uint64_t size = 0;
+    sha256_init(&ctx);
+    int fd = open(output, O_RDONLY);
+    if (fd >= 0) {
+        ssize_t n;
+        while ((n = read(fd, buf, sizeof(buf))) > 0) {
+            sha256_update(&ctx, buf, (size_t) n);
+            size += (uint64_t) n;
+        }
+        close(fd);
+    }
+    sha256_final(&ctx, digest);
+    return size;
+}
+
+static void run_test(uint32_t index, const char *dir, char **argv, uint32_t wall_ms, uint64_t output_limit,
+                     int32_t core, const sigset_t *sigchld) {
+    char input[MAX_STRING + 32], output[MAX_STRING + 32];
+    snprintf(input, sizeof(input), "%s/%u.in", dir, index);
+    snprintf(output, sizeof(output), "%s/%u.out", dir, index);
+
+    uint64_t start = now_ms();
+    pid_t pid = fork();
+    if (pid < 0) fail("fork failed");
+    if (pid == 0) exec_test(input, output, argv, wall_ms, output_limit, core);
+
+    int status = 0, flags = 0;
+    struct rusage usage;
+    memset(&usage, 0, sizeof(usage));
+    for (;;) {
+        pid_t done = wait4(pid, &status, WNOHANG, &usage);
+        if (done == pid) break;
+        uint64_t elapsed = now_ms() - start;
+        if (elapsed >= wall_ms) {
+            raise_privileges(1);
+            kill(pid, SIGKILL);
+            raise_privileges(0);
+            while (wait4(pid, &status, 0, &usage) < 0 && errno == EINTR) {
+            }
+            flags |= FLAG_TIMED_OUT;
+            break;
+        }
+        uint64_t left = wall_ms - elapsed;
+        struct timespec timeout = {(time_t) (left / 1000), (long) (left % 1000) * 1000000};
+        sigtimedwait(sigchld, NULL, &timeout);
+    }
+    uint64_t wall = now_ms() - start;
+    /* Anything the program left behind, before its output is read */
+    kill_session(pid);
+
+    unsigned char digest[32];
+    uint64_t size = hash_output(output, digest);
+    if (size > output_limit) flags |= FLAG_OUTPUT_LIMIT;
+
+    int32_t exit_code = WIFEXITED(status) ? WEXITSTATUS(status) : -1;
+    int32_t signal = WIFSIGNALED(status) ? WTERMSIG(status) : 0;
+    uint64_t cpu = (uint64_t) usage.ru_utime.tv_sec * 1000 + (uint64_t) usage.ru_utime.tv_usec / 1000
+                   + (uint64_t) usage.ru_stime.tv_sec * 1000 + (uint64_t) usage.ru_stime.tv_usec / 1000;
+
+    unsigned char payload[4 + 4 + 4 + 4 + 4 + 8 + 8 + 1 + 32], *p = payload;
+    p = put_u32(p, index);
+    p = put_u32(p, (uint32_t) exit_code);
+    p = put_u32(p, (uint32_t) signal);
+    p = put_u32(p, (uint32_t) cpu);
+    p = put_u32(p, (uint32_t) wall);
+    p = put_u64(p, (uint64_t) usage.ru_maxrss);
+    p = put_u64(p, size);
+    *p++ = (unsigned char) flags;
+    memcpy(p, digest, 32);
+    frame('R', payload, sizeof(payload));
+}
+
+int main(void) {
+    /* Neither traceable nor readable through /proc by the programs it runs */
+    prctl(PR_SET_DUMPABLE, 0, 0, 0, 0);
+    /* Processes orphaned by a test are handed to the runner, which reaps them */
+    prctl(PR_SET_CHILD_SUBREAPER, 1, 0, 0, 0);
+    caller_uid = getuid();
+    privileged = geteuid() == 0;
+    /* Runs as its caller, root is only taken back to switch users and to signal the programs */
+    if (privileged && caller_uid != 0 && seteuid(caller_uid)) fail("cannot drop privileges");
+
+    uint32_t magic, wall_ms, first, count, core_raw;
+    uint64_t output_limit;
+    uint16_t argc;
+    if (read_u32(&magic) || magic != MAGIC) fail("bad request");
+    if (read_u32(&wall_ms) || read_u64(&output_limit) || read_u32(&core_raw)) fail("bad request");
+    char *dir = read_str();
+    if (!dir || read_u16(&argc) || argc == 0 || argc > MAX_ARGS) fail("bad request");
+    char *argv[MAX_ARGS + 1];
+    for (int i = 0; i < argc; i++) {
+        if (!(argv[i] = read_str())) fail("bad request");
+    }
+    argv[argc] = NULL;
+    if (read_u32(&first) || read_u32(&count)) fail("bad request");
+
+    /* SIGCHLD stays blocked in the runner, it is waited for with sigtimedwait */
+    sigset_t sigchld;
+    sigemptyset(&sigchld);
+    sigaddset(&sigchld, SIGCHLD);
+    sigprocmask(SIG_BLOCK, &sigchld, NULL);
+    signal(SIGPIPE, SIG_IGN);
+
+    for (uint32_t i = first; i < first + count; i++) {
+        int stop = stop_after(dir);
+        if (stop >= 0 && i > (uint32_t) stop) break;
+        run_test(i, dir, argv, wall_ms, output_limit, (int32_t) core_raw, &sigchld);
+    }
+    frame('D', NULL, 0);
+    return 0;
+}
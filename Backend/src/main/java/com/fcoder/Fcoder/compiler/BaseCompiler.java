@@ -3,7 +3,11 @@ package com.fcoder.Fcoder.compiler;
 import com.fcoder.Fcoder.model.entity.SubmissionEntity;
 import com.fcoder.Fcoder.model.other.CompilationResult;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Base abstract class for all compilers in the system.
@@ -11,14 +15,89 @@ import java.nio.file.Path;
  */
 public abstract class BaseCompiler {
 
+    // Limits of one-shot sandboxes when no pool is set, the pool has its own configured
+    private static final String DEFAULT_MEMORY = "512m";
+    private static final String DEFAULT_CPUS = "1";
+
     protected final String dockerImage;
     protected final SubmissionEntity.ProgrammingLanguage language;
+    private ContainerPool containerPool;
 
     public BaseCompiler(String dockerImage, SubmissionEntity.ProgrammingLanguage language) {
         this.dockerImage = dockerImage;
         this.language = language;
     }
 
+    public void setContainerPool(ContainerPool containerPool) {
+        this.containerPool = containerPool;
+    }
+
+    /**
+     * Lease a sandbox for this compiler's image, warm from the pool when one is available.
+     * The caller must close it.
+     * 
+     * @param workspace Workspace the commands run in, the only one the sandbox can see
+     * @param memory    Memory limit of the commands, a test run's {@link RunLimits#getMemory()}; null for
+     *                  the default limit of compile steps
+     * @return Sandbox to run compile or execution commands in
+     */
+    public Sandbox openSandbox(Path workspace, String memory) {
+        if (containerPool == null) {
+            return new EphemeralSandbox(dockerImage, memory == null ? DEFAULT_MEMORY : memory, DEFAULT_CPUS);
+        }
+        Sandbox sandbox = containerPool.acquire(dockerImage, workspace);
+        // A pooled container may still carry the memory limit of the last problem it ran
+        sandbox.limitMemory(memory);
+        return sandbox;
+    }
+
+    /**
+     * Run a command inside a sandbox and collect its merged stdout/stderr.
+     * Used for compile steps and for running special judge programs.
+     * 
+     * @param workspace      The workspace directory
+     * @param command        Command to run inside the container
+     * @param timeoutSeconds Time allowed before the command is killed
+     * @return CommandResult with exit code, output and timeout flag
+     */
+    public CommandResult runInSandbox(Path workspace, String[] command, int timeoutSeconds)
+            throws IOException, InterruptedException {
+        try (Sandbox sandbox = openSandbox(workspace, null)) {
+            ProcessBuilder pb = new ProcessBuilder(sandbox.command(workspace, false, command));
+            pb.directory(workspace.toFile());
+            pb.redirectErrorStream(true);
+            Process process = pb.start();
+
+            // Read on a separate thread so a hanging command cannot block past the timeout
+            StringBuilder output = new StringBuilder();
+            Thread reader = new Thread(() -> {
+                try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        synchronized (output) {
+                            output.append(line).append("\n");
+                        }
+                    }
+                } catch (IOException ignored) {
+                    // Stream closed when the process is killed
+                }
+            }, "compile-output-reader");
+            reader.setDaemon(true);
+            reader.start();
+
+            boolean finished = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
+            if (!finished) {
+                process.destroyForcibly();
+                sandbox.discard();
+                return new CommandResult(-1, "", true);
+            }
+            reader.join(TimeUnit.SECONDS.toMillis(1));
+            synchronized (output) {
+                return new CommandResult(process.exitValue(), output.toString(), false);
+            }
+        }
+    }
+
     /**
      * Compile source code using Docker container
      * 
@@ -51,59 +130,29 @@ public abstract class BaseCompiler {
     public abstract String getExecutableFileName();
 
     /**
-     * Get the compile command to run inside Docker container
+     * Get the compile command to run inside the Docker container,
+     * relative to the workspace (e.g. "javac", "Main.java")
      * 
      * @return Compile command array
      */
     protected abstract String[] getCompileCommand();
 
     /**
-     * Get the execution command to run the compiled program
+     * Get the execution command to run the compiled program inside the Docker container.
+     * Wrap it with {@link Sandbox#command} to get the host command.
      * 
      * @return Execution command array
      */
     public abstract String[] getExecutionCommand();
 
     /**
-     * Check if the compiler is available (Docker image exists)
+     * Runner of batch sessions for this language, speaking {@link RunnerProtocol} inside the sandbox.
+     * The execution command is still sent in the request.
      * 
-     * @return true if compiler is available
+     * @return Runner path in the image, null to use the image's native runner
      */
-    public boolean isAvailable() {
-        try {
-            // Simple approach: try to run docker images command with grep
-            ProcessBuilder pb = new ProcessBuilder("docker", "images", "--format", "{{.Repository}}:{{.Tag}}", "--filter", "reference=" + dockerImage);
-            pb.redirectErrorStream(true);
-            Process process = pb.start();
-            
-            // Read output
-            StringBuilder output = new StringBuilder();
-            try (java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    output.append(line).append("\n");
-                }
-            }
-            
-            // Wait for max 5 seconds
-            boolean finished = process.waitFor(5, java.util.concurrent.TimeUnit.SECONDS);
-            if (!finished) {
-                process.destroyForcibly();
-                return false;
-            }
-            
-            boolean available = process.exitValue() == 0 && output.toString().trim().contains(dockerImage);
-            System.out.println("Docker image " + dockerImage + " availability check: " + available);
-            if (!available) {
-                System.err.println("Docker images output: " + output.toString());
-            }
-            return available;
-        } catch (Exception e) {
-            System.err.println("Error checking Docker image availability for " + dockerImage + ": " + e.getMessage());
-            e.printStackTrace();
-            // Fallback: assume available if we can't check
-            return true;
-        }
+    public String getBatchRunner() {
+        return null;
     }
 
     /**
@@ -122,4 +171,39 @@ public abstract class BaseCompiler {
     public String getDockerImage() {
         return dockerImage;
     }
+
+    /**
+     * Outcome of a command run through {@link #runInSandbox}
+     */
+    public static class CommandResult {
+        private final int exitCode;
+        private final String output;
+        private final boolean timedOut;
+
+        public CommandResult(int exitCode, String output, boolean timedOut) {
+            this.exitCode = exitCode;
+            this.output = output;
+            this.timedOut = timedOut;
+        }
+
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        public String getOutput() {
+            return output;
+        }
+
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        /**
+         * Exit codes of docker itself rather than of the command: 125 the container could not be
+         * run, 126 the command could not be invoked, 127 the command does not exist in the image
+         */
+        public boolean isSandboxFailure() {
+            return !timedOut && exitCode >= 125 && exitCode <= 127;
+        }
+    }
 }
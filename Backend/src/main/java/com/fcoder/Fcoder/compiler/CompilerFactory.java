@@ -1,11 +1,18 @@
 package com.fcoder.Fcoder.compiler;
 
 import com.fcoder.Fcoder.compiler.impl.*;
+import com.fcoder.Fcoder.config.JudgeConfig;
 import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import java.util.EnumMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Factory class for managing different compilers that run in Docker containers.
@@ -14,20 +21,46 @@ import java.util.Map;
 @Component
 public class CompilerFactory {
 
+    private static final Logger log = LoggerFactory.getLogger(CompilerFactory.class);
+
     private final Map<SubmissionEntity.ProgrammingLanguage, BaseCompiler> compilers;
+    private final ContainerPool containerPool;
+    private final boolean simulated;
 
-    public CompilerFactory() {
+    public CompilerFactory(ContainerPool containerPool, JudgeConfig judgeConfig) {
+        this.containerPool = containerPool;
+        this.simulated = judgeConfig.getSimulation().isEnabled();
         compilers = new EnumMap<>(SubmissionEntity.ProgrammingLanguage.class);
-        initializeCompilers();
+        initializeCompilers(judgeConfig);
+        compilers.values().forEach(compiler -> compiler.setContainerPool(containerPool));
+        if (simulated) {
+            log.warn("Judge simulation enabled: submissions are not compiled or run, only timed");
+            compilers.replaceAll((language, compiler) -> new SimulatedCompiler(compiler, judgeConfig.getSimulation()));
+        }
+    }
+
+    /**
+     * Clear leftover sandbox containers and set up the pool of every compiler image once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpSandboxes() {
+        if (simulated) {
+            return;
+        }
+        Set<String> dockerImages = new LinkedHashSet<>();
+        for (BaseCompiler compiler : compilers.values()) {
+            dockerImages.add(compiler.getDockerImage());
+        }
+        containerPool.warmUp(dockerImages);
     }
 
     /**
      * Initialize all available compilers
      */
-    private void initializeCompilers() {
+    private void initializeCompilers(JudgeConfig judgeConfig) {
         // Java compiler using OpenJDK Docker image
         compilers.put(SubmissionEntity.ProgrammingLanguage.JAVA,
-                new JavaCompiler());
+                new JavaCompiler(judgeConfig.getJava()));
 
         // C++ compiler using GCC Docker image
         compilers.put(SubmissionEntity.ProgrammingLanguage.CPP,
@@ -61,17 +94,6 @@ public class CompilerFactory {
         return compiler;
     }
 
-    /**
-     * Check if compiler is available for the specified language
-     * 
-     * @param language Programming language
-     * @return true if compiler is available and Docker image exists
-     */
-    public boolean isCompilerAvailable(SubmissionEntity.ProgrammingLanguage language) {
-        BaseCompiler compiler = compilers.get(language);
-        return compiler != null && compiler.isAvailable();
-    }
-
     /**
      * Get information about all compilers
      * 
@@ -96,17 +118,10 @@ public class CompilerFactory {
     }
 
     /**
-     * Check system requirements for all compilers
-     * 
-     * @return Map of language to availability status
+     * @return true when the compilers are the docker-free stand-ins of judge.simulation
      */
-    public Map<SubmissionEntity.ProgrammingLanguage, Boolean> checkSystemRequirements() {
-        Map<SubmissionEntity.ProgrammingLanguage, Boolean> status = new EnumMap<>(
-                SubmissionEntity.ProgrammingLanguage.class);
-        for (Map.Entry<SubmissionEntity.ProgrammingLanguage, BaseCompiler> entry : compilers.entrySet()) {
-            status.put(entry.getKey(), entry.getValue().isAvailable());
-        }
-        return status;
+    public boolean isSimulated() {
+        return simulated;
     }
 
     /**
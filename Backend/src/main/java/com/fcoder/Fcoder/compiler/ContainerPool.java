@@ -0,0 +1,541 @@
+package com.fcoder.Fcoder.compiler;
+
+import com.fcoder.Fcoder.config.JudgeConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps started, network-less compiler containers for the workspaces being judged.
+ * A container mounts only the workspace it was started for, so a program never sees the files of another
+ * submission, and the compile and run steps of that workspace go through "docker exec" into one of its
+ * idle containers instead of paying a "docker run --rm" start-up each time. A few containers per image are
+ * started ahead on empty workspaces of their own, in the background, and handed out with their workspace
+ * by {@link #createWorkspace}, so the first step of a submission finds one running too. When a lease ends
+ * every process left in the container is killed off the caller's thread before it goes back to idle; it is
+ * removed instead when that fails, after a number of uses, as soon as a command in it times out, and when
+ * its workspace is deleted.
+ */
+@Component
+public class ContainerPool {
+
+    private static final Logger log = LoggerFactory.getLogger(ContainerPool.class);
+
+    static final String SANDBOX_LABEL = "fcoder.sandbox=true";
+    private static final String MOUNT_POINT = "/sandbox";
+    private static final long START_RETRY_DELAY_MS = 30000;
+    private static final int DOCKER_TIMEOUT = 30; // seconds
+    // How long a step waits for a container of its workspace that is still being cleaned before starting one
+    private static final long CLEAN_WAIT_MS = 5000;
+    // Run as root when a lease ends: kills everything the step left behind, detached or not, and fails
+    // when anything but the container's init and this shell is still there (zombies of killed orphans too)
+    private static final String CLEAN_SCRIPT = "kill -KILL -1 2>/dev/null; sleep 0.1; "
+            + "for p in /proc/[0-9]*; do n=${p#/proc/}; [ \"$n\" = 1 ] || [ \"$n\" = $$ ] || exit 1; done";
+
+    private final JudgeConfig.Sandbox config;
+    private final Map<String, ImagePool> pools = new ConcurrentHashMap<>();
+    private final ExecutorService lifecycleExecutor;
+    private final ExecutorService refillExecutor;
+    private final WorkspaceManager workspaceManager;
+    private final MeterRegistry meterRegistry;
+    private final JudgeMetrics judgeMetrics;
+    private final Timer waitTimer;
+
+    public ContainerPool(JudgeConfig judgeConfig, WorkspaceManager workspaceManager, JudgeMetrics judgeMetrics,
+                         MeterRegistry meterRegistry) {
+        this.config = judgeConfig.getSandbox();
+        this.meterRegistry = meterRegistry;
+        this.judgeMetrics = judgeMetrics;
+        this.workspaceManager = workspaceManager;
+        this.lifecycleExecutor = Executors.newFixedThreadPool(4, new CustomizableThreadFactory("sandbox-pool-"));
+        this.refillExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("sandbox-refill-"));
+        this.waitTimer = Timer.builder("judge.sandbox.pool.wait")
+                .description("Time spent getting a sandbox, starting its container included")
+                .register(meterRegistry);
+        workspaceManager.addReleaseListener(this::evict);
+    }
+
+    /**
+     * Create a workspace for a submission run with the image: one a container was started on ahead when
+     * there is one, an empty new one otherwise. Holds one reference for the caller like
+     * {@link WorkspaceManager#create}.
+     */
+    public Path createWorkspace(String dockerImage) throws IOException {
+        // Only images set up by warmUp get spares, not the stand-in images of a simulated judge
+        ImagePool pool = isEnabled() ? pools.get(dockerImage) : null;
+        if (pool == null) {
+            return workspaceManager.create();
+        }
+        PooledContainer spare = pool.claimSpare();
+        pool.requestRefill();
+        return spare != null ? spare.workspace : workspaceManager.create();
+    }
+
+    /**
+     * Lease a sandbox for the image bound to the workspace: an idle container of that workspace (a pool
+     * hit), one of it that is being cleaned once that is done, or a newly started one. Falls back to a one-shot "docker run" sandbox when pooling is disabled
+     * or no container can be started.
+     *
+     * @param workspace The only workspace the sandbox can run commands in
+     */
+    public Sandbox acquire(String dockerImage, Path workspace) {
+        if (!isEnabled()) {
+            return ephemeral(dockerImage);
+        }
+
+        ImagePool pool = pools.computeIfAbsent(dockerImage, ImagePool::new);
+        Path bound = workspace.toAbsolutePath().normalize();
+        long start = System.nanoTime();
+        PooledContainer container = pool.takeIdle(bound);
+        if (container != null) {
+            pool.hits.increment();
+        } else {
+            pool.misses.increment();
+            container = pool.start(bound);
+        }
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (container == null) {
+            return ephemeral(dockerImage);
+        }
+        pool.leased.incrementAndGet();
+        return new PooledSandbox(pool, container);
+    }
+
+    /**
+     * Remove containers left over by an earlier run, set up the pool of each image and start its spare
+     * containers in the background
+     */
+    public void warmUp(Collection<String> dockerImages) {
+        if (!isEnabled()) {
+            return;
+        }
+        removeOrphanContainers();
+        for (String dockerImage : dockerImages) {
+            pools.computeIfAbsent(dockerImage, ImagePool::new).requestRefill();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refillExecutor.shutdownNow();
+        lifecycleExecutor.shutdownNow();
+        for (ImagePool pool : pools.values()) {
+            for (PooledContainer container : pool.all) {
+                removeContainer(container.id);
+            }
+        }
+    }
+
+    private Sandbox ephemeral(String dockerImage) {
+        return new EphemeralSandbox(dockerImage, config.getMemory(), config.getCpus());
+    }
+
+    private boolean isEnabled() {
+        return config.isPoolEnabled() && config.getPoolSize() > 0;
+    }
+
+    // The workspace is about to be deleted, its idle containers go with it
+    private void evict(Path workspace) {
+        Path bound = workspace.toAbsolutePath().normalize();
+        pools.values().forEach(pool -> pool.evict(bound));
+    }
+
+    private void release(ImagePool pool, PooledContainer container, boolean dirty) {
+        pool.leased.decrementAndGet();
+        container.uses++;
+        if (dirty || container.uses >= config.getMaxUses() || !Files.isDirectory(container.workspace)) {
+            log.debug("Recycling sandbox {} after {} uses (dirty: {})", container.id, container.uses, dirty);
+            pool.retire(container);
+            return;
+        }
+        // The caller goes on right away, a next step of the workspace waits for the cleaning if it needs to
+        pool.startCleaning(container);
+        try {
+            lifecycleExecutor.execute(() -> pool.finishCleaning(container, killLeftovers(container)));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            pool.finishCleaning(container, false);
+        }
+    }
+
+    /**
+     * @return true when nothing but the container's init is left running in it
+     */
+    private boolean killLeftovers(PooledContainer container) {
+        try {
+            runDocker("docker", "exec", "-u", "0", container.id, "sh", "-c", CLEAN_SCRIPT);
+            return true;
+        } catch (IOException e) {
+            log.debug("Processes left in sandbox {}: {}", container.id, e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private String startContainer(String dockerImage, Path workspace) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        List<String> output = runDocker(
+                "docker", "run", "-d", "--rm",
+                "--label", SANDBOX_LABEL,
+                "--network=none",
+                "--memory=" + config.getMemory(),
+                "--memory-swap=" + config.getMemory(),
+                "--cpus=" + config.getCpus(),
+                "--pids-limit=" + config.getPidsLimit(),
+                "-v", workspace.toString().replace("\\", "/") + ":" + MOUNT_POINT,
+                "-w", MOUNT_POINT,
+                dockerImage,
+                "sleep", "infinity");
+        if (output.isEmpty() || output.get(output.size() - 1).isBlank()) {
+            throw new IOException("docker run returned no container id");
+        }
+        judgeMetrics.record(JudgeMetrics.Stage.CONTAINER_START, start);
+        return output.get(output.size() - 1).trim();
+    }
+
+    private void removeOrphanContainers() {
+        try {
+            List<String> ids = runDocker("docker", "ps", "-aq", "--filter", "label=" + SANDBOX_LABEL);
+            Set<String> known = ConcurrentHashMap.newKeySet();
+            pools.values().forEach(pool -> pool.all.forEach(container -> known.add(container.id)));
+            for (String id : ids) {
+                if (!id.isBlank() && known.stream().noneMatch(k -> k.startsWith(id.trim()))) {
+                    removeContainer(id.trim());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not list leftover sandbox containers: {}", e.getMessage());
+        }
+    }
+
+    private void removeContainer(String containerId) {
+        try {
+            runDocker("docker", "rm", "-f", containerId);
+        } catch (Exception e) {
+            log.warn("Failed to remove sandbox container {}: {}", containerId, e.getMessage());
+        }
+    }
+
+    private List<String> runDocker(String... command) throws IOException, InterruptedException {
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectErrorStream(true);
+        Process process = pb.start();
+
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        if (!process.waitFor(DOCKER_TIMEOUT, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IOException("Timed out running " + String.join(" ", command));
+        }
+        if (process.exitValue() != 0) {
+            throw new IOException(String.join("\n", lines));
+        }
+        return lines;
+    }
+
+    private static class PooledContainer {
+        private final String id;
+        // The only workspace mounted into the container
+        private final Path workspace;
+        private int uses;
+        // Its workspace was deleted while it was being cleaned
+        private boolean evicted;
+        // Memory limit currently applied to the container
+        private String memory;
+
+        private PooledContainer(String id, Path workspace, String memory) {
+            this.id = id;
+            this.workspace = workspace;
+            this.memory = memory;
+        }
+    }
+
+    private class ImagePool {
+        private final String dockerImage;
+        // Idle containers of all workspaces, least recently used first
+        private final Deque<PooledContainer> idle = new ArrayDeque<>();
+        // Released containers whose leftover processes are being killed
+        private final Set<PooledContainer> cleaning = new HashSet<>();
+        // Containers started ahead, each on an empty workspace of its own held by the pool
+        private final Deque<PooledContainer> spares = new ArrayDeque<>();
+        private boolean refilling;
+        private final Set<PooledContainer> all = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger leased = new AtomicInteger();
+        private final Counter hits;
+        private final Counter misses;
+        private volatile long startBlockedUntil;
+
+        private ImagePool(String dockerImage) {
+            this.dockerImage = dockerImage;
+            this.hits = Counter.builder("judge.sandbox.pool.hits")
+                    .tag("image", dockerImage)
+                    .register(meterRegistry);
+            this.misses = Counter.builder("judge.sandbox.pool.misses")
+                    .tag("image", dockerImage)
+                    .register(meterRegistry);
+            Gauge.builder("judge.sandbox.pool.idle", this, ImagePool::idleCount)
+                    .tag("image", dockerImage)
+                    .register(meterRegistry);
+            Gauge.builder("judge.sandbox.pool.leased", leased, AtomicInteger::get)
+                    .tag("image", dockerImage)
+                    .register(meterRegistry);
+        }
+
+        private synchronized int idleCount() {
+            return idle.size();
+        }
+
+        /**
+         * An idle container of the workspace, waiting a little for one of it still being cleaned
+         */
+        private synchronized PooledContainer takeIdle(Path workspace) {
+            long deadline = System.currentTimeMillis() + CLEAN_WAIT_MS;
+            while (true) {
+                Iterator<PooledContainer> containers = idle.descendingIterator();
+                while (containers.hasNext()) {
+                    PooledContainer container = containers.next();
+                    if (container.workspace.equals(workspace)) {
+                        containers.remove();
+                        return container;
+                    }
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || cleaning.stream().noneMatch(c -> c.workspace.equals(workspace))) {
+                    return null;
+                }
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+        }
+
+        private synchronized void startCleaning(PooledContainer container) {
+            cleaning.add(container);
+        }
+
+        /**
+         * Keep a cleaned container for the next step of its workspace, evicting the least recently used idle
+         * containers past the pool size
+         */
+        private void finishCleaning(PooledContainer container, boolean clean) {
+            List<PooledContainer> evicted = new ArrayList<>();
+            synchronized (this) {
+                cleaning.remove(container);
+                if (clean && !container.evicted) {
+                    addIdle(container, evicted);
+                } else {
+                    evicted.add(container);
+                }
+                notifyAll();
+            }
+            evicted.forEach(this::retire);
+        }
+
+        // Caller holds the lock
+        private void addIdle(PooledContainer container, List<PooledContainer> evicted) {
+            idle.addLast(container);
+            while (idle.size() > config.getPoolSize()) {
+                evicted.add(idle.pollFirst());
+            }
+        }
+
+        private void evict(Path workspace) {
+            List<PooledContainer> evicted = new ArrayList<>();
+            synchronized (this) {
+                idle.removeIf(container -> container.workspace.equals(workspace) && evicted.add(container));
+                cleaning.stream()
+                        .filter(container -> container.workspace.equals(workspace))
+                        .forEach(container -> container.evicted = true);
+            }
+            evicted.forEach(this::retire);
+        }
+
+        /**
+         * Take a container started ahead; it becomes an idle container of its workspace, which goes to the caller
+         */
+        private PooledContainer claimSpare() {
+            List<PooledContainer> evicted = new ArrayList<>();
+            PooledContainer spare;
+            synchronized (this) {
+                spare = spares.pollFirst();
+                if (spare != null) {
+                    addIdle(spare, evicted);
+                }
+            }
+            evicted.forEach(this::retire);
+            return spare;
+        }
+
+        private void requestRefill() {
+            synchronized (this) {
+                if (refilling || spares.size() >= config.getSpares()) {
+                    return;
+                }
+                refilling = true;
+            }
+            try {
+                refillExecutor.execute(this::refill);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    refilling = false;
+                }
+            }
+        }
+
+        // Start containers on fresh workspaces until there are enough spares, off any judging thread
+        private void refill() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    synchronized (this) {
+                        if (spares.size() >= config.getSpares()) {
+                            return;
+                        }
+                    }
+                    Path workspace = workspaceManager.create();
+                    PooledContainer container = start(workspace.toAbsolutePath().normalize());
+                    if (container == null) {
+                        workspaceManager.release(workspace);
+                        return;
+                    }
+                    synchronized (this) {
+                        spares.addLast(container);
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Could not create a workspace for a spare {} sandbox: {}", dockerImage, e.getMessage());
+            } finally {
+                synchronized (this) {
+                    refilling = false;
+                }
+            }
+        }
+
+        private void retire(PooledContainer container) {
+            all.remove(container);
+            lifecycleExecutor.execute(() -> removeContainer(container.id));
+        }
+
+        /**
+         * @return The started container, null when docker failed to start one
+         */
+        private PooledContainer start(Path workspace) {
+            if (System.currentTimeMillis() < startBlockedUntil) {
+                return null;
+            }
+            try {
+                PooledContainer container = new PooledContainer(startContainer(dockerImage, workspace), workspace,
+                        config.getMemory());
+                all.add(container);
+                log.debug("Started sandbox container {} for {} in {}", container.id, dockerImage, workspace);
+                return container;
+            } catch (IOException e) {
+                // Docker missing or image not built yet, don't retry on every submission
+                startBlockedUntil = System.currentTimeMillis() + START_RETRY_DELAY_MS;
+                log.warn("Failed to start sandbox container for {}: {}", dockerImage, e.getMessage());
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    private class PooledSandbox implements Sandbox {
+        private final ImagePool pool;
+        private final PooledContainer container;
+        private boolean dirty;
+        private boolean closed;
+
+        private PooledSandbox(ImagePool pool, PooledContainer container) {
+            this.pool = pool;
+            this.container = container;
+        }
+
+        @Override
+        public String[] command(Path workspace, boolean interactive, String... command) {
+            if (!container.workspace.equals(workspace.toAbsolutePath().normalize())) {
+                throw new IllegalArgumentException("Sandbox of " + container.workspace + " cannot run in " + workspace);
+            }
+            List<String> args = new ArrayList<>(List.of("docker", "exec"));
+            if (interactive) {
+                args.add("-i");
+            }
+            args.addAll(List.of("-w", MOUNT_POINT, container.id));
+            args.addAll(List.of(command));
+            return args.toArray(new String[0]);
+        }
+
+        @Override
+        public void limitMemory(String memory) {
+            String target = memory == null ? config.getMemory() : memory;
+            if (target.equals(container.memory)) {
+                return;
+            }
+            try {
+                runDocker("docker", "update", "--memory=" + target, "--memory-swap=" + target, container.id);
+                container.memory = target;
+            } catch (IOException e) {
+                log.warn("Failed to set memory limit {} on sandbox {}: {}", target, container.id, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void discard() {
+            // A killed "docker exec" client leaves the process running in the container
+            dirty = true;
+        }
+
+        @Override
+        public boolean isPooled() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(pool, container, dirty);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.fcoder.Fcoder.compiler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fallback sandbox: one "docker run --rm" per command, used when the pool is disabled or exhausted.
+ */
+public class EphemeralSandbox implements Sandbox {
+
+    private static final Logger log = LoggerFactory.getLogger(EphemeralSandbox.class);
+
+    private final String dockerImage;
+    private final String defaultMemory;
+    private final String cpus;
+    private String memory;
+    private final List<String> containerNames = new ArrayList<>();
+    private boolean discarded;
+
+    public EphemeralSandbox(String dockerImage, String memory, String cpus) {
+        this.dockerImage = dockerImage;
+        this.defaultMemory = memory;
+        this.memory = memory;
+        this.cpus = cpus;
+    }
+
+    @Override
+    public String[] command(Path workspace, boolean interactive, String... command) {
+        // Named so a timed out run can be killed, stopping the docker client does not stop the container
+        String containerName = "fcoder-run-" + UUID.randomUUID();
+        containerNames.add(containerName);
+
+        List<String> args = new ArrayList<>(List.of(
+                "docker", "run", "--rm",
+                "--name", containerName,
+                "-v", workspace.toString().replace("\\", "/") + ":/workspace",
+                "-w", "/workspace",
+                "--memory=" + memory,
+                "--memory-swap=" + memory,
+                "--cpus=" + cpus,
+                "--network=none"));
+        if (interactive) {
+            args.add("-i");
+        }
+        args.add(dockerImage);
+        args.addAll(List.of(command));
+        return args.toArray(new String[0]);
+    }
+
+    @Override
+    public void limitMemory(String memory) {
+        this.memory = memory == null ? defaultMemory : memory;
+    }
+
+    @Override
+    public void discard() {
+        discarded = true;
+    }
+
+    @Override
+    public boolean isPooled() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+        if (!discarded) {
+            return;
+        }
+        for (String containerName : containerNames) {
+            try {
+                Process process = new ProcessBuilder("docker", "rm", "-f", containerName)
+                        .redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                        .start();
+                process.waitFor(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                log.warn("Failed to remove container {}: {}", containerName, e.getMessage());
+            }
+        }
+    }
+}
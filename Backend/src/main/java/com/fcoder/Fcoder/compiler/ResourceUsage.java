@@ -0,0 +1,99 @@
+package com.fcoder.Fcoder.compiler;
+
+/**
+ * Resources used by one program run, as reported by GNU time inside the sandbox.
+ * Runs are wrapped with {@link #measured} which sends the report over stderr, never through a file or
+ * descriptor the program could write to.
+ */
+public class ResourceUsage {
+
+    // Peak resident set size in KB, user and system CPU seconds, elapsed wall-clock seconds
+    private static final String TIME_FORMAT = "%M %U %S %e";
+    // GNU time reports on its stderr; the program gets stdout as its stderr too, so only time writes
+    // there. Falls back to an unmeasured run when the image has no GNU time.
+    private static final String MEASURE_SCRIPT =
+            "if [ -x /usr/bin/time ]; then exec /usr/bin/time -f '" + TIME_FORMAT + "' "
+                    + "sh -c 'exec \"$@\" 2>&1' \"$0\" \"$@\"; "
+                    + "else exec \"$@\" 2>&1; fi";
+
+    /**
+     * Usage of a run nothing could be measured for
+     */
+    public static final ResourceUsage NONE = new ResourceUsage(false, 0, 0, 0);
+
+    private final boolean measured;
+    private final long peakMemoryKb;
+    private final long cpuTimeMs;
+    private final long wallTimeMs;
+
+    public ResourceUsage(boolean measured, long peakMemoryKb, long cpuTimeMs, long wallTimeMs) {
+        this.measured = measured;
+        this.peakMemoryKb = peakMemoryKb;
+        this.cpuTimeMs = cpuTimeMs;
+        this.wallTimeMs = wallTimeMs;
+    }
+
+    /**
+     * Wrap an in-sandbox command so the program's stdout and stderr both go to stdout and its resource
+     * usage is reported on stderr, to be read with {@link #parse}
+     */
+    public static String[] measured(String... command) {
+        String[] wrapped = new String[command.length + 4];
+        wrapped[0] = "sh";
+        wrapped[1] = "-c";
+        wrapped[2] = MEASURE_SCRIPT;
+        wrapped[3] = "measure";
+        System.arraycopy(command, 0, wrapped, 4, command.length);
+        return wrapped;
+    }
+
+    /**
+     * Parse a usage report, the last line of it holding the numbers. Missing or malformed reports
+     * count as nothing measured.
+     */
+    public static ResourceUsage parse(String report) {
+        if (report == null) {
+            return NONE;
+        }
+        try {
+            // GNU time puts "Command terminated by signal ..." / "Command exited with ..." first
+            String[] lines = report.split("\n");
+            for (int i = lines.length - 1; i >= 0; i--) {
+                String line = lines[i].trim();
+                if (!line.isEmpty() && Character.isDigit(line.charAt(0))) {
+                    String[] fields = line.split("\\s+");
+                    return new ResourceUsage(true,
+                            Long.parseLong(fields[0]),
+                            toMillis(fields[1]) + toMillis(fields[2]),
+                            toMillis(fields[3]));
+                }
+            }
+        } catch (RuntimeException e) {
+            // Treated as not measured
+        }
+        return NONE;
+    }
+
+    private static long toMillis(String seconds) {
+        return Math.round(Double.parseDouble(seconds) * 1000);
+    }
+
+    public boolean isMeasured() {
+        return measured;
+    }
+
+    public long getPeakMemoryKb() {
+        return peakMemoryKb;
+    }
+
+    /**
+     * User plus system CPU time of the program in milliseconds
+     */
+    public long getCpuTimeMs() {
+        return cpuTimeMs;
+    }
+
+    public long getWallTimeMs() {
+        return wallTimeMs;
+    }
+}
@@ -0,0 +1,34 @@
+package com.fcoder.Fcoder.compiler;
+
+/**
+ * Limits the sandbox enforces on each test run of a submission
+ */
+public class RunLimits {
+
+    private final int wallTimeLimit;
+    private final String memory;
+    private final long outputLimit;
+
+    /**
+     * @param wallTimeLimit Wall-clock ceiling per run in milliseconds
+     * @param memory        Sandbox memory limit (docker notation)
+     * @param outputLimit   Maximum output size in bytes
+     */
+    public RunLimits(int wallTimeLimit, String memory, long outputLimit) {
+        this.wallTimeLimit = wallTimeLimit;
+        this.memory = memory;
+        this.outputLimit = outputLimit;
+    }
+
+    public int getWallTimeLimit() {
+        return wallTimeLimit;
+    }
+
+    public String getMemory() {
+        return memory;
+    }
+
+    public long getOutputLimit() {
+        return outputLimit;
+    }
+}
@@ -0,0 +1,195 @@
+package com.fcoder.Fcoder.compiler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+/**
+ * Wire format of the native test runner baked into the compiler image (runner/fcoder-runner.c).
+ * The judge writes one request per batch session on the runner's stdin and reads one fixed-size
+ * result frame per finished test from its stdout. Big-endian, strings are a u16 length and UTF-8.
+ */
+public final class RunnerProtocol {
+
+    private static final int MAGIC = 0x46435231; // "FCR1"
+    private static final int RESULT = 'R';
+    private static final int ERROR = 'E';
+    private static final int DONE = 'D';
+    private static final int FLAG_TIMED_OUT = 1;
+    private static final int FLAG_OUTPUT_LIMIT = 2;
+    private static final int HASH_BYTES = 32;
+
+    private RunnerProtocol() {
+    }
+
+    /**
+     * Write the request of a session: run tests [first, first + count) of the tests directory
+     *
+     * @param core Core to pin the runs to, null to run unpinned
+     */
+    public static void writeRequest(OutputStream output, RunLimits limits, Integer core, String testsDir,
+            String[] command, int first, int count) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(MAGIC);
+        out.writeInt(limits.getWallTimeLimit());
+        out.writeLong(limits.getOutputLimit());
+        out.writeInt(core == null ? -1 : core);
+        writeString(out, testsDir);
+        out.writeShort(command.length);
+        for (String argument : command) {
+            writeString(out, argument);
+        }
+        out.writeInt(first);
+        out.writeInt(count);
+        // One write, the runner reads the request before starting anything
+        buffer.writeTo(output);
+        output.flush();
+    }
+
+    /**
+     * Next test result of the session
+     *
+     * @return null once the runner reported every test it ran
+     * @throws RunnerException when the runner gave up on the session
+     * @throws EOFException    when the runner went away without finishing the session
+     */
+    public static Result readResult(DataInputStream in) throws IOException {
+        int type = in.read();
+        if (type == -1) {
+            throw new EOFException("Runner closed the session without finishing it");
+        }
+        byte[] payload = new byte[in.readUnsignedShort()];
+        in.readFully(payload);
+        switch (type) {
+            case RESULT:
+                return Result.parse(payload);
+            case DONE:
+                return null;
+            case ERROR:
+                throw new RunnerException(new String(payload, StandardCharsets.UTF_8));
+            default:
+                throw new IOException("Unknown runner frame type " + type);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * The runner refused or aborted the session, e.g. a malformed request
+     */
+    public static class RunnerException extends IOException {
+        public RunnerException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * One finished test as measured by the runner
+     */
+    public static class Result {
+        private final int index;
+        private final int exitCode;
+        private final int signal;
+        private final long cpuTimeMs;
+        private final long wallTimeMs;
+        private final long peakMemoryKb;
+        private final long outputSize;
+        private final boolean timedOut;
+        private final boolean outputLimitExceeded;
+        private final String outputHash;
+
+        private Result(int index, int exitCode, int signal, long cpuTimeMs, long wallTimeMs, long peakMemoryKb,
+                long outputSize, boolean timedOut, boolean outputLimitExceeded, String outputHash) {
+            this.index = index;
+            this.exitCode = exitCode;
+            this.signal = signal;
+            this.cpuTimeMs = cpuTimeMs;
+            this.wallTimeMs = wallTimeMs;
+            this.peakMemoryKb = peakMemoryKb;
+            this.outputSize = outputSize;
+            this.timedOut = timedOut;
+            this.outputLimitExceeded = outputLimitExceeded;
+            this.outputHash = outputHash;
+        }
+
+        private static Result parse(byte[] payload) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            int index = in.readInt();
+            int exitCode = in.readInt();
+            int signal = in.readInt();
+            long cpuTimeMs = Integer.toUnsignedLong(in.readInt());
+            long wallTimeMs = Integer.toUnsignedLong(in.readInt());
+            long peakMemoryKb = in.readLong();
+            long outputSize = in.readLong();
+            int flags = in.readUnsignedByte();
+            byte[] hash = new byte[HASH_BYTES];
+            in.readFully(hash);
+            return new Result(index, exitCode, signal, cpuTimeMs, wallTimeMs, peakMemoryKb, outputSize,
+                    (flags & FLAG_TIMED_OUT) != 0, (flags & FLAG_OUTPUT_LIMIT) != 0,
+                    HexFormat.of().formatHex(hash));
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Exit status of the program, -1 when it was killed by a signal
+         */
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        /**
+         * Signal that killed the program, 0 when it exited
+         */
+        public int getSignal() {
+            return signal;
+        }
+
+        public long getCpuTimeMs() {
+            return cpuTimeMs;
+        }
+
+        public long getWallTimeMs() {
+            return wallTimeMs;
+        }
+
+        public long getPeakMemoryKb() {
+            return peakMemoryKb;
+        }
+
+        public long getOutputSize() {
+            return outputSize;
+        }
+
+        /**
+         * Killed at the wall-clock ceiling
+         */
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        public boolean isOutputLimitExceeded() {
+            return outputLimitExceeded;
+        }
+
+        /**
+         * sha256 of the output file, hex like the keys of the test data store
+         */
+        public String getOutputHash() {
+            return outputHash;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.fcoder.Fcoder.compiler;
+
+import java.nio.file.Path;
+
+/**
+ * An isolated place to run compile and execution commands.
+ * Obtained from {@link ContainerPool#acquire(String, Path)} and closed after use.
+ */
+public interface Sandbox extends AutoCloseable {
+
+    /**
+     * Build the host command that runs the given command inside this sandbox
+     *
+     * @param workspace   Workspace directory on the host, used as working directory
+     * @param interactive true to keep stdin open (test input is piped in)
+     * @param command     Command to run inside the sandbox (e.g. "java", "Main")
+     * @return Full command for ProcessBuilder
+     */
+    String[] command(Path workspace, boolean interactive, String... command);
+
+    /**
+     * Set the memory limit (docker notation, e.g. "256m") for the following commands
+     *
+     * @param memory Memory limit, null for the sandbox default
+     */
+    void limitMemory(String memory);
+
+    /**
+     * Mark the sandbox as unusable (timed out, killed, ...) so it is destroyed instead of reused
+     */
+    void discard();
+
+    /**
+     * @return true if this sandbox came warm from the pool
+     */
+    boolean isPooled();
+
+    @Override
+    void close();
+}
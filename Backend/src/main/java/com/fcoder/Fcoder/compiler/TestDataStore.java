@@ -0,0 +1,353 @@
+package com.fcoder.Fcoder.compiler;
+
+import com.fcoder.Fcoder.config.JudgeConfig;
+import com.fcoder.Fcoder.model.entity.TestCaseEntity;
+import com.fcoder.Fcoder.util.HashUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store of test inputs and expected outputs on disk.
+ * Every blob is a file named after the sha256 of its content, the database only keeps the hash and
+ * the size. Judging reads the files directly: inputs are copied into the workspace or piped to stdin
+ * with {@link FileChannel#transferTo}, expected outputs are memory-mapped by the checkers, so a
+ * multi-megabyte test never has to be loaded onto the heap.
+ * <p>
+ * Until the directory is marked shared by all judge nodes (e.g. a network volume) the database keeps its
+ * copy of every test case and a node missing a file writes it again from that copy. Each node reads
+ * through a local copy of the files it judges with, bounded in size and evicted least recently used first.
+ */
+@Component
+public class TestDataStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TestDataStore.class);
+
+    private static final String STAGING_PREFIX = ".tmp-";
+
+    private final HashUtils hashUtils;
+    private final Path root;
+    private final boolean shared;
+    private final JudgeConfig.TestData.Cache cacheConfig;
+    private final Path cacheRoot;
+    // Local copies by hash, access ordered: iteration starts at the least recently used one
+    private final LinkedHashMap<String, Long> cached = new LinkedHashMap<>(16, 0.75f, true);
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bytesServed;
+    private long cachedSize;
+
+    public TestDataStore(JudgeConfig judgeConfig, HashUtils hashUtils, MeterRegistry meterRegistry) {
+        this.hashUtils = hashUtils;
+        Path directory = Paths.get(judgeConfig.getTestData().getDirectory());
+        if (judgeConfig.getQueue().getMode() == JudgeConfig.Queue.Mode.STREAM && !directory.isAbsolute()) {
+            // Every node would keep its own copy under its working directory
+            throw new IllegalStateException("judge.test-data.directory must be an absolute path in STREAM mode, not "
+                    + directory);
+        }
+        this.root = directory.toAbsolutePath().normalize();
+        this.shared = judgeConfig.getTestData().isShared();
+        this.cacheConfig = judgeConfig.getTestData().getCache();
+        this.cacheRoot = Paths.get(cacheConfig.getDirectory()).toAbsolutePath().normalize();
+        this.hits = Counter.builder("judge.test-data.cache.hits").register(meterRegistry);
+        this.misses = Counter.builder("judge.test-data.cache.misses").register(meterRegistry);
+        this.bytesServed = Counter.builder("judge.test-data.cache.served")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("judge.test-data.cache.size", this, TestDataStore::getCachedSize)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        if (cacheConfig.isEnabled()) {
+            loadIndex();
+        }
+    }
+
+    /**
+     * Store a blob, a no-op when the same content is already there
+     *
+     * @return sha256 of the content, its key in the store
+     */
+    public String put(String content) throws IOException {
+        String hash = hashUtils.sha256(content);
+        Path file = file(hash);
+        if (Files.exists(file)) {
+            return hash;
+        }
+        Files.createDirectories(file.getParent());
+        Path staging = file.resolveSibling(STAGING_PREFIX + UUID.randomUUID());
+        try {
+            Files.writeString(staging, content, StandardCharsets.UTF_8);
+            Files.move(staging, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Stored concurrently, same content
+        } finally {
+            Files.deleteIfExists(staging);
+        }
+        return hash;
+    }
+
+    /**
+     * File holding a blob, the local copy when the node cache is on
+     *
+     * @throws NoSuchFileException When the blob is not in the store
+     */
+    public Path path(String hash) throws IOException {
+        Path file = file(hash);
+        if (!cacheConfig.isEnabled()) {
+            return requireFile(file, hash);
+        }
+
+        Path local = cacheRoot.resolve(hash);
+        synchronized (this) {
+            Long size = cached.get(hash);
+            if (size != null && Files.isRegularFile(local)) {
+                hits.increment();
+                bytesServed.increment(size);
+                return local;
+            }
+        }
+        misses.increment();
+
+        requireFile(file, hash);
+        Files.createDirectories(cacheRoot);
+        Path staging = cacheRoot.resolve(STAGING_PREFIX + UUID.randomUUID());
+        try {
+            Files.copy(file, staging);
+            Files.move(staging, local, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(staging);
+        }
+        long size = Files.size(local);
+        synchronized (this) {
+            Long previous = cached.put(hash, size);
+            cachedSize += size - (previous == null ? 0 : previous);
+            evict(hash);
+        }
+        return local;
+    }
+
+    public String read(String hash) throws IOException {
+        return Files.readString(path(hash), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Copy a blob to a file, in the kernel where the file system allows it
+     */
+    public void copy(String hash, Path target) throws IOException {
+        try (FileChannel from = FileChannel.open(path(hash), StandardOpenOption.READ);
+             FileChannel to = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            transfer(from, to);
+        }
+    }
+
+    /**
+     * Write a blob to a stream, e.g. the stdin of a program
+     */
+    public void transferTo(String hash, OutputStream output) throws IOException {
+        transferFile(path(hash), output);
+    }
+
+    /**
+     * Write a file to a stream, in the kernel where the file system allows it
+     */
+    public static void transferFile(Path file, OutputStream output) throws IOException {
+        try (FileChannel from = FileChannel.open(file, StandardOpenOption.READ)) {
+            transfer(from, Channels.newChannel(output));
+        }
+        output.flush();
+    }
+
+    /**
+     * Map a stored file read-only. Mappings are released by the garbage collector.
+     */
+    public static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Test data too large to map: " + file);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * Put the inline data of a test case into the store and record its hashes and sizes, for test cases
+     * created before the store existed or built on the fly. The inline data stays on the entity: it is
+     * what another node rebuilds its files from, and a file missing here is written again from it.
+     * Only the entity is updated, saving it is up to the caller.
+     *
+     * @return Whether the hashes of the test case changed
+     */
+    public boolean storeInline(TestCaseEntity testCase) throws IOException {
+        boolean changed = false;
+        if (testCase.getInputHash() == null) {
+            String input = testCase.getInput() == null ? "" : testCase.getInput();
+            testCase.setInputHash(put(input));
+            testCase.setInputSize((long) input.getBytes(StandardCharsets.UTF_8).length);
+            changed = true;
+        } else if (testCase.getInput() != null) {
+            restore(testCase.getInputHash(), testCase.getInput());
+        }
+        if (testCase.getOutputHash() == null) {
+            String expectedOutput = testCase.getExpectedOutput() == null ? "" : testCase.getExpectedOutput();
+            testCase.setOutputHash(put(expectedOutput));
+            testCase.setOutputSize((long) expectedOutput.getBytes(StandardCharsets.UTF_8).length);
+            changed = true;
+        } else if (testCase.getExpectedOutput() != null) {
+            restore(testCase.getOutputHash(), testCase.getExpectedOutput());
+        }
+        if (changed) {
+            log.debug("Stored inline data of test case {} in the test data store", testCase.getId());
+        }
+        return changed;
+    }
+
+    /**
+     * Drop the inline data of a stored test case, leaving the store as its only copy
+     *
+     * @return Whether the test case changed
+     * @throws IllegalStateException When the store is not shared by every node
+     */
+    public boolean dropInline(TestCaseEntity testCase) throws IOException {
+        if (!shared) {
+            throw new IllegalStateException("Test data can only leave the database once judge.test-data.shared is set");
+        }
+        if (testCase.getInput() == null && testCase.getExpectedOutput() == null) {
+            return false;
+        }
+        storeInline(testCase);
+        testCase.setInput(null);
+        testCase.setExpectedOutput(null);
+        return true;
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * Input of a test case as text, for showing sample tests
+     */
+    public String readInput(TestCaseEntity testCase) throws IOException {
+        return testCase.getInputHash() != null ? read(testCase.getInputHash()) : testCase.getInput();
+    }
+
+    public String readExpectedOutput(TestCaseEntity testCase) throws IOException {
+        return testCase.getOutputHash() != null ? read(testCase.getOutputHash()) : testCase.getExpectedOutput();
+    }
+
+    public synchronized long getCachedSize() {
+        return cachedSize;
+    }
+
+    // Stored on another node, or lost: write it again from the database copy
+    private void restore(String hash, String content) throws IOException {
+        if (!Files.isRegularFile(file(hash)) && put(content).equals(hash)) {
+            log.debug("Rebuilt test data {} from the database", hash);
+        }
+    }
+
+    private static Path requireFile(Path file, String hash) throws NoSuchFileException {
+        if (!Files.isRegularFile(file)) {
+            throw new NoSuchFileException(file.toString(), null, "Test data " + hash + " is missing from the store");
+        }
+        return file;
+    }
+
+    /**
+     * Drop least recently used local copies until the cache fits, never the one just added.
+     * Runs already reading an evicted file keep their open handle.
+     */
+    private synchronized void evict(String keep) {
+        Iterator<Map.Entry<String, Long>> it = cached.entrySet().iterator();
+        while (it.hasNext() && cachedSize > cacheConfig.getMaxSize().toBytes()) {
+            Map.Entry<String, Long> eldest = it.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            it.remove();
+            cachedSize -= eldest.getValue();
+            try {
+                Files.deleteIfExists(cacheRoot.resolve(eldest.getKey()));
+            } catch (IOException e) {
+                log.warn("Failed to delete cached test data {}: {}", eldest.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Rebuild the LRU index from the local copies left on disk, oldest access first
+     */
+    private void loadIndex() {
+        try {
+            Files.createDirectories(cacheRoot);
+            List<Path> files = new ArrayList<>();
+            try (Stream<Path> stream = Files.list(cacheRoot)) {
+                stream.filter(Files::isRegularFile).forEach(files::add);
+            }
+            files.sort(Comparator.comparingLong(file -> file.toFile().lastModified()));
+            synchronized (this) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    if (name.startsWith(STAGING_PREFIX)) {
+                        Files.deleteIfExists(file);
+                        continue;
+                    }
+                    long size = Files.size(file);
+                    cached.put(name, size);
+                    cachedSize += size;
+                }
+                evict(null);
+            }
+            log.info("Test data cache at {}: {} files, {} bytes", cacheRoot, cached.size(), cachedSize);
+        } catch (IOException e) {
+            log.warn("Could not load test data cache index from {}: {}", cacheRoot, e.getMessage());
+        }
+    }
+
+    private Path file(String hash) {
+        if (!hash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Invalid test data hash: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static void transfer(FileChannel from, WritableByteChannel to) throws IOException {
+        long size = from.size();
+        long position = 0;
+        while (position < size) {
+            long transferred = from.transferTo(position, size - position, to);
+            if (transferred <= 0) {
+                break;
+            }
+            position += transferred;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.fcoder.Fcoder.compiler.checker;
+
+import com.fcoder.Fcoder.compiler.TestDataStore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * Compares whitespace separated tokens, ignoring how the output is laid out.
+ * With an epsilon, numeric tokens match when their absolute or relative difference is within it.
+ * Tokens are compared byte by byte against the memory-mapped expected output as they arrive; only a
+ * short prefix of the current token is buffered, for the numeric comparison and the message.
+ */
+public class TokenChecker implements Checker {
+
+    private static final int TOKEN_SNIPPET_BYTES = 128;
+    // Plain decimal notation only, Double.parseDouble would also take "NaN", "Infinity" or "1d"
+    private static final Pattern NUMBER = Pattern.compile("[-+]?(\\d+\\.?\\d*|\\.\\d+)([eE][-+]?\\d+)?");
+
+    private final Double epsilon;
+
+    /**
+     * @param epsilon Allowed difference of numeric tokens, null to compare tokens exactly
+     */
+    public TokenChecker(Double epsilon) {
+        this.epsilon = epsilon;
+    }
+
+    @Override
+    public Session start(Path input, Path expectedOutput) throws IOException {
+        return new TokenSession(TestDataStore.map(expectedOutput));
+    }
+
+    // Same set as String.trim()
+    static boolean isWhitespace(byte b) {
+        return (b & 0xff) <= ' ';
+    }
+
+    // Bytes [from, to) of a buffer as text, '\r' dropped
+    static String text(ByteBuffer buffer, int from, int to) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(to - from);
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) != '\r') {
+                bytes.write(buffer.get(i));
+            }
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private boolean numbersMatch(String actual, String expected) {
+        if (!NUMBER.matcher(actual).matches() || !NUMBER.matcher(expected).matches()) {
+            return false;
+        }
+        double a = Double.parseDouble(actual);
+        double e = Double.parseDouble(expected);
+        double difference = Math.abs(a - e);
+        return difference <= epsilon || difference <= epsilon * Math.abs(e);
+    }
+
+    private class TokenSession implements Session {
+        private final ByteBuffer expected;
+        private int cursor;
+        private int expectedLine = 1;
+
+        private boolean inToken;
+        private int tokenIndex;
+        private int tokenStart;
+        private int tokenEnd;
+        private int matchPosition;
+        private boolean exactSoFar;
+        private boolean expectedExhausted;
+        private final ByteArrayOutputStream token = new ByteArrayOutputStream();
+        private boolean tokenTruncated;
+
+        private CheckVerdict mismatch;
+
+        private TokenSession(ByteBuffer expected) {
+            this.expected = expected;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length && mismatch == null; i++) {
+                write(buffer[i]);
+            }
+        }
+
+        private void write(byte b) {
+            if (isWhitespace(b)) {
+                if (inToken) {
+                    endToken();
+                }
+                return;
+            }
+            if (!inToken) {
+                startToken();
+            }
+            if (token.size() < TOKEN_SNIPPET_BYTES) {
+                token.write(b);
+            } else {
+                tokenTruncated = true;
+            }
+            if (exactSoFar) {
+                if (matchPosition < tokenEnd && expected.get(matchPosition) == b) {
+                    matchPosition++;
+                } else {
+                    exactSoFar = false;
+                }
+            }
+        }
+
+        private void startToken() {
+            inToken = true;
+            tokenIndex++;
+            token.reset();
+            tokenTruncated = false;
+            skipExpectedWhitespace();
+            expectedExhausted = cursor >= expected.limit();
+            tokenStart = cursor;
+            tokenEnd = cursor;
+            while (tokenEnd < expected.limit() && !isWhitespace(expected.get(tokenEnd))) {
+                tokenEnd++;
+            }
+            matchPosition = tokenStart;
+            exactSoFar = !expectedExhausted;
+        }
+
+        private void endToken() {
+            inToken = false;
+            cursor = tokenEnd;
+            if (exactSoFar && matchPosition == tokenEnd) {
+                return;
+            }
+            String actual = token.toString(StandardCharsets.UTF_8) + (tokenTruncated ? "..." : "");
+            if (expectedExhausted) {
+                mismatch = CheckVerdict.wrongAnswer(
+                        "Token " + tokenIndex + ": expected end of output, found \"" + actual + "\"");
+                return;
+            }
+            String expectedToken = expectedToken();
+            if (epsilon != null && !tokenTruncated && numbersMatch(actual, expectedToken)) {
+                return;
+            }
+            mismatch = CheckVerdict.wrongAnswer("Token " + tokenIndex + " (line " + expectedLine + "): expected \""
+                    + expectedToken + "\", found \"" + actual + "\"");
+        }
+
+        @Override
+        public CheckVerdict finish() {
+            if (inToken && mismatch == null) {
+                endToken();
+            }
+            if (mismatch != null) {
+                return mismatch;
+            }
+            skipExpectedWhitespace();
+            if (cursor < expected.limit()) {
+                tokenStart = cursor;
+                tokenEnd = cursor;
+                while (tokenEnd < expected.limit() && !isWhitespace(expected.get(tokenEnd))) {
+                    tokenEnd++;
+                }
+                return CheckVerdict.wrongAnswer("Token " + (tokenIndex + 1) + " (line " + expectedLine
+                        + "): expected \"" + expectedToken() + "\", found end of output");
+            }
+            return CheckVerdict.accepted();
+        }
+
+        private void skipExpectedWhitespace() {
+            while (cursor < expected.limit() && isWhitespace(expected.get(cursor))) {
+                if (expected.get(cursor) == '\n') {
+                    expectedLine++;
+                }
+                cursor++;
+            }
+        }
+
+        private String expectedToken() {
+            int shown = Math.min(tokenEnd, tokenStart + TOKEN_SNIPPET_BYTES);
+            return text(expected, tokenStart, shown) + (shown < tokenEnd ? "..." : "");
+        }
+    }
+}
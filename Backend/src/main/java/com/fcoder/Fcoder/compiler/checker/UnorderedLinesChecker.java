@@ -0,0 +1,93 @@
+package com.fcoder.Fcoder.compiler.checker;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Accepts the expected lines in any order. Lines are compared with surrounding whitespace removed,
+ * blank lines are ignored. Only the expected lines and the current output line are kept in memory.
+ */
+public class UnorderedLinesChecker implements Checker {
+
+    private static final int LINE_SNIPPET_CHARS = 128;
+
+    @Override
+    public Session start(Path input, Path expectedOutput) throws IOException {
+        Map<String, Integer> expectedLines = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(expectedOutput, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (!trimmed.isEmpty()) {
+                    expectedLines.merge(trimmed, 1, Integer::sum);
+                }
+            }
+        }
+        return new UnorderedLinesSession(expectedLines);
+    }
+
+    private static String snippet(String line) {
+        return line.length() > LINE_SNIPPET_CHARS ? line.substring(0, LINE_SNIPPET_CHARS) + "..." : line;
+    }
+
+    private static class UnorderedLinesSession implements Session {
+        private final Map<String, Integer> remaining;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private int lineNumber;
+        private CheckVerdict mismatch;
+
+        private UnorderedLinesSession(Map<String, Integer> expectedLines) {
+            this.remaining = expectedLines;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length && mismatch == null; i++) {
+                if (buffer[i] == '\n') {
+                    endLine();
+                } else {
+                    line.write(buffer[i]);
+                }
+            }
+        }
+
+        private void endLine() {
+            lineNumber++;
+            String trimmed = line.toString(StandardCharsets.UTF_8).trim();
+            line.reset();
+            if (trimmed.isEmpty()) {
+                return;
+            }
+            Integer count = remaining.get(trimmed);
+            if (count == null) {
+                mismatch = CheckVerdict.wrongAnswer("Line " + lineNumber + ": unexpected \"" + snippet(trimmed) + "\"");
+            } else if (count == 1) {
+                remaining.remove(trimmed);
+            } else {
+                remaining.put(trimmed, count - 1);
+            }
+        }
+
+        @Override
+        public CheckVerdict finish() {
+            if (mismatch == null && line.size() > 0) {
+                endLine();
+            }
+            if (mismatch != null) {
+                return mismatch;
+            }
+            if (!remaining.isEmpty()) {
+                String missing = remaining.keySet().iterator().next();
+                return CheckVerdict.wrongAnswer(remaining.values().stream().mapToInt(Integer::intValue).sum()
+                        + " expected line(s) missing, e.g. \"" + snippet(missing) + "\"");
+            }
+            return CheckVerdict.accepted();
+        }
+    }
+}
@@ -6,12 +6,9 @@ import com.fcoder.Fcoder.model.other.CompilationResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.concurrent.TimeUnit;
 
 /**
  * C++ compiler implementation using FCoder unified compiler container
@@ -33,60 +30,34 @@ public class CppCompiler extends BaseCompiler {
             Path sourceFile = workspace.resolve(getSourceFileName());
             Files.write(sourceFile, sourceCode.getBytes());
 
-            // Get compile command and replace workspace placeholder
-            String[] compileCommand = getCompileCommand();
-            String normalizedWorkspace = workspace.toString().replace("\\", "/");
-            log.info("Normalized workspace path: {}", normalizedWorkspace);
-            
-            for (int i = 0; i < compileCommand.length; i++) {
-                if (compileCommand[i].contains("%WORKSPACE%")) {
-                    compileCommand[i] = compileCommand[i].replace("%WORKSPACE%", normalizedWorkspace);
-                }
-            }
-            
-            log.info("Docker compile command: {}", String.join(" ", compileCommand));
-
-            // Run compilation in Docker container
-            ProcessBuilder pb = new ProcessBuilder(compileCommand);
-            pb.directory(workspace.toFile());
-            pb.redirectErrorStream(true);
-
+            // Run compilation in a sandbox container
             log.info("Compiling C++ code in FCoder unified compiler container: {}", dockerImage);
-            Process process = pb.start();
-
-            // Read compilation output
-            StringBuilder output = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    output.append(line).append("\n");
-                }
-            }
+            CommandResult result = runInSandbox(workspace, getCompileCommand(), COMPILE_TIMEOUT);
 
-            // Wait for compilation to complete
-            log.info("Waiting for compilation to complete (timeout: {}s)", COMPILE_TIMEOUT);
-            boolean finished = process.waitFor(COMPILE_TIMEOUT, TimeUnit.SECONDS);
-
-            if (!finished) {
+            if (result.isTimedOut()) {
                 log.error("Compilation timeout after {}s", COMPILE_TIMEOUT);
-                process.destroyForcibly();
-                return new CompilationResult(false, null, "Compilation timeout");
+                return CompilationResult.systemFailure("Compilation timeout");
+            }
+
+            if (result.isSandboxFailure()) {
+                // Not a verdict on the source: the image or the tool is missing, or docker failed
+                return CompilationResult.sandboxFailure("Sandbox failure: " + result.getOutput());
             }
-            
-            log.info("Compilation process finished with exit code: {}", process.exitValue());
 
-            if (process.exitValue() == 0) {
+            if (result.getExitCode() == 0) {
                 // Compilation successful
                 Path executablePath = workspace.resolve(getExecutableFileName());
                 return new CompilationResult(true, executablePath.toString(), null);
             } else {
                 // Compilation failed
-                return new CompilationResult(false, null, output.toString());
+                return new CompilationResult(false, null, result.getOutput());
             }
 
         } catch (IOException | InterruptedException e) {
             log.error("Error during C++ compilation", e);
-            return new CompilationResult(false, null, "Compilation error: " + e.getMessage());
+            return e instanceof IOException
+                    ? CompilationResult.sandboxFailure("Compilation error: " + e.getMessage())
+                    : CompilationResult.systemFailure("Compilation error: " + e.getMessage());
         }
     }
 
@@ -108,13 +79,6 @@ public class CppCompiler extends BaseCompiler {
     @Override
     protected String[] getCompileCommand() {
         return new String[] {
-                "docker", "run", "--rm",
-                "-v", "%WORKSPACE%:/workspace",
-                "-w", "/workspace",
-                "--memory=512m",
-                "--cpus=1",
-                "--network=none",
-                dockerImage,
                 "g++", "-o", getExecutableFileName(), getSourceFileName(),
                 "-std=c++17", "-O2", "-Wall"
         };
@@ -123,14 +87,6 @@ public class CppCompiler extends BaseCompiler {
     @Override
     public String[] getExecutionCommand() {
         return new String[] {
-                "docker", "run", "--rm",
-                "-v", "%WORKSPACE%:/workspace",
-                "-w", "/workspace",
-                "--memory=512m",
-                "--cpus=1",
-                "--network=none",
-                "-i", // Interactive mode for input
-                dockerImage,
                 "./" + getExecutableFileName()
         };
     }
@@ -1,17 +1,17 @@
 package com.fcoder.Fcoder.compiler.impl;
 
 import com.fcoder.Fcoder.compiler.BaseCompiler;
+import com.fcoder.Fcoder.config.JudgeConfig;
 import com.fcoder.Fcoder.model.entity.SubmissionEntity;
 import com.fcoder.Fcoder.model.other.CompilationResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Java compiler implementation using FCoder unified compiler container
@@ -19,12 +19,14 @@ import java.util.concurrent.TimeUnit;
 public class JavaCompiler extends BaseCompiler {
 
     private static final Logger log = LoggerFactory.getLogger(JavaCompiler.class);
-
     private static final String DOCKER_IMAGE = "fcoder-fcoder-compiler:latest";
     private static final int COMPILE_TIMEOUT = 30; // seconds
 
-    public JavaCompiler() {
+    private final JudgeConfig.Java config;
+
+    public JavaCompiler(JudgeConfig.Java config) {
         super(DOCKER_IMAGE, SubmissionEntity.ProgrammingLanguage.JAVA);
+        this.config = config;
     }
 
     @Override
@@ -34,53 +36,34 @@ public class JavaCompiler extends BaseCompiler {
             Path sourceFile = workspace.resolve(getSourceFileName());
             Files.write(sourceFile, sourceCode.getBytes());
 
-            // Get compile command and replace workspace placeholder
-            String[] compileCommand = getCompileCommand();
-            for (int i = 0; i < compileCommand.length; i++) {
-                if (compileCommand[i].contains("%WORKSPACE%")) {
-                    compileCommand[i] = compileCommand[i].replace(
-                            "%WORKSPACE%",
-                            workspace.toString().replace("\\", "/"));
-                }
-            }
-
-            // Run compilation in Docker container
-            ProcessBuilder pb = new ProcessBuilder(compileCommand);
-            pb.directory(workspace.toFile());
-            pb.redirectErrorStream(true);
-
+            // Run compilation in a sandbox container
             log.info("Compiling Java code in Docker container: {}", dockerImage);
-            Process process = pb.start();
-
-            // Read compilation output
-            StringBuilder output = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    output.append(line).append("\n");
-                }
-            }
+            CommandResult result = runInSandbox(workspace, getCompileCommand(), COMPILE_TIMEOUT);
 
-            // Wait for compilation to complete
-            boolean finished = process.waitFor(COMPILE_TIMEOUT, TimeUnit.SECONDS);
+            if (result.isTimedOut()) {
+                log.error("Compilation timeout after {}s", COMPILE_TIMEOUT);
+                return CompilationResult.systemFailure("Compilation timeout");
+            }
 
-            if (!finished) {
-                process.destroyForcibly();
-                return new CompilationResult(false, null, "Compilation timeout");
+            if (result.isSandboxFailure()) {
+                // Not a verdict on the source: the image or the tool is missing, or docker failed
+                return CompilationResult.sandboxFailure("Sandbox failure: " + result.getOutput());
             }
 
-            if (process.exitValue() == 0) {
+            if (result.getExitCode() == 0) {
                 // Compilation successful
                 Path executablePath = workspace.resolve(getExecutableFileName());
                 return new CompilationResult(true, executablePath.toString(), null);
             } else {
                 // Compilation failed
-                return new CompilationResult(false, null, output.toString());
+                return new CompilationResult(false, null, result.getOutput());
             }
 
         } catch (IOException | InterruptedException e) {
             log.error("Error during Java compilation", e);
-            return new CompilationResult(false, null, "Compilation error: " + e.getMessage());
+            return e instanceof IOException
+                    ? CompilationResult.sandboxFailure("Compilation error: " + e.getMessage())
+                    : CompilationResult.systemFailure("Compilation error: " + e.getMessage());
         }
     }
 
@@ -102,29 +85,25 @@ public class JavaCompiler extends BaseCompiler {
     @Override
     protected String[] getCompileCommand() {
         return new String[] {
-                "docker", "run", "--rm",
-                "-v", "%WORKSPACE%:/workspace",
-                "-w", "/workspace",
-                "--memory=512m",
-                "--cpus=1",
-                "--network=none",
-                dockerImage,
                 "javac", getSourceFileName()
         };
     }
 
     @Override
     public String[] getExecutionCommand() {
-        return new String[] {
-                "docker", "run", "--rm",
-                "-v", "%WORKSPACE%:/workspace",
-                "-w", "/workspace",
-                "--memory=512m",
-                "--cpus=1",
-                "--network=none",
-                "-i", // Interactive mode for input
-                dockerImage,
-                "java", "Main"
-        };
+        // Serial GC and no perf data file: a judged program is single-threaded and short-lived.
+        // The main class stays the last argument, the persistent JVM runner reads it from there.
+        List<String> command = new ArrayList<>(List.of("java", "-XX:+UseSerialGC", "-XX:-UsePerfData"));
+        if (config.getCdsArchive() != null && !config.getCdsArchive().isBlank()) {
+            // Without the archive the JVM starts with CDS off, so "auto" never fails a run
+            command.addAll(List.of("-Xshare:auto", "-XX:SharedArchiveFile=" + config.getCdsArchive(), "-Xlog:disable"));
+        }
+        command.add("Main");
+        return command.toArray(new String[0]);
+    }
+
+    @Override
+    public String getBatchRunner() {
+        return config.isPersistentJvm() ? config.getRunnerPath() : null;
     }
 }
@@ -17,6 +17,7 @@ public class PythonCompiler extends BaseCompiler {
 
     private static final Logger log = LoggerFactory.getLogger(PythonCompiler.class);
     private static final String DOCKER_IMAGE = "fcoder-fcoder-compiler:latest";
+    private static final int SYNTAX_CHECK_TIMEOUT = 10; // seconds
 
     public PythonCompiler() {
         super(DOCKER_IMAGE, SubmissionEntity.ProgrammingLanguage.PYTHON);
@@ -30,25 +31,18 @@ public class PythonCompiler extends BaseCompiler {
             Files.write(sourceFile, sourceCode.getBytes());
 
             // Python doesn't need compilation, just syntax check
-            ProcessBuilder pb = new ProcessBuilder(
-                    "docker", "run", "--rm",
-                    "-v", workspace.toString().replace("\\", "/") + ":/workspace",
-                    "-w", "/workspace",
-                    "--memory=512m",
-                    "--cpus=1",
-                    "--network=none",
-                    dockerImage,
-                    "python", "-m", "py_compile", getSourceFileName());
-
-            Process process = pb.start();
-            boolean finished = process.waitFor(10, java.util.concurrent.TimeUnit.SECONDS);
-
-            if (!finished) {
-                process.destroyForcibly();
-                return new CompilationResult(false, null, "Syntax check timeout");
+            CommandResult result = runInSandbox(workspace, getCompileCommand(), SYNTAX_CHECK_TIMEOUT);
+
+            if (result.isTimedOut()) {
+                return CompilationResult.systemFailure("Syntax check timeout");
+            }
+
+            if (result.isSandboxFailure()) {
+                // Not a verdict on the source: the image or the tool is missing, or docker failed
+                return CompilationResult.sandboxFailure("Sandbox failure: " + result.getOutput());
             }
 
-            if (process.exitValue() == 0) {
+            if (result.getExitCode() == 0) {
                 // Syntax check successful
                 return new CompilationResult(true, sourceFile.toString(), null);
             } else {
@@ -58,7 +52,9 @@ public class PythonCompiler extends BaseCompiler {
 
         } catch (IOException | InterruptedException e) {
             log.error("Error during Python syntax check", e);
-            return new CompilationResult(false, null, "Syntax check error: " + e.getMessage());
+            return e instanceof IOException
+                    ? CompilationResult.sandboxFailure("Syntax check error: " + e.getMessage())
+                    : CompilationResult.systemFailure("Syntax check error: " + e.getMessage());
         }
     }
 
@@ -79,15 +75,8 @@ public class PythonCompiler extends BaseCompiler {
 
     @Override
     protected String[] getCompileCommand() {
-        // Python doesn't need compilation
+        // Python doesn't need compilation, only a syntax check
         return new String[] {
-                "docker", "run", "--rm",
-                "-v", "%WORKSPACE%:/workspace",
-                "-w", "/workspace",
-                "--memory=512m",
-                "--cpus=1",
-                "--network=none",
-                dockerImage,
                 "python", "-m", "py_compile", getSourceFileName()
         };
     }
@@ -95,14 +84,6 @@ public class PythonCompiler extends BaseCompiler {
     @Override
     public String[] getExecutionCommand() {
         return new String[] {
-                "docker", "run", "--rm",
-                "-v", "%WORKSPACE%:/workspace",
-                "-w", "/workspace",
-                "--memory=512m",
-                "--cpus=1",
-                "--network=none",
-                "-i", // Interactive mode for input
-                dockerImage,
                 "python", getSourceFileName()
         };
     }
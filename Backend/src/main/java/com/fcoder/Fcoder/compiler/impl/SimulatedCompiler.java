@@ -0,0 +1,123 @@
+package com.fcoder.Fcoder.compiler.impl;
+
+import com.fcoder.Fcoder.compiler.BaseCompiler;
+import com.fcoder.Fcoder.compiler.LocalSandbox;
+import com.fcoder.Fcoder.compiler.Sandbox;
+import com.fcoder.Fcoder.config.JudgeConfig;
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import com.fcoder.Fcoder.model.other.CompilationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-in for a language compiler when judge.simulation is enabled, so the judge can be load tested
+ * without docker. Keeps the file names of the real compiler, compiles by sleeping on the host for the
+ * configured compile time and "builds" a shell script that sleeps for the run time and echoes its input.
+ */
+public class SimulatedCompiler extends BaseCompiler {
+
+    private static final Logger log = LoggerFactory.getLogger(SimulatedCompiler.class);
+    private static final String DOCKER_IMAGE = "simulated";
+    private static final int COMPILE_TIMEOUT = 30; // seconds
+
+    private final BaseCompiler compiler;
+    private final JudgeConfig.Simulation config;
+
+    public SimulatedCompiler(BaseCompiler compiler, JudgeConfig.Simulation config) {
+        super(DOCKER_IMAGE, compiler.getLanguage());
+        this.compiler = compiler;
+        this.config = config;
+    }
+
+    @Override
+    public CompilationResult compile(String sourceCode, Path workspace) {
+        try {
+            Files.writeString(workspace.resolve(getSourceFileName()), sourceCode);
+
+            // A real process, so compiles pay the same process start as the sandboxed ones
+            CommandResult result = runInSandbox(workspace,
+                    new String[] {"sleep", seconds(vary(config.getCompileTime()))}, COMPILE_TIMEOUT);
+            if (result.isTimedOut()) {
+                return CompilationResult.systemFailure("Compilation timeout");
+            }
+            if (result.getExitCode() != 0) {
+                return CompilationResult.sandboxFailure("Sandbox failure: " + result.getOutput());
+            }
+
+            if (ThreadLocalRandom.current().nextDouble() < config.getCompileErrorRate()) {
+                return new CompilationResult(false, null, "Simulated compile error");
+            }
+            Path executablePath = workspace.resolve(getExecutableFileName());
+            Files.writeString(executablePath, "sleep " + seconds(vary(config.getRunTime())) + "\nexec cat\n",
+                    StandardCharsets.UTF_8);
+            return new CompilationResult(true, executablePath.toString(), null);
+
+        } catch (IOException | InterruptedException e) {
+            log.error("Error during simulated {} compilation", language, e);
+            return e instanceof IOException
+                    ? CompilationResult.sandboxFailure("Compilation error: " + e.getMessage())
+                    : CompilationResult.systemFailure("Compilation error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Simulated programs run on the host, never in a container
+     */
+    @Override
+    public Sandbox openSandbox(Path workspace, String memory) {
+        return new LocalSandbox();
+    }
+
+    @Override
+    public String getCompilerInfo() {
+        return String.format("%s (simulated)", language.name());
+    }
+
+    @Override
+    public String getFileExtension() {
+        return compiler.getFileExtension();
+    }
+
+    @Override
+    public String getSourceFileName() {
+        return compiler.getSourceFileName();
+    }
+
+    @Override
+    public String getExecutableFileName() {
+        return compiler.getExecutableFileName();
+    }
+
+    @Override
+    protected String[] getCompileCommand() {
+        return new String[] {"true"};
+    }
+
+    @Override
+    public String[] getExecutionCommand() {
+        return new String[] {
+                "sh", getExecutableFileName()
+        };
+    }
+
+    // Configured time for this language, varied by the jitter
+    private long vary(Map<SubmissionEntity.ProgrammingLanguage, Duration> times) {
+        long millis = times.getOrDefault(language, Duration.ZERO).toMillis();
+        double jitter = Math.max(0, Math.min(1, config.getJitter()));
+        double factor = 1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Math.round(millis * factor);
+    }
+
+    private static String seconds(long millis) {
+        return String.format(Locale.ROOT, "%.3f", millis / 1000.0);
+    }
+}
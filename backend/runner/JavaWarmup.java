@@ -0,0 +1,74 @@
+/*
+ * Warm-up program for the Java CDS archives of the compiler image: loads the JDK classes typical
+ * solutions use (Scanner, BufferedReader/StringTokenizer, PrintWriter, collections, lambdas and streams,
+ * String.format, BigInteger) so they are in the class lists the archives are dumped from.
+ *
+ * Input: two lines of integers and a line of words, e.g. "3 4\n5 6 7\nhello world\n"
+ */
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Scanner;
+import java.util.StringTokenizer;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+public class JavaWarmup {
+
+    public static void main(String[] args) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+        PrintWriter out = new PrintWriter(System.out);
+
+        StringTokenizer tokens = new StringTokenizer(reader.readLine());
+        long a = Long.parseLong(tokens.nextToken());
+        long b = Long.parseLong(tokens.nextToken());
+        out.println(a + b);
+
+        int[] numbers = Arrays.stream(reader.readLine().trim().split("\\s+")).mapToInt(Integer::parseInt).toArray();
+        Arrays.sort(numbers);
+        List<Integer> list = new ArrayList<>();
+        for (int number : numbers) {
+            list.add(number);
+        }
+        Collections.sort(list, (x, y) -> Integer.compare(y, x));
+        Map<Integer, Integer> counts = new HashMap<>();
+        TreeMap<Integer, Integer> sorted = new TreeMap<>();
+        PriorityQueue<long[]> queue = new PriorityQueue<>((x, y) -> Long.compare(x[0], y[0]));
+        ArrayDeque<Integer> deque = new ArrayDeque<>();
+        for (int number : list) {
+            counts.merge(number, 1, Integer::sum);
+            sorted.put(number, number * 2);
+            queue.add(new long[] {number, a});
+            deque.addLast(number);
+        }
+        out.println(list.stream().map(String::valueOf).collect(Collectors.joining(" ")));
+        out.println(new HashSet<>(counts.keySet()).size() + " " + sorted.firstKey() + " " + queue.poll()[0]
+                + " " + deque.pollFirst());
+        out.printf("%.6f %d%n", Math.sqrt(a * b), Long.MAX_VALUE);
+        out.println(String.format("%s %5d", "x", 42));
+        out.println(BigInteger.valueOf(a).pow(20).mod(BigInteger.valueOf(1_000_000_007L)));
+
+        String words = reader.readLine();
+        Scanner scanner = new Scanner(new ByteArrayInputStream(words.getBytes(StandardCharsets.UTF_8)));
+        StringBuilder reversed = new StringBuilder();
+        while (scanner.hasNext()) {
+            reversed.append(new StringBuilder(scanner.next()).reverse()).append(' ');
+        }
+        out.println(reversed.toString().trim());
+        out.flush();
+    }
+}
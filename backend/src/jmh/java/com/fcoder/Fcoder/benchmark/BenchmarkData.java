@@ -0,0 +1,45 @@
+package com.fcoder.Fcoder.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Deterministic inputs shared by the benchmarks
+ */
+final class BenchmarkData {
+
+    // Size of a Linux pipe buffer, what a reader of process output gets per read at most
+    static final int CHUNK_BYTES = 65536;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Space separated integers and decimals, ten per line, like the output of a typical problem
+     */
+    static byte[] numbersOutput(int bytes) {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder(bytes + 32);
+        int column = 0;
+        while (text.length() < bytes) {
+            if (random.nextInt(4) == 0) {
+                text.append(random.nextInt(1_000_000)).append('.').append(random.nextInt(1000));
+            } else {
+                text.append(random.nextInt(1_000_000_000));
+            }
+            text.append(++column % 10 == 0 ? '\n' : ' ');
+        }
+        return text.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Lines of lineLength letters
+     */
+    static byte[] linesOutput(int bytes, int lineLength) {
+        byte[] output = new byte[bytes];
+        for (int i = 0; i < bytes; i++) {
+            output[i] = (i + 1) % (lineLength + 1) == 0 ? (byte) '\n' : (byte) ('a' + i % 26);
+        }
+        return output;
+    }
+}
@@ -0,0 +1,59 @@
+package com.fcoder.Fcoder.benchmark;
+
+import com.fcoder.Fcoder.util.HashUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * sha256 of sources (verdict and compile cache keys) and the HMAC-SHA512 of payment requests, with
+ * the hex encoding of {@link HashUtils} against HexFormat as a baseline
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HashingBenchmark {
+
+    private static final String SECRET = "0123456789ABCDEF0123456789ABCDEF";
+
+    // A short source and a large one
+    @Param({"200", "65536"})
+    private int messageLength;
+
+    private final HashUtils hashUtils = new HashUtils();
+    private String message;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        message = new String(BenchmarkData.numbersOutput(messageLength), StandardCharsets.US_ASCII)
+                .substring(0, messageLength);
+    }
+
+    @Benchmark
+    public String sha256() {
+        return hashUtils.sha256(message);
+    }
+
+    @Benchmark
+    public String sha256HexFormat() throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return HexFormat.of().formatHex(digest.digest(message.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    public String hmacSHA512() {
+        return hashUtils.hmacSHA512(SECRET, message);
+    }
+}
@@ -0,0 +1,71 @@
+package com.fcoder.Fcoder.benchmark;
+
+import com.fcoder.Fcoder.config.JwtTokenConfig;
+import com.fcoder.Fcoder.model.constant.JwtTokenType;
+import com.fcoder.Fcoder.model.other.UserClaims;
+import com.fcoder.Fcoder.service.impl.JwtServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validating the access token of a request, done by the authentication filter on every call
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtParsingBenchmark {
+
+    private JwtServiceImpl jwtService;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String secret = secret(1);
+        String refreshSecret = secret(2);
+        jwtService = new JwtServiceImpl(new JwtTokenConfig() {
+            @Override
+            public String getJwtSecret() {
+                return secret;
+            }
+
+            @Override
+            public long getJwtExpiration() {
+                return TimeUnit.HOURS.toMillis(1);
+            }
+
+            @Override
+            public String getJwtRefreshSecret() {
+                return refreshSecret;
+            }
+
+            @Override
+            public long getJwtRefreshExpiration() {
+                return TimeUnit.DAYS.toMillis(7);
+            }
+        });
+        token = jwtService.generateToken("benchmark-user", List.of("ROLE_USER"), JwtTokenType.ACCESS_TOKEN);
+    }
+
+    @Benchmark
+    public Optional<UserClaims> getUserClaimsFromJwt() {
+        return jwtService.getUserClaimsFromJwt(token, JwtTokenType.ACCESS_TOKEN);
+    }
+
+    private static String secret(long seed) {
+        byte[] key = new byte[64];
+        new Random(seed).nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+}
@@ -0,0 +1,96 @@
+package com.fcoder.Fcoder.benchmark;
+
+import com.fcoder.Fcoder.compiler.OutputComparator;
+import com.fcoder.Fcoder.compiler.checker.CheckVerdict;
+import com.fcoder.Fcoder.compiler.checker.Checker;
+import com.fcoder.Fcoder.compiler.checker.ExactChecker;
+import com.fcoder.Fcoder.compiler.checker.TokenChecker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checking a program output against the expected output: the String.trim().equals comparison the
+ * judge used before, against the streaming checkers fed through {@link OutputComparator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OutputComparisonBenchmark {
+
+    private static final long OUTPUT_LIMIT = 64L * 1024 * 1024;
+
+    @Param({"1024", "1048576"})
+    private int outputBytes;
+
+    private Path directory;
+    private Path input;
+    private Path expectedOutput;
+    private byte[] output;
+    private String expectedText;
+    private Checker exactChecker;
+    private Checker tokenChecker;
+    private Checker epsilonChecker;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        output = BenchmarkData.numbersOutput(outputBytes);
+        expectedText = new String(output, StandardCharsets.UTF_8);
+        directory = Files.createTempDirectory("jmh-compare");
+        input = Files.write(directory.resolve("input.txt"), new byte[0]);
+        expectedOutput = Files.write(directory.resolve("expected.txt"), output);
+        exactChecker = new ExactChecker();
+        tokenChecker = new TokenChecker(null);
+        epsilonChecker = new TokenChecker(1e-6);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(expectedOutput);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public boolean trimEquals() {
+        // Whole output decoded to a String, as the judge did before streaming
+        return new String(output, StandardCharsets.UTF_8).trim().equals(expectedText.trim());
+    }
+
+    @Benchmark
+    public CheckVerdict exactChecker() throws IOException {
+        return check(exactChecker);
+    }
+
+    @Benchmark
+    public CheckVerdict tokenChecker() throws IOException {
+        return check(tokenChecker);
+    }
+
+    @Benchmark
+    public CheckVerdict tokenCheckerWithEpsilon() throws IOException {
+        return check(epsilonChecker);
+    }
+
+    private CheckVerdict check(Checker checker) throws IOException {
+        OutputComparator comparator = new OutputComparator(checker.start(input, expectedOutput), expectedOutput,
+                OUTPUT_LIMIT);
+        for (int offset = 0; offset < output.length; offset += BenchmarkData.CHUNK_BYTES) {
+            comparator.write(output, offset, Math.min(BenchmarkData.CHUNK_BYTES, output.length - offset));
+        }
+        return comparator.result().getVerdict();
+    }
+}
@@ -0,0 +1,102 @@
+package com.fcoder.Fcoder.benchmark;
+
+import com.fcoder.Fcoder.compiler.OutputComparator;
+import com.fcoder.Fcoder.compiler.checker.Checker;
+import com.fcoder.Fcoder.compiler.checker.ExactChecker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the stdout of a test run: line by line into a StringBuilder (the former readProcessOutput),
+ * all bytes at once, or streamed through {@link OutputComparator} without keeping the output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProcessOutputBenchmark {
+
+    @Param({"1024", "1048576"})
+    private int outputBytes;
+
+    @Param({"10", "100000"})
+    private int lineLength;
+
+    private byte[] output;
+    private Path directory;
+    private Path input;
+    private Path expectedOutput;
+    private Checker checker;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        output = BenchmarkData.linesOutput(outputBytes, lineLength);
+        directory = Files.createTempDirectory("jmh-output");
+        input = Files.write(directory.resolve("input.txt"), new byte[0]);
+        expectedOutput = Files.write(directory.resolve("expected.txt"), output);
+        checker = new ExactChecker();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(expectedOutput);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public String readLines() throws IOException {
+        StringBuilder result = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stdout(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                result.append(line).append('\n');
+            }
+        }
+        return result.toString();
+    }
+
+    @Benchmark
+    public String readAllBytes() throws IOException {
+        try (InputStream in = stdout()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public OutputComparator.Result streamToComparator() throws IOException {
+        OutputComparator comparator = new OutputComparator(checker.start(input, expectedOutput), expectedOutput,
+                Long.MAX_VALUE);
+        try (InputStream in = stdout()) {
+            comparator.consume(in);
+        }
+        return comparator.result();
+    }
+
+    // Stands in for the pipe of the process, read in the same pipe-sized pieces
+    private InputStream stdout() {
+        return new ByteArrayInputStream(output) {
+            @Override
+            public synchronized int read(byte[] buffer, int offset, int length) {
+                return super.read(buffer, offset, Math.min(length, BenchmarkData.CHUNK_BYTES));
+            }
+        };
+    }
+}
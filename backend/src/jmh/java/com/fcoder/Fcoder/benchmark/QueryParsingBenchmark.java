@@ -0,0 +1,58 @@
+package com.fcoder.Fcoder.benchmark;
+
+import com.fcoder.Fcoder.model.dto.request.QueryWrapper;
+import com.fcoder.Fcoder.util.TextUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the "q" search parameter of the list endpoints and the kebab-case to camelCase
+ * conversion of its keys and of sort properties
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QueryParsingBenchmark {
+
+    private static final String SHORT_QUERY = "title=graph";
+    private static final String LONG_QUERY = "title=shortest%20path&difficulty=hard&author-id=42"
+            + "&created-by=admin&category-id=7&is-published=true&tag-name=dijkstra";
+
+    private final Map<String, String> parameters = new LinkedHashMap<>();
+
+    public QueryParsingBenchmark() {
+        parameters.put("title", "graph");
+        parameters.put("author-id", "42");
+        parameters.put("created-by", "admin");
+        parameters.put("category-id", "7");
+        parameters.put("is-published", "true");
+    }
+
+    @Benchmark
+    public QueryWrapper searchShort() {
+        return QueryWrapper.builder().search(SHORT_QUERY).build();
+    }
+
+    @Benchmark
+    public QueryWrapper searchLong() {
+        return QueryWrapper.builder().search(LONG_QUERY).build();
+    }
+
+    @Benchmark
+    public String kebabToCamel() {
+        return TextUtils.kebabToCamel("created-by-user-id");
+    }
+
+    @Benchmark
+    public Map<String, String> convertKeysToCamel() {
+        return TextUtils.convertKeysToCamel(parameters);
+    }
+}
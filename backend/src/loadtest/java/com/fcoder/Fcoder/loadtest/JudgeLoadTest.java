@@ -0,0 +1,204 @@
+package com.fcoder.Fcoder.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Judge load test: replays a corpus of submissions against POST /api/submissions at a fixed rate and polls
+ * GET /api/submissions/{id} until each one has its verdict. Arrivals never wait for earlier verdicts (open
+ * loop), so a judge that falls behind shows up as growing latency and queue-full rejections instead of a
+ * lower submit rate. Latencies are as precise as the poll interval.
+ * Point it at a backend started with the "loadtest" profile to judge without docker, see README.md.
+ */
+public final class JudgeLoadTest {
+
+    private static final Set<String> IN_PROGRESS = Set.of("PENDING", "COMPILING", "RUNNING");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestOptions options;
+    private final LoadTestReport report;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final ScheduledExecutorService poller = Executors.newScheduledThreadPool(2);
+    private final AtomicLong lastDone = new AtomicLong();
+    private final long runId = System.currentTimeMillis();
+    private String accessToken;
+
+    private JudgeLoadTest(LoadTestOptions options) {
+        this.options = options;
+        this.report = new LoadTestReport(options.rate);
+    }
+
+    public static void main(String[] args) throws Exception {
+        JudgeLoadTest loadTest = new JudgeLoadTest(LoadTestOptions.fromSystemProperties());
+        try {
+            loadTest.run();
+        } finally {
+            loadTest.poller.shutdownNow();
+        }
+    }
+
+    private void run() throws IOException, InterruptedException {
+        List<JsonNode> corpus = readCorpus(options.corpus);
+        login();
+
+        long total = Math.max(1, Math.round(options.rate * options.duration.toSeconds()));
+        long periodNanos = Math.round(1e9 / options.rate);
+        System.out.printf("Replaying %d submissions from %s (%d in the corpus) at %s/s against %s%n",
+                total, options.corpus, corpus.size(), options.rate, options.baseUrl);
+
+        List<CompletableFuture<Void>> submissions = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            // Due times are fixed up front, a late arrival does not push back the ones after it
+            long wait = start + i * periodNanos - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            submissions.add(submit(corpus.get(i % corpus.size()), i).thenAccept(outcome -> {
+                report.add(outcome);
+                lastDone.accumulateAndGet(System.nanoTime(), Math::max);
+            }));
+        }
+        System.out.printf("All submissions made, waiting for %d verdicts%n", submissions.size());
+        CompletableFuture.allOf(submissions.toArray(new CompletableFuture[0])).join();
+
+        report.finish(lastDone.get() - start);
+        report.print(System.out);
+        report.write(options.report);
+        System.out.println("Report written to " + options.report.toAbsolutePath());
+    }
+
+    private CompletableFuture<LoadTestReport.Outcome> submit(JsonNode entry, int sequence) {
+        String language = entry.path("language").asText();
+        String sourceCode = entry.path("sourceCode").asText();
+        ObjectNode body = mapper.createObjectNode();
+        body.put("problemId", entry.path("problemId").asLong());
+        body.put("language", language);
+        body.put("sourceCode", options.unique ? withComment(sourceCode, language, sequence) : sourceCode);
+
+        CompletableFuture<LoadTestReport.Outcome> outcome = new CompletableFuture<>();
+        long sentAt = System.nanoTime();
+        HttpRequest request = request("/api/submissions")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, failure) -> {
+            if (failure != null) {
+                outcome.complete(LoadTestReport.Outcome.error(language, "io"));
+                return;
+            }
+            try {
+                if (response.statusCode() == 429) {
+                    outcome.complete(LoadTestReport.Outcome.error(language, "rejected"));
+                    return;
+                }
+                JsonNode json = mapper.readTree(response.body());
+                if (response.statusCode() != 200 || !json.path("success").asBoolean()) {
+                    outcome.complete(LoadTestReport.Outcome.error(language,
+                            "submit-" + response.statusCode() + "-" + json.path("code").asText("failed")));
+                    return;
+                }
+                poll(json.path("content").path("id").asLong(), language, sentAt, outcome);
+            } catch (IOException | RuntimeException e) {
+                outcome.complete(LoadTestReport.Outcome.error(language, "bad-response"));
+            }
+        });
+        return outcome;
+    }
+
+    private void poll(long id, String language, long sentAt, CompletableFuture<LoadTestReport.Outcome> outcome) {
+        poller.schedule(() -> {
+            if (System.nanoTime() - sentAt > options.verdictTimeout.toNanos()) {
+                outcome.complete(LoadTestReport.Outcome.error(language, "timeout"));
+                return;
+            }
+            HttpRequest request = request("/api/submissions/" + id).GET().build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, failure) -> {
+                long seenAt = System.nanoTime();
+                String status = null;
+                try {
+                    if (failure == null && response.statusCode() == 200) {
+                        status = mapper.readTree(response.body()).path("content").path("status").asText(null);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // Asked again on the next poll
+                }
+                if (status == null || IN_PROGRESS.contains(status)) {
+                    poll(id, language, sentAt, outcome);
+                } else {
+                    outcome.complete(LoadTestReport.Outcome.verdict(language, status, seenAt - sentAt));
+                }
+            });
+        }, options.pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void login() throws IOException, InterruptedException {
+        ObjectNode body = mapper.createObjectNode();
+        body.put("username", options.username);
+        body.put("password", options.password);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(options.baseUrl + "/auth/login"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        String token = response.statusCode() == 200
+                ? mapper.readTree(response.body()).path("content").path("accessToken").asText(null)
+                : null;
+        if (token == null) {
+            throw new IllegalStateException("Login as " + options.username + " failed: HTTP " + response.statusCode());
+        }
+        accessToken = token;
+    }
+
+    // The API reads the token from the cookie it sets on login; that cookie is Secure, so it is sent by hand
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(options.baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Cookie", "ACCESS_TOKEN=" + accessToken);
+    }
+
+    private String withComment(String sourceCode, String language, int sequence) {
+        String comment = "load test " + runId + "-" + sequence;
+        return sourceCode + ("PYTHON".equals(language) ? "\n# " : "\n// ") + comment + "\n";
+    }
+
+    private List<JsonNode> readCorpus(Path file) throws IOException {
+        List<JsonNode> corpus = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode entry = mapper.readTree(line);
+            if (!entry.hasNonNull("problemId") || !entry.hasNonNull("language") || !entry.hasNonNull("sourceCode")) {
+                throw new IllegalArgumentException("Corpus entry without problemId, language or sourceCode: " + line);
+            }
+            corpus.add(entry);
+        }
+        if (corpus.isEmpty()) {
+            throw new IllegalArgumentException("Corpus " + file + " is empty");
+        }
+        return corpus;
+    }
+}
@@ -0,0 +1,66 @@
+package com.fcoder.Fcoder.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Settings of a load test run, read from "loadtest.*" system properties (the loadTest task passes
+ * its -Ploadtest.* project properties through)
+ */
+final class LoadTestOptions {
+
+    // API root, context path included
+    final String baseUrl;
+    // JSON lines of {"problemId": ..., "language": "CPP", "sourceCode": "..."}
+    final Path corpus;
+    // Account the submissions are made with
+    final String username;
+    final String password;
+    // Submissions started per second, whether or not earlier ones have their verdict
+    final double rate;
+    final Duration duration;
+    // A submission without a verdict this long after it was made counts as an error
+    final Duration verdictTimeout;
+    final Duration pollInterval;
+    // Append a unique comment to every source so the compile and verdict caches do not answer
+    final boolean unique;
+    final Path report;
+
+    private LoadTestOptions() {
+        baseUrl = stripTrailingSlash(property("baseUrl", "http://localhost:8080/api/v1"));
+        corpus = Paths.get(required("corpus"));
+        username = required("username");
+        password = required("password");
+        rate = Double.parseDouble(property("rate", "5"));
+        duration = Duration.ofSeconds(Long.parseLong(property("duration", "60")));
+        verdictTimeout = Duration.ofSeconds(Long.parseLong(property("verdictTimeout", "120")));
+        pollInterval = Duration.ofMillis(Long.parseLong(property("pollInterval", "100")));
+        unique = Boolean.parseBoolean(property("unique", "true"));
+        report = Paths.get(property("report", "build/reports/loadtest/results.json"));
+        if (rate <= 0) {
+            throw new IllegalArgumentException("loadtest.rate must be positive");
+        }
+    }
+
+    static LoadTestOptions fromSystemProperties() {
+        return new LoadTestOptions();
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty("loadtest." + name);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    private static String required(String name) {
+        String value = property(name, null);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing -Ploadtest." + name);
+        }
+        return value;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,176 @@
+package com.fcoder.Fcoder.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcomes of a load test run and the figures derived from them: verdict latency percentiles overall and
+ * per language, verdict throughput, the verdicts given and the error rate by kind of error.
+ * Errors are submissions without a usable verdict: rejected or failed requests, verdict timeouts and
+ * SYSTEM_ERROR verdicts (which also count as verdicts).
+ */
+final class LoadTestReport {
+
+    static final String SYSTEM_ERROR = "SYSTEM_ERROR";
+
+    private final List<Outcome> outcomes = new ArrayList<>();
+    private final double offeredRate;
+    private long elapsedNanos;
+
+    LoadTestReport(double offeredRate) {
+        this.offeredRate = offeredRate;
+    }
+
+    synchronized void add(Outcome outcome) {
+        outcomes.add(outcome);
+    }
+
+    /**
+     * @param elapsedNanos From the first submission to the last verdict or error
+     */
+    synchronized void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    synchronized void print(PrintStream out) {
+        Map<String, Object> summary = summary();
+        out.println();
+        out.printf(Locale.ROOT, "Submissions: %d in %.1fs (%.2f/s offered)%n",
+                outcomes.size(), seconds(elapsedNanos), offeredRate);
+        out.printf(Locale.ROOT, "Verdicts:    %d, %.2f/s%n", summary.get("verdicts"), summary.get("throughput"));
+        out.printf(Locale.ROOT, "Errors:      %d (%.1f%%) %s%n", summary.get("errors"),
+                100 * (double) summary.get("errorRate"), summary.get("errorsByKind"));
+        out.printf(Locale.ROOT, "Verdict latency      %s%n", latencyLine(latencies(null)));
+        for (String language : languages()) {
+            out.printf(Locale.ROOT, "  %-18s %s%n", language, latencyLine(latencies(language)));
+        }
+        out.printf("Verdicts given: %s%n", summary.get("verdictsByStatus"));
+    }
+
+    synchronized void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), summary());
+    }
+
+    private Map<String, Object> summary() {
+        Map<String, Integer> verdicts = new TreeMap<>();
+        Map<String, Integer> errors = new TreeMap<>();
+        for (Outcome outcome : outcomes) {
+            if (outcome.verdict != null) {
+                verdicts.merge(outcome.verdict, 1, Integer::sum);
+            }
+            String error = outcome.error != null ? outcome.error
+                    : SYSTEM_ERROR.equals(outcome.verdict) ? "system-error" : null;
+            if (error != null) {
+                errors.merge(error, 1, Integer::sum);
+            }
+        }
+        int verdictCount = verdicts.values().stream().mapToInt(Integer::intValue).sum();
+        int errorCount = errors.values().stream().mapToInt(Integer::intValue).sum();
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("submissions", outcomes.size());
+        summary.put("durationSeconds", seconds(elapsedNanos));
+        summary.put("offeredRate", offeredRate);
+        summary.put("verdicts", verdictCount);
+        summary.put("throughput", elapsedNanos > 0 ? verdictCount / seconds(elapsedNanos) : 0.0);
+        summary.put("errors", errorCount);
+        summary.put("errorRate", outcomes.isEmpty() ? 0.0 : (double) errorCount / outcomes.size());
+        summary.put("errorsByKind", errors);
+        summary.put("verdictsByStatus", verdicts);
+        summary.put("latencyMs", latencyFigures(latencies(null)));
+        Map<String, Object> byLanguage = new LinkedHashMap<>();
+        for (String language : languages()) {
+            byLanguage.put(language, latencyFigures(latencies(language)));
+        }
+        summary.put("latencyMsByLanguage", byLanguage);
+        return summary;
+    }
+
+    private List<String> languages() {
+        return outcomes.stream().map(outcome -> outcome.language).distinct().sorted().toList();
+    }
+
+    // Sorted verdict latencies of the language, of all languages for null
+    private long[] latencies(String language) {
+        return outcomes.stream()
+                .filter(outcome -> outcome.verdict != null)
+                .filter(outcome -> language == null || language.equals(outcome.language))
+                .mapToLong(outcome -> outcome.latencyNanos)
+                .sorted()
+                .toArray();
+    }
+
+    private static Map<String, Object> latencyFigures(long[] sorted) {
+        Map<String, Object> figures = new LinkedHashMap<>();
+        figures.put("count", sorted.length);
+        figures.put("p50", millis(percentile(sorted, 50)));
+        figures.put("p95", millis(percentile(sorted, 95)));
+        figures.put("p99", millis(percentile(sorted, 99)));
+        figures.put("max", millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+        return figures;
+    }
+
+    private static String latencyLine(long[] sorted) {
+        return String.format(Locale.ROOT, "n=%-6d p50 %7dms  p95 %7dms  p99 %7dms  max %7dms", sorted.length,
+                millis(percentile(sorted, 50)), millis(percentile(sorted, 95)), millis(percentile(sorted, 99)),
+                millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+    }
+
+    // Nearest-rank percentile
+    private static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    /**
+     * What became of one submission: a verdict, or an error before there was one
+     */
+    static final class Outcome {
+        final String language;
+        final String verdict;
+        final String error;
+        // From sending the submission to seeing its verdict
+        final long latencyNanos;
+
+        private Outcome(String language, String verdict, String error, long latencyNanos) {
+            this.language = language;
+            this.verdict = verdict;
+            this.error = error;
+            this.latencyNanos = latencyNanos;
+        }
+
+        static Outcome verdict(String language, String verdict, long latencyNanos) {
+            return new Outcome(language, verdict, null, latencyNanos);
+        }
+
+        static Outcome error(String language, String error) {
+            return new Outcome(language, null, error, 0);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.fcoder.Fcoder.compiler;
+
+import com.fcoder.Fcoder.config.JudgeConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs test inputs of a submission back-to-back in a single sandbox session.
+ * The inputs are copied into the workspace from the test data store and a runner executes a range of them
+ * inside the container, reporting each test as soon as it finishes. The native runner of the compiler
+ * image (see {@link RunnerProtocol}) forks the program itself under its own rlimits and seccomp filter and
+ * measures exit status, signal, CPU time and peak RSS with wait4; images without it get a small shell
+ * runner enforcing the wall-clock ceiling with "timeout" and measuring with GNU time. A compiler may bring
+ * a runner of its own speaking the same protocol (the persistent JVM of Java submissions), tried first.
+ * Expected outputs never enter the workspace, output files are checked on the host as they are read.
+ */
+@Component
+public class BatchTestRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchTestRunner.class);
+
+    private static final String RUNNER_RESOURCE = "/judge/batch-runner.sh";
+    private static final String TESTS_DIR = "tests";
+    private static final String STOP_FILE = ".stop";
+    // Exit codes of "timeout" when it had to stop (124) or kill (137) the program
+    private static final int TIMEOUT_EXIT_CODE = 124;
+    private static final int KILLED_EXIT_CODE = 137;
+    private static final long PER_TEST_OVERHEAD_MS = 1000;
+    private static final long SESSION_OVERHEAD_MS = 10000;
+    // Exit code of docker exec / docker run when the command does not exist in the image
+    private static final int COMMAND_NOT_FOUND_EXIT_CODE = 127;
+
+    private final TestDataStore testDataStore;
+    private final JudgeConfig.Execution config;
+    private final JudgeMetrics judgeMetrics;
+    // "<image> <runner path>" of runners found missing, the next runner in line is used from then on
+    private final Set<String> missingRunners = ConcurrentHashMap.newKeySet();
+    // The shell runner goes into the sandbox inline with "sh -c", the program cannot rewrite it
+    private volatile String shellRunner;
+
+    public BatchTestRunner(TestDataStore testDataStore, JudgeConfig judgeConfig, JudgeMetrics judgeMetrics) {
+        this.testDataStore = testDataStore;
+        this.config = judgeConfig.getExecution();
+        this.judgeMetrics = judgeMetrics;
+    }
+
+    /**
+     * Callback for a finished test, invoked while later tests of the session are still running
+     */
+    public interface ResultListener {
+        void onResult(int index, RunOutcome outcome);
+    }
+
+    /**
+     * Opens the output check of a test, the expected output stays on the host
+     */
+    public interface OutputChecks {
+        OutputComparator open(int index) throws IOException;
+
+        /**
+         * sha256 of the expected output of a test, an output with the same hash is accepted without
+         * going through the checker. Null to always check.
+         */
+        default String expectedHash(int index) {
+            return null;
+        }
+    }
+
+    /**
+     * Write the test inputs into the workspace, once per submission
+     *
+     * @param workspace   Workspace holding the compiled program
+     * @param inputHashes Test inputs in the test data store, in test order
+     */
+    public void prepare(Path workspace, List<String> inputHashes) throws IOException {
+        Path testsDir = workspace.resolve(TESTS_DIR);
+        Files.createDirectories(testsDir);
+        for (int i = 0; i < inputHashes.size(); i++) {
+            testDataStore.copy(inputHashes.get(i), testsDir.resolve(i + ".in"));
+        }
+    }
+
+    /**
+     * Run the compiled program for tests [first, first + count) inside one sandbox.
+     * Tests the runner did not report on (session killed, crashed runner, stopped early, ...)
+     * are simply not passed to the listener, so the caller can decide what to do with them.
+     *
+     * @param compiler      Compiler of the submission, provides the execution command
+     * @param workspace     Workspace prepared with {@link #prepare}
+     * @param first         Index of the first test to run
+     * @param count         Number of tests to run
+     * @param core            Core to pin the runs to, null to run unpinned
+     * @param limits          Wall-clock, memory and output limits of each test
+     * @param checks          Output check of each test
+     * @param listener        Receives each finished test
+     */
+    public void run(BaseCompiler compiler, Path workspace, int first, int count, Integer core, RunLimits limits,
+            OutputChecks checks, ResultListener listener) throws IOException, InterruptedException {
+        String image = compiler.getDockerImage();
+        for (String runner : runners(compiler)) {
+            if (missingRunners.contains(image + " " + runner)) {
+                continue;
+            }
+            if (runNative(compiler, runner, workspace, first, count, core, limits, checks, listener)) {
+                return;
+            }
+            log.warn("No runner at {} in {}, using the next runner in line for this image", runner, image);
+            missingRunners.add(image + " " + runner);
+        }
+        runShell(compiler, workspace, first, count, core, limits, checks, listener);
+    }
+
+    /**
+     * Tell running sessions of this workspace not to start tests after the given one
+     */
+    public void stopAfter(Path workspace, int index) throws IOException {
+        Files.writeString(workspace.resolve(TESTS_DIR).resolve(STOP_FILE), String.valueOf(index),
+                StandardCharsets.UTF_8);
+    }
+
+    // Protocol runners to try before the shell runner: the compiler's own, then the native runner
+    private List<String> runners(BaseCompiler compiler) {
+        List<String> runners = new ArrayList<>(2);
+        if (compiler.getBatchRunner() != null) {
+            runners.add(compiler.getBatchRunner());
+        }
+        if (config.isNativeRunner()) {
+            runners.add(config.getNativeRunnerPath());
+        }
+        return runners;
+    }
+
+    /**
+     * @param runner Runner speaking {@link RunnerProtocol} in the image
+     * @return false when the image has no such runner and nothing was run
+     */
+    private boolean runNative(BaseCompiler compiler, String runner, Path workspace, int first, int count,
+            Integer core, RunLimits limits, OutputChecks checks, ResultListener listener)
+            throws IOException, InterruptedException {
+        Path testsDir = workspace.resolve(TESTS_DIR);
+        Path errorLog = testsDir.resolve(".runner-" + first + ".log");
+        // The native runner pins each program it forks; a runner of the compiler runs the tests itself
+        String[] runnerCommand = core == null || runner.equals(config.getNativeRunnerPath())
+                ? new String[] {runner}
+                : CpuBudgetScheduler.pinned(core, runner);
+        try (Sandbox sandbox = compiler.openSandbox(workspace, limits.getMemory())) {
+            ProcessBuilder pb = new ProcessBuilder(sandbox.command(workspace, true, runnerCommand));
+            pb.directory(workspace.toFile());
+            pb.redirectError(errorLog.toFile());
+
+            log.info("Running test cases {}-{} with {}: {}", first, first + count - 1, runner, workspace);
+            Process process = pb.start();
+            try (OutputStream stdin = process.getOutputStream()) {
+                RunnerProtocol.writeRequest(stdin, limits, core, TESTS_DIR, compiler.getExecutionCommand(),
+                        first, count);
+            } catch (IOException e) {
+                // The runner is gone already, the exit code tells why
+                log.debug("Could not write the runner request: {}", e.getMessage());
+            }
+
+            AtomicBoolean answered = new AtomicBoolean();
+            Thread reader = new Thread(() -> answered.set(readNativeResults(process, testsDir, checks, listener)),
+                    "native-runner-reader");
+            reader.setDaemon(true);
+            reader.start();
+
+            long sessionTimeout = (long) count * (limits.getWallTimeLimit() + PER_TEST_OVERHEAD_MS) + SESSION_OVERHEAD_MS;
+            if (!process.waitFor(sessionTimeout, TimeUnit.MILLISECONDS)) {
+                log.warn("Native runner session did not finish within {}ms, killing it", sessionTimeout);
+                process.destroyForcibly();
+                sandbox.discard();
+            }
+            reader.join(TimeUnit.SECONDS.toMillis(5));
+            if (!answered.get() && !process.isAlive() && process.exitValue() == COMMAND_NOT_FOUND_EXIT_CODE) {
+                return false;
+            }
+            if (!answered.get()) {
+                log.warn("Native runner session failed: {}", firstLine(errorLog));
+            }
+            return true;
+        } finally {
+            Files.deleteIfExists(errorLog);
+        }
+    }
+
+    /**
+     * @return true if the runner answered at all (results, done or an error of its own)
+     */
+    private boolean readNativeResults(Process process, Path testsDir, OutputChecks checks, ResultListener listener) {
+        boolean answered = false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(process.getInputStream()))) {
+            RunnerProtocol.Result result;
+            while ((result = RunnerProtocol.readResult(in)) != null) {
+                answered = true;
+                listener.onResult(result.getIndex(), toOutcome(result, testsDir, checks));
+            }
+            return true;
+        } catch (RunnerProtocol.RunnerException e) {
+            log.warn("Native runner gave up on the session: {}", e.getMessage());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Stopped reading native runner results: {}", e.getMessage());
+            return answered;
+        }
+    }
+
+    private RunOutcome toOutcome(RunnerProtocol.Result result, Path testsDir, OutputChecks checks) throws IOException {
+        int index = result.getIndex();
+        OutputComparator.Result output = null;
+        if (!result.isTimedOut()) {
+            Path outputFile = testsDir.resolve(index + ".out");
+            OutputComparator comparator = checks.open(index);
+            String expectedHash = checks.expectedHash(index);
+            long start = System.nanoTime();
+            // The runner's hash only says the output is worth hashing: the runner shares the sandbox with
+            // the program, so the output is hashed again here before it skips the checker
+            if (!result.isOutputLimitExceeded() && result.getOutputHash().equals(expectedHash)
+                    && sha256(outputFile).equals(expectedHash)) {
+                // Byte-identical to the expected output, no need to read it through the checker
+                output = comparator.identical(outputFile, Files.size(outputFile));
+                judgeMetrics.record(JudgeMetrics.Stage.COMPARE, start);
+            } else {
+                output = checkOutput(outputFile, comparator);
+            }
+        }
+        ResourceUsage usage = new ResourceUsage(true, result.getPeakMemoryKb(), result.getCpuTimeMs(),
+                result.getWallTimeMs());
+        return new RunOutcome(result.isTimedOut(), output, result.getExitCode(), result.getWallTimeMs(), usage,
+                result.getSignal());
+    }
+
+    static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream input = Files.newInputStream(file)) {
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String firstLine(Path file) {
+        try {
+            return Files.exists(file) ? Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+                    .findFirst().orElse("no output") : "no output";
+        } catch (IOException e) {
+            return e.getMessage();
+        }
+    }
+
+    private void runShell(BaseCompiler compiler, Path workspace, int first, int count, Integer core, RunLimits limits,
+            OutputChecks checks, ResultListener listener) throws IOException, InterruptedException {
+        Path testsDir = workspace.resolve(TESTS_DIR);
+        int wallTimeLimit = limits.getWallTimeLimit();
+        List<String> runnerCommand = new ArrayList<>(List.of(
+                "sh", "-c", shellRunner(), "batch-runner", String.valueOf(wallTimeLimit), String.valueOf(limits.getOutputLimit()), TESTS_DIR,
+                String.valueOf(first), String.valueOf(count), core == null ? "-" : String.valueOf(core)));
+        runnerCommand.addAll(List.of(compiler.getExecutionCommand()));
+
+        try (Sandbox sandbox = compiler.openSandbox(workspace, limits.getMemory())) {
+            ProcessBuilder pb = new ProcessBuilder(
+                    sandbox.command(workspace, false, runnerCommand.toArray(new String[0])));
+            pb.directory(workspace.toFile());
+            pb.redirectErrorStream(true);
+
+            log.info("Running test cases {}-{} in one sandbox session: {}", first, first + count - 1, workspace);
+            Process process = pb.start();
+
+            Thread reader = new Thread(() -> readResults(process, testsDir, limits, checks, listener),
+                    "batch-runner-reader");
+            reader.setDaemon(true);
+            reader.start();
+
+            long sessionTimeout = (long) count * (wallTimeLimit + PER_TEST_OVERHEAD_MS) + SESSION_OVERHEAD_MS;
+            if (!process.waitFor(sessionTimeout, TimeUnit.MILLISECONDS)) {
+                log.warn("Batch session did not finish within {}ms, killing it", sessionTimeout);
+                process.destroyForcibly();
+                sandbox.discard();
+            }
+            reader.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private void readResults(Process process, Path testsDir, RunLimits limits, OutputChecks checks,
+            ResultListener listener) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("RESULT ")) {
+                    log.debug("Batch runner: {}", line);
+                    continue;
+                }
+                String[] parts = line.split(" ");
+                int index = Integer.parseInt(parts[1]);
+                int exitCode = Integer.parseInt(parts[2]);
+                long elapsed = Long.parseLong(parts[3]);
+
+                boolean timedOut = (exitCode == TIMEOUT_EXIT_CODE || exitCode == KILLED_EXIT_CODE)
+                        && elapsed >= limits.getWallTimeLimit();
+                OutputComparator.Result output = null;
+                if (!timedOut) {
+                    output = checkOutput(testsDir.resolve(index + ".out"), checks.open(index));
+                }
+                // Usage comes over the pipe, never from a file the program could have written
+                ResourceUsage usage = parts.length > 4
+                        ? ResourceUsage.parse(String.join(" ", Arrays.copyOfRange(parts, 4, parts.length)))
+                        : ResourceUsage.NONE;
+                listener.onResult(index, new RunOutcome(timedOut, output, exitCode, elapsed, usage));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Stopped reading batch results: {}", e.getMessage());
+        }
+    }
+
+    private OutputComparator.Result checkOutput(Path outputFile, OutputComparator comparator) throws IOException {
+        long start = System.nanoTime();
+        try (InputStream output = Files.newInputStream(outputFile)) {
+            comparator.consume(output);
+        }
+        OutputComparator.Result result = comparator.result();
+        judgeMetrics.record(JudgeMetrics.Stage.COMPARE, start);
+        return result;
+    }
+
+    private String shellRunner() throws IOException {
+        String script = shellRunner;
+        if (script == null) {
+            try (InputStream runner = BatchTestRunner.class.getResourceAsStream(RUNNER_RESOURCE)) {
+                if (runner == null) {
+                    throw new IOException("Missing batch runner resource " + RUNNER_RESOURCE);
+                }
+                script = new String(runner.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            shellRunner = script;
+        }
+        return script;
+    }
+
+    /**
+     * Result of one program run, with its output already compared.
+     * "timedOut" means the run was killed at the wall-clock ceiling, the output is null then.
+     */
+    public static class RunOutcome {
+        private final boolean timedOut;
+        private final OutputComparator.Result output;
+        private final int exitCode;
+        private final long executionTime;
+        private final ResourceUsage usage;
+        private final int signal;
+
+        public RunOutcome(boolean timedOut, OutputComparator.Result output, int exitCode, long executionTime, ResourceUsage usage) {
+            this(timedOut, output, exitCode, executionTime, usage, 0);
+        }
+
+        /**
+         * @param signal Signal that killed the program, 0 when it exited or when it is not known
+         */
+        public RunOutcome(boolean timedOut, OutputComparator.Result output, int exitCode, long executionTime,
+                ResourceUsage usage, int signal) {
+            this.timedOut = timedOut;
+            this.output = output;
+            this.exitCode = exitCode;
+            this.executionTime = executionTime;
+            this.usage = usage;
+            this.signal = signal;
+        }
+
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        public OutputComparator.Result getOutput() {
+            return output;
+        }
+
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        public long getExecutionTime() {
+            return executionTime;
+        }
+
+        public ResourceUsage getUsage() {
+            return usage;
+        }
+
+        public int getSignal() {
+            return signal;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.fcoder.Fcoder.compiler;
+
+import com.fcoder.Fcoder.config.JudgeConfig;
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import com.fcoder.Fcoder.model.other.CompilationResult;
+import com.fcoder.Fcoder.util.HashUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed cache of compile results on local disk.
+ * Entries are keyed by (sha256 of the source, language, compiler image id), so a rebuilt
+ * compiler image never serves stale artifacts. The image id is the one last found by
+ * {@link CompilerAvailabilityRegistry}'s probe. Successful compiles keep the files produced in
+ * the workspace (Main.class, native binary, ...), compile errors keep the error message.
+ * Least recently used entries are evicted once the size or entry cap is reached.
+ */
+@Component
+public class CompileCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CompileCache.class);
+
+    private static final String META_FILE = ".compile-result";
+    private static final String ARTIFACTS_DIR = "artifacts";
+
+    private final JudgeConfig.CompileCache config;
+    private final HashUtils hashUtils;
+    private final CompilerAvailabilityRegistry compilerAvailability;
+    private final Path cacheRoot;
+    // Access ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Counter hits;
+    private final Counter misses;
+    private long totalSize;
+
+    public CompileCache(JudgeConfig judgeConfig, HashUtils hashUtils,
+                        CompilerAvailabilityRegistry compilerAvailability, MeterRegistry meterRegistry) {
+        this.config = judgeConfig.getCompileCache();
+        this.hashUtils = hashUtils;
+        this.compilerAvailability = compilerAvailability;
+        this.cacheRoot = Paths.get(config.getDirectory()).toAbsolutePath().normalize();
+        this.hits = Counter.builder("judge.compile.cache.hits").register(meterRegistry);
+        this.misses = Counter.builder("judge.compile.cache.misses").register(meterRegistry);
+        Gauge.builder("judge.compile.cache.size", this, CompileCache::getTotalSize)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        if (config.isEnabled()) {
+            loadIndex();
+        }
+    }
+
+    /**
+     * Cache key of a source, or empty when caching is off or the compiler image cannot be identified
+     */
+    public Optional<String> key(String sourceCode, SubmissionEntity.ProgrammingLanguage language, String dockerImage) {
+        if (!config.isEnabled()) {
+            return Optional.empty();
+        }
+        String imageId = imageId(language, dockerImage);
+        if (imageId == null) {
+            return Optional.empty();
+        }
+        return Optional.of(hashUtils.sha256(hashUtils.sha256(sourceCode) + ":" + language.name() + ":" + imageId));
+    }
+
+    /**
+     * Look up a compile result. A cached success is copied into the workspace.
+     *
+     * @return Cached result, or empty on a miss
+     */
+    public Optional<CompilationResult> get(String key, Path workspace) {
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                misses.increment();
+                return Optional.empty();
+            }
+        }
+
+        Path entry = cacheRoot.resolve(key);
+        try {
+            Properties meta = readMeta(entry);
+            boolean success = Boolean.parseBoolean(meta.getProperty("success"));
+            CompilationResult result;
+            if (success) {
+                copyFiles(entry.resolve(ARTIFACTS_DIR), workspace);
+                String executable = meta.getProperty("executable");
+                result = new CompilationResult(true, workspace.resolve(executable).toString(), null);
+            } else {
+                result = new CompilationResult(false, null, meta.getProperty("error", ""));
+            }
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.increment();
+            return Optional.of(result);
+        } catch (IOException e) {
+            log.warn("Dropping unreadable compile cache entry {}: {}", key, e.getMessage());
+            remove(key);
+            misses.increment();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Store a compile result. Timeouts and system failures are not cached.
+     */
+    public void put(String key, CompilationResult result, Path workspace) {
+        if (result.isSystemFailure()) {
+            return;
+        }
+        Path staging = cacheRoot.resolve(".tmp-" + UUID.randomUUID());
+        try {
+            Files.createDirectories(staging);
+            Properties meta = new Properties();
+            meta.setProperty("success", String.valueOf(result.isSuccess()));
+            if (result.isSuccess()) {
+                copyFiles(workspace, staging.resolve(ARTIFACTS_DIR));
+                meta.setProperty("executable", workspace.relativize(Paths.get(result.getExecutablePath())).toString());
+            } else {
+                meta.setProperty("error", result.getErrorMessage() == null ? "" : result.getErrorMessage());
+            }
+            try (Writer writer = Files.newBufferedWriter(staging.resolve(META_FILE), StandardCharsets.UTF_8)) {
+                meta.store(writer, null);
+            }
+
+            long size = sizeOf(staging);
+            synchronized (this) {
+                if (entries.containsKey(key)) {
+                    deleteRecursively(staging);
+                    return;
+                }
+                Files.move(staging, cacheRoot.resolve(key), StandardCopyOption.ATOMIC_MOVE);
+                entries.put(key, size);
+                totalSize += size;
+                evict();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to store compile cache entry {}: {}", key, e.getMessage());
+            deleteRecursively(staging);
+        }
+    }
+
+    public synchronized long getTotalSize() {
+        return totalSize;
+    }
+
+    private synchronized void evict() {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (it.hasNext() && (totalSize > config.getMaxSize().toBytes() || entries.size() > config.getMaxEntries())) {
+            Map.Entry<String, Long> eldest = it.next();
+            it.remove();
+            totalSize -= eldest.getValue();
+            deleteRecursively(cacheRoot.resolve(eldest.getKey()));
+        }
+    }
+
+    private synchronized void remove(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalSize -= size;
+        }
+        deleteRecursively(cacheRoot.resolve(key));
+    }
+
+    /**
+     * Rebuild the LRU index from the entries left on disk, oldest access first
+     */
+    private void loadIndex() {
+        try {
+            Files.createDirectories(cacheRoot);
+            List<Path> dirs = new ArrayList<>();
+            try (Stream<Path> stream = Files.list(cacheRoot)) {
+                stream.filter(Files::isDirectory).forEach(dirs::add);
+            }
+            dirs.sort(Comparator.comparingLong(this::lastModified));
+            synchronized (this) {
+                for (Path dir : dirs) {
+                    String name = dir.getFileName().toString();
+                    if (name.startsWith(".tmp-") || !Files.exists(dir.resolve(META_FILE))) {
+                        deleteRecursively(dir);
+                        continue;
+                    }
+                    long size = sizeOf(dir);
+                    entries.put(name, size);
+                    totalSize += size;
+                }
+                evict();
+            }
+            log.info("Compile cache at {}: {} entries, {} bytes", cacheRoot, entries.size(), totalSize);
+        } catch (IOException e) {
+            log.warn("Could not load compile cache index from {}: {}", cacheRoot, e.getMessage());
+        }
+    }
+
+    /**
+     * Id (content digest) of the local compiler image as last probed, null until the image was found
+     */
+    private String imageId(SubmissionEntity.ProgrammingLanguage language, String dockerImage) {
+        CompilerAvailabilityRegistry.Status status = compilerAvailability.getStatus(language);
+        if (status == null || !dockerImage.equals(status.getImage())) {
+            return null;
+        }
+        return status.getDigest();
+    }
+
+    private Properties readMeta(Path entry) throws IOException {
+        Properties meta = new Properties();
+        try (Reader reader = Files.newBufferedReader(entry.resolve(META_FILE), StandardCharsets.UTF_8)) {
+            meta.load(reader);
+        }
+        return meta;
+    }
+
+    private void copyFiles(Path from, Path to) throws IOException {
+        Files.createDirectories(to);
+        try (Stream<Path> stream = Files.list(from)) {
+            for (Path file : (Iterable<Path>) stream::iterator) {
+                if (Files.isRegularFile(file)) {
+                    Files.copy(file, to.resolve(file.getFileName().toString()), StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.COPY_ATTRIBUTES);
+                }
+            }
+        }
+    }
+
+    private long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private long sizeOf(Path dir) throws IOException {
+        try (Stream<Path> stream = Files.walk(dir)) {
+            return stream.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private void deleteRecursively(Path path) {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> stream = Files.walk(path)) {
+            stream.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException e) {
+            log.warn("Failed to delete compile cache path {}: {}", path, e.getMessage());
+        }
+    }
+}
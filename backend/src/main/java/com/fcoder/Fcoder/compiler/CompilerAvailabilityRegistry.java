@@ -0,0 +1,239 @@
+package com.fcoder.Fcoder.compiler;
+
+import com.fcoder.Fcoder.config.JudgeConfig;
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Which languages can be judged on this node, answered from memory on the compile path.
+ * Compiler images are probed with "docker image inspect" at startup and every probe-interval (once per
+ * image, languages share them), keeping the image digest. Between probes real compiles keep it current:
+ * failure-threshold sandbox failures in a row mark the language unavailable until a compile succeeds
+ * or the next probe finds the image again. Simulated compilers (judge.simulation) are always available.
+ */
+@Component
+public class CompilerAvailabilityRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(CompilerAvailabilityRegistry.class);
+
+    private final CompilerFactory compilerFactory;
+    private final JudgeConfig.Compilers config;
+    private final Map<SubmissionEntity.ProgrammingLanguage, Status> statuses = new ConcurrentHashMap<>();
+    private final Map<SubmissionEntity.ProgrammingLanguage, AtomicInteger> failures =
+            new EnumMap<>(SubmissionEntity.ProgrammingLanguage.class);
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("compiler-probe-"));
+
+    public CompilerAvailabilityRegistry(CompilerFactory compilerFactory,
+                                        JudgeConfig judgeConfig,
+                                        MeterRegistry meterRegistry) {
+        this.compilerFactory = compilerFactory;
+        this.config = judgeConfig.getCompilers();
+        for (SubmissionEntity.ProgrammingLanguage language : compilerFactory.getSupportedLanguages()) {
+            failures.put(language, new AtomicInteger());
+            Gauge.builder("judge.compiler.available", this, registry -> registry.isAvailable(language) ? 1 : 0)
+                    .tag("language", language.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long interval = Math.max(1, config.getProbeInterval().toMillis());
+        scheduler.scheduleWithFixedDelay(this::probeSafely, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Whether compiles for the language should be attempted. Languages not probed yet count as available.
+     */
+    public boolean isAvailable(SubmissionEntity.ProgrammingLanguage language) {
+        if (!failures.containsKey(language)) {
+            return false;
+        }
+        Status status = statuses.get(language);
+        return status == null || status.isAvailable();
+    }
+
+    /**
+     * Status of one language, null when it is not supported or not probed yet
+     */
+    public Status getStatus(SubmissionEntity.ProgrammingLanguage language) {
+        return statuses.get(language);
+    }
+
+    /**
+     * Current status of every supported language, null values for languages not probed yet
+     */
+    public Map<SubmissionEntity.ProgrammingLanguage, Status> getStatuses() {
+        Map<SubmissionEntity.ProgrammingLanguage, Status> result = new EnumMap<>(SubmissionEntity.ProgrammingLanguage.class);
+        for (SubmissionEntity.ProgrammingLanguage language : failures.keySet()) {
+            result.put(language, statuses.get(language));
+        }
+        return result;
+    }
+
+    /**
+     * The sandbox answered for the language (compiled, or rejected the source)
+     */
+    public void recordSuccess(SubmissionEntity.ProgrammingLanguage language) {
+        AtomicInteger count = failures.get(language);
+        if (count == null) {
+            return;
+        }
+        count.set(0);
+        Status status = statuses.get(language);
+        if (status != null && !status.isAvailable()) {
+            log.info("Compiler for {} works again", language);
+            statuses.put(language, status.with(true, null));
+        }
+    }
+
+    /**
+     * The sandbox itself failed for the language: image or tool missing, docker error
+     */
+    public void recordFailure(SubmissionEntity.ProgrammingLanguage language, String reason) {
+        AtomicInteger count = failures.get(language);
+        if (count == null || count.incrementAndGet() < Math.max(1, config.getFailureThreshold())) {
+            return;
+        }
+        Status status = statuses.get(language);
+        if (status == null || status.isAvailable()) {
+            log.warn("Marking compiler for {} unavailable after {} failed runs: {}", language, count.get(), reason);
+            String image = compilerFactory.getCompiler(language).getDockerImage();
+            String digest = status == null ? null : status.getDigest();
+            statuses.put(language, new Status(false, image, digest, reason, Instant.now()));
+        }
+    }
+
+    /**
+     * Probe every compiler image now
+     */
+    public void probe() {
+        Map<String, Status> byImage = new HashMap<>();
+        for (SubmissionEntity.ProgrammingLanguage language : failures.keySet()) {
+            String image = compilerFactory.getCompiler(language).getDockerImage();
+            Status status = byImage.computeIfAbsent(image, this::inspect);
+            Status previous = statuses.put(language, status);
+            if (status.isAvailable()) {
+                failures.get(language).set(0);
+            }
+            if (previous == null ? !status.isAvailable() : previous.isAvailable() != status.isAvailable()) {
+                log.info("Compiler for {} is {}: {}", language, status.isAvailable() ? "available" : "unavailable",
+                        status.isAvailable() ? status.getDigest() : status.getReason());
+            }
+        }
+    }
+
+    private void probeSafely() {
+        try {
+            probe();
+        } catch (RuntimeException e) {
+            log.warn("Compiler probe failed: {}", e.getMessage());
+        }
+    }
+
+    private Status inspect(String image) {
+        if (compilerFactory.isSimulated()) {
+            return new Status(true, image, null, null, Instant.now());
+        }
+        try {
+            Process process = new ProcessBuilder("docker", "image", "inspect", "--format", "{{.Id}}", image)
+                    .redirectErrorStream(true)
+                    .start();
+            // The answer is one short line, it fits in the pipe until the process is done
+            if (!process.waitFor(config.getProbeTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                return new Status(false, image, null, "docker image inspect timed out", Instant.now());
+            }
+            String output;
+            try (InputStream in = process.getInputStream()) {
+                output = new String(in.readNBytes(4096), StandardCharsets.UTF_8).trim();
+            }
+            if (process.exitValue() != 0) {
+                return new Status(false, image, null, output.isEmpty() ? "image not found" : output, Instant.now());
+            }
+            return new Status(true, image, output, null, Instant.now());
+        } catch (IOException e) {
+            return new Status(false, image, null, "docker not available: " + e.getMessage(), Instant.now());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Status(false, image, null, "interrupted", Instant.now());
+        }
+    }
+
+    /**
+     * Availability of one language as last probed or observed
+     */
+    public static class Status {
+        private final boolean available;
+        private final String image;
+        private final String digest;
+        private final String reason;
+        private final Instant checkedAt;
+
+        public Status(boolean available, String image, String digest, String reason, Instant checkedAt) {
+            this.available = available;
+            this.image = image;
+            this.digest = digest;
+            this.reason = reason;
+            this.checkedAt = checkedAt;
+        }
+
+        private Status with(boolean available, String reason) {
+            return new Status(available, image, digest, reason, Instant.now());
+        }
+
+        public boolean isAvailable() {
+            return available;
+        }
+
+        public String getImage() {
+            return image;
+        }
+
+        /**
+         * Image id ("sha256:...") found by the last successful probe
+         */
+        public String getDigest() {
+            return digest;
+        }
+
+        /**
+         * Why the language is unavailable, null when it is available
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        public Instant getCheckedAt() {
+            return checkedAt;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.fcoder.Fcoder.compiler;
+
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * "compiler" component of /actuator/health: UP while at least one language can be judged, with the
+ * status, image digest and last check of each language as details
+ */
+@Component
+public class CompilerHealthIndicator implements HealthIndicator {
+
+    private final CompilerAvailabilityRegistry registry;
+
+    public CompilerHealthIndicator(CompilerAvailabilityRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Health health() {
+        boolean anyAvailable = false;
+        Health.Builder builder = Health.unknown();
+        for (Map.Entry<SubmissionEntity.ProgrammingLanguage, CompilerAvailabilityRegistry.Status> entry
+                : registry.getStatuses().entrySet()) {
+            CompilerAvailabilityRegistry.Status status = entry.getValue();
+            Map<String, Object> details = new LinkedHashMap<>();
+            if (status == null) {
+                details.put("status", "NOT_PROBED");
+                anyAvailable = true;
+            } else {
+                details.put("status", status.isAvailable() ? "AVAILABLE" : "UNAVAILABLE");
+                details.put("image", status.getImage());
+                if (status.getDigest() != null) {
+                    details.put("digest", status.getDigest());
+                }
+                if (status.getReason() != null) {
+                    details.put("reason", status.getReason());
+                }
+                details.put("checkedAt", status.getCheckedAt().toString());
+                anyAvailable |= status.isAvailable();
+            }
+            builder.withDetail(entry.getKey().name(), details);
+        }
+        return (anyAvailable ? builder.up() : builder.down()).build();
+    }
+}
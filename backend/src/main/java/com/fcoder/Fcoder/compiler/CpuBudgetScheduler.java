@@ -0,0 +1,146 @@
+package com.fcoder.Fcoder.compiler;
+
+import com.fcoder.Fcoder.config.JudgeConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Per-node CPU budget shared by every submission being judged.
+ * A submission leases between one and a few cores, runs one test worker per core and gives
+ * the cores back when it is done. Each run is pinned to its core with taskset so a test never
+ * shares a core with another run and timings stay comparable.
+ */
+@Component
+public class CpuBudgetScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(CpuBudgetScheduler.class);
+
+    // Pins to the core when taskset works in the sandbox, runs unpinned otherwise
+    private static final String PIN_SCRIPT =
+            "if taskset -c \"$0\" true 2>/dev/null; then exec taskset -c \"$0\" \"$@\"; else exec \"$@\"; fi";
+
+    private final BlockingQueue<Integer> freeCores = new LinkedBlockingQueue<>();
+    private final ExecutorService executor;
+    private final int budget;
+
+    public CpuBudgetScheduler(JudgeConfig judgeConfig, MeterRegistry meterRegistry) {
+        int configured = judgeConfig.getExecution().getCpuBudget();
+        this.budget = configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+        for (int core = 0; core < budget; core++) {
+            freeCores.add(core);
+        }
+        // Every task holds a leased core, so there are never more than "budget" of them
+        this.executor = Executors.newFixedThreadPool(budget, new CustomizableThreadFactory("judge-test-"));
+
+        Gauge.builder("judge.cpu.budget.available", freeCores, BlockingQueue::size)
+                .description("Cores not leased to any submission")
+                .register(meterRegistry);
+        log.info("CPU budget for test execution: {} cores", budget);
+    }
+
+    /**
+     * Lease up to the wanted number of cores. Blocks until at least one core is free,
+     * extra cores are only taken if they are free right now.
+     */
+    public CpuLease lease(int wanted) throws InterruptedException {
+        List<Integer> cores = new ArrayList<>();
+        cores.add(freeCores.take());
+        Integer core;
+        while (cores.size() < wanted && (core = freeCores.poll()) != null) {
+            cores.add(core);
+        }
+        return new CpuLease(cores);
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    /**
+     * Wrap an in-sandbox command so it runs pinned to the given core
+     */
+    public static String[] pinned(int core, String... command) {
+        String[] wrapped = new String[command.length + 4];
+        wrapped[0] = "sh";
+        wrapped[1] = "-c";
+        wrapped[2] = PIN_SCRIPT;
+        wrapped[3] = String.valueOf(core);
+        System.arraycopy(command, 0, wrapped, 4, command.length);
+        return wrapped;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Work done by one worker of a submission on its leased core
+     */
+    public interface CoreTask {
+        void run(int worker, int core) throws Exception;
+    }
+
+    /**
+     * Cores leased to one submission, returned to the budget on close
+     */
+    public class CpuLease implements AutoCloseable {
+        private final List<Integer> cores;
+
+        private CpuLease(List<Integer> cores) {
+            this.cores = cores;
+        }
+
+        public int size() {
+            return cores.size();
+        }
+
+        /**
+         * Run the task once per leased core and wait for all of them
+         */
+        public void runOnEachCore(CoreTask task) throws InterruptedException, ExecutionException {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int worker = 0; worker < cores.size(); worker++) {
+                int workerIndex = worker;
+                int core = cores.get(worker);
+                futures.add(executor.submit(() -> {
+                    task.run(workerIndex, core);
+                    return null;
+                }));
+            }
+            // Wait for every worker before the cores can be handed back
+            ExecutionException failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        @Override
+        public void close() {
+            freeCores.addAll(cores);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.fcoder.Fcoder.compiler;
+
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Where judging time goes: one "judge.stage" timer per stage of the pipeline, and the verdicts given
+ * by status and language. Stages are timed by the class doing the work; queue wait, in-flight
+ * submissions and sandbox pool occupancy have their own meters (judge.queue.*, judge.sandbox.pool.*).
+ */
+@Component
+public class JudgeMetrics {
+
+    public enum Stage {
+        // Whole judging of a submission, from leaving the queue to the saved verdict
+        JUDGE,
+        WORKSPACE,
+        // Compiling, compile cache hits included
+        COMPILE,
+        // Starting a pooled sandbox container
+        CONTAINER_START,
+        // One program run, as measured by the sandbox
+        TEST_RUN,
+        // Checking one output after the run, custom checkers included
+        COMPARE,
+        // Saving the verdict
+        PERSIST
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Stage, Timer> timers = new EnumMap<>(Stage.class);
+
+    public JudgeMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Stage stage : Stage.values()) {
+            timers.put(stage, Timer.builder("judge.stage")
+                    .description("Time spent per stage of judging")
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Record a stage that started at startNanos (System.nanoTime)
+     */
+    public void record(Stage stage, long startNanos) {
+        timers.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void record(Stage stage, long amount, TimeUnit unit) {
+        timers.get(stage).record(amount, unit);
+    }
+
+    /**
+     * Count a final verdict
+     */
+    public void verdict(SubmissionEntity.SubmissionStatus status, SubmissionEntity.ProgrammingLanguage language) {
+        Counter.builder("judge.verdicts")
+                .description("Final verdicts given")
+                .tag("status", status == null ? "unknown" : status.name().toLowerCase(Locale.ROOT))
+                .tag("language", language == null ? "unknown" : language.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,43 @@
+package com.fcoder.Fcoder.compiler;
+
+import java.nio.file.Path;
+
+/**
+ * Runs commands straight on the host, in the workspace, without any isolation.
+ * Only for the simulated compilers used in load tests, which never run submitted code.
+ */
+public class LocalSandbox implements Sandbox {
+
+    // Through a shell like docker does, so a missing command exits with 127 instead of failing to start
+    private static final String EXEC_SCRIPT = "exec \"$@\"";
+
+    @Override
+    public String[] command(Path workspace, boolean interactive, String... command) {
+        String[] wrapped = new String[command.length + 4];
+        wrapped[0] = "sh";
+        wrapped[1] = "-c";
+        wrapped[2] = EXEC_SCRIPT;
+        wrapped[3] = "sh";
+        System.arraycopy(command, 0, wrapped, 4, command.length);
+        return wrapped;
+    }
+
+    @Override
+    public void limitMemory(String memory) {
+        // Nothing to limit, simulated programs only sleep and echo
+    }
+
+    @Override
+    public void discard() {
+        // Nothing is reused
+    }
+
+    @Override
+    public boolean isPooled() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,181 @@
+package com.fcoder.Fcoder.compiler;
+
+import com.fcoder.Fcoder.compiler.checker.CheckVerdict;
+import com.fcoder.Fcoder.compiler.checker.Checker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Feeds program output to the problem's checker while it is being read, without holding it in memory.
+ * Enforces the output limit and keeps only a bounded prefix of the output for the response;
+ * the checker keeps the first difference.
+ */
+public class OutputComparator {
+
+    private static final int SNIPPET_BYTES = 1024;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Checker.Session session;
+    private final String expectedSnippet;
+    private final long outputLimit;
+
+    private long outputSize;
+    private volatile boolean limitExceeded;
+    private final ByteArrayOutputStream head = new ByteArrayOutputStream();
+    private CheckVerdict verdict;
+
+    /**
+     * @param session        Checker session of the test
+     * @param expectedOutput File holding the expected output of the test, its beginning goes in the response
+     * @param outputLimit    Output size in bytes above which the run is an output limit exceeded
+     */
+    public OutputComparator(Checker.Session session, Path expectedOutput, long outputLimit) throws IOException {
+        this.session = session;
+        this.expectedSnippet = readSnippet(expectedOutput);
+        this.outputLimit = outputLimit;
+    }
+
+    /**
+     * Read the output until the end of the stream, or until it goes over the output limit
+     */
+    public void consume(InputStream output) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while (!limitExceeded && (read = output.read(buffer)) != -1) {
+            write(buffer, 0, read);
+        }
+    }
+
+    /**
+     * Feed the next chunk of output
+     */
+    public void write(byte[] buffer, int offset, int length) {
+        if (limitExceeded) {
+            return;
+        }
+        long allowed = outputLimit - outputSize;
+        if (length > allowed) {
+            length = (int) Math.max(0, allowed);
+            limitExceeded = true;
+        }
+        outputSize += length;
+        int headBytes = Math.min(length, SNIPPET_BYTES - head.size());
+        if (headBytes > 0) {
+            head.write(buffer, offset, headBytes);
+        }
+        session.write(buffer, offset, length);
+    }
+
+    /**
+     * Outcome of an output known to be byte-identical to the expected output (same sha256): accepted
+     * without feeding it to the checker, only its beginning is read for the response
+     */
+    public Result identical(Path output, long size) throws IOException {
+        session.discard();
+        try (InputStream input = Files.newInputStream(output)) {
+            head.write(input.readNBytes(SNIPPET_BYTES));
+        }
+        outputSize = size;
+        verdict = CheckVerdict.accepted();
+        return result();
+    }
+
+    public boolean isLimitExceeded() {
+        return limitExceeded;
+    }
+
+    /**
+     * Give up on a run that did not finish, the checker session is dropped without a verdict
+     */
+    public void discard() {
+        session.discard();
+    }
+
+    /**
+     * Outcome of the check, once the whole output has been fed
+     */
+    public Result result() {
+        if (verdict == null) {
+            verdict = session.finish();
+        }
+        String actual = head.toString(StandardCharsets.UTF_8);
+        if (outputSize > head.size() || limitExceeded) {
+            actual += "...";
+        }
+        return new Result(verdict, limitExceeded, outputSize, actual, expectedSnippet);
+    }
+
+    // Trimmed beginning of the expected output, without reading all of it
+    private static String readSnippet(Path expectedOutput) throws IOException {
+        byte[] head;
+        boolean more;
+        try (InputStream input = Files.newInputStream(expectedOutput)) {
+            head = input.readNBytes(BUFFER_SIZE);
+            more = input.read() != -1;
+        }
+        String trimmed = new String(head, StandardCharsets.UTF_8).trim();
+        if (trimmed.length() > SNIPPET_BYTES) {
+            return trimmed.substring(0, SNIPPET_BYTES) + "...";
+        }
+        return more ? trimmed + "..." : trimmed;
+    }
+
+    /**
+     * Result of checking one output
+     */
+    public static class Result {
+        private final CheckVerdict verdict;
+        private final boolean limitExceeded;
+        private final long outputSize;
+        private final String actualSnippet;
+        private final String expectedSnippet;
+
+        public Result(CheckVerdict verdict, boolean limitExceeded, long outputSize, String actualSnippet,
+                String expectedSnippet) {
+            this.verdict = verdict;
+            this.limitExceeded = limitExceeded;
+            this.outputSize = outputSize;
+            this.actualSnippet = actualSnippet;
+            this.expectedSnippet = expectedSnippet;
+        }
+
+        public boolean matches() {
+            return !limitExceeded && verdict.isAccepted();
+        }
+
+        public CheckVerdict getVerdict() {
+            return verdict;
+        }
+
+        public boolean isLimitExceeded() {
+            return limitExceeded;
+        }
+
+        public long getOutputSize() {
+            return outputSize;
+        }
+
+        /**
+         * First bytes of the output, "..." appended when it was longer
+         */
+        public String getActualSnippet() {
+            return actualSnippet;
+        }
+
+        public String getExpectedSnippet() {
+            return expectedSnippet;
+        }
+
+        /**
+         * First difference found by the checker, null when the output is accepted
+         */
+        public String getDifference() {
+            return verdict.getMessage();
+        }
+    }
+}
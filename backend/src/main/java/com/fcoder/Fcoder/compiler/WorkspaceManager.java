@@ -0,0 +1,272 @@
+package com.fcoder.Fcoder.compiler;
+
+import com.fcoder.Fcoder.config.JudgeConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Owns the per-compilation workspace directories under one root, on a ramdisk (tmpfs) when configured.
+ * Every workspace gets a random name and starts with one reference held by whoever created it; holders
+ * retain and release it, and the last release deletes the directory. A janitor removes directories
+ * nobody holds that are older than orphan-age (left over by a crash or a failed delete) and samples
+ * the disk usage of the root.
+ */
+@Component
+public class WorkspaceManager {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkspaceManager.class);
+    private static final String PREFIX = "ws-";
+
+    private final JudgeConfig.Workspaces config;
+    private final JudgeMetrics judgeMetrics;
+    private final Path root;
+    private final Map<Path, Integer> references = new ConcurrentHashMap<>();
+    private final List<Consumer<Path>> releaseListeners = new CopyOnWriteArrayList<>();
+    private final Counter released;
+    private final Counter orphaned;
+    private final ScheduledExecutorService janitor =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("workspace-janitor-"));
+    private volatile long usedBytes;
+
+    public WorkspaceManager(JudgeConfig judgeConfig, JudgeMetrics judgeMetrics, MeterRegistry meterRegistry) {
+        this.config = judgeConfig.getWorkspaces();
+        this.judgeMetrics = judgeMetrics;
+        this.root = chooseRoot(judgeConfig);
+        this.released = Counter.builder("judge.workspaces.cleaned")
+                .description("Workspaces deleted")
+                .tag("reason", "released")
+                .register(meterRegistry);
+        this.orphaned = Counter.builder("judge.workspaces.cleaned")
+                .description("Workspaces deleted")
+                .tag("reason", "orphan")
+                .register(meterRegistry);
+        Gauge.builder("judge.workspaces.active", references, Map::size)
+                .description("Workspaces currently held")
+                .register(meterRegistry);
+        Gauge.builder("judge.workspaces.disk.used", this, manager -> manager.usedBytes)
+                .description("Bytes under the workspace root, as of the last janitor run")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("judge.workspaces.disk.free", this, WorkspaceManager::usableSpace)
+                .description("Usable bytes left on the file system of the workspace root")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long interval = Math.max(1, config.getJanitorInterval().toMillis());
+        janitor.scheduleWithFixedDelay(this::sweepSafely, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        janitor.shutdownNow();
+    }
+
+    /**
+     * Directory every workspace is created in
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Create an empty workspace holding one reference for the caller
+     */
+    public Path create() throws IOException {
+        long start = System.nanoTime();
+        Path workspace = root.resolve(PREFIX + UUID.randomUUID());
+        Files.createDirectories(workspace);
+        references.put(workspace, 1);
+        judgeMetrics.record(JudgeMetrics.Stage.WORKSPACE, start);
+        return workspace;
+    }
+
+    /**
+     * Take one more reference on a workspace, e.g. to keep using a compilation after its creator is done
+     *
+     * @throws IllegalStateException when the workspace was already deleted
+     */
+    public void retain(Path workspace) {
+        Path key = key(workspace);
+        if (references.computeIfPresent(key, (path, count) -> count + 1) == null) {
+            throw new IllegalStateException("Workspace " + workspace + " is no longer held");
+        }
+    }
+
+    /**
+     * Call the listener with every workspace whose last reference is released, before it is deleted
+     */
+    public void addReleaseListener(Consumer<Path> listener) {
+        releaseListeners.add(listener);
+    }
+
+    /**
+     * Give back one reference, deleting the workspace with the last one. Unknown workspaces are ignored.
+     */
+    public void release(Path workspace) {
+        Path key = key(workspace);
+        AtomicBoolean last = new AtomicBoolean();
+        references.computeIfPresent(key, (path, count) -> {
+            if (count > 1) {
+                return count - 1;
+            }
+            last.set(true);
+            return null;
+        });
+        if (!last.get()) {
+            return;
+        }
+        for (Consumer<Path> listener : releaseListeners) {
+            try {
+                listener.accept(key);
+            } catch (RuntimeException e) {
+                log.warn("Workspace release listener failed for {}: {}", key, e.getMessage());
+            }
+        }
+        if (delete(key)) {
+            released.increment();
+        }
+    }
+
+    /**
+     * Delete orphaned workspaces and refresh the disk usage sample
+     */
+    public void sweep() throws IOException {
+        long cutoff = System.currentTimeMillis() - config.getOrphanAge().toMillis();
+        long used = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(root)) {
+            for (Path entry : entries) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    continue; // deleted meanwhile
+                }
+                boolean orphan = attributes.isDirectory()
+                        && isWorkspaceName(entry.getFileName().toString())
+                        && !references.containsKey(entry)
+                        && attributes.lastModifiedTime().toMillis() < cutoff;
+                if (orphan && delete(entry)) {
+                    log.info("Deleted orphaned workspace {}", entry);
+                    orphaned.increment();
+                } else {
+                    used += size(entry);
+                }
+            }
+        }
+        usedBytes = used;
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Workspace janitor failed: {}", e.getMessage());
+        }
+    }
+
+    private Path key(Path workspace) {
+        return workspace.toAbsolutePath().normalize();
+    }
+
+    // Directories named by this manager, and the millisecond names used before it
+    private static boolean isWorkspaceName(String name) {
+        return name.startsWith(PREFIX) || (!name.isEmpty() && name.chars().allMatch(Character::isDigit));
+    }
+
+    private static boolean delete(Path workspace) {
+        try (Stream<Path> paths = Files.walk(workspace)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            // Left for the janitor
+            log.warn("Failed to delete workspace {}: {}", workspace, e.getMessage());
+            return false;
+        }
+    }
+
+    private static long size(Path path) {
+        try (Stream<Path> paths = Files.walk(path)) {
+            return paths.mapToLong(file -> {
+                try {
+                    return Files.isRegularFile(file) ? Files.size(file) : 0;
+                } catch (IOException e) {
+                    return 0;
+                }
+            }).sum();
+        } catch (IOException | UncheckedIOException e) {
+            return 0;
+        }
+    }
+
+    private double usableSpace() {
+        try {
+            return Files.getFileStore(root).getUsableSpace();
+        } catch (IOException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * The ramdisk directory when enabled and usable, the workspace root otherwise
+     */
+    private Path chooseRoot(JudgeConfig judgeConfig) {
+        Path disk = Paths.get(judgeConfig.getWorkspaceRoot()).toAbsolutePath().normalize();
+        if (config.isRamDisk()) {
+            Path ramDisk = Paths.get(config.getRamDiskDirectory()).toAbsolutePath().normalize();
+            try {
+                Files.createDirectories(ramDisk);
+                String type = Files.getFileStore(ramDisk).type();
+                if (!"tmpfs".equals(type) && !"ramfs".equals(type)) {
+                    log.warn("Workspace ramdisk {} is on a {} file system, not tmpfs", ramDisk, type);
+                }
+                log.info("Workspaces on ramdisk {}", ramDisk);
+                return ramDisk;
+            } catch (IOException e) {
+                log.warn("Workspace ramdisk {} is not usable, using {}: {}", ramDisk, disk, e.getMessage());
+            }
+        }
+        try {
+            Files.createDirectories(disk);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create workspace root " + disk, e);
+        }
+        return disk;
+    }
+}
@@ -0,0 +1,51 @@
+package com.fcoder.Fcoder.compiler.checker;
+
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+
+/**
+ * Verdict of a checker on one output: ACCEPTED, WRONG_ANSWER, PRESENTATION_ERROR,
+ * or SYSTEM_ERROR when the checker itself failed
+ */
+public class CheckVerdict {
+
+    private static final CheckVerdict ACCEPTED = new CheckVerdict(SubmissionEntity.SubmissionStatus.ACCEPTED, null);
+
+    private final SubmissionEntity.SubmissionStatus status;
+    private final String message;
+
+    private CheckVerdict(SubmissionEntity.SubmissionStatus status, String message) {
+        this.status = status;
+        this.message = message;
+    }
+
+    public static CheckVerdict accepted() {
+        return ACCEPTED;
+    }
+
+    public static CheckVerdict wrongAnswer(String message) {
+        return new CheckVerdict(SubmissionEntity.SubmissionStatus.WRONG_ANSWER, message);
+    }
+
+    public static CheckVerdict presentationError(String message) {
+        return new CheckVerdict(SubmissionEntity.SubmissionStatus.PRESENTATION_ERROR, message);
+    }
+
+    public static CheckVerdict failed(String message) {
+        return new CheckVerdict(SubmissionEntity.SubmissionStatus.SYSTEM_ERROR, message);
+    }
+
+    public boolean isAccepted() {
+        return status == SubmissionEntity.SubmissionStatus.ACCEPTED;
+    }
+
+    public SubmissionEntity.SubmissionStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Short description of the first difference, null when accepted
+     */
+    public String getMessage() {
+        return message;
+    }
+}
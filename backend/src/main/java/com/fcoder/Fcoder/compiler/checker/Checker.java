@@ -0,0 +1,50 @@
+package com.fcoder.Fcoder.compiler.checker;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Decides whether the output of a test run is correct.
+ * A checker is created once per problem; each test run gets its own {@link Session}
+ * which is fed the output as it is read, so implementations should not need the whole output at once.
+ * The caller closes it once no more sessions will be started.
+ */
+public interface Checker extends AutoCloseable {
+
+    /**
+     * Start checking the output of one test
+     *
+     * @param input          File holding the input of the test
+     * @param expectedOutput File holding the expected output of the test
+     */
+    Session start(Path input, Path expectedOutput) throws IOException;
+
+    /**
+     * Give back what the checker holds, e.g. the workspace of a compiled checker program
+     */
+    @Override
+    default void close() {
+    }
+
+    /**
+     * Check of one test run. Not thread-safe, fed by a single reader.
+     */
+    interface Session {
+
+        /**
+         * Feed the next chunk of output
+         */
+        void write(byte[] buffer, int offset, int length);
+
+        /**
+         * Verdict once the whole output has been fed
+         */
+        CheckVerdict finish();
+
+        /**
+         * Drop the session of a run that did not finish (time limit, killed), no verdict needed
+         */
+        default void discard() {
+        }
+    }
+}
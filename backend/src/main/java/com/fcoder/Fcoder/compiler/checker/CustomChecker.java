@@ -0,0 +1,175 @@
+package com.fcoder.Fcoder.compiler.checker;
+
+import com.fcoder.Fcoder.compiler.BaseCompiler;
+import com.fcoder.Fcoder.compiler.WorkspaceManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Special judge: a checker program written by the problem setter, compiled once and run in the sandbox.
+ * It is called testlib style as {@code <checker> input.txt output.txt answer.txt} from its workspace and
+ * answers with its exit code: 0 accepted, 1 wrong answer, 2 presentation error, anything else is a
+ * checker failure. The first line it prints becomes the message.
+ * Input and answer are staged in the checker's workspace only once the contestant's program is done;
+ * that workspace is mounted into the checker's own sandboxes, never into a contestant's.
+ */
+public class CustomChecker implements Checker {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomChecker.class);
+
+    private static final String RUNS_DIR = "runs";
+    private static final int MESSAGE_CHARS = 256;
+
+    private final BaseCompiler compiler;
+    private final WorkspaceManager workspaceManager;
+    private final Path workspace;
+    private final int timeoutSeconds;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * @param compiler         Compiler of the checker's language, runs it
+     * @param workspaceManager Keeps the checker's workspace while a session uses it
+     * @param workspace        Workspace holding the compiled checker, with one reference taken for this
+     *                         checker that {@link #close} gives back
+     * @param timeoutSeconds   Time the checker gets per test
+     */
+    public CustomChecker(BaseCompiler compiler, WorkspaceManager workspaceManager, Path workspace,
+            int timeoutSeconds) {
+        this.compiler = compiler;
+        this.workspaceManager = workspaceManager;
+        this.workspace = workspace;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            workspaceManager.release(workspace);
+        }
+    }
+
+    @Override
+    public Session start(Path input, Path expectedOutput) throws IOException {
+        try {
+            // Held by this checker until closed, and by the session until it is done
+            workspaceManager.retain(workspace);
+        } catch (IllegalStateException e) {
+            throw new IOException("Checker workspace is gone: " + e.getMessage(), e);
+        }
+        Path runDir = workspace.resolve(RUNS_DIR).resolve(UUID.randomUUID().toString());
+        try {
+            Files.createDirectories(runDir);
+            return new CustomSession(runDir, input, expectedOutput);
+        } catch (IOException e) {
+            workspaceManager.release(workspace);
+            throw e;
+        }
+    }
+
+    private class CustomSession implements Session {
+        private final Path runDir;
+        private final Path input;
+        private final Path expectedOutput;
+        private final OutputStream output;
+        private IOException writeFailure;
+
+        private CustomSession(Path runDir, Path input, Path expectedOutput) throws IOException {
+            this.runDir = runDir;
+            this.input = input;
+            this.expectedOutput = expectedOutput;
+            this.output = new BufferedOutputStream(Files.newOutputStream(runDir.resolve("output.txt")));
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            if (writeFailure != null) {
+                return;
+            }
+            try {
+                output.write(buffer, offset, length);
+            } catch (IOException e) {
+                writeFailure = e;
+            }
+        }
+
+        @Override
+        public CheckVerdict finish() {
+            try {
+                output.close();
+                if (writeFailure != null) {
+                    return CheckVerdict.failed("Could not store output for the checker: " + writeFailure.getMessage());
+                }
+                Files.copy(input, runDir.resolve("input.txt"));
+                Files.copy(expectedOutput, runDir.resolve("answer.txt"));
+                String relative = RUNS_DIR + "/" + runDir.getFileName();
+                List<String> command = new ArrayList<>(List.of(compiler.getExecutionCommand()));
+                command.add(relative + "/input.txt");
+                command.add(relative + "/output.txt");
+                command.add(relative + "/answer.txt");
+
+                BaseCompiler.CommandResult result = compiler.runInSandbox(workspace,
+                        command.toArray(new String[0]), timeoutSeconds);
+                if (result.isTimedOut()) {
+                    return CheckVerdict.failed("Checker timed out");
+                }
+                String message = firstLine(result.getOutput());
+                switch (result.getExitCode()) {
+                    case 0:
+                        return CheckVerdict.accepted();
+                    case 1:
+                        return CheckVerdict.wrongAnswer(message);
+                    case 2:
+                        return CheckVerdict.presentationError(message);
+                    default:
+                        return CheckVerdict.failed("Checker exited with code " + result.getExitCode() + ": " + message);
+                }
+            } catch (IOException e) {
+                return CheckVerdict.failed("Checker error: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return CheckVerdict.failed("Checker interrupted");
+            } finally {
+                deleteRunDir();
+            }
+        }
+
+        @Override
+        public void discard() {
+            try {
+                output.close();
+            } catch (IOException ignored) {
+                // Removed with the directory anyway
+            }
+            deleteRunDir();
+        }
+
+        private void deleteRunDir() {
+            try (Stream<Path> files = Files.walk(runDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            } catch (IOException e) {
+                log.warn("Failed to delete checker run directory {}: {}", runDir, e.getMessage());
+            } finally {
+                workspaceManager.release(workspace);
+            }
+        }
+    }
+
+    private static String firstLine(String output) {
+        String trimmed = output == null ? "" : output.trim();
+        int newline = trimmed.indexOf('\n');
+        String line = newline >= 0 ? trimmed.substring(0, newline) : trimmed;
+        return line.length() > MESSAGE_CHARS ? line.substring(0, MESSAGE_CHARS) + "..." : line;
+    }
+}
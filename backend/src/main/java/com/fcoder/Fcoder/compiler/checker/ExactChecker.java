@@ -0,0 +1,181 @@
+package com.fcoder.Fcoder.compiler.checker;
+
+import com.fcoder.Fcoder.compiler.TestDataStore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Default checker, same rule as comparing the trimmed strings: leading and trailing whitespace of the
+ * whole output is ignored, everything in between must match exactly ('\r' is ignored so CRLF and LF
+ * outputs compare equal). An output that only differs in whitespace is a presentation error.
+ */
+public class ExactChecker implements Checker {
+
+    private static final int LINE_SNIPPET_BYTES = 128;
+
+    private final TokenChecker tokenChecker = new TokenChecker(null);
+
+    @Override
+    public Session start(Path input, Path expectedOutput) throws IOException {
+        return new ExactSession(TestDataStore.map(expectedOutput), tokenChecker.start(input, expectedOutput));
+    }
+
+    private static class ExactSession implements Session {
+        private final ByteBuffer expected;
+        // Expected output without its leading and trailing whitespace, '\r' inside it is skipped
+        private final int begin;
+        private final int end;
+        // Token comparison running alongside, tells a presentation error from a wrong answer
+        private final Session tokens;
+
+        private boolean started;
+        private int position;
+        // Position in the expected output where the current whitespace run started, -1 outside of one
+        private int whitespaceStart = -1;
+        private boolean whitespaceDiverged;
+        private boolean mismatch;
+        private int mismatchPosition;
+
+        // Current line of the actual output, frozen at the first mismatch
+        private final ByteArrayOutputStream actualLine = new ByteArrayOutputStream();
+        private boolean actualLineFrozen;
+        private boolean actualLineComplete;
+
+        private ExactSession(ByteBuffer expected, Session tokens) {
+            this.expected = expected;
+            int first = 0;
+            int last = expected.limit();
+            while (first < last && TokenChecker.isWhitespace(expected.get(first))) {
+                first++;
+            }
+            while (last > first && TokenChecker.isWhitespace(expected.get(last - 1))) {
+                last--;
+            }
+            this.begin = first;
+            this.end = last;
+            this.position = first;
+            this.tokens = tokens;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            tokens.write(buffer, offset, length);
+            for (int i = offset; i < offset + length; i++) {
+                write(buffer[i]);
+            }
+        }
+
+        private void write(byte b) {
+            trackLine(b);
+            if (b == '\r' || mismatch) {
+                return;
+            }
+
+            if (TokenChecker.isWhitespace(b)) {
+                if (!started) {
+                    return;
+                }
+                position = skipCarriageReturns(position);
+                if (whitespaceStart < 0) {
+                    whitespaceStart = position;
+                    whitespaceDiverged = false;
+                }
+                if (!whitespaceDiverged) {
+                    if (position < end && expected.get(position) == b) {
+                        position++;
+                    } else {
+                        whitespaceDiverged = true;
+                    }
+                }
+                return;
+            }
+
+            started = true;
+            if (whitespaceStart >= 0) {
+                // Whitespace is only allowed to differ at the very end of the output
+                if (whitespaceDiverged) {
+                    fail(position);
+                    return;
+                }
+                whitespaceStart = -1;
+            }
+            position = skipCarriageReturns(position);
+            if (position < end && expected.get(position) == b) {
+                position++;
+            } else {
+                fail(position);
+            }
+        }
+
+        @Override
+        public CheckVerdict finish() {
+            CheckVerdict tokenVerdict = tokens.finish();
+            int reached = whitespaceStart >= 0 ? whitespaceStart : skipCarriageReturns(position);
+            if (!mismatch && reached != end) {
+                // Output ended early, or went on after the expected output ended
+                fail(Math.min(reached, end));
+            }
+            if (!mismatch) {
+                return CheckVerdict.accepted();
+            }
+            return tokenVerdict.isAccepted()
+                    ? CheckVerdict.presentationError(describeMismatch())
+                    : CheckVerdict.wrongAnswer(describeMismatch());
+        }
+
+        private int skipCarriageReturns(int from) {
+            while (from < end && expected.get(from) == '\r') {
+                from++;
+            }
+            return from;
+        }
+
+        private void fail(int expectedPosition) {
+            mismatch = true;
+            mismatchPosition = expectedPosition;
+            actualLineFrozen = true;
+        }
+
+        private void trackLine(byte b) {
+            if (actualLineComplete) {
+                return;
+            }
+            if (b == '\n') {
+                if (actualLineFrozen) {
+                    actualLineComplete = true;
+                } else {
+                    actualLine.reset();
+                }
+                return;
+            }
+            if (b != '\r' && actualLine.size() < LINE_SNIPPET_BYTES) {
+                actualLine.write(b);
+            }
+        }
+
+        private String describeMismatch() {
+            int lineStart = mismatchPosition;
+            while (lineStart > begin && expected.get(lineStart - 1) != '\n') {
+                lineStart--;
+            }
+            int lineEnd = mismatchPosition;
+            while (lineEnd < end && expected.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int lineNumber = 1;
+            for (int i = begin; i < lineStart; i++) {
+                if (expected.get(i) == '\n') {
+                    lineNumber++;
+                }
+            }
+            int shown = Math.min(lineEnd, lineStart + LINE_SNIPPET_BYTES);
+            String expectedLine = TokenChecker.text(expected, lineStart, shown) + (shown < lineEnd ? "..." : "");
+            return "Line " + lineNumber + ": expected \"" + expectedLine + "\", found \""
+                    + actualLine.toString(StandardCharsets.UTF_8) + "\"";
+        }
+    }
+}
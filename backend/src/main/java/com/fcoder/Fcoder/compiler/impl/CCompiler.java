@@ -6,12 +6,9 @@ import com.fcoder.Fcoder.model.other.CompilationResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.concurrent.TimeUnit;
 
 /**
  * C compiler implementation using FCoder unified compiler container
@@ -33,43 +30,34 @@ public class CCompiler extends BaseCompiler {
             Path sourceFile = workspace.resolve(getSourceFileName());
             Files.write(sourceFile, sourceCode.getBytes());
 
-            // Run compilation in Docker container
-            ProcessBuilder pb = new ProcessBuilder(getCompileCommand());
-            pb.directory(workspace.toFile());
-            pb.redirectErrorStream(true);
-
+            // Run compilation in a sandbox container
             log.info("Compiling C code in Docker container: {}", dockerImage);
-            Process process = pb.start();
-
-            // Read compilation output
-            StringBuilder output = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    output.append(line).append("\n");
-                }
-            }
+            CommandResult result = runInSandbox(workspace, getCompileCommand(), COMPILE_TIMEOUT);
 
-            // Wait for compilation to complete
-            boolean finished = process.waitFor(COMPILE_TIMEOUT, TimeUnit.SECONDS);
+            if (result.isTimedOut()) {
+                log.error("Compilation timeout after {}s", COMPILE_TIMEOUT);
+                return CompilationResult.systemFailure("Compilation timeout");
+            }
 
-            if (!finished) {
-                process.destroyForcibly();
-                return new CompilationResult(false, null, "Compilation timeout");
+            if (result.isSandboxFailure()) {
+                // Not a verdict on the source: the image or the tool is missing, or docker failed
+                return CompilationResult.sandboxFailure("Sandbox failure: " + result.getOutput());
             }
 
-            if (process.exitValue() == 0) {
+            if (result.getExitCode() == 0) {
                 // Compilation successful
                 Path executablePath = workspace.resolve(getExecutableFileName());
                 return new CompilationResult(true, executablePath.toString(), null);
             } else {
                 // Compilation failed
-                return new CompilationResult(false, null, output.toString());
+                return new CompilationResult(false, null, result.getOutput());
             }
 
         } catch (IOException | InterruptedException e) {
             log.error("Error during C compilation", e);
-            return new CompilationResult(false, null, "Compilation error: " + e.getMessage());
+            return e instanceof IOException
+                    ? CompilationResult.sandboxFailure("Compilation error: " + e.getMessage())
+                    : CompilationResult.systemFailure("Compilation error: " + e.getMessage());
         }
     }
 
@@ -91,13 +79,6 @@ public class CCompiler extends BaseCompiler {
     @Override
     protected String[] getCompileCommand() {
         return new String[] {
-                "docker", "run", "--rm",
-                "-v", "%WORKSPACE%:/workspace",
-                "-w", "/workspace",
-                "--memory=512m",
-                "--cpus=1",
-                "--network=none",
-                dockerImage,
                 "gcc", "-o", getExecutableFileName(), getSourceFileName(),
                 "-std=c11", "-O2", "-Wall"
         };
@@ -106,14 +87,6 @@ public class CCompiler extends BaseCompiler {
     @Override
     public String[] getExecutionCommand() {
         return new String[] {
-                "docker", "run", "--rm",
-                "-v", "%WORKSPACE%:/workspace",
-                "-w", "/workspace",
-                "--memory=512m",
-                "--cpus=1",
-                "--network=none",
-                "-i", // Interactive mode for input
-                dockerImage,
                 "./" + getExecutableFileName()
         };
     }
@@ -0,0 +1,296 @@
+package com.fcoder.Fcoder.config;
+
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "judge")
+public class JudgeConfig {
+    // Host directory holding one sub-directory per submission workspace
+    private String workspaceRoot = System.getProperty("java.io.tmpdir").replace("\\", "/") + "/code-execution";
+    private Queue queue = new Queue();
+    private Sandbox sandbox = new Sandbox();
+    private Execution execution = new Execution();
+    private CompileCache compileCache = new CompileCache();
+    private VerdictCache verdictCache = new VerdictCache();
+    private Checker checker = new Checker();
+    private TestData testData = new TestData();
+    private Events events = new Events();
+    private Rejudge rejudge = new Rejudge();
+    private Run run = new Run();
+    private Compilers compilers = new Compilers();
+    private Workspaces workspaces = new Workspaces();
+    private Logging logging = new Logging();
+    private Simulation simulation = new Simulation();
+    private Java java = new Java();
+
+    @Getter
+    @Setter
+    public static class Queue {
+        // Number of submissions judged at the same time
+        private int workerThreads = 4;
+        // Submissions waiting for a worker before new ones are rejected
+        private int capacity = 100;
+        // How often PENDING submissions that are not queued get re-offered
+        private Duration recoveryInterval = Duration.ofSeconds(30);
+        // LOCAL judges in the JVM that received the submission, STREAM hands it to judge workers over Redis
+        private Mode mode = Mode.LOCAL;
+        // STREAM only: whether this instance judges, false on API-only replicas
+        private boolean consumerEnabled = true;
+        private SubmissionStream stream = new SubmissionStream();
+        private Fairness fairness = new Fairness();
+
+        public enum Mode {
+            LOCAL, STREAM
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class SubmissionStream {
+        private String key = "judge:submissions";
+        private String group = "judge-workers";
+        // A delivered submission idle this long belongs to a dead worker and is handed to another one
+        private Duration claimIdle = Duration.ofMinutes(5);
+        // Deliveries before a submission is given up on as a system error
+        private int maxDeliveries = 3;
+        // Entries a worker node reads ahead of its free workers, the window it orders fairly
+        private int prefetch = 16;
+    }
+
+    @Getter
+    @Setter
+    public static class Fairness {
+        // Share of the picks each lane gets while both have submissions waiting
+        private int liveWeight = 8;
+        private int adminWeight = 1;
+        // Test cases a user's turn is worth: heavy submissions wait for more turns than light ones
+        private int userQuantum = 10;
+    }
+
+    @Getter
+    @Setter
+    public static class Sandbox {
+        // Keep started containers instead of one "docker run --rm" per compile/test
+        private boolean poolEnabled = true;
+        // Idle containers kept per compiler image; each one mounts a single workspace and only serves its steps
+        private int poolSize = 8;
+        // Containers started ahead per compiler image, each on an empty workspace the next submission gets
+        private int spares = 2;
+        // A container is recycled after this many compile/run steps
+        private int maxUses = 50;
+        // Default limit, used for compiling; test runs get the problem's limit plus the headroom
+        private String memory = "512m";
+        private DataSize memoryHeadroom = DataSize.ofMegabytes(64);
+        private String cpus = "1";
+        private int pidsLimit = 256;
+    }
+
+    @Getter
+    @Setter
+    public static class Execution {
+        // Run all test cases of a submission in one sandbox session instead of one process start per test
+        private boolean batchEnabled = true;
+        // Batch sessions use the native runner of the compiler image, images without it fall back to the shell runner
+        private boolean nativeRunner = true;
+        private String nativeRunnerPath = "/usr/local/bin/fcoder-runner";
+        // Cores shared by all submissions being judged on this node, 0 = all available processors
+        private int cpuBudget = 0;
+        // Cores a single submission may use at once for its test cases
+        private int maxParallelTests = 4;
+        // ICPC style: stop at the first failing test instead of running all of them
+        private boolean stopOnFirstFailure = false;
+        // The time limit is checked against CPU time; a run is killed once its wall clock reaches
+        // time limit * wall-time-factor + wall-time-extra
+        private double wallTimeFactor = 2.0;
+        private Duration wallTimeExtra = Duration.ofSeconds(1);
+        // Output above this size is an output limit exceeded, only a short prefix of it is kept
+        private DataSize outputLimit = DataSize.ofMegabytes(64);
+    }
+
+    @Getter
+    @Setter
+    public static class CompileCache {
+        // Reuse compiled artifacts and compile errors of byte-identical sources
+        private boolean enabled = true;
+        private String directory = System.getProperty("java.io.tmpdir").replace("\\", "/") + "/fcoder-compile-cache";
+        // Least recently used entries are evicted past either cap
+        private DataSize maxSize = DataSize.ofMegabytes(512);
+        private int maxEntries = 5000;
+    }
+
+    @Getter
+    @Setter
+    public static class VerdictCache {
+        // Skip judging identical sources against an unchanged test set
+        private boolean enabled = true;
+        private Duration ttl = Duration.ofDays(7);
+    }
+
+    @Getter
+    @Setter
+    public static class Checker {
+        // Time a custom checker program gets to judge one output
+        private Duration timeout = Duration.ofSeconds(10);
+    }
+
+    @Getter
+    @Setter
+    public static class TestData {
+        // Test inputs and expected outputs, one file per sha256; must be an absolute path in STREAM mode
+        private String directory = "data/test-data";
+        // Whether the directory is one persistent volume shared by every node. Until it is, the database keeps
+        // its copy of the test data and each node rebuilds missing files from it; once it is, new test cases
+        // and migrated problems only live in the directory
+        private boolean shared = false;
+        private Cache cache = new Cache();
+
+        @Getter
+        @Setter
+        public static class Cache {
+            // Per-node copies of test data and in-memory test sets, so judges do not hit the store and the DB per run
+            private boolean enabled = true;
+            private String directory = System.getProperty("java.io.tmpdir").replace("\\", "/") + "/fcoder-test-data-cache";
+            // Least recently used files are evicted past the size cap
+            private DataSize maxSize = DataSize.ofGigabytes(2);
+            private int maxTestSets = 1000;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Events {
+        // Events held per watching connection; past it the oldest test progress is dropped, never the verdict
+        private int bufferSize = 64;
+        // Connections are closed after this long even without a verdict, clients reconnect
+        private Duration timeout = Duration.ofMinutes(10);
+    }
+
+    @Getter
+    @Setter
+    public static class Rejudge {
+        // Run rejudge jobs on this instance; jobs started on any instance are picked up by one that does
+        private boolean enabled = true;
+        // Submissions rejudged at the same time, on top of the judge workers
+        private int concurrency = 1;
+        // Submissions loaded and checkpointed at a time
+        private int batchSize = 100;
+        // Rejudging pauses while more live submissions than this are waiting for a judge
+        private int yieldQueueDepth = 0;
+        // How often queued jobs are looked for, and running jobs refreshed to show their instance is alive
+        private Duration pollInterval = Duration.ofSeconds(10);
+        // Compiled sources a job keeps for later batches, the least recently used are released
+        private int compiledSources = 16;
+        // A running job not refreshed for this long is taken over by another instance
+        private Duration staleAfter = Duration.ofMinutes(2);
+    }
+
+    @Getter
+    @Setter
+    public static class Run {
+        private boolean enabled = true;
+        // Runs a user may start per window, on all instances together
+        private int rateLimit = 10;
+        private Duration window = Duration.ofMinutes(1);
+        // Runs executing at the same time on this instance, on top of the judge workers
+        private int maxConcurrent = 2;
+        // Runs use the problem limits, capped to these
+        private Duration maxTimeLimit = Duration.ofSeconds(2);
+        private DataSize maxMemoryLimit = DataSize.ofMegabytes(256);
+        private DataSize maxInputSize = DataSize.ofKilobytes(64);
+        // Output limit of sample runs and output kept of a custom input run
+        private DataSize outputLimit = DataSize.ofMegabytes(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Compilers {
+        // How often compiler images are checked with docker image inspect, on top of the startup check
+        private Duration probeInterval = Duration.ofMinutes(5);
+        private Duration probeTimeout = Duration.ofSeconds(10);
+        // Sandbox failures in a row (image/tool missing, docker error, timeout) before a language is marked unavailable
+        private int failureThreshold = 3;
+    }
+
+    @Getter
+    @Setter
+    public static class Workspaces {
+        // Keep workspaces on a tmpfs instead of workspace-root; the directory must be visible to docker at the same path
+        private boolean ramDisk = false;
+        private String ramDiskDirectory = "/dev/shm/fcoder-code-execution";
+        // How often unheld workspaces are looked for and the disk usage is sampled
+        private Duration janitorInterval = Duration.ofMinutes(10);
+        // Unheld workspaces older than this are left over by a crash or a failed delete
+        private Duration orphanAge = Duration.ofHours(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Logging {
+        // Judge event log: one line per test and per verdict on the "judge.events" logger
+        private boolean enabled = true;
+        // Read by logback-spring.xml at startup
+        private String file = "logs/judge-events.log";
+        // Share of submissions whose passed tests are logged too, failed tests always are
+        private double sampleRate = 0.05;
+        private int maxRecordsPerSubmission = 50;
+        // Characters kept of outputs and error messages
+        private int payloadLimit = 200;
+        private int debugPayloadLimit = 4096;
+        // How long a debug capture enabled for a submission lasts
+        private Duration debugCaptureTtl = Duration.ofHours(24);
+    }
+
+    @Getter
+    @Setter
+    public static class Simulation {
+        // Load testing without docker: nothing is compiled or run, compiles and runs take the times below
+        // on the host and programs echo their input. Never enable it on a node that judges for real.
+        private boolean enabled = false;
+        private Map<SubmissionEntity.ProgrammingLanguage, Duration> compileTime = defaults(
+                Duration.ofMillis(1500), Duration.ofMillis(1200), Duration.ofMillis(400),
+                Duration.ofMillis(100), Duration.ofMillis(100));
+        // Per test run; on top of it every run pays the real process start
+        private Map<SubmissionEntity.ProgrammingLanguage, Duration> runTime = defaults(
+                Duration.ofMillis(120), Duration.ofMillis(10), Duration.ofMillis(10),
+                Duration.ofMillis(40), Duration.ofMillis(50));
+        // Times vary uniformly by this share either way, drawn once per compilation
+        private double jitter = 0.3;
+        // Share of compilations that end in a compile error
+        private double compileErrorRate = 0.05;
+
+        // Java, C++, C, Python, JavaScript
+        private static Map<SubmissionEntity.ProgrammingLanguage, Duration> defaults(Duration java, Duration cpp,
+                Duration c, Duration python, Duration javaScript) {
+            Map<SubmissionEntity.ProgrammingLanguage, Duration> times =
+                    new EnumMap<>(SubmissionEntity.ProgrammingLanguage.class);
+            times.put(SubmissionEntity.ProgrammingLanguage.JAVA, java);
+            times.put(SubmissionEntity.ProgrammingLanguage.CPP, cpp);
+            times.put(SubmissionEntity.ProgrammingLanguage.C, c);
+            times.put(SubmissionEntity.ProgrammingLanguage.PYTHON, python);
+            times.put(SubmissionEntity.ProgrammingLanguage.JAVASCRIPT, javaScript);
+            return times;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Java {
+        // Batch sessions of Java submissions run every test in one warm JVM (runner/FcoderJavaRunner.java)
+        // instead of starting a JVM per test; tests it does not report on are run one by one
+        private boolean persistentJvm = false;
+        private String runnerPath = "/usr/local/bin/fcoder-java-runner";
+        // CDS archive of the JDK classes solutions commonly load, used by every "java Main"; blank = JDK default
+        private String cdsArchive = "/opt/fcoder/java-judge.jsa";
+    }
+}
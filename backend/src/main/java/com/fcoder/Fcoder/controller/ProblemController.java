@@ -107,6 +107,31 @@ public class ProblemController {
                 .build());
     }
 
+    @PostMapping("/{id}/test-data/preload")
+//    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_HOC')")
+    @Operation(summary = "Load the test data of a problem on every judge node ahead of a contest (Admin and Header of club only)", security = {@SecurityRequirement(name = "accessCookie")})
+    public ResponseEntity<ResponseObject<Void>> preloadTestData(@PathVariable Long id) {
+        problemService.preloadTestData(id);
+        return ResponseEntity.ok(new ResponseObject.Builder<Void>()
+                .success(true)
+                .code("SUCCESS")
+                .message("Preload requested")
+                .build());
+    }
+
+    @PostMapping("/{id}/test-data/migrate")
+//    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Operation(summary = "Move the test data of a problem out of the database into the shared test data store (Admin only)", security = {@SecurityRequirement(name = "accessCookie")})
+    public ResponseEntity<ResponseObject<Integer>> migrateTestData(@PathVariable Long id) {
+        int migrated = problemService.migrateTestData(id);
+        return ResponseEntity.ok(new ResponseObject.Builder<Integer>()
+                .success(true)
+                .code("SUCCESS")
+                .content(migrated)
+                .message("Migrated " + migrated + " test case(s)")
+                .build());
+    }
+
     @PatchMapping("/deactivate/{id}")
 //    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_HOC')")
     @Operation(summary = "Deactivate a problem by ID (Admin and Header of club only)", security = {@SecurityRequirement(name = "accessCookie")})
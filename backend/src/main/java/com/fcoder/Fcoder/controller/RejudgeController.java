@@ -0,0 +1,74 @@
+package com.fcoder.Fcoder.controller;
+
+import com.fcoder.Fcoder.model.dto.request.RejudgeRequest;
+import com.fcoder.Fcoder.model.dto.response.RejudgeJobResponse;
+import com.fcoder.Fcoder.model.dto.response.ResponseObject;
+import com.fcoder.Fcoder.service.RejudgeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(value = "/api/rejudges", produces = MediaType.APPLICATION_JSON_VALUE)
+public class RejudgeController {
+
+    private final RejudgeService rejudgeService;
+
+    @Operation(summary = "Rejudge submissions by problem, user, status and/or submission time (Admin and Header of club only)", security = {@SecurityRequirement(name = "accessCookie")})
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_HOC')")
+    public ResponseEntity<ResponseObject<RejudgeJobResponse>> startRejudge(@RequestBody RejudgeRequest request,
+                                                                           Authentication authentication) {
+        var job = rejudgeService.startRejudge(request, authentication.getName());
+        return ResponseEntity.ok(new ResponseObject.Builder<RejudgeJobResponse>()
+                .success(true)
+                .code("SUCCESS")
+                .content(job)
+                .message("Rejudge queued")
+                .build());
+    }
+
+    @Operation(summary = "Get recent rejudge jobs (Admin and Header of club only)", security = {@SecurityRequirement(name = "accessCookie")})
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_HOC')")
+    public ResponseEntity<ResponseObject<List<RejudgeJobResponse>>> getJobs() {
+        return ResponseEntity.ok(new ResponseObject.Builder<List<RejudgeJobResponse>>()
+                .success(true)
+                .code("SUCCESS")
+                .content(rejudgeService.getJobs())
+                .message("Get Success")
+                .build());
+    }
+
+    @Operation(summary = "Get progress, throughput and ETA of a rejudge job (Admin and Header of club only)", security = {@SecurityRequirement(name = "accessCookie")})
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_HOC')")
+    public ResponseEntity<ResponseObject<RejudgeJobResponse>> getJob(@PathVariable Long id) {
+        return ResponseEntity.ok(new ResponseObject.Builder<RejudgeJobResponse>()
+                .success(true)
+                .code("SUCCESS")
+                .content(rejudgeService.getJob(id))
+                .message("Get Success")
+                .build());
+    }
+
+    @Operation(summary = "Cancel a rejudge job (Admin and Header of club only)", security = {@SecurityRequirement(name = "accessCookie")})
+    @PostMapping("/{id}/cancel")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_HOC')")
+    public ResponseEntity<ResponseObject<RejudgeJobResponse>> cancelJob(@PathVariable Long id) {
+        return ResponseEntity.ok(new ResponseObject.Builder<RejudgeJobResponse>()
+                .success(true)
+                .code("SUCCESS")
+                .content(rejudgeService.cancelJob(id))
+                .message("Rejudge cancelled")
+                .build());
+    }
+}
@@ -1,11 +1,18 @@
 package com.fcoder.Fcoder.controller;
 
+import com.fcoder.Fcoder.model.dto.request.RunRequest;
 import com.fcoder.Fcoder.model.dto.request.SubmissionRequest;
 import com.fcoder.Fcoder.model.dto.response.PaginationWrapper;
 import com.fcoder.Fcoder.model.dto.response.ResponseObject;
+import com.fcoder.Fcoder.model.dto.response.RunResponse;
 import com.fcoder.Fcoder.model.dto.response.SubmissionResponse;
 import com.fcoder.Fcoder.model.dto.response.UserSubmissionStatsResponse;
 import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import com.fcoder.Fcoder.model.exception.JudgeQueueFullException;
+import com.fcoder.Fcoder.model.exception.RateLimitExceededException;
+import com.fcoder.Fcoder.service.JudgeEventLogService;
+import com.fcoder.Fcoder.service.RunService;
+import com.fcoder.Fcoder.service.SubmissionEventService;
 import com.fcoder.Fcoder.service.SubmissionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -13,9 +20,13 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -25,6 +36,9 @@ import java.util.List;
 public class SubmissionController {
 
     private final SubmissionService submissionService;
+    private final SubmissionEventService submissionEventService;
+    private final RunService runService;
+    private final JudgeEventLogService judgeEventLogService;
 
     @PostMapping
     @Operation(summary = "Submit a solution", security = @SecurityRequirement(name = "bearerAuth"))
@@ -42,7 +56,15 @@ public class SubmissionController {
                     .success(true)
                     .code("SUCCESS")
                     .content(result)
-                    .message("Solution submitted successfully")
+                    .message("Solution submitted successfully, waiting for judge")
+                    .build());
+
+        } catch (JudgeQueueFullException e) {
+
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(new ResponseObject.Builder<SubmissionResponse>()
+                    .success(false)
+                    .code("JUDGE_QUEUE_FULL")
+                    .message(e.getMessage())
                     .build());
 
         } catch (Exception e) {
@@ -65,6 +87,28 @@ public class SubmissionController {
         }
     }
 
+    @PostMapping("/run")
+    @Operation(summary = "Run a solution on the sample tests or on custom input, without submitting it", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ResponseObject<RunResponse>> runSolution(
+            @Valid @RequestBody RunRequest request,
+            Authentication authentication) {
+        try {
+            RunResponse result = runService.run(request, authentication.getName());
+            return ResponseEntity.ok(new ResponseObject.Builder<RunResponse>()
+                    .success(true)
+                    .code("SUCCESS")
+                    .content(result)
+                    .message("Run finished")
+                    .build());
+        } catch (RateLimitExceededException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(new ResponseObject.Builder<RunResponse>()
+                    .success(false)
+                    .code("RATE_LIMITED")
+                    .message(e.getMessage())
+                    .build());
+        }
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get submission by ID", security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<ResponseObject<SubmissionResponse>> getSubmissionById(@PathVariable Long id) {
@@ -77,6 +121,36 @@ public class SubmissionController {
                 .build());
     }
 
+    @PostMapping("/{id}/debug-capture")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_HOC')")
+    @Operation(summary = "Log every test of the next judgings of a submission in full (Admin and Header of club only)", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ResponseObject<Void>> enableDebugCapture(@PathVariable Long id) {
+        judgeEventLogService.enableDebugCapture(id);
+        return ResponseEntity.ok(new ResponseObject.Builder<Void>()
+                .success(true)
+                .code("SUCCESS")
+                .message("Debug capture enabled")
+                .build());
+    }
+
+    @DeleteMapping("/{id}/debug-capture")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_HOC')")
+    @Operation(summary = "Stop the debug capture of a submission (Admin and Header of club only)", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ResponseObject<Void>> disableDebugCapture(@PathVariable Long id) {
+        judgeEventLogService.disableDebugCapture(id);
+        return ResponseEntity.ok(new ResponseObject.Builder<Void>()
+                .success(true)
+                .code("SUCCESS")
+                .message("Debug capture disabled")
+                .build());
+    }
+
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream judge progress of a submission (status, test results, verdict)")
+    public SseEmitter streamSubmissionEvents(@PathVariable Long id) {
+        return submissionEventService.subscribe(id);
+    }
+
     @GetMapping("/user/{userId}")
     @Operation(summary = "Get submissions by user", security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<ResponseObject<PaginationWrapper<List<SubmissionResponse>>>> getSubmissionsByUser(
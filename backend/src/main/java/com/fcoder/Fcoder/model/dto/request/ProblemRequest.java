@@ -1,6 +1,7 @@
 package com.fcoder.Fcoder.model.dto.request;
 
 import com.fcoder.Fcoder.model.entity.ProblemEntity;
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -39,5 +40,15 @@ public class ProblemRequest {
 
     private Boolean isActive = true;
 
+    // Output checker, EXACT when not set
+    private ProblemEntity.CheckerType checkerType;
+
+    @Positive(message = "Checker epsilon must be positive")
+    private Double checkerEpsilon;
+
+    private String checkerSource;
+
+    private SubmissionEntity.ProgrammingLanguage checkerLanguage;
+
     private List<TestCaseRequest> testCases;
 }
@@ -0,0 +1,24 @@
+package com.fcoder.Fcoder.model.dto.request;
+
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Submissions to rejudge, every field is optional but at least one must be set
+ */
+@Data
+public class RejudgeRequest {
+
+    private Long problemId;
+
+    private Long userId;
+
+    // Current status of the submissions, e.g. only WRONG_ANSWER ones
+    private SubmissionEntity.SubmissionStatus status;
+
+    private LocalDateTime submittedFrom;
+
+    private LocalDateTime submittedTo;
+}
@@ -0,0 +1,22 @@
+package com.fcoder.Fcoder.model.dto.request;
+
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class RunRequest {
+
+    @NotNull(message = "Problem ID is required")
+    private Long problemId;
+
+    @NotBlank(message = "Source code is required")
+    private String sourceCode;
+
+    @NotNull(message = "Programming language is required")
+    private SubmissionEntity.ProgrammingLanguage language;
+
+    // Run on this stdin instead of the sample tests
+    private String customInput;
+}
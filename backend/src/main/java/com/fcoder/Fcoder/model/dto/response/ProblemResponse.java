@@ -20,6 +20,8 @@ public class ProblemResponse {
     private String category;
     private List<String> tags;
     private Boolean isActive;
+    private ProblemEntity.CheckerType checkerType;
+    private Double checkerEpsilon;
     private String createdBy;
     private LocalDateTime createdDate;
     private LocalDateTime updatedDate;
@@ -0,0 +1,31 @@
+package com.fcoder.Fcoder.model.dto.response;
+
+import com.fcoder.Fcoder.model.entity.RejudgeJobEntity;
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class RejudgeJobResponse {
+    private Long id;
+    private RejudgeJobEntity.State state;
+    private Long problemId;
+    private Long userId;
+    private SubmissionEntity.SubmissionStatus submissionStatus;
+    private LocalDateTime submittedFrom;
+    private LocalDateTime submittedTo;
+    private String requestedBy;
+    private Integer totalSubmissions;
+    private Integer processed;
+    private Integer changed;
+    private Integer failed;
+    private Double throughput; // submissions per second since the job (re)started, while running
+    private Long etaSeconds;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String errorMessage;
+}
@@ -0,0 +1,24 @@
+package com.fcoder.Fcoder.model.dto.response;
+
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import com.fcoder.Fcoder.model.other.TestCaseResult;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class RunResponse {
+    private Long problemId;
+    private SubmissionEntity.ProgrammingLanguage language;
+    // True when run on custom input, results then hold the single run and nothing was checked
+    private boolean customInput;
+    private SubmissionEntity.SubmissionStatus status;
+    private Integer passedTests;
+    private Integer totalTests;
+    private String compileError;
+    private Integer timeLimit;
+    private Integer memoryLimit;
+    private List<TestCaseResult> results;
+}
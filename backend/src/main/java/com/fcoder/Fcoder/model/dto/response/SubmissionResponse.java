@@ -16,6 +16,8 @@ public class SubmissionResponse {
     private SubmissionEntity.ProgrammingLanguage language;
     private SubmissionEntity.SubmissionStatus status;
     private Integer executionTime;
+    private Integer cpuTime;
+    private Integer wallTime;
     private Integer memoryUsed;
     private Integer passedTests;
     private Integer totalTests;
@@ -7,6 +7,9 @@ public class TestCaseResponse {
     private Long id;
     private String input;
     private String expectedOutput;
+    // Sizes in bytes
+    private Long inputSize;
+    private Long expectedOutputSize;
     private Boolean isSample;
     private Integer testOrder;
     private Integer points;
@@ -46,6 +46,25 @@ public class ProblemEntity extends BaseEntity {
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
 
+    // How outputs are judged, null means EXACT
+    @Enumerated(EnumType.STRING)
+    @Column(name = "checker_type")
+    private CheckerType checkerType;
+
+    @Column(name = "checker_epsilon")
+    private Double checkerEpsilon; // FLOAT checker tolerance, absolute or relative
+
+    @Column(name = "checker_source", columnDefinition = "TEXT")
+    private String checkerSource; // CUSTOM checker program
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "checker_language")
+    private SubmissionEntity.ProgrammingLanguage checkerLanguage;
+
+    // Bumped whenever the test cases are replaced, judge nodes cache test sets by it
+    @Column(name = "test_set_version")
+    private Long testSetVersion = 0L;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by")
     private AccountEntity createdBy;
@@ -59,4 +78,8 @@ public class ProblemEntity extends BaseEntity {
     public enum ProblemDifficulty {
         EASY, MEDIUM, HARD
     }
+
+    public enum CheckerType {
+        EXACT, TOKEN, FLOAT, UNORDERED_LINES, CUSTOM
+    }
 }
@@ -0,0 +1,86 @@
+package com.fcoder.Fcoder.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A bulk rejudge of the submissions matching a filter. Submissions are rejudged in id order and
+ * lastSubmissionId is checkpointed after every batch, so a run interrupted by a restart resumes there.
+ */
+@Entity
+@Table(name = "rejudge_jobs")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RejudgeJobEntity extends BaseEntity {
+
+    // Filter, null fields match everything
+    @Column(name = "problem_id")
+    private Long problemId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "submission_status")
+    private SubmissionEntity.SubmissionStatus submissionStatus;
+
+    @Column(name = "submitted_from")
+    private LocalDateTime submittedFrom;
+
+    @Column(name = "submitted_to")
+    private LocalDateTime submittedTo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", nullable = false)
+    private State state;
+
+    @Column(name = "requested_by")
+    private String requestedBy;
+
+    // Node running the job, the one that resumes it after a restart
+    @Column(name = "owner")
+    private String owner;
+
+    @Column(name = "total_submissions")
+    @Builder.Default
+    private Integer totalSubmissions = 0;
+
+    @Column(name = "processed")
+    @Builder.Default
+    private Integer processed = 0;
+
+    // Submissions whose verdict is different after the rejudge
+    @Column(name = "changed")
+    @Builder.Default
+    private Integer changed = 0;
+
+    @Column(name = "failed")
+    @Builder.Default
+    private Integer failed = 0;
+
+    @Column(name = "last_submission_id")
+    @Builder.Default
+    private Long lastSubmissionId = 0L;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+}
@@ -39,6 +39,12 @@ public class SubmissionEntity extends BaseEntity {
     @Column(name = "execution_time")
     private Integer executionTime; // in milliseconds
 
+    @Column(name = "cpu_time")
+    private Integer cpuTime; // user + sys, in milliseconds
+
+    @Column(name = "wall_time")
+    private Integer wallTime; // in milliseconds
+
     @Column(name = "memory_used")
     private Integer memoryUsed; // in KB
 
@@ -103,6 +109,7 @@ public class SubmissionEntity extends BaseEntity {
         WRONG_ANSWER,
         TIME_LIMIT_EXCEEDED,
         MEMORY_LIMIT_EXCEEDED,
+        OUTPUT_LIMIT_EXCEEDED,
         RUNTIME_ERROR,
         COMPILE_ERROR,
         PRESENTATION_ERROR,
@@ -14,12 +14,26 @@ public class TestCaseEntity extends BaseEntity {
     @JoinColumn(name = "problem_id", nullable = false)
     private ProblemEntity problem;
 
-    @Column(name = "input", columnDefinition = "TEXT", nullable = false)
+    // Inline data of test cases created before the test data store, moved there on first use
+    @Column(name = "input", columnDefinition = "TEXT")
     private String input;
 
-    @Column(name = "expected_output", columnDefinition = "TEXT", nullable = false)
+    @Column(name = "expected_output", columnDefinition = "TEXT")
     private String expectedOutput;
 
+    // sha256 of the input file in the test data store
+    @Column(name = "input_hash", length = 64)
+    private String inputHash;
+
+    @Column(name = "input_size")
+    private Long inputSize;
+
+    @Column(name = "output_hash", length = 64)
+    private String outputHash;
+
+    @Column(name = "output_size")
+    private Long outputSize;
+
     @Column(name = "is_sample", nullable = false)
     private Boolean isSample = false;
 
@@ -0,0 +1,14 @@
+package com.fcoder.Fcoder.model.exception;
+
+import com.fcoder.Fcoder.model.dto.response.ResponseObject;
+
+public class JudgeQueueFullException extends BaseException {
+    public JudgeQueueFullException(String message) {
+        super(message);
+        errors = new ResponseObject.Builder<String>()
+                .success(false)
+                .message(message)
+                .code("JUDGE_QUEUE_FULL")
+                .build();
+    }
+}
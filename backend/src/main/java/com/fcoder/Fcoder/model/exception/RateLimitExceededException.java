@@ -0,0 +1,14 @@
+package com.fcoder.Fcoder.model.exception;
+
+import com.fcoder.Fcoder.model.dto.response.ResponseObject;
+
+public class RateLimitExceededException extends BaseException {
+    public RateLimitExceededException(String message) {
+        super(message);
+        errors = new ResponseObject.Builder<String>()
+                .success(false)
+                .message(message)
+                .code("RATE_LIMITED")
+                .build();
+    }
+}
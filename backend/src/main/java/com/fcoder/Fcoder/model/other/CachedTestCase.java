@@ -0,0 +1,43 @@
+package com.fcoder.Fcoder.model.other;
+
+import com.fcoder.Fcoder.model.entity.TestCaseEntity;
+import lombok.Getter;
+
+/**
+ * Read-only view of a test case as kept in the per-node test set cache: what judging needs to order,
+ * score and locate it, without the inline input and expected output. The data itself is read from
+ * the test data store by hash.
+ */
+@Getter
+public class CachedTestCase {
+    private final Long id;
+    private final Integer testOrder;
+    private final String inputHash;
+    private final long inputSize;
+    private final String outputHash;
+    private final long outputSize;
+    private final boolean sample;
+    private final Integer points;
+
+    public CachedTestCase(Long id, Integer testOrder, String inputHash, long inputSize, String outputHash,
+                          long outputSize, boolean sample, Integer points) {
+        this.id = id;
+        this.testOrder = testOrder;
+        this.inputHash = inputHash;
+        this.inputSize = inputSize;
+        this.outputHash = outputHash;
+        this.outputSize = outputSize;
+        this.sample = sample;
+        this.points = points;
+    }
+
+    /**
+     * View of a test case whose data is already in the test data store
+     */
+    public static CachedTestCase from(TestCaseEntity testCase) {
+        return new CachedTestCase(testCase.getId(), testCase.getTestOrder(),
+                testCase.getInputHash(), testCase.getInputSize() == null ? 0 : testCase.getInputSize(),
+                testCase.getOutputHash(), testCase.getOutputSize() == null ? 0 : testCase.getOutputSize(),
+                Boolean.TRUE.equals(testCase.getIsSample()), testCase.getPoints());
+    }
+}
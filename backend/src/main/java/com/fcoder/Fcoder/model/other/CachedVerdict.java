@@ -0,0 +1,54 @@
+package com.fcoder.Fcoder.model.other;
+
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Final verdict of a submission as stored in the verdict cache
+ */
+@Data
+@NoArgsConstructor
+public class CachedVerdict {
+    private SubmissionEntity.SubmissionStatus status;
+    private Integer passedTests;
+    private Integer totalTests;
+    private Double score;
+    private Integer executionTime;
+    private Integer cpuTime;
+    private Integer wallTime;
+    private Integer memoryUsed;
+    private String compileError;
+    private String runtimeError;
+    private String judgeMessage;
+
+    public static CachedVerdict from(SubmissionEntity submission) {
+        CachedVerdict verdict = new CachedVerdict();
+        verdict.setStatus(submission.getStatus());
+        verdict.setPassedTests(submission.getPassedTests());
+        verdict.setTotalTests(submission.getTotalTests());
+        verdict.setScore(submission.getScore());
+        verdict.setExecutionTime(submission.getExecutionTime());
+        verdict.setCpuTime(submission.getCpuTime());
+        verdict.setWallTime(submission.getWallTime());
+        verdict.setMemoryUsed(submission.getMemoryUsed());
+        verdict.setCompileError(submission.getCompileError());
+        verdict.setRuntimeError(submission.getRuntimeError());
+        verdict.setJudgeMessage(submission.getJudgeMessage());
+        return verdict;
+    }
+
+    public void applyTo(SubmissionEntity submission) {
+        submission.setStatus(status);
+        submission.setPassedTests(passedTests);
+        submission.setTotalTests(totalTests);
+        submission.setScore(score);
+        submission.setExecutionTime(executionTime);
+        submission.setCpuTime(cpuTime);
+        submission.setWallTime(wallTime);
+        submission.setMemoryUsed(memoryUsed);
+        submission.setCompileError(compileError);
+        submission.setRuntimeError(runtimeError);
+        submission.setJudgeMessage(judgeMessage);
+    }
+}
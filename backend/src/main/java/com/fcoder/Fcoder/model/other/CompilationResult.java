@@ -7,10 +7,26 @@ public class CompilationResult {
     private boolean success;
     private String executablePath;
     private String errorMessage;
+    // Timeout or infrastructure error rather than a verdict on the source, not worth caching
+    private boolean systemFailure;
+    // The sandbox itself failed (docker could not run the image or the tool), a sign the compiler is down
+    private boolean sandboxFailure;
 
     public CompilationResult(boolean success, String executablePath, String errorMessage) {
         this.success = success;
         this.executablePath = executablePath;
         this.errorMessage = errorMessage;
     }
+
+    public static CompilationResult systemFailure(String errorMessage) {
+        CompilationResult result = new CompilationResult(false, null, errorMessage);
+        result.setSystemFailure(true);
+        return result;
+    }
+
+    public static CompilationResult sandboxFailure(String errorMessage) {
+        CompilationResult result = systemFailure(errorMessage);
+        result.setSandboxFailure(true);
+        return result;
+    }
 }
@@ -11,6 +11,8 @@ public class ExecutionResult {
     private int passedTests;
     private int totalTests;
     private long executionTime;
+    private long cpuTime;
+    private long wallTime;
     private long memoryUsed;
     private double score;
     private String errorMessage;
@@ -0,0 +1,93 @@
+package com.fcoder.Fcoder.model.other;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of a submission through the judge, pushed to clients watching it
+ */
+@Data
+@NoArgsConstructor
+public class SubmissionEvent {
+
+    public enum Type {
+        // Status change before the verdict: PENDING, COMPILING, RUNNING
+        STATUS,
+        // One test case finished, in completion order
+        TEST,
+        // Final verdict, the last event of a submission
+        VERDICT
+    }
+
+    private Long submissionId;
+    private Type type;
+    private SubmissionEntity.SubmissionStatus status;
+    private Integer totalTests;
+    private Integer testIndex;
+    private SubmissionEntity.SubmissionStatus testStatus;
+    private Boolean passed;
+    private Integer passedTests;
+    private Double score;
+    private Integer executionTime;
+    private Integer memoryUsed;
+    private String message;
+
+    public static SubmissionEvent status(Long submissionId, SubmissionEntity.SubmissionStatus status,
+                                         Integer totalTests) {
+        SubmissionEvent event = new SubmissionEvent();
+        event.setSubmissionId(submissionId);
+        event.setType(Type.STATUS);
+        event.setStatus(status);
+        event.setTotalTests(totalTests);
+        return event;
+    }
+
+    public static SubmissionEvent test(Long submissionId, int testIndex, int totalTests, TestCaseResult result) {
+        SubmissionEvent event = new SubmissionEvent();
+        event.setSubmissionId(submissionId);
+        event.setType(Type.TEST);
+        event.setStatus(SubmissionEntity.SubmissionStatus.RUNNING);
+        event.setTotalTests(totalTests);
+        event.setTestIndex(testIndex);
+        event.setTestStatus(result.getStatus());
+        event.setPassed(result.isPassed());
+        event.setExecutionTime((int) result.getExecutionTime());
+        event.setMemoryUsed((int) result.getMemoryUsed());
+        return event;
+    }
+
+    public static SubmissionEvent verdict(SubmissionEntity submission) {
+        SubmissionEvent event = new SubmissionEvent();
+        event.setSubmissionId(submission.getId());
+        event.setType(Type.VERDICT);
+        event.setStatus(submission.getStatus());
+        event.setTotalTests(submission.getTotalTests());
+        event.setPassedTests(submission.getPassedTests());
+        event.setScore(submission.getScore());
+        event.setExecutionTime(submission.getExecutionTime());
+        event.setMemoryUsed(submission.getMemoryUsed());
+        event.setMessage(submission.getJudgeMessage());
+        return event;
+    }
+
+    /**
+     * Event describing where a submission currently is, the first one a new watcher gets
+     */
+    public static SubmissionEvent of(SubmissionEntity submission) {
+        switch (submission.getStatus()) {
+            case PENDING:
+            case COMPILING:
+            case RUNNING:
+                return status(submission.getId(), submission.getStatus(), submission.getTotalTests());
+            default:
+                return verdict(submission);
+        }
+    }
+
+    @JsonIgnore
+    public boolean isFinal() {
+        return type == Type.VERDICT;
+    }
+}
@@ -9,6 +9,8 @@ public class TestCaseResult {
     private String actualOutput;
     private String expectedOutput;
     private long executionTime;
+    private long cpuTime; // user + sys, in milliseconds
+    private long wallTime; // in milliseconds
     private long memoryUsed;
     private String errorMessage;
     private SubmissionEntity.SubmissionStatus status;
@@ -0,0 +1,70 @@
+package com.fcoder.Fcoder.repository;
+
+import com.fcoder.Fcoder.model.entity.RejudgeJobEntity;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * State changes go through conditional updates, so a job is claimed by one node only and a cancel
+ * is never overwritten by the node running the job. updatedDate is the lease of the running node.
+ */
+@Repository
+public interface RejudgeJobRepository extends BaseRepository<RejudgeJobEntity, Long> {
+
+    List<RejudgeJobEntity> findByStateOrderByIdAsc(RejudgeJobEntity.State state);
+
+    List<RejudgeJobEntity> findByStateAndOwnerOrderByIdAsc(RejudgeJobEntity.State state, String owner);
+
+    List<RejudgeJobEntity> findByStateAndUpdatedDateBeforeOrderByIdAsc(RejudgeJobEntity.State state,
+                                                                      LocalDateTime updatedBefore);
+
+    List<RejudgeJobEntity> findTop50ByOrderByIdDesc();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RejudgeJobEntity j SET j.state = :to, j.owner = :owner, "
+            + "j.startedAt = COALESCE(j.startedAt, :now), j.updatedDate = :now "
+            + "WHERE j.id = :id AND j.state = :from")
+    int claim(@Param("id") Long id, @Param("owner") String owner, @Param("now") LocalDateTime now,
+              @Param("from") RejudgeJobEntity.State from, @Param("to") RejudgeJobEntity.State to);
+
+    /**
+     * Take a running job over from an instance that stopped refreshing it
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RejudgeJobEntity j SET j.owner = :owner, j.updatedDate = :now "
+            + "WHERE j.id = :id AND j.state = :state AND j.owner = :previousOwner AND j.updatedDate < :staleBefore")
+    int takeOver(@Param("id") Long id, @Param("previousOwner") String previousOwner, @Param("owner") String owner,
+                 @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore,
+                 @Param("state") RejudgeJobEntity.State state);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RejudgeJobEntity j SET j.updatedDate = :now "
+            + "WHERE j.id = :id AND j.owner = :owner AND j.state = :state")
+    int refresh(@Param("id") Long id, @Param("owner") String owner, @Param("now") LocalDateTime now,
+                @Param("state") RejudgeJobEntity.State state);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RejudgeJobEntity j SET j.lastSubmissionId = :lastSubmissionId, j.processed = :processed, "
+            + "j.changed = :changed, j.failed = :failed, j.updatedDate = :now "
+            + "WHERE j.id = :id AND j.owner = :owner AND j.state = :state")
+    int checkpoint(@Param("id") Long id, @Param("owner") String owner, @Param("lastSubmissionId") Long lastSubmissionId,
+                   @Param("processed") int processed, @Param("changed") int changed, @Param("failed") int failed,
+                   @Param("now") LocalDateTime now, @Param("state") RejudgeJobEntity.State state);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RejudgeJobEntity j SET j.state = :to, j.finishedAt = :now, j.errorMessage = :errorMessage, "
+            + "j.updatedDate = :now WHERE j.id = :id AND j.state IN :from")
+    int finish(@Param("id") Long id, @Param("to") RejudgeJobEntity.State to, @Param("errorMessage") String errorMessage,
+               @Param("now") LocalDateTime now, @Param("from") List<RejudgeJobEntity.State> from);
+}
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,9 +33,35 @@ public interface SubmissionRepository extends BaseRepository<SubmissionEntity, L
     @Query("SELECT COUNT(DISTINCT s.problem.id) FROM SubmissionEntity s WHERE s.user.id = :userId AND s.status = 'ACCEPTED'")
     Integer countSolvedProblemsByUserId(@Param("userId") Long userId);
 
+    @Query("SELECT s FROM SubmissionEntity s JOIN FETCH s.problem JOIN FETCH s.user WHERE s.id = :id")
+    Optional<SubmissionEntity> findByIdWithProblemAndUser(@Param("id") Long id);
+
     @Query("SELECT s FROM SubmissionEntity s WHERE s.status IN ('PENDING', 'COMPILING', 'RUNNING') ORDER BY s.createdDate ASC")
     List<SubmissionEntity> findPendingSubmissions();
 
+    // Submissions to rejudge after afterId in id order, null filters match everything; never ones still being judged
+    @Query("SELECT s FROM SubmissionEntity s WHERE s.id > :afterId"
+            + " AND s.status NOT IN ('PENDING', 'COMPILING', 'RUNNING')"
+            + " AND (:problemId IS NULL OR s.problem.id = :problemId)"
+            + " AND (:userId IS NULL OR s.user.id = :userId)"
+            + " AND (:status IS NULL OR s.status = :status)"
+            + " AND (:from IS NULL OR s.submissionTime >= :from)"
+            + " AND (:to IS NULL OR s.submissionTime < :to)"
+            + " ORDER BY s.id ASC")
+    List<SubmissionEntity> findRejudgeCandidates(@Param("problemId") Long problemId, @Param("userId") Long userId,
+            @Param("status") SubmissionEntity.SubmissionStatus status, @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT COUNT(s) FROM SubmissionEntity s WHERE s.status NOT IN ('PENDING', 'COMPILING', 'RUNNING')"
+            + " AND (:problemId IS NULL OR s.problem.id = :problemId)"
+            + " AND (:userId IS NULL OR s.user.id = :userId)"
+            + " AND (:status IS NULL OR s.status = :status)"
+            + " AND (:from IS NULL OR s.submissionTime >= :from)"
+            + " AND (:to IS NULL OR s.submissionTime < :to)")
+    long countRejudgeCandidates(@Param("problemId") Long problemId, @Param("userId") Long userId,
+            @Param("status") SubmissionEntity.SubmissionStatus status, @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
     boolean existsByUser_IdAndProblem_IdAndStatus(Long userId, Long problemId,
             SubmissionEntity.SubmissionStatus status);
     
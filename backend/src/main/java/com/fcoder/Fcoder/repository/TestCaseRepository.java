@@ -8,6 +8,8 @@ import java.util.List;
 @Repository
 public interface TestCaseRepository extends BaseRepository<TestCaseEntity, Long> {
 
+    List<TestCaseEntity> findByProblem_Id(Long problemId);
+
     List<TestCaseEntity> findByProblem_IdAndIsActiveTrueOrderByTestOrder(Long problemId);
 
     List<TestCaseEntity> findByProblem_IdAndIsSampleTrueAndIsActiveTrueOrderByTestOrder(Long problemId);
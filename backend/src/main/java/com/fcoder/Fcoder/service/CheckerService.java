@@ -0,0 +1,14 @@
+package com.fcoder.Fcoder.service;
+
+import com.fcoder.Fcoder.compiler.checker.Checker;
+import com.fcoder.Fcoder.model.entity.ProblemEntity;
+
+public interface CheckerService {
+
+    /**
+     * Output checker configured on the problem. A custom checker is compiled on first use
+     * and reused by later submissions until its source changes. The caller closes the checker once the
+     * submission's tests are checked.
+     */
+    Checker checkerFor(ProblemEntity problem);
+}
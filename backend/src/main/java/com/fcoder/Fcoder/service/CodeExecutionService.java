@@ -1,7 +1,8 @@
 package com.fcoder.Fcoder.service;
 
+import com.fcoder.Fcoder.compiler.checker.Checker;
 import com.fcoder.Fcoder.model.entity.SubmissionEntity;
-import com.fcoder.Fcoder.model.entity.TestCaseEntity;
+import com.fcoder.Fcoder.model.other.CachedTestCase;
 import com.fcoder.Fcoder.model.other.CompilationResult;
 import com.fcoder.Fcoder.model.other.ExecutionResult;
 import com.fcoder.Fcoder.model.other.TestCaseResult;
@@ -12,16 +13,51 @@ public interface CodeExecutionService {
 
     ExecutionResult executeCode(String sourceCode,
             SubmissionEntity.ProgrammingLanguage language,
-            List<TestCaseEntity> testCases,
+            List<CachedTestCase> testCases,
             int timeLimit,
             int memoryLimit);
 
+    ExecutionResult executeCompiled(CompilationResult compilationResult,
+            List<CachedTestCase> testCases,
+            int timeLimit,
+            int memoryLimit,
+            Checker checker,
+            TestResultListener listener);
+
+    /**
+     * As {@link #executeCompiled(CompilationResult, List, int, int, Checker, TestResultListener)} with an
+     * output limit in bytes of its own instead of the judge's, e.g. for runs of the sample tests
+     */
+    ExecutionResult executeCompiled(CompilationResult compilationResult,
+            List<CachedTestCase> testCases,
+            int timeLimit,
+            int memoryLimit,
+            long outputLimit,
+            Checker checker,
+            TestResultListener listener);
+
+    /**
+     * Run a compiled program once on the given stdin without checking its output, e.g. to try
+     * code on custom input. Nothing is stored; the result carries the beginning of the output.
+     */
+    TestCaseResult runWithInput(CompilationResult compilationResult,
+            String input,
+            int timeLimit,
+            int memoryLimit,
+            long outputLimit);
+
     CompilationResult compileCode(String sourceCode, SubmissionEntity.ProgrammingLanguage language);
 
     TestCaseResult runTestCase(String executablePath,
-            TestCaseEntity testCase,
+            CachedTestCase testCase,
             int timeLimit,
             int memoryLimit);
+    /**
+     * Give back the workspace of a successful compilation once nothing more will run on it, e.g. after
+     * the verdict. Every compileCode result that succeeded must be released exactly once.
+     */
+    void release(CompilationResult compilationResult);
+
     void cleanup(String workingDirectory);
 
     // Compiler management methods
@@ -29,4 +65,15 @@ public interface CodeExecutionService {
     boolean isCompilerAvailable(SubmissionEntity.ProgrammingLanguage language);
     SubmissionEntity.ProgrammingLanguage[] getSupportedLanguages();
     java.util.Map<SubmissionEntity.ProgrammingLanguage, Boolean> checkSystemRequirements();
+
+    /**
+     * Told about each test case as soon as it is judged, from the worker threads and in completion order.
+     * The index is the position of the test case in testOrder.
+     */
+    interface TestResultListener {
+        TestResultListener NONE = (index, result) -> {
+        };
+
+        void onTestResult(int index, TestCaseResult result);
+    }
 }
@@ -0,0 +1,30 @@
+package com.fcoder.Fcoder.service;
+
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import com.fcoder.Fcoder.model.other.TestCaseResult;
+
+public interface JudgeEventLogService {
+
+    /**
+     * Start the event log of one judging of a submission. Decides once whether the submission is
+     * sampled or debug-captured.
+     */
+    SubmissionLog open(SubmissionEntity submission);
+
+    /**
+     * Log every test of the submission's next judgings in full, on whichever node judges it,
+     * until the capture expires or is disabled
+     */
+    void enableDebugCapture(Long submissionId);
+
+    void disableDebugCapture(Long submissionId);
+
+    /**
+     * Compact records of one judging, safe to use from the test worker threads
+     */
+    interface SubmissionLog {
+        void test(int index, TestCaseResult result);
+
+        void verdict(SubmissionEntity submission);
+    }
+}
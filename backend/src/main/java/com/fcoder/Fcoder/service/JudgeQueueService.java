@@ -0,0 +1,36 @@
+package com.fcoder.Fcoder.service;
+
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+
+public interface JudgeQueueService {
+
+    /**
+     * Priority class of a queued submission. Lanes share the workers by weight, and within a lane
+     * each user gets a fair share whatever the number of submissions they queued.
+     */
+    enum Lane {
+        // Submitted by a user, someone is waiting for the verdict
+        LIVE,
+        // Triggered by an admin, e.g. a single rejudge
+        ADMIN
+    }
+
+    /**
+     * Hand a saved PENDING submission to the judge workers.
+     *
+     * @throws com.fcoder.Fcoder.model.exception.JudgeQueueFullException if the queue is full
+     */
+    void enqueue(SubmissionEntity submission, Lane lane);
+
+    boolean hasCapacity();
+
+    int getQueueDepth();
+
+    int getActiveCount();
+
+    /**
+     * Re-offer PENDING / COMPILING / RUNNING submissions that are not queued on this node,
+     * e.g. after a restart.
+     */
+    void enqueuePendingSubmissions();
+}
@@ -0,0 +1,27 @@
+package com.fcoder.Fcoder.service;
+
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import com.fcoder.Fcoder.model.other.CompilationResult;
+
+public interface JudgeService {
+
+    /**
+     * Compile and run a stored submission against its problem's active test cases,
+     * moving it through COMPILING / RUNNING and persisting the final verdict.
+     */
+    void judge(Long submissionId);
+
+    /**
+     * Judge an already judged submission again with a compilation shared by identical sources.
+     * The previous verdict stays visible until the new one is saved.
+     *
+     * @return The new status, the current one when the submission is still waiting for the judge
+     */
+    SubmissionEntity.SubmissionStatus rejudge(Long submissionId, CompilationResult compilationResult);
+
+    /**
+     * Give up on a submission the judge workers could not finish, it becomes a SYSTEM_ERROR
+     * unless it already has a final verdict.
+     */
+    void failSubmission(Long submissionId, String reason);
+}
@@ -26,6 +26,12 @@ public interface ProblemService {
 
     void deactivateProblem(Long id);
 
+    // Judge nodes load the problem's test data ahead of time, e.g. before a contest starts
+    void preloadTestData(Long id);
+
+    // Moves the test data of the problem out of the database into the shared store, returns the test cases moved
+    int migrateTestData(Long id);
+
     // Filtering and search
     List<ProblemResponse> filterProblems(String title, String category,
                                          ProblemEntity.ProblemDifficulty difficulty,
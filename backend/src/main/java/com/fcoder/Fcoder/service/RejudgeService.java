@@ -0,0 +1,29 @@
+package com.fcoder.Fcoder.service;
+
+import com.fcoder.Fcoder.model.dto.request.RejudgeRequest;
+import com.fcoder.Fcoder.model.dto.response.RejudgeJobResponse;
+
+import java.util.List;
+
+public interface RejudgeService {
+
+    /**
+     * Queue a rejudge of every judged submission matching the request
+     */
+    RejudgeJobResponse startRejudge(RejudgeRequest request, String username);
+
+    /**
+     * Progress of a job, with throughput and ETA while it runs
+     */
+    RejudgeJobResponse getJob(Long id);
+
+    /**
+     * Most recent jobs first
+     */
+    List<RejudgeJobResponse> getJobs();
+
+    /**
+     * Stop a queued or running job, submissions already rejudged keep their new verdict
+     */
+    RejudgeJobResponse cancelJob(Long id);
+}
@@ -0,0 +1,16 @@
+package com.fcoder.Fcoder.service;
+
+import com.fcoder.Fcoder.model.dto.request.RunRequest;
+import com.fcoder.Fcoder.model.dto.response.RunResponse;
+
+public interface RunService {
+
+    /**
+     * Compile and run a solution on the problem's sample tests, or on custom input, and answer with
+     * the results right away. Nothing is saved and the judge queue is not involved.
+     *
+     * @throws com.fcoder.Fcoder.model.exception.RateLimitExceededException if the user runs too often
+     *                                                                      or the node is busy running
+     */
+    RunResponse run(RunRequest request, String username);
+}
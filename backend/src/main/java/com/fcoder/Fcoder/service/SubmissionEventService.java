@@ -0,0 +1,18 @@
+package com.fcoder.Fcoder.service;
+
+import com.fcoder.Fcoder.model.other.SubmissionEvent;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface SubmissionEventService {
+
+    /**
+     * Stream the progress of a submission: its current state first, then every event until the verdict.
+     * The stream completes after the verdict.
+     */
+    SseEmitter subscribe(Long submissionId);
+
+    /**
+     * Send an event to everyone watching the submission, on any API node
+     */
+    void publish(SubmissionEvent event);
+}
@@ -0,0 +1,26 @@
+package com.fcoder.Fcoder.service;
+
+import com.fcoder.Fcoder.model.entity.ProblemEntity;
+import com.fcoder.Fcoder.model.other.CachedTestCase;
+
+import java.util.List;
+
+public interface TestSetCacheService {
+
+    /**
+     * Active test cases of the problem in testOrder, from this node's cache when it holds the
+     * problem's current test set version. Their data is in the test data store, only hashes and sizes are kept.
+     */
+    List<CachedTestCase> getTestCases(ProblemEntity problem);
+
+    /**
+     * Ask every judge node to load the problem's test set and copy its test data locally,
+     * e.g. for contest problems ahead of the start
+     */
+    void preload(Long problemId);
+
+    /**
+     * Make every judge node drop the problem's test set, e.g. after its test cases were replaced
+     */
+    void invalidate(Long problemId);
+}
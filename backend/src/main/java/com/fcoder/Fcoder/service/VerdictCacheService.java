@@ -0,0 +1,32 @@
+package com.fcoder.Fcoder.service;
+
+import com.fcoder.Fcoder.model.entity.ProblemEntity;
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import com.fcoder.Fcoder.model.other.CachedTestCase;
+import com.fcoder.Fcoder.model.other.CachedVerdict;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface VerdictCacheService {
+
+    /**
+     * Fingerprint of everything the verdict depends on besides the source:
+     * the active test cases (content and order), the problem's limits and its checker.
+     */
+    String fingerprint(ProblemEntity problem, List<CachedTestCase> testCases);
+
+    Optional<CachedVerdict> lookup(SubmissionEntity.ProgrammingLanguage language, String sourceCode,
+                                   Long problemId, String fingerprint);
+
+    /**
+     * Remember the final verdict of a judged submission. Verdicts that depend on the
+     * machine (time limit, system errors) are not stored.
+     */
+    void store(SubmissionEntity submission, String fingerprint);
+
+    /**
+     * Drop every cached verdict of the problem, e.g. after its test cases were rewritten
+     */
+    void invalidateProblem(Long problemId);
+}
@@ -0,0 +1,125 @@
+package com.fcoder.Fcoder.service.impl;
+
+import com.fcoder.Fcoder.compiler.CompilerFactory;
+import com.fcoder.Fcoder.compiler.WorkspaceManager;
+import com.fcoder.Fcoder.compiler.checker.Checker;
+import com.fcoder.Fcoder.compiler.checker.CustomChecker;
+import com.fcoder.Fcoder.compiler.checker.ExactChecker;
+import com.fcoder.Fcoder.compiler.checker.TokenChecker;
+import com.fcoder.Fcoder.compiler.checker.UnorderedLinesChecker;
+import com.fcoder.Fcoder.config.JudgeConfig;
+import com.fcoder.Fcoder.model.entity.ProblemEntity;
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import com.fcoder.Fcoder.model.other.CompilationResult;
+import com.fcoder.Fcoder.service.CheckerService;
+import com.fcoder.Fcoder.service.CodeExecutionService;
+import com.fcoder.Fcoder.util.HashUtils;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+public class CheckerServiceImpl implements CheckerService {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckerServiceImpl.class);
+
+    private static final double DEFAULT_EPSILON = 1e-6;
+
+    private final CodeExecutionService codeExecutionService;
+    private final CompilerFactory compilerFactory;
+    private final JudgeConfig judgeConfig;
+    private final HashUtils hashUtils;
+    private final WorkspaceManager workspaceManager;
+
+    // Workspace of each compiled checker, by hash of language and source
+    private final Map<String, Path> compiledCheckers = new ConcurrentHashMap<>();
+    // Checker key each problem was last judged with
+    private final Map<Long, String> problemCheckers = new ConcurrentHashMap<>();
+
+    @Override
+    public Checker checkerFor(ProblemEntity problem) {
+        ProblemEntity.CheckerType checkerType = problem.getCheckerType() != null
+                ? problem.getCheckerType()
+                : ProblemEntity.CheckerType.EXACT;
+        if (checkerType != ProblemEntity.CheckerType.CUSTOM && problemCheckers.containsKey(problem.getId())) {
+            dropChecker(problem.getId());
+        }
+        switch (checkerType) {
+            case TOKEN:
+                return new TokenChecker(null);
+            case FLOAT:
+                return new TokenChecker(problem.getCheckerEpsilon() != null
+                        ? problem.getCheckerEpsilon()
+                        : DEFAULT_EPSILON);
+            case UNORDERED_LINES:
+                return new UnorderedLinesChecker();
+            case CUSTOM:
+                return customChecker(problem);
+            default:
+                return new ExactChecker();
+        }
+    }
+
+    // Looked up and retained under the lock releaseUnused holds, so the workspace cannot go in between
+    private synchronized Checker customChecker(ProblemEntity problem) {
+        SubmissionEntity.ProgrammingLanguage language = problem.getCheckerLanguage();
+        String key = hashUtils.sha256(language + ":" + problem.getCheckerSource());
+        Path workspace = compiledChecker(problem, key);
+        workspaceManager.retain(workspace);
+        int timeoutSeconds = (int) Math.max(1, judgeConfig.getChecker().getTimeout().toSeconds());
+        return new CustomChecker(compilerFactory.getCompiler(language), workspaceManager, workspace, timeoutSeconds);
+    }
+
+    // Caller holds the lock
+    private Path compiledChecker(ProblemEntity problem, String key) {
+        Path workspace = compiledCheckers.get(key);
+        if (workspace == null || !Files.isDirectory(workspace)) {
+            log.info("Compiling checker of problem {}", problem.getId());
+            CompilationResult result = codeExecutionService.compileCode(problem.getCheckerSource(),
+                    problem.getCheckerLanguage());
+            if (!result.isSuccess()) {
+                throw new IllegalStateException("Checker of problem " + problem.getId() + " does not compile: "
+                        + result.getErrorMessage());
+            }
+            // Held while some problem uses this checker, each checker handed out takes its own reference
+            workspace = Paths.get(result.getExecutablePath()).getParent();
+            Path replaced = compiledCheckers.put(key, workspace);
+            if (replaced != null) {
+                workspaceManager.release(replaced);
+            }
+        }
+        String previous = problemCheckers.put(problem.getId(), key);
+        if (previous != null && !previous.equals(key)) {
+            releaseUnused(previous);
+        }
+        return workspace;
+    }
+
+    // The problem no longer has a custom checker
+    private synchronized void dropChecker(Long problemId) {
+        String previous = problemCheckers.remove(problemId);
+        if (previous != null) {
+            releaseUnused(previous);
+        }
+    }
+
+    // Release a checker the problems were moved off, unless another problem still uses it
+    private void releaseUnused(String key) {
+        if (problemCheckers.containsValue(key)) {
+            return;
+        }
+        Path workspace = compiledCheckers.remove(key);
+        if (workspace != null) {
+            log.info("Releasing replaced checker {}", workspace);
+            workspaceManager.release(workspace);
+        }
+    }
+}
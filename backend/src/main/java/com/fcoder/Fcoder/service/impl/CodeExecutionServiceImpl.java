@@ -1,9 +1,25 @@
 package com.fcoder.Fcoder.service.impl;
 
+import com.fcoder.Fcoder.compiler.BatchTestRunner;
+import com.fcoder.Fcoder.compiler.CompilerAvailabilityRegistry;
 import com.fcoder.Fcoder.compiler.CompilerFactory;
 import com.fcoder.Fcoder.compiler.BaseCompiler;
+import com.fcoder.Fcoder.compiler.CompileCache;
+import com.fcoder.Fcoder.compiler.ContainerPool;
+import com.fcoder.Fcoder.compiler.CpuBudgetScheduler;
+import com.fcoder.Fcoder.compiler.JudgeMetrics;
+import com.fcoder.Fcoder.compiler.OutputComparator;
+import com.fcoder.Fcoder.compiler.ResourceUsage;
+import com.fcoder.Fcoder.compiler.RunLimits;
+import com.fcoder.Fcoder.compiler.checker.CheckVerdict;
+import com.fcoder.Fcoder.compiler.checker.Checker;
+import com.fcoder.Fcoder.compiler.checker.ExactChecker;
+import com.fcoder.Fcoder.compiler.Sandbox;
+import com.fcoder.Fcoder.compiler.TestDataStore;
+import com.fcoder.Fcoder.compiler.WorkspaceManager;
+import com.fcoder.Fcoder.config.JudgeConfig;
 import com.fcoder.Fcoder.model.entity.SubmissionEntity;
-import com.fcoder.Fcoder.model.entity.TestCaseEntity;
+import com.fcoder.Fcoder.model.other.CachedTestCase;
 import com.fcoder.Fcoder.model.other.CompilationResult;
 import com.fcoder.Fcoder.model.other.ExecutionResult;
 import com.fcoder.Fcoder.model.other.TestCaseResult;
@@ -14,11 +30,18 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @RequiredArgsConstructor
@@ -26,41 +49,80 @@ public class CodeExecutionServiceImpl implements CodeExecutionService {
 
     private static final Logger log = LoggerFactory.getLogger(CodeExecutionServiceImpl.class);
 
-    private static final String WORKSPACE_BASE = System.getProperty("java.io.tmpdir").replace("\\", "/") + "/code-execution/";
-
     private final CompilerFactory compilerFactory;
+    private final CompilerAvailabilityRegistry compilerAvailability;
+    private final JudgeConfig judgeConfig;
+    private final BatchTestRunner batchTestRunner;
+    private final CpuBudgetScheduler cpuBudgetScheduler;
+    private final CompileCache compileCache;
+    private final TestDataStore testDataStore;
+    private final WorkspaceManager workspaceManager;
+    private final ContainerPool containerPool;
+    private final JudgeMetrics judgeMetrics;
 
     @Override
     public ExecutionResult executeCode(String sourceCode,
             SubmissionEntity.ProgrammingLanguage language,
-            List<TestCaseEntity> testCases,
+            List<CachedTestCase> testCases,
             int timeLimit,
             int memoryLimit) {
 
-        ExecutionResult result = new ExecutionResult();
+        // Compile code
+        CompilationResult compilationResult = compileCode(sourceCode, language);
+        if (!compilationResult.isSuccess()) {
+            return new ExecutionResult(SubmissionEntity.SubmissionStatus.COMPILE_ERROR,
+                    compilationResult.getErrorMessage());
+        }
 
         try {
-            // Compile code
-            CompilationResult compilationResult = compileCode(sourceCode, language);
-            if (!compilationResult.isSuccess()) {
-                result.setStatus(SubmissionEntity.SubmissionStatus.COMPILE_ERROR);
-                result.setErrorMessage(compilationResult.getErrorMessage());
-                return result;
-            }
+            return executeCompiled(compilationResult, testCases, timeLimit, memoryLimit, new ExactChecker(),
+                    TestResultListener.NONE);
+        } finally {
+            release(compilationResult);
+        }
+    }
+
+    @Override
+    public ExecutionResult executeCompiled(CompilationResult compilationResult,
+            List<CachedTestCase> testCases,
+            int timeLimit,
+            int memoryLimit,
+            Checker checker,
+            TestResultListener listener) {
+        return executeCompiled(compilationResult, testCases, timeLimit, memoryLimit,
+                judgeConfig.getExecution().getOutputLimit().toBytes(), checker, listener);
+    }
 
+    @Override
+    public ExecutionResult executeCompiled(CompilationResult compilationResult,
+            List<CachedTestCase> testCases,
+            int timeLimit,
+            int memoryLimit,
+            long outputLimit,
+            Checker checker,
+            TestResultListener listener) {
+
+        ExecutionResult result = new ExecutionResult();
+
+        try {
             // Execute test cases
             int passedTests = 0;
             long totalExecutionTime = 0;
+            long totalWallTime = 0;
             long maxMemoryUsed = 0;
 
-            for (TestCaseEntity testCase : testCases) {
-                TestCaseResult testResult = runTestCase(
-                        compilationResult.getExecutablePath(),
-                        testCase,
-                        timeLimit,
-                        memoryLimit);
+            List<TestCaseResult> testResults = runTestCases(
+                    compilationResult.getExecutablePath(),
+                    testCases,
+                    timeLimit,
+                    memoryLimit,
+                    outputLimit,
+                    checker,
+                    listener);
 
+            for (TestCaseResult testResult : testResults) {
                 totalExecutionTime += testResult.getExecutionTime();
+                totalWallTime += testResult.getWallTime();
                 maxMemoryUsed = Math.max(maxMemoryUsed, testResult.getMemoryUsed());
 
                 if (testResult.isPassed()) {
@@ -72,14 +134,28 @@ public class CodeExecutionServiceImpl implements CodeExecutionService {
             result.setPassedTests(passedTests);
             result.setTotalTests(testCases.size());
             result.setExecutionTime(totalExecutionTime);
+            result.setCpuTime(totalExecutionTime);
+            result.setWallTime(totalWallTime);
             result.setMemoryUsed(maxMemoryUsed);
             result.setScore((double) passedTests / testCases.size() * 100);
+            result.setTestResults(testResults);
 
-            // Determine status
+            // Determine status, the first failing test (in testOrder) decides the verdict
             if (passedTests == testCases.size()) {
                 result.setStatus(SubmissionEntity.SubmissionStatus.ACCEPTED);
             } else {
-                result.setStatus(SubmissionEntity.SubmissionStatus.WRONG_ANSWER);
+                TestCaseResult firstFailure = testResults.stream()
+                        .filter(testResult -> !testResult.isPassed())
+                        .findFirst()
+                        .orElseThrow();
+                // Runs that failed before producing a verdict count as a wrong answer, as before
+                SubmissionEntity.SubmissionStatus status = firstFailure.getStatus() == null
+                        ? SubmissionEntity.SubmissionStatus.WRONG_ANSWER
+                        : firstFailure.getStatus();
+                result.setStatus(status);
+                if (status != SubmissionEntity.SubmissionStatus.WRONG_ANSWER) {
+                    result.setErrorMessage(firstFailure.getErrorMessage());
+                }
             }
 
         } catch (Exception e) {
@@ -94,6 +170,8 @@ public class CodeExecutionServiceImpl implements CodeExecutionService {
     @Override
     public CompilationResult compileCode(String sourceCode,
                                          SubmissionEntity.ProgrammingLanguage language) {
+        long start = System.nanoTime();
+        Path workspace = null;
         try {
             log.info("Starting compilation for language: {}", language);
             log.debug("Source code length: {} characters", sourceCode.length());
@@ -105,42 +183,229 @@ public class CodeExecutionServiceImpl implements CodeExecutionService {
             // Get the appropriate compiler for the language
             BaseCompiler compiler = compilerFactory.getCompiler(language);
 
-            // Check if compiler is available
-            if (!compilerFactory.isCompilerAvailable(language)) {
+            // Known from the background probe and from earlier compiles, no docker call here
+            if (!compilerAvailability.isAvailable(language)) {
                 log.error("Compiler not available for language: {}", language);
-                return new CompilationResult(false, null, "Compiler not available for language: " + language);
+                return CompilationResult.systemFailure("Compiler not available for language: " + language);
             }
 
-            // Create temporary workspace
-            Path workspace = createWorkspace();
-            log.info("Created workspace: {}", workspace);
+            // Held by the caller until the verdict, only when there is something to run; comes with a
+            // container already started on it when the pool has one ready
+            workspace = containerPool.createWorkspace(compiler.getDockerImage());
+            log.debug("Created workspace: {}", workspace);
+
+            // Identical source compiled before with the same compiler image
+            Optional<String> cacheKey = compileCache.key(sourceCode, language, compiler.getDockerImage());
+            if (cacheKey.isPresent()) {
+                Optional<CompilationResult> cached = compileCache.get(cacheKey.get(), workspace);
+                if (cached.isPresent()) {
+                    log.info("Compile cache hit for language {} - Success: {}", language, cached.get().isSuccess());
+                    if (!cached.get().isSuccess()) {
+                        workspaceManager.release(workspace);
+                    }
+                    return cached.get();
+                }
+            }
 
             // Use the compiler to compile the source code
             CompilationResult result = compiler.compile(sourceCode, workspace);
             log.info("Compilation result - Success: {}, Error: {}", result.isSuccess(), result.getErrorMessage());
+            // Only a failing sandbox says the compiler is down; a timeout says nothing either way
+            if (result.isSandboxFailure()) {
+                compilerAvailability.recordFailure(language, result.getErrorMessage());
+            } else if (!result.isSystemFailure()) {
+                compilerAvailability.recordSuccess(language);
+            }
 
             // Check compilation timeout
             long compilationTime = System.currentTimeMillis() - startTime;
             if (compilationTime > compilationTimeout) {
                 log.warn("Compilation timeout for language {}: {}ms", language, compilationTime);
-                return new CompilationResult(false, null, "Compilation timeout exceeded");
+                workspaceManager.release(workspace);
+                return CompilationResult.systemFailure("Compilation timeout exceeded");
             }
 
+            Path compiled = workspace;
+            cacheKey.ifPresent(key -> compileCache.put(key, result, compiled));
+            if (!result.isSuccess()) {
+                workspaceManager.release(workspace);
+            }
             return result;
 
         } catch (Exception e) {
             log.error("Error during compilation for language {}: {}", language, e.getMessage(), e);
-            return new CompilationResult(false, null, "Compilation error: " + e.getMessage());
+            if (workspace != null) {
+                workspaceManager.release(workspace);
+            }
+            return CompilationResult.systemFailure("Compilation error: " + e.getMessage());
+        } finally {
+            judgeMetrics.record(JudgeMetrics.Stage.COMPILE, start);
+        }
+    }
+
+    /**
+     * Run all test cases, fanned out over the cores leased from the CPU budget.
+     * In batch mode every core runs a contiguous range of tests in one sandbox session,
+     * otherwise each core picks the next test in order. Results come back in testOrder.
+     */
+    private List<TestCaseResult> runTestCases(String executablePath,
+            List<CachedTestCase> testCases,
+            int timeLimit,
+            int memoryLimit,
+            long outputLimit,
+            Checker checker,
+            TestResultListener listener) throws Exception {
+        JudgeConfig.Execution config = judgeConfig.getExecution();
+        List<CachedTestCase> orderedTests = new ArrayList<>(testCases);
+        orderedTests.sort(Comparator.comparing(CachedTestCase::getTestOrder,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+
+        Path workspace = Paths.get(executablePath).getParent();
+        BaseCompiler compiler = compilerFactory.getCompiler(determineLanguageFromPath(executablePath));
+        TestRunState state = new TestRunState(orderedTests.size(), config.isStopOnFirstFailure(), workspace,
+                listener);
+        RunLimits limits = new RunLimits(wallTimeLimit(timeLimit), sandboxMemory(memoryLimit), outputLimit);
+
+        boolean batch = config.isBatchEnabled() && orderedTests.size() > 1;
+        if (batch) {
+            try {
+                List<String> inputHashes = new ArrayList<>();
+                for (CachedTestCase testCase : orderedTests) {
+                    inputHashes.add(testCase.getInputHash());
+                }
+                batchTestRunner.prepare(workspace, inputHashes);
+            } catch (IOException e) {
+                log.warn("Could not prepare batch execution, running test cases one by one: {}", e.getMessage());
+                batch = false;
+            }
         }
+
+        int wantedCores = Math.min(orderedTests.size(), Math.max(1, config.getMaxParallelTests()));
+        try (CpuBudgetScheduler.CpuLease lease = cpuBudgetScheduler.lease(wantedCores)) {
+            if (batch) {
+                int chunkSize = (orderedTests.size() + lease.size() - 1) / lease.size();
+                lease.runOnEachCore((worker, core) -> {
+                    int first = worker * chunkSize;
+                    int last = Math.min(orderedTests.size(), first + chunkSize);
+                    if (first >= last) {
+                        return;
+                    }
+                    try {
+                        batchTestRunner.run(compiler, workspace, first, last - first, core, limits,
+                                new BatchTestRunner.OutputChecks() {
+                                    @Override
+                                    public OutputComparator open(int index) throws IOException {
+                                        return openOutputCheck(checker, orderedTests.get(index), limits);
+                                    }
+
+                                    @Override
+                                    public String expectedHash(int index) {
+                                        return orderedTests.get(index).getOutputHash();
+                                    }
+                                },
+                                (index, outcome) -> state.record(index,
+                                        toTestCaseResult(outcome, timeLimit, memoryLimit)));
+                    } catch (IOException e) {
+                        log.warn("Batch session failed, running its test cases one by one: {}", e.getMessage());
+                    }
+                    // Tests the batch session did not report on
+                    for (int index = first; index < last && !state.isSkipped(index); index++) {
+                        if (!state.hasResult(index)) {
+                            state.record(index, runTestCaseOnCore(executablePath, orderedTests.get(index),
+                                    timeLimit, memoryLimit, limits, checker, core));
+                        }
+                    }
+                });
+            } else {
+                AtomicInteger nextTest = new AtomicInteger();
+                lease.runOnEachCore((worker, core) -> {
+                    int index;
+                    while ((index = nextTest.getAndIncrement()) < orderedTests.size() && !state.isSkipped(index)) {
+                        state.record(index, runTestCaseOnCore(executablePath, orderedTests.get(index),
+                                timeLimit, memoryLimit, limits, checker, core));
+                    }
+                });
+            }
+        }
+
+        return state.getResults();
     }
 
     @Override
     public TestCaseResult runTestCase(String executablePath,
-            TestCaseEntity testCase,
+            CachedTestCase testCase,
             int timeLimit,
             int memoryLimit) {
+        return runTestCaseOnCore(executablePath, testCase, timeLimit, memoryLimit, runLimits(timeLimit, memoryLimit),
+                new ExactChecker(), null);
+    }
+
+    @Override
+    public TestCaseResult runWithInput(CompilationResult compilationResult,
+            String input,
+            int timeLimit,
+            int memoryLimit,
+            long outputLimit) {
+        Path workspace = Paths.get(compilationResult.getExecutablePath()).getParent();
+        Path inputFile = workspace.resolve("run-" + UUID.randomUUID() + ".in");
+        try {
+            Files.writeString(inputFile, input == null ? "" : input);
+            RunLimits limits = new RunLimits(wallTimeLimit(timeLimit), sandboxMemory(memoryLimit), outputLimit);
+            // Nothing to compare with, an empty file stands in for the expected output
+            return runOnCore(compilationResult.getExecutablePath(), inputFile, emptyFile(workspace),
+                    timeLimit, memoryLimit, limits, (in, expected) -> new Checker.Session() {
+                        @Override
+                        public void write(byte[] buffer, int offset, int length) {
+                        }
+
+                        @Override
+                        public CheckVerdict finish() {
+                            return CheckVerdict.accepted();
+                        }
+                    }, null);
+        } catch (IOException e) {
+            TestCaseResult result = new TestCaseResult();
+            result.setPassed(false);
+            result.setErrorMessage("Runtime error: " + e.getMessage());
+            return result;
+        } finally {
+            try {
+                Files.deleteIfExists(inputFile);
+            } catch (IOException e) {
+                log.debug("Could not delete run input {}: {}", inputFile, e.getMessage());
+            }
+        }
+    }
+
+    private TestCaseResult runTestCaseOnCore(String executablePath,
+            CachedTestCase testCase,
+            int timeLimit,
+            int memoryLimit,
+            RunLimits limits,
+            Checker checker,
+            Integer core) {
+        try {
+            log.debug("Test case input: {} ({} bytes)", testCase.getInputHash(), testCase.getInputSize());
+            return runOnCore(executablePath, testDataStore.path(testCase.getInputHash()),
+                    testDataStore.path(testCase.getOutputHash()), timeLimit, memoryLimit, limits, checker, core);
+        } catch (IOException e) {
+            TestCaseResult result = new TestCaseResult();
+            result.setPassed(false);
+            result.setErrorMessage("Runtime error: " + e.getMessage());
+            return result;
+        }
+    }
+
+    private TestCaseResult runOnCore(String executablePath,
+            Path input,
+            Path expectedOutput,
+            int timeLimit,
+            int memoryLimit,
+            RunLimits limits,
+            Checker checker,
+            Integer core) {
         try {
-            log.info("Running test case for executable: {}", executablePath);
+            log.debug("Running test case for executable: {}", executablePath);
             
             // Get the compiler for execution
             Path executableFilePath = Paths.get(executablePath);
@@ -148,107 +413,250 @@ public class CodeExecutionServiceImpl implements CodeExecutionService {
 
             // Determine language from executable path and get execution command
             SubmissionEntity.ProgrammingLanguage language = determineLanguageFromPath(executablePath);
-            log.info("Determined language: {} for path: {}", language, executablePath);
+            log.debug("Determined language: {} for path: {}", language, executablePath);
             
             BaseCompiler compiler = compilerFactory.getCompiler(language);
-            String[] executionCommand = compiler.getExecutionCommand();
-
-            // Update Docker volume mount to use the correct workspace
-            for (int i = 0; i < executionCommand.length; i++) {
-                if (executionCommand[i].contains("%WORKSPACE%")) {
-                    executionCommand[i] = executionCommand[i].replace(
-                            "%WORKSPACE%",
-                            workspace.toString().replace("\\", "/"));
-                }
-            }
 
-            log.info("Execution command: {}", String.join(" ", executionCommand));
-            log.info("Workspace: {}", workspace);
-            log.info("Test case input: {}", testCase.getInput());
-            
-            ProcessBuilder pb = new ProcessBuilder(executionCommand);
-            pb.directory(workspace.toFile());
-            pb.redirectErrorStream(true);
+            try (Sandbox sandbox = compiler.openSandbox(workspace, limits.getMemory())) {
+                String[] command = core == null
+                        ? compiler.getExecutionCommand()
+                        : CpuBudgetScheduler.pinned(core, compiler.getExecutionCommand());
+                String[] executionCommand = sandbox.command(workspace, true, ResourceUsage.measured(command));
 
-            long startTime = System.currentTimeMillis();
-            Process process = pb.start();
+                log.debug("Execution command: {}", String.join(" ", executionCommand));
+                log.debug("Workspace: {}", workspace);
+            
+                ProcessBuilder pb = new ProcessBuilder(executionCommand);
+                pb.directory(workspace.toFile());
+
+                // Check the output while the program runs, so a full pipe never blocks it
+                OutputComparator comparator = new OutputComparator(checker.start(input, expectedOutput),
+                        expectedOutput, limits.getOutputLimit());
+
+                long startTime = System.currentTimeMillis();
+                Process process = pb.start();
+
+                Thread outputReader = new Thread(() -> {
+                    try (InputStream output = process.getInputStream()) {
+                        comparator.consume(output);
+                    } catch (IOException e) {
+                        log.debug("Stopped reading program output: {}", e.getMessage());
+                    }
+                    if (comparator.isLimitExceeded()) {
+                        process.destroyForcibly();
+                    }
+                }, "test-output-reader");
+                outputReader.setDaemon(true);
+                outputReader.start();
+                // Only the usage report of GNU time (and docker's own errors) arrive on stderr
+                ByteArrayOutputStream report = new ByteArrayOutputStream();
+                Thread reportReader = new Thread(() -> {
+                    try (InputStream stderr = process.getErrorStream()) {
+                        stderr.transferTo(report);
+                    } catch (IOException e) {
+                        log.debug("Stopped reading usage report: {}", e.getMessage());
+                    }
+                }, "test-usage-reader");
+                reportReader.setDaemon(true);
+                reportReader.start();
+
+                // Provide input straight from the file, closing stdin so programs reading past it see EOF
+                try (OutputStream stdin = process.getOutputStream()) {
+                    TestDataStore.transferFile(input, stdin);
+                } catch (IOException e) {
+                    // The program exited or was killed without reading all of its input
+                    log.debug("Could not write test input: {}", e.getMessage());
+                }
 
-            // Provide input
-            if (testCase.getInput() != null && !testCase.getInput().isEmpty()) {
-                try (OutputStreamWriter writer = new OutputStreamWriter(process.getOutputStream())) {
-                    writer.write(testCase.getInput());
-                    writer.flush();
+                // Wait for completion, the time limit itself is checked against CPU time
+                boolean finished = process.waitFor(limits.getWallTimeLimit(), TimeUnit.MILLISECONDS);
+                long endTime = System.currentTimeMillis();
+                long executionTime = endTime - startTime;
+
+                if (!finished) {
+                    process.destroyForcibly();
+                    // The program may still be running inside the container
+                    sandbox.discard();
+                    comparator.discard();
+                    return toTestCaseResult(
+                            new BatchTestRunner.RunOutcome(true, null, -1, executionTime, ResourceUsage.NONE),
+                            timeLimit, memoryLimit);
                 }
-            }
 
-            // Wait for completion with timeout
-            boolean finished = process.waitFor(timeLimit, TimeUnit.MILLISECONDS);
-            long endTime = System.currentTimeMillis();
-            long executionTime = endTime - startTime;
-
-            if (!finished) {
-                process.destroyForcibly();
-                TestCaseResult result = new TestCaseResult();
-                result.setPassed(false);
-                result.setErrorMessage("Time limit exceeded");
-                result.setExecutionTime(timeLimit);
-                return result;
+                outputReader.join(TimeUnit.SECONDS.toMillis(5));
+                reportReader.join(TimeUnit.SECONDS.toMillis(5));
+                // Most of the comparing happened while the program ran, this is the rest and the checker
+                long compareStart = System.nanoTime();
+                OutputComparator.Result output = comparator.result();
+                judgeMetrics.record(JudgeMetrics.Stage.COMPARE, compareStart);
+                if (output.isLimitExceeded()) {
+                    sandbox.discard();
+                }
+                ResourceUsage usage = ResourceUsage.parse(report.toString(StandardCharsets.UTF_8));
+                return toTestCaseResult(
+                        new BatchTestRunner.RunOutcome(false, output, process.exitValue(), executionTime, usage),
+                        timeLimit, memoryLimit);
             }
 
-            // Get output
-            String actualOutput = readProcessOutput(process);
-            String expectedOutput = testCase.getExpectedOutput().trim();
-            actualOutput = actualOutput.trim();
-
-            log.info("Test case execution completed:");
-            log.info("  Expected output: '{}'", expectedOutput);
-            log.info("  Actual output: '{}'", actualOutput);
-            log.info("  Execution time: {}ms", executionTime);
-            log.info("  Process exit code: {}", process.exitValue());
+        } catch (Exception e) {
+            TestCaseResult result = new TestCaseResult();
+            result.setPassed(false);
+            result.setErrorMessage("Runtime error: " + e.getMessage());
+            return result;
+        }
+    }
 
-            // Compare outputs
-            boolean passed = expectedOutput.equals(actualOutput);
+    /**
+     * Build the verdict of one test run, shared by single and batch execution.
+     * The time limit applies to the CPU time of the program; a run that hit the wall-clock
+     * ceiling (sleeping, blocked on input, starved) is a time limit exceeded as well.
+     */
+    private TestCaseResult toTestCaseResult(BatchTestRunner.RunOutcome outcome,
+            int timeLimit,
+            int memoryLimit) {
+        TestCaseResult result = new TestCaseResult();
+        ResourceUsage usage = outcome.getUsage();
+        long memoryUsed = usage.getPeakMemoryKb();
+        // Without a GNU time report only the wall clock is known
+        long cpuTime = usage.isMeasured() ? usage.getCpuTimeMs() : outcome.getExecutionTime();
+        long wallTime = usage.isMeasured() ? usage.getWallTimeMs() : outcome.getExecutionTime();
+        result.setCpuTime(cpuTime);
+        result.setWallTime(wallTime);
+        judgeMetrics.record(JudgeMetrics.Stage.TEST_RUN, outcome.getExecutionTime(), TimeUnit.MILLISECONDS);
+
+        OutputComparator.Result output = outcome.getOutput();
+        if (output != null && output.isLimitExceeded()) {
+            result.setPassed(false);
+            result.setStatus(SubmissionEntity.SubmissionStatus.OUTPUT_LIMIT_EXCEEDED);
+            result.setErrorMessage("Output limit exceeded");
+            result.setActualOutput(output.getActualSnippet());
+            result.setExecutionTime(cpuTime);
+            result.setMemoryUsed(memoryUsed);
+            return result;
+        }
 
-            TestCaseResult result = new TestCaseResult();
-            result.setPassed(passed);
-            result.setActualOutput(actualOutput);
-            result.setExpectedOutput(expectedOutput);
-            result.setExecutionTime(executionTime);
-            result.setMemoryUsed(0); // Memory measurement would require native tools
+        if (outcome.isTimedOut() || cpuTime > timeLimit) {
+            result.setPassed(false);
+            result.setStatus(SubmissionEntity.SubmissionStatus.TIME_LIMIT_EXCEEDED);
+            result.setErrorMessage("Time limit exceeded");
+            result.setExecutionTime(timeLimit);
+            result.setMemoryUsed(memoryUsed);
+            return result;
+        }
 
-            log.info("Test case result: {}", passed ? "PASSED" : "FAILED");
+        // Peak RSS over the problem limit, or killed by the sandbox on the way there
+        if (memoryUsed > (long) memoryLimit * 1024) {
+            result.setPassed(false);
+            result.setStatus(SubmissionEntity.SubmissionStatus.MEMORY_LIMIT_EXCEEDED);
+            result.setErrorMessage("Memory limit exceeded");
+            result.setExecutionTime(cpuTime);
+            result.setMemoryUsed(memoryUsed);
             return result;
+        }
 
-        } catch (Exception e) {
-            TestCaseResult result = new TestCaseResult();
+        // Only the native runner reports signals: a crash is a runtime error whatever was printed before it
+        if (outcome.getSignal() != 0) {
             result.setPassed(false);
-            result.setErrorMessage("Runtime error: " + e.getMessage());
+            result.setStatus(SubmissionEntity.SubmissionStatus.RUNTIME_ERROR);
+            result.setErrorMessage("Runtime error: killed by " + signalName(outcome.getSignal()));
+            result.setActualOutput(output.getActualSnippet());
+            result.setExpectedOutput(output.getExpectedSnippet());
+            result.setExecutionTime(cpuTime);
+            result.setMemoryUsed(memoryUsed);
             return result;
         }
+
+        int exitCode = outcome.getExitCode();
+        boolean passed = output.matches();
+
+        log.debug("Test case execution completed:");
+        log.debug("  Output size: {} bytes", output.getOutputSize());
+        if (!passed) {
+            log.debug("  {}", output.getDifference());
+        }
+        log.debug("  CPU time: {}ms, wall time: {}ms", cpuTime, wallTime);
+        log.debug("  Process exit code: {}", exitCode);
+
+        result.setPassed(passed);
+        result.setStatus(output.getVerdict().getStatus());
+        // Bounded snippets only, outputs can be many megabytes
+        result.setActualOutput(output.getActualSnippet());
+        result.setExpectedOutput(output.getExpectedSnippet());
+        result.setErrorMessage(output.getDifference());
+        result.setExecutionTime(cpuTime);
+        result.setMemoryUsed(memoryUsed);
+
+        log.debug("Test case result: {}", passed ? "PASSED" : "FAILED");
+        return result;
+    }
+
+    @Override
+    public void release(CompilationResult compilationResult) {
+        if (compilationResult != null && compilationResult.isSuccess()
+                && compilationResult.getExecutablePath() != null) {
+            workspaceManager.release(Paths.get(compilationResult.getExecutablePath()).getParent());
+        }
     }
 
     @Override
     public void cleanup(String workspacePath) {
-        try {
-            Path workspace = Paths.get(workspacePath);
-            Files.walk(workspace)
-                    .sorted((a, b) -> b.compareTo(a)) // Delete files before directories
-                    .forEach(path -> {
-                        try {
-                            Files.delete(path);
-                        } catch (IOException e) {
-                            log.warn("Failed to delete: " + path, e);
-                        }
-                    });
-        } catch (IOException e) {
-            log.warn("Failed to cleanup workspace: " + workspacePath, e);
+        workspaceManager.release(Paths.get(workspacePath));
+    }
+
+    private OutputComparator openOutputCheck(Checker checker, CachedTestCase testCase, RunLimits limits)
+            throws IOException {
+        Path expectedOutput = testDataStore.path(testCase.getOutputHash());
+        Checker.Session session = checker.start(testDataStore.path(testCase.getInputHash()), expectedOutput);
+        return new OutputComparator(session, expectedOutput, limits.getOutputLimit());
+    }
+
+    private RunLimits runLimits(int timeLimit, int memoryLimit) {
+        return new RunLimits(wallTimeLimit(timeLimit), sandboxMemory(memoryLimit),
+                judgeConfig.getExecution().getOutputLimit().toBytes());
+    }
+
+    /**
+     * Wall-clock ceiling of a run, a multiple of the (CPU) time limit plus a fixed allowance
+     */
+    private int wallTimeLimit(int timeLimit) {
+        JudgeConfig.Execution config = judgeConfig.getExecution();
+        return (int) (timeLimit * config.getWallTimeFactor() + config.getWallTimeExtra().toMillis());
+    }
+
+    /**
+     * Sandbox memory limit for a problem: the problem limit plus headroom for the runtime around
+     * the program, so exceeding the problem limit is reported as MLE rather than a crash
+     */
+    private String sandboxMemory(int memoryLimit) {
+        long headroom = judgeConfig.getSandbox().getMemoryHeadroom().toMegabytes();
+        return (memoryLimit + headroom) + "m";
+    }
+
+    private static String signalName(int signal) {
+        switch (signal) {
+            case 6:
+                return "SIGABRT (6)";
+            case 7:
+                return "SIGBUS (7)";
+            case 8:
+                return "SIGFPE (8)";
+            case 9:
+                return "SIGKILL (9)";
+            case 11:
+                return "SIGSEGV (11)";
+            case 24:
+                return "SIGXCPU (24)";
+            default:
+                return "signal " + signal;
         }
     }
 
-    private Path createWorkspace() throws IOException {
-        Path workspace = Paths.get(WORKSPACE_BASE + System.currentTimeMillis());
-        Files.createDirectories(workspace);
-        return workspace;
+    private static Path emptyFile(Path workspace) throws IOException {
+        Path empty = workspace.resolve("empty.txt");
+        if (!Files.exists(empty)) {
+            Files.createFile(empty);
+        }
+        return empty;
     }
 
     /**
@@ -264,7 +672,7 @@ public class CodeExecutionServiceImpl implements CodeExecutionService {
      */
     @Override
     public boolean isCompilerAvailable(SubmissionEntity.ProgrammingLanguage language) {
-        return compilerFactory.isCompilerAvailable(language);
+        return compilerAvailability.isAvailable(language);
     }
 
     /**
@@ -280,18 +688,13 @@ public class CodeExecutionServiceImpl implements CodeExecutionService {
      */
     @Override
     public java.util.Map<SubmissionEntity.ProgrammingLanguage, Boolean> checkSystemRequirements() {
-        return compilerFactory.checkSystemRequirements();
-    }
-
-    private String readProcessOutput(Process process) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            StringBuilder output = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
-            }
-            return output.toString();
+        compilerAvailability.probe();
+        java.util.Map<SubmissionEntity.ProgrammingLanguage, Boolean> status = new java.util.EnumMap<>(
+                SubmissionEntity.ProgrammingLanguage.class);
+        for (SubmissionEntity.ProgrammingLanguage language : compilerFactory.getSupportedLanguages()) {
+            status.put(language, compilerAvailability.isAvailable(language));
         }
+        return status;
     }
 
     /**
@@ -311,4 +714,65 @@ public class CodeExecutionServiceImpl implements CodeExecutionService {
             return SubmissionEntity.ProgrammingLanguage.C; // Default to C for compiled executables
         }
     }
+
+    /**
+     * Results of one submission's test run, filled in by the workers in any order
+     */
+    private class TestRunState {
+        private final TestCaseResult[] results;
+        private final boolean stopOnFirstFailure;
+        private final Path workspace;
+        private final TestResultListener listener;
+        private final AtomicInteger firstFailure = new AtomicInteger(Integer.MAX_VALUE);
+
+        private TestRunState(int testCount, boolean stopOnFirstFailure, Path workspace, TestResultListener listener) {
+            this.results = new TestCaseResult[testCount];
+            this.stopOnFirstFailure = stopOnFirstFailure;
+            this.workspace = workspace;
+            this.listener = listener;
+        }
+
+        private void record(int index, TestCaseResult result) {
+            store(index, result);
+            // Outside the lock, the listener may do I/O
+            try {
+                listener.onTestResult(index, result);
+            } catch (RuntimeException e) {
+                log.debug("Test result listener failed: {}", e.getMessage());
+            }
+        }
+
+        private synchronized void store(int index, TestCaseResult result) {
+            results[index] = result;
+            if (stopOnFirstFailure && !result.isPassed() && index < firstFailure.get()) {
+                firstFailure.set(index);
+                try {
+                    batchTestRunner.stopAfter(workspace, index);
+                } catch (IOException e) {
+                    log.debug("Could not signal batch sessions to stop: {}", e.getMessage());
+                }
+            }
+        }
+
+        private synchronized boolean hasResult(int index) {
+            return results[index] != null;
+        }
+
+        // Tests after the first failing one are not run when stopping on first failure
+        private boolean isSkipped(int index) {
+            return index > firstFailure.get();
+        }
+
+        private synchronized List<TestCaseResult> getResults() {
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null) {
+                    TestCaseResult skipped = new TestCaseResult();
+                    skipped.setPassed(false);
+                    skipped.setErrorMessage("Skipped after an earlier failing test");
+                    results[i] = skipped;
+                }
+            }
+            return Arrays.asList(results);
+        }
+    }
 }
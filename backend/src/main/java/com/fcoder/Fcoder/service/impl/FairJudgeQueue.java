@@ -0,0 +1,227 @@
+package com.fcoder.Fcoder.service.impl;
+
+import com.fcoder.Fcoder.config.JudgeConfig;
+import com.fcoder.Fcoder.service.JudgeQueueService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded dispatch queue of the judge, deficit round robin on two levels. Lanes take turns by weight
+ * (a pick costs 1), so admin work keeps a small share without delaying live submissions much. Within a
+ * lane every user with waiting submissions is a flow served in turn: a turn is worth userQuantum test
+ * cases and a submission costs its number of test cases, so a user who queued a hundred submissions
+ * gets the same share of the workers as one who queued one, and heavy submissions wait longer turns.
+ * FIFO per user.
+ */
+class FairJudgeQueue {
+
+    private final int capacity;
+    private final int userQuantum;
+    private final Map<JudgeQueueService.Lane, LaneQueue> lanes = new EnumMap<>(JudgeQueueService.Lane.class);
+    // Lanes with waiting submissions, in turn order
+    private final ArrayDeque<LaneQueue> activeLanes = new ArrayDeque<>();
+    private final Map<JudgeQueueService.Lane, Timer> waitTimers = new EnumMap<>(JudgeQueueService.Lane.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private int size;
+
+    FairJudgeQueue(int capacity, JudgeConfig.Fairness config, MeterRegistry meterRegistry) {
+        this.capacity = Math.max(1, capacity);
+        this.userQuantum = Math.max(1, config.getUserQuantum());
+        lanes.put(JudgeQueueService.Lane.LIVE, new LaneQueue(config.getLiveWeight()));
+        lanes.put(JudgeQueueService.Lane.ADMIN, new LaneQueue(config.getAdminWeight()));
+        for (JudgeQueueService.Lane lane : JudgeQueueService.Lane.values()) {
+            String tag = lane.name().toLowerCase(Locale.ROOT);
+            waitTimers.put(lane, Timer.builder("judge.queue.wait")
+                    .description("Time from queueing a submission until a worker starts judging it")
+                    .tag("lane", tag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            Gauge.builder("judge.queue.lane.depth", this, queue -> queue.size(lane))
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * @return false when the queue is full
+     */
+    boolean offer(JudgeTicket ticket) {
+        lock.lock();
+        try {
+            if (size >= capacity) {
+                return false;
+            }
+            add(ticket);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add a submission, waiting for room
+     */
+    void put(JudgeTicket ticket) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size >= capacity) {
+                notFull.await();
+            }
+            add(ticket);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Next submission to judge, waiting for one. Records how long it was queued.
+     */
+    JudgeTicket take() throws InterruptedException {
+        JudgeTicket ticket;
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            ticket = next();
+            size--;
+            notFull.signal();
+        } finally {
+            lock.unlock();
+        }
+        long waited = Math.max(0, System.currentTimeMillis() - ticket.getEnqueuedAt());
+        waitTimers.get(ticket.getLane()).record(Duration.ofMillis(waited));
+        return ticket;
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size(JudgeQueueService.Lane lane) {
+        lock.lock();
+        try {
+            return lanes.get(lane).size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copy of the waiting submissions, in no particular order
+     */
+    List<JudgeTicket> snapshot() {
+        lock.lock();
+        try {
+            List<JudgeTicket> tickets = new ArrayList<>(size);
+            for (LaneQueue lane : lanes.values()) {
+                for (UserFlow flow : lane.flows.values()) {
+                    tickets.addAll(flow.tickets);
+                }
+            }
+            return tickets;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void add(JudgeTicket ticket) {
+        LaneQueue lane = lanes.get(ticket.getLane());
+        UserFlow flow = lane.flows.get(ticket.getUserId());
+        if (flow == null) {
+            flow = new UserFlow();
+            lane.flows.put(ticket.getUserId(), flow);
+            lane.activeFlows.addLast(flow);
+        }
+        flow.tickets.addLast(ticket);
+        if (lane.size == 0) {
+            activeLanes.addLast(lane);
+        }
+        lane.size++;
+        size++;
+        notEmpty.signal();
+    }
+
+    // Called with the lock held and size > 0
+    private JudgeTicket next() {
+        while (true) {
+            LaneQueue lane = activeLanes.peekFirst();
+            if (lane.deficit >= 1) {
+                lane.deficit--;
+                JudgeTicket ticket = lane.next(userQuantum);
+                if (lane.size == 0) {
+                    activeLanes.pollFirst();
+                    lane.deficit = 0;
+                }
+                return ticket;
+            }
+            lane.deficit += lane.weight;
+            activeLanes.addLast(activeLanes.pollFirst());
+        }
+    }
+
+    private static class LaneQueue {
+        private final int weight;
+        private final Map<Long, UserFlow> flows = new HashMap<>();
+        // Users with waiting submissions, in turn order
+        private final ArrayDeque<UserFlow> activeFlows = new ArrayDeque<>();
+        private long deficit;
+        private int size;
+
+        private LaneQueue(int weight) {
+            this.weight = Math.max(1, weight);
+        }
+
+        private JudgeTicket next(int quantum) {
+            while (true) {
+                UserFlow flow = activeFlows.peekFirst();
+                JudgeTicket head = flow.tickets.peekFirst();
+                if (flow.deficit >= head.getCost()) {
+                    flow.deficit -= head.getCost();
+                    flow.tickets.pollFirst();
+                    size--;
+                    if (flow.tickets.isEmpty()) {
+                        activeFlows.pollFirst();
+                        flows.remove(head.getUserId());
+                    }
+                    return head;
+                }
+                flow.deficit += quantum;
+                activeFlows.addLast(activeFlows.pollFirst());
+            }
+        }
+    }
+
+    private static class UserFlow {
+        private final ArrayDeque<JudgeTicket> tickets = new ArrayDeque<>();
+        private long deficit;
+    }
+}
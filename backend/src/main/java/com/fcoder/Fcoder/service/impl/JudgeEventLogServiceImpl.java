@@ -0,0 +1,187 @@
+package com.fcoder.Fcoder.service.impl;
+
+import com.fcoder.Fcoder.config.JudgeConfig;
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import com.fcoder.Fcoder.model.other.TestCaseResult;
+import com.fcoder.Fcoder.service.JudgeEventLogService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes the judge event log ("judge.events" logger, an async appender in logback-spring.xml):
+ * one logfmt line per test and one per verdict. Failed tests are always logged, passed tests only for
+ * the sampled share of submissions; output snippets are capped, and a submission writes at most
+ * max-records-per-submission test lines. Debug capture (a Redis key, so it reaches every judge
+ * worker) logs every test of a submission with larger payloads.
+ */
+@Service
+public class JudgeEventLogServiceImpl implements JudgeEventLogService {
+
+    private static final Logger log = LoggerFactory.getLogger(JudgeEventLogServiceImpl.class);
+    private static final Logger events = LoggerFactory.getLogger("judge.events");
+    private static final String DEBUG_KEY_PREFIX = "JUDGE_DEBUG:";
+    private static final SubmissionLog DISABLED = new SubmissionLog() {
+        @Override
+        public void test(int index, TestCaseResult result) {
+        }
+
+        @Override
+        public void verdict(SubmissionEntity submission) {
+        }
+    };
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final JudgeConfig.Logging config;
+
+    public JudgeEventLogServiceImpl(RedisTemplate<String, Object> redisTemplate, JudgeConfig judgeConfig) {
+        this.redisTemplate = redisTemplate;
+        this.config = judgeConfig.getLogging();
+    }
+
+    @Override
+    public SubmissionLog open(SubmissionEntity submission) {
+        if (!config.isEnabled() || !events.isInfoEnabled()) {
+            return DISABLED;
+        }
+        boolean debug = isDebugCaptured(submission.getId());
+        return new Records(submission.getId(), debug, debug || isSampled(submission.getId()));
+    }
+
+    @Override
+    public void enableDebugCapture(Long submissionId) {
+        redisTemplate.opsForValue().set(DEBUG_KEY_PREFIX + submissionId, true, config.getDebugCaptureTtl());
+    }
+
+    @Override
+    public void disableDebugCapture(Long submissionId) {
+        redisTemplate.delete(DEBUG_KEY_PREFIX + submissionId);
+    }
+
+    private boolean isDebugCaptured(Long submissionId) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(DEBUG_KEY_PREFIX + submissionId));
+        } catch (RuntimeException e) {
+            log.debug("Could not check debug capture of submission {}: {}", submissionId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Same answer for a submission on every node and every judging
+     */
+    private boolean isSampled(Long submissionId) {
+        double rate = config.getSampleRate();
+        if (rate >= 1) {
+            return true;
+        }
+        if (rate <= 0 || submissionId == null) {
+            return false;
+        }
+        long mixed = submissionId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod(mixed >>> 16, 1_000_000L) < (long) (rate * 1_000_000);
+    }
+
+    private class Records implements SubmissionLog {
+        private final Long submissionId;
+        private final boolean debug;
+        private final boolean sampled;
+        private final AtomicInteger written = new AtomicInteger();
+        private final AtomicInteger suppressed = new AtomicInteger();
+
+        private Records(Long submissionId, boolean debug, boolean sampled) {
+            this.submissionId = submissionId;
+            this.debug = debug;
+            this.sampled = sampled;
+        }
+
+        @Override
+        public void test(int index, TestCaseResult result) {
+            boolean failed = !result.isPassed();
+            if (!failed && !sampled) {
+                return;
+            }
+            if (!debug && written.incrementAndGet() > config.getMaxRecordsPerSubmission()) {
+                suppressed.incrementAndGet();
+                return;
+            }
+            StringBuilder line = new StringBuilder(128)
+                    .append("event=test submission=").append(submissionId)
+                    .append(" test=").append(index)
+                    .append(" status=").append(result.getStatus())
+                    .append(" passed=").append(result.isPassed())
+                    .append(" cpu_ms=").append(result.getCpuTime())
+                    .append(" wall_ms=").append(result.getWallTime())
+                    .append(" mem_kb=").append(result.getMemoryUsed());
+            if (failed || debug) {
+                int limit = debug ? config.getDebugPayloadLimit() : config.getPayloadLimit();
+                appendField(line, "error", result.getErrorMessage(), limit);
+                appendField(line, "actual", result.getActualOutput(), limit);
+                appendField(line, "expected", result.getExpectedOutput(), limit);
+            }
+            if (debug) {
+                line.append(" debug=true");
+            }
+            events.info(line.toString());
+        }
+
+        @Override
+        public void verdict(SubmissionEntity submission) {
+            Long problemId = submission.getProblem() == null ? null : submission.getProblem().getId();
+            StringBuilder line = new StringBuilder(128)
+                    .append("event=verdict submission=").append(submissionId)
+                    .append(" problem=").append(problemId)
+                    .append(" language=").append(submission.getLanguage())
+                    .append(" status=").append(submission.getStatus())
+                    .append(" passed=").append(submission.getPassedTests())
+                    .append(" total=").append(submission.getTotalTests())
+                    .append(" cpu_ms=").append(submission.getCpuTime())
+                    .append(" wall_ms=").append(submission.getWallTime())
+                    .append(" mem_kb=").append(submission.getMemoryUsed());
+            if (suppressed.get() > 0) {
+                line.append(" suppressed=").append(suppressed.get());
+            }
+            if (debug) {
+                line.append(" debug=true");
+            }
+            events.info(line.toString());
+        }
+    }
+
+    static void appendField(StringBuilder line, String name, String value, int limit) {
+        if (value == null) {
+            return;
+        }
+        line.append(' ').append(name).append("=\"");
+        int end = Math.min(value.length(), Math.max(0, limit));
+        for (int i = 0; i < end; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    line.append(c < 0x20 ? '?' : c);
+            }
+        }
+        if (end < value.length()) {
+            line.append("...");
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,167 @@
+package com.fcoder.Fcoder.service.impl;
+
+import com.fcoder.Fcoder.config.JudgeConfig;
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import com.fcoder.Fcoder.model.exception.JudgeQueueFullException;
+import com.fcoder.Fcoder.repository.SubmissionRepository;
+import com.fcoder.Fcoder.service.JudgeQueueService;
+import com.fcoder.Fcoder.service.JudgeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process judge queue: a fixed pool of judge workers taking submissions from a bounded
+ * {@link FairJudgeQueue}, so no single user or lane can monopolize them.
+ * When the queue is full new submissions are rejected instead of piling up in memory.
+ * Used with judge.queue.mode=local, see {@link StreamJudgeQueueServiceImpl} for separate judge workers.
+ */
+@Service
+@ConditionalOnProperty(prefix = "judge.queue", name = "mode", havingValue = "local", matchIfMissing = true)
+public class JudgeQueueServiceImpl implements JudgeQueueService {
+
+    private static final Logger log = LoggerFactory.getLogger(JudgeQueueServiceImpl.class);
+
+    private final JudgeService judgeService;
+    private final SubmissionRepository submissionRepository;
+    private final JudgeConfig.Queue queueConfig;
+    private final FairJudgeQueue queue;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService recoveryScheduler;
+    private final Set<Long> queuedSubmissions = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final Counter rejectedCounter;
+
+    public JudgeQueueServiceImpl(JudgeService judgeService,
+                                 SubmissionRepository submissionRepository,
+                                 JudgeConfig judgeConfig,
+                                 MeterRegistry meterRegistry) {
+        this.judgeService = judgeService;
+        this.submissionRepository = submissionRepository;
+        this.queueConfig = judgeConfig.getQueue();
+
+        this.queue = new FairJudgeQueue(queueConfig.getCapacity(), queueConfig.getFairness(), meterRegistry);
+        int workerCount = Math.max(1, queueConfig.getWorkerThreads());
+        this.workers = Executors.newFixedThreadPool(workerCount, new CustomizableThreadFactory("judge-worker-"));
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::work);
+        }
+        this.recoveryScheduler = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("judge-queue-recovery-"));
+
+        Gauge.builder("judge.queue.depth", queue, FairJudgeQueue::size)
+                .description("Submissions waiting for a judge worker")
+                .register(meterRegistry);
+        Gauge.builder("judge.queue.active", activeCount, AtomicInteger::get)
+                .description("Submissions currently being judged")
+                .register(meterRegistry);
+        Gauge.builder("judge.queue.remaining.capacity", queue, FairJudgeQueue::remainingCapacity)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("judge.queue.rejected")
+                .description("Submissions rejected because the judge queue was full")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void enqueue(SubmissionEntity submission, Lane lane) {
+        Long submissionId = submission.getId();
+        if (!queuedSubmissions.add(submissionId)) {
+            log.debug("Submission {} is already queued", submissionId);
+            return;
+        }
+        if (!queue.offer(JudgeTicket.of(submission, lane))) {
+            queuedSubmissions.remove(submissionId);
+            rejectedCounter.increment();
+            throw new JudgeQueueFullException("Judge queue is full, please try again later");
+        }
+        log.info("Queued submission {} in lane {} (queue depth: {})", submissionId, lane, queue.size());
+    }
+
+    @Override
+    public boolean hasCapacity() {
+        return queue.remainingCapacity() > 0;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    @Override
+    public void enqueuePendingSubmissions() {
+        List<SubmissionEntity> pendingSubmissions = submissionRepository.findPendingSubmissions();
+        for (SubmissionEntity submission : pendingSubmissions) {
+            if (queuedSubmissions.contains(submission.getId())) {
+                continue;
+            }
+            try {
+                enqueue(submission, Lane.LIVE);
+            } catch (JudgeQueueFullException e) {
+                log.info("Judge queue is full, {} pending submissions left for the next recovery run",
+                        pendingSubmissions.size());
+                return;
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRecovery() {
+        long interval = Math.max(1, queueConfig.getRecoveryInterval().toMillis());
+        recoveryScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                enqueuePendingSubmissions();
+            } catch (Exception e) {
+                log.warn("Failed to re-queue pending submissions: {}", e.getMessage());
+            }
+        }, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        recoveryScheduler.shutdownNow();
+        // Submissions still queued stay PENDING and are re-queued on the next start
+        workers.shutdownNow();
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            JudgeTicket ticket;
+            try {
+                ticket = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            activeCount.incrementAndGet();
+            try {
+                judgeService.judge(ticket.getSubmissionId());
+            } catch (Exception e) {
+                log.error("Judge worker failed for submission {}", ticket.getSubmissionId(), e);
+            } finally {
+                activeCount.decrementAndGet();
+                queuedSubmissions.remove(ticket.getSubmissionId());
+            }
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.fcoder.Fcoder.service.impl;
+
+import com.fcoder.Fcoder.compiler.JudgeMetrics;
+import com.fcoder.Fcoder.compiler.checker.Checker;
+import com.fcoder.Fcoder.model.entity.ProblemEntity;
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import com.fcoder.Fcoder.model.other.CachedTestCase;
+import com.fcoder.Fcoder.model.other.CompilationResult;
+import com.fcoder.Fcoder.model.other.ExecutionResult;
+import com.fcoder.Fcoder.model.other.SubmissionEvent;
+import com.fcoder.Fcoder.model.other.TestCaseResult;
+import com.fcoder.Fcoder.repository.SubmissionRepository;
+import com.fcoder.Fcoder.service.CheckerService;
+import com.fcoder.Fcoder.service.CodeExecutionService;
+import com.fcoder.Fcoder.service.JudgeEventLogService;
+import com.fcoder.Fcoder.service.JudgeService;
+import com.fcoder.Fcoder.service.SubmissionEventService;
+import com.fcoder.Fcoder.service.TestSetCacheService;
+import com.fcoder.Fcoder.service.VerdictCacheService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Runs on the judge worker threads. Deliberately not transactional: every status change is
+ * committed on its own so no DB connection is held while code compiles or runs.
+ */
+@Service
+@RequiredArgsConstructor
+public class JudgeServiceImpl implements JudgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(JudgeServiceImpl.class);
+
+    private static final long MAX_EXECUTION_TIME = 60000; // 60 seconds max
+
+    private final SubmissionRepository submissionRepository;
+    private final CodeExecutionService codeExecutionService;
+    private final VerdictCacheService verdictCacheService;
+    private final CheckerService checkerService;
+    private final TestSetCacheService testSetCacheService;
+    private final SubmissionEventService submissionEventService;
+    private final JudgeMetrics judgeMetrics;
+    private final JudgeEventLogService judgeEventLogService;
+
+    @Override
+    public void judge(Long submissionId) {
+        SubmissionEntity submission = submissionRepository.findByIdWithProblemAndUser(submissionId).orElse(null);
+        if (submission == null) {
+            log.warn("Submission {} no longer exists, skipping", submissionId);
+            return;
+        }
+        if (!isAwaitingJudge(submission.getStatus())) {
+            log.debug("Submission {} already judged with status {}, skipping", submissionId, submission.getStatus());
+            return;
+        }
+
+        long judgeStart = System.nanoTime();
+        JudgeEventLogService.SubmissionLog submissionLog = judgeEventLogService.open(submission);
+        ProblemEntity problem = submission.getProblem();
+        List<CachedTestCase> testCases = List.of();
+
+        CompilationResult compilationResult = null;
+        try {
+            // Inside the try: a test set that cannot be loaded is a system error, not a retry forever
+            testCases = testSetCacheService.getTestCases(problem);
+            if (testCases.isEmpty()) {
+                throw new IllegalStateException("No test cases found for problem: " + problem.getId());
+            }
+
+            log.info("Starting code execution for submission: {}", submission.getId());
+
+            // Update status to COMPILING
+            submission.setStatus(SubmissionEntity.SubmissionStatus.COMPILING);
+            submission.setTotalTests(testCases.size());
+            submission.setCompileError(null);
+            submission.setRuntimeError(null);
+            submission.setJudgeMessage(null);
+            submission = submissionRepository.save(submission);
+            publishStatus(submission);
+
+            // Set timeout for the entire submission process
+            long startTime = System.currentTimeMillis();
+
+            ExecutionResult result;
+            compilationResult = codeExecutionService.compileCode(
+                    submission.getSourceCode(), submission.getLanguage());
+            if (!compilationResult.isSuccess()) {
+                result = new ExecutionResult(SubmissionEntity.SubmissionStatus.COMPILE_ERROR,
+                        compilationResult.getErrorMessage());
+            } else {
+                // Update status to RUNNING
+                submission.setStatus(SubmissionEntity.SubmissionStatus.RUNNING);
+                submission = submissionRepository.save(submission);
+                publishStatus(submission);
+
+                Long id = submission.getId();
+                int totalTests = testCases.size();
+                try (Checker checker = checkerService.checkerFor(problem)) {
+                    result = codeExecutionService.executeCompiled(
+                            compilationResult,
+                            testCases,
+                            problem.getTimeLimit(),
+                            problem.getMemoryLimit(),
+                            checker,
+                            (index, testResult) -> {
+                                submissionLog.test(index, testResult);
+                                submissionEventService.publish(SubmissionEvent.test(id, index, totalTests, testResult));
+                            });
+                }
+            }
+
+            long totalTime = System.currentTimeMillis() - startTime;
+
+            // Check for timeout
+            if (totalTime > MAX_EXECUTION_TIME) {
+                log.warn("Submission {} exceeded maximum execution time: {}ms", submission.getId(), totalTime);
+                submission.setStatus(SubmissionEntity.SubmissionStatus.TIME_LIMIT_EXCEEDED);
+                submission.setCompileError("Maximum submission processing time exceeded");
+                submission.setPassedTests(0);
+                submission.setTotalTests(testCases.size());
+                submission.setScore(0.0);
+                submission = saveVerdict(submission, submissionLog);
+                return;
+            }
+
+            log.info("Code execution completed for submission: {}, status: {}",
+                    submission.getId(), result.getStatus());
+
+            applyResult(submission, result);
+
+            // Save final submission
+            submission = saveVerdict(submission, submissionLog);
+
+            if (!compilationResult.isSystemFailure()) {
+                verdictCacheService.store(submission, verdictCacheService.fingerprint(problem, testCases));
+            }
+
+            log.info("Submission {} processed successfully: status={}, score={}, passed={}/{}",
+                    submission.getId(), submission.getStatus(), submission.getScore(),
+                    submission.getPassedTests(), submission.getTotalTests());
+
+        } catch (Exception e) {
+            log.error("Error during code execution for submission: {}", submission.getId(), e);
+
+            // Update submission with error status
+            submission.setStatus(SubmissionEntity.SubmissionStatus.SYSTEM_ERROR);
+            submission.setRuntimeError("System error during execution: " + e.getMessage());
+            submission.setJudgeMessage("Internal system error occurred during code execution");
+            submission.setPassedTests(0);
+            submission.setTotalTests(testCases.size());
+            submission.setScore(0.0);
+            submission = saveVerdict(submission, submissionLog);
+        } finally {
+            // The verdict is out, nothing runs in the workspace any more
+            codeExecutionService.release(compilationResult);
+            judgeMetrics.record(JudgeMetrics.Stage.JUDGE, judgeStart);
+        }
+    }
+
+    @Override
+    public SubmissionEntity.SubmissionStatus rejudge(Long submissionId, CompilationResult compilationResult) {
+        SubmissionEntity submission = submissionRepository.findByIdWithProblemAndUser(submissionId)
+                .orElseThrow(() -> new IllegalStateException("Submission not found: " + submissionId));
+        if (isAwaitingJudge(submission.getStatus())) {
+            // Queued for the judge workers meanwhile, they write the verdict
+            return submission.getStatus();
+        }
+
+        JudgeEventLogService.SubmissionLog submissionLog = judgeEventLogService.open(submission);
+        ProblemEntity problem = submission.getProblem();
+        List<CachedTestCase> testCases = testSetCacheService.getTestCases(problem);
+        if (testCases.isEmpty()) {
+            throw new IllegalStateException("No test cases found for problem: " + problem.getId());
+        }
+
+        ExecutionResult result;
+        if (!compilationResult.isSuccess()) {
+            result = new ExecutionResult(SubmissionEntity.SubmissionStatus.COMPILE_ERROR,
+                    compilationResult.getErrorMessage());
+        } else {
+            try (Checker checker = checkerService.checkerFor(problem)) {
+                result = codeExecutionService.executeCompiled(
+                        compilationResult,
+                        testCases,
+                        problem.getTimeLimit(),
+                        problem.getMemoryLimit(),
+                        checker,
+                        submissionLog::test);
+            }
+        }
+
+        submission.setCompileError(null);
+        submission.setRuntimeError(null);
+        submission.setJudgeMessage(null);
+        applyResult(submission, result);
+        submission = saveVerdict(submission, submissionLog);
+
+        if (!compilationResult.isSystemFailure()) {
+            verdictCacheService.store(submission, verdictCacheService.fingerprint(problem, testCases));
+        }
+        return submission.getStatus();
+    }
+
+    @Override
+    public void failSubmission(Long submissionId, String reason) {
+        SubmissionEntity submission = submissionRepository.findById(submissionId).orElse(null);
+        if (submission == null || !isAwaitingJudge(submission.getStatus())) {
+            return;
+        }
+        log.warn("Giving up on submission {}: {}", submissionId, reason);
+        submission.setStatus(SubmissionEntity.SubmissionStatus.SYSTEM_ERROR);
+        submission.setRuntimeError(reason);
+        submission.setJudgeMessage("Internal system error occurred during code execution");
+        submission.setPassedTests(0);
+        submission.setScore(0.0);
+        submission = saveVerdict(submission, judgeEventLogService.open(submission));
+    }
+
+    /**
+     * Save a final verdict and tell the clients following the submission
+     */
+    private SubmissionEntity saveVerdict(SubmissionEntity submission, JudgeEventLogService.SubmissionLog submissionLog) {
+        long start = System.nanoTime();
+        SubmissionEntity saved = submissionRepository.save(submission);
+        judgeMetrics.record(JudgeMetrics.Stage.PERSIST, start);
+        judgeMetrics.verdict(saved.getStatus(), saved.getLanguage());
+        submissionLog.verdict(saved);
+        submissionEventService.publish(SubmissionEvent.verdict(saved));
+        return saved;
+    }
+
+    private void publishStatus(SubmissionEntity submission) {
+        submissionEventService.publish(SubmissionEvent.status(submission.getId(), submission.getStatus(),
+                submission.getTotalTests()));
+    }
+
+    private boolean isAwaitingJudge(SubmissionEntity.SubmissionStatus status) {
+        return status == SubmissionEntity.SubmissionStatus.PENDING
+                || status == SubmissionEntity.SubmissionStatus.COMPILING
+                || status == SubmissionEntity.SubmissionStatus.RUNNING;
+    }
+
+    private void applyResult(SubmissionEntity submission, ExecutionResult result) {
+        // Update submission with execution results
+        submission.setStatus(result.getStatus());
+        submission.setExecutionTime((int) result.getExecutionTime());
+        submission.setCpuTime((int) result.getCpuTime());
+        submission.setWallTime((int) result.getWallTime());
+        submission.setMemoryUsed((int) result.getMemoryUsed());
+
+        // Set error messages based on status
+        if (result.getStatus() == SubmissionEntity.SubmissionStatus.COMPILE_ERROR) {
+            submission.setCompileError(result.getErrorMessage());
+        } else if (result.getStatus() == SubmissionEntity.SubmissionStatus.RUNTIME_ERROR ||
+                result.getStatus() == SubmissionEntity.SubmissionStatus.SYSTEM_ERROR) {
+            submission.setRuntimeError(result.getErrorMessage());
+        }
+
+        // Handle test case results
+        List<TestCaseResult> testResults = result.getTestResults();
+        int passedTests = result.getPassedTests();
+        int totalTests = result.getTotalTests();
+
+        // Fallback calculation if results are inconsistent
+        if (testResults != null && !testResults.isEmpty()) {
+            passedTests = (int) testResults.stream()
+                    .mapToLong(tr -> tr.isPassed() ? 1 : 0)
+                    .sum();
+            totalTests = testResults.size();
+
+            // Log test case results for debugging
+            log.debug("Test case results for submission {}: passed={}/{}",
+                    submission.getId(), passedTests, totalTests);
+        }
+
+        // Update test counts and score
+        submission.setPassedTests(passedTests);
+        submission.setTotalTests(totalTests);
+
+        // Calculate score (avoid division by zero)
+        double score = totalTests > 0 ? (double) passedTests / totalTests * 100.0 : 0.0;
+        submission.setScore(score);
+
+        // Set judge message for additional context
+        if (result.getStatus() == SubmissionEntity.SubmissionStatus.ACCEPTED) {
+            submission.setJudgeMessage("All test cases passed successfully");
+        } else if (result.getStatus() == SubmissionEntity.SubmissionStatus.WRONG_ANSWER) {
+            submission.setJudgeMessage(String.format("Passed %d out of %d test cases", passedTests, totalTests));
+        } else if (result.getErrorMessage() != null) {
+            submission.setJudgeMessage(result.getErrorMessage());
+        }
+    }
+}
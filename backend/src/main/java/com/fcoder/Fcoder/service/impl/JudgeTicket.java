@@ -0,0 +1,69 @@
+package com.fcoder.Fcoder.service.impl;
+
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import com.fcoder.Fcoder.service.JudgeQueueService;
+import org.springframework.data.redis.connection.stream.RecordId;
+
+/**
+ * A submission waiting in a {@link FairJudgeQueue}, with what the dispatcher orders it by
+ */
+class JudgeTicket {
+    private final Long submissionId;
+    private final Long userId;
+    private final JudgeQueueService.Lane lane;
+    private final int cost;
+    private final long enqueuedAt;
+    private final int attempt;
+    private final RecordId recordId;
+
+    /**
+     * @param cost       Expected judging work, the number of test cases
+     * @param enqueuedAt Epoch millis the submission was first queued at, for the queue latency
+     * @param attempt    Delivery attempt, stream queue only
+     * @param recordId   Stream entry holding the submission, null for the local queue
+     */
+    JudgeTicket(Long submissionId, Long userId, JudgeQueueService.Lane lane, int cost, long enqueuedAt,
+                int attempt, RecordId recordId) {
+        this.submissionId = submissionId;
+        this.userId = userId;
+        this.lane = lane;
+        this.cost = Math.max(1, cost);
+        this.enqueuedAt = enqueuedAt;
+        this.attempt = attempt;
+        this.recordId = recordId;
+    }
+
+    static JudgeTicket of(SubmissionEntity submission, JudgeQueueService.Lane lane) {
+        Long userId = submission.getUser() == null ? null : submission.getUser().getId();
+        int cost = submission.getTotalTests() == null ? 1 : submission.getTotalTests();
+        return new JudgeTicket(submission.getId(), userId, lane, cost, System.currentTimeMillis(), 1, null);
+    }
+
+    Long getSubmissionId() {
+        return submissionId;
+    }
+
+    Long getUserId() {
+        return userId;
+    }
+
+    JudgeQueueService.Lane getLane() {
+        return lane;
+    }
+
+    int getCost() {
+        return cost;
+    }
+
+    long getEnqueuedAt() {
+        return enqueuedAt;
+    }
+
+    int getAttempt() {
+        return attempt;
+    }
+
+    RecordId getRecordId() {
+        return recordId;
+    }
+}
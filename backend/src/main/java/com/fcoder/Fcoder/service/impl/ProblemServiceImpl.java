@@ -1,5 +1,6 @@
 package com.fcoder.Fcoder.service.impl;
 
+import com.fcoder.Fcoder.compiler.TestDataStore;
 import com.fcoder.Fcoder.model.dto.request.QueryWrapper;
 import com.fcoder.Fcoder.model.dto.request.ProblemRequest;
 import com.fcoder.Fcoder.model.dto.request.TestCaseRequest;
@@ -9,10 +10,13 @@ import com.fcoder.Fcoder.model.dto.response.TestCaseResponse;
 import com.fcoder.Fcoder.model.entity.AccountEntity;
 import com.fcoder.Fcoder.model.entity.ProblemEntity;
 import com.fcoder.Fcoder.model.entity.TestCaseEntity;
+import com.fcoder.Fcoder.model.exception.ValidationException;
 import com.fcoder.Fcoder.repository.AccountRepository;
 import com.fcoder.Fcoder.repository.ProblemRepository;
 import com.fcoder.Fcoder.repository.TestCaseRepository;
 import com.fcoder.Fcoder.service.ProblemService;
+import com.fcoder.Fcoder.service.TestSetCacheService;
+import com.fcoder.Fcoder.service.VerdictCacheService;
 import com.fcoder.Fcoder.util.AuthUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -21,9 +25,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
 import jakarta.persistence.criteria.Predicate;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -35,10 +43,15 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProblemServiceImpl implements ProblemService {
 
+    // Test data shown with a problem or test case listing, per input and expected output
+
     private final ProblemRepository problemRepository;
     private final TestCaseRepository testCaseRepository;
     private final AccountRepository accountRepository;
     private final AuthUtils authUtils;
+    private final VerdictCacheService verdictCacheService;
+    private final TestDataStore testDataStore;
+    private final TestSetCacheService testSetCacheService;
 
     @Override
     @Transactional
@@ -74,6 +87,21 @@ public class ProblemServiceImpl implements ProblemService {
         problem.setDifficulty(request.getDifficulty());
         problem.setCategory(request.getCategory());
         problem.setTags(request.getTags() != null ? String.join(",", request.getTags()) : null);
+        mappingChecker(request, problem);
+    }
+
+    private void mappingChecker(ProblemRequest request, ProblemEntity problem) {
+        ProblemEntity.CheckerType checkerType = request.getCheckerType() != null
+                ? request.getCheckerType()
+                : ProblemEntity.CheckerType.EXACT;
+        if (checkerType == ProblemEntity.CheckerType.CUSTOM
+                && (!StringUtils.hasText(request.getCheckerSource()) || request.getCheckerLanguage() == null)) {
+            throw new ValidationException("A custom checker needs its source code and language");
+        }
+        problem.setCheckerType(checkerType);
+        problem.setCheckerEpsilon(checkerType == ProblemEntity.CheckerType.FLOAT ? request.getCheckerEpsilon() : null);
+        problem.setCheckerSource(checkerType == ProblemEntity.CheckerType.CUSTOM ? request.getCheckerSource() : null);
+        problem.setCheckerLanguage(checkerType == ProblemEntity.CheckerType.CUSTOM ? request.getCheckerLanguage() : null);
     }
 
     @Override
@@ -87,6 +115,9 @@ public class ProblemServiceImpl implements ProblemService {
             problem.setIsActive(request.getIsActive());
         }
         problem.setUpdatedDate(LocalDateTime.now());
+        if (request.getTestCases() != null) {
+            problem.setTestSetVersion((problem.getTestSetVersion() == null ? 0 : problem.getTestSetVersion()) + 1);
+        }
 
         ProblemEntity savedProblem = problemRepository.save(problem);
 
@@ -99,9 +130,61 @@ public class ProblemServiceImpl implements ProblemService {
             testCaseRepository.saveAll(testCases);
         }
 
+        // Test cases or limits may have changed, cached verdicts and test sets no longer apply
+        invalidateCachesAfterCommit(id);
+
         return convertToResponse(savedProblem);
     }
 
+    @Override
+    public void preloadTestData(Long id) {
+        if (!problemRepository.existsById(id)) {
+            throw new RuntimeException("Problem not found");
+        }
+        testSetCacheService.preload(id);
+    }
+
+    @Override
+    @Transactional
+    public int migrateTestData(Long id) {
+        if (!problemRepository.existsById(id)) {
+            throw new RuntimeException("Problem not found");
+        }
+        if (!testDataStore.isShared()) {
+            throw new ValidationException("Test data stays in the database until judge.test-data.shared is set");
+        }
+        List<TestCaseEntity> migrated = new ArrayList<>();
+        try {
+            for (TestCaseEntity testCase : testCaseRepository.findByProblem_Id(id)) {
+                if (testDataStore.dropInline(testCase)) {
+                    migrated.add(testCase);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not migrate test data of problem " + id + ": " + e.getMessage(), e);
+        }
+        testCaseRepository.saveAll(migrated);
+        return migrated.size();
+    }
+
+    private void invalidateCachesAfterCommit(Long problemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateCaches(problemId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidateCaches(problemId);
+            }
+        });
+    }
+
+    private void invalidateCaches(Long problemId) {
+        verdictCacheService.invalidateProblem(problemId);
+        testSetCacheService.invalidate(problemId);
+    }
+
     @Override
     public ProblemResponse getProblemById(Long id) {
         ProblemEntity problem = problemRepository.findById(id)
@@ -328,6 +411,7 @@ public class ProblemServiceImpl implements ProblemService {
             throw new RuntimeException("Problem not found");
         }
         problemRepository.deleteById(id);
+        invalidateCachesAfterCommit(id);
     }
 
     private AccountEntity getCurrentUser() {
@@ -339,6 +423,14 @@ public class ProblemServiceImpl implements ProblemService {
         testCase.setProblem(problem);
         testCase.setInput(request.getInput());
         testCase.setExpectedOutput(request.getExpectedOutput());
+        try {
+            testDataStore.storeInline(testCase);
+            if (testDataStore.isShared()) {
+                testDataStore.dropInline(testCase);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not store test case data: " + e.getMessage(), e);
+        }
         testCase.setIsSample(request.getIsSample() != null ? request.getIsSample() : false);
         testCase.setIsActive(request.getIsActive() != null ? request.getIsActive() : true);
         testCase.setTestOrder(request.getTestOrder() != null ? request.getTestOrder() : 1);
@@ -359,6 +451,10 @@ public class ProblemServiceImpl implements ProblemService {
         response.setDifficulty(problem.getDifficulty());
         response.setCategory(problem.getCategory());
         response.setIsActive(problem.getIsActive());
+        response.setCheckerType(problem.getCheckerType() != null
+                ? problem.getCheckerType()
+                : ProblemEntity.CheckerType.EXACT);
+        response.setCheckerEpsilon(problem.getCheckerEpsilon());
         response.setCreatedDate(problem.getCreatedDate());
         response.setUpdatedDate(problem.getUpdatedDate());
 
@@ -398,11 +494,25 @@ public class ProblemServiceImpl implements ProblemService {
     private TestCaseResponse convertTestCaseToResponse(TestCaseEntity testCase) {
         TestCaseResponse response = new TestCaseResponse();
         response.setId(testCase.getId());
-        response.setInput(testCase.getInput());
-        response.setExpectedOutput(testCase.getExpectedOutput());
+        try {
+            // Whole, never cut: a client sending a test back must not lose the end of it
+            response.setInput(testDataStore.readInput(testCase));
+            response.setExpectedOutput(testDataStore.readExpectedOutput(testCase));
+            response.setInputSize(size(testCase.getInputSize(), testCase.getInput()));
+            response.setExpectedOutputSize(size(testCase.getOutputSize(), testCase.getExpectedOutput()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read test case " + testCase.getId() + ": " + e.getMessage(), e);
+        }
         response.setIsSample(testCase.getIsSample());
         response.setTestOrder(testCase.getTestOrder());
         response.setPoints(testCase.getPoints());
         return response;
     }
+
+    private static long size(Long storedSize, String inline) {
+        if (storedSize != null) {
+            return storedSize;
+        }
+        return inline == null ? 0 : inline.getBytes(StandardCharsets.UTF_8).length;
+    }
 }
\ No newline at end of file
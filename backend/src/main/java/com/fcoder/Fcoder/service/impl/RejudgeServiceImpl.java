@@ -0,0 +1,428 @@
+package com.fcoder.Fcoder.service.impl;
+
+import com.fcoder.Fcoder.config.JudgeConfig;
+import com.fcoder.Fcoder.model.dto.request.RejudgeRequest;
+import com.fcoder.Fcoder.model.dto.response.RejudgeJobResponse;
+import com.fcoder.Fcoder.model.entity.RejudgeJobEntity;
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import com.fcoder.Fcoder.model.exception.ActionFailedException;
+import com.fcoder.Fcoder.model.exception.ValidationException;
+import com.fcoder.Fcoder.model.other.CompilationResult;
+import com.fcoder.Fcoder.repository.RejudgeJobRepository;
+import com.fcoder.Fcoder.repository.SubmissionRepository;
+import com.fcoder.Fcoder.service.CodeExecutionService;
+import com.fcoder.Fcoder.service.JudgeQueueService;
+import com.fcoder.Fcoder.service.JudgeService;
+import com.fcoder.Fcoder.service.RejudgeService;
+import com.fcoder.Fcoder.util.HashUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk rejudge, e.g. after a test case was fixed. Jobs are stored and claimed by one instance with
+ * rejudging enabled, which runs them one at a time on its own small pool, next to the judge workers:
+ * the pool size caps how much CPU a rejudge takes, and it pauses whenever live submissions are waiting.
+ * Each batch of submissions is grouped by source so a distinct source is compiled once, and a few
+ * compilations are kept for later batches. The job checkpoints after each batch and its instance
+ * refreshes it every poll interval; another instance takes over a job left stale and resumes from
+ * the checkpoint.
+ */
+@Service
+public class RejudgeServiceImpl implements RejudgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(RejudgeServiceImpl.class);
+
+    private static final long YIELD_SLEEP_MILLIS = 500;
+    private static final List<RejudgeJobEntity.State> ACTIVE_STATES = List.of(
+            RejudgeJobEntity.State.QUEUED, RejudgeJobEntity.State.RUNNING);
+
+    private final RejudgeJobRepository rejudgeJobRepository;
+    private final SubmissionRepository submissionRepository;
+    private final JudgeService judgeService;
+    private final JudgeQueueService judgeQueueService;
+    private final CodeExecutionService codeExecutionService;
+    private final HashUtils hashUtils;
+    private final JudgeConfig.Rejudge config;
+    private final String owner;
+    private final ScheduledExecutorService coordinator;
+    // Refreshes the running jobs while the coordinator is busy running one
+    private final ScheduledExecutorService heartbeat;
+    private final ExecutorService workers;
+    // Jobs running on this instance
+    private final Map<Long, Progress> running = new ConcurrentHashMap<>();
+    private final Counter rejudged;
+    private final Counter changedVerdicts;
+
+    public RejudgeServiceImpl(RejudgeJobRepository rejudgeJobRepository,
+                              SubmissionRepository submissionRepository,
+                              JudgeService judgeService,
+                              JudgeQueueService judgeQueueService,
+                              CodeExecutionService codeExecutionService,
+                              HashUtils hashUtils,
+                              JudgeConfig judgeConfig,
+                              MeterRegistry meterRegistry) {
+        this.rejudgeJobRepository = rejudgeJobRepository;
+        this.submissionRepository = submissionRepository;
+        this.judgeService = judgeService;
+        this.judgeQueueService = judgeQueueService;
+        this.codeExecutionService = codeExecutionService;
+        this.hashUtils = hashUtils;
+        this.config = judgeConfig.getRejudge();
+        // pid@host, unique per JVM; a restarted instance gets its jobs back like any other once they are stale
+        this.owner = ManagementFactory.getRuntimeMXBean().getName();
+        this.coordinator = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("rejudge-coordinator-"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("rejudge-heartbeat-"));
+        this.workers = Executors.newFixedThreadPool(Math.max(1, config.getConcurrency()),
+                new CustomizableThreadFactory("rejudge-worker-"));
+        this.rejudged = Counter.builder("judge.rejudge.submissions").register(meterRegistry);
+        this.changedVerdicts = Counter.builder("judge.rejudge.changed").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startCoordinator() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        coordinator.scheduleWithFixedDelay(this::runJobs,
+                0, config.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+        heartbeat.scheduleWithFixedDelay(this::refreshJobs,
+                config.getPollInterval().toMillis(), config.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running.values().forEach(progress -> progress.stopped = true);
+        coordinator.shutdownNow();
+        heartbeat.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    @Override
+    public RejudgeJobResponse startRejudge(RejudgeRequest request, String username) {
+        if (request.getProblemId() == null && request.getUserId() == null && request.getStatus() == null
+                && request.getSubmittedFrom() == null && request.getSubmittedTo() == null) {
+            throw new ValidationException("At least one filter is required to rejudge submissions");
+        }
+        long total = submissionRepository.countRejudgeCandidates(request.getProblemId(), request.getUserId(),
+                request.getStatus(), request.getSubmittedFrom(), request.getSubmittedTo());
+
+        RejudgeJobEntity job = RejudgeJobEntity.builder()
+                .problemId(request.getProblemId())
+                .userId(request.getUserId())
+                .submissionStatus(request.getStatus())
+                .submittedFrom(request.getSubmittedFrom())
+                .submittedTo(request.getSubmittedTo())
+                .state(RejudgeJobEntity.State.QUEUED)
+                .requestedBy(username)
+                .totalSubmissions((int) total)
+                .build();
+        job = rejudgeJobRepository.save(job);
+        log.info("Rejudge job {} queued by {}: {} submissions", job.getId(), username, total);
+
+        if (config.isEnabled()) {
+            coordinator.execute(this::runJobs);
+        }
+        return toResponse(job);
+    }
+
+    @Override
+    public RejudgeJobResponse getJob(Long id) {
+        return toResponse(findJob(id));
+    }
+
+    @Override
+    public List<RejudgeJobResponse> getJobs() {
+        return rejudgeJobRepository.findTop50ByOrderByIdDesc().stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    @Override
+    public RejudgeJobResponse cancelJob(Long id) {
+        findJob(id);
+        if (rejudgeJobRepository.finish(id, RejudgeJobEntity.State.CANCELLED, null, LocalDateTime.now(),
+                ACTIVE_STATES) == 0) {
+            throw new ActionFailedException("Rejudge job " + id + " is not queued or running");
+        }
+        Progress progress = running.get(id);
+        if (progress != null) {
+            progress.stopped = true;
+        }
+        log.info("Rejudge job {} cancelled", id);
+        return toResponse(findJob(id));
+    }
+
+    /**
+     * Resume this instance's interrupted jobs and take over stale ones, then claim queued ones, one job
+     * at a time
+     */
+    private void runJobs() {
+        try {
+            for (RejudgeJobEntity job : rejudgeJobRepository.findByStateAndOwnerOrderByIdAsc(
+                    RejudgeJobEntity.State.RUNNING, owner)) {
+                if (!running.containsKey(job.getId())) {
+                    log.info("Resuming rejudge job {} after submission {}", job.getId(), job.getLastSubmissionId());
+                    run(job);
+                }
+            }
+            LocalDateTime staleBefore = LocalDateTime.now().minus(config.getStaleAfter());
+            for (RejudgeJobEntity job : rejudgeJobRepository.findByStateAndUpdatedDateBeforeOrderByIdAsc(
+                    RejudgeJobEntity.State.RUNNING, staleBefore)) {
+                if (!owner.equals(job.getOwner()) && rejudgeJobRepository.takeOver(job.getId(), job.getOwner(), owner,
+                        LocalDateTime.now(), staleBefore, RejudgeJobEntity.State.RUNNING) == 1) {
+                    log.warn("Taking over rejudge job {} from {}, not refreshed since {}", job.getId(), job.getOwner(),
+                            job.getUpdatedDate());
+                    run(findJob(job.getId()));
+                }
+            }
+            for (RejudgeJobEntity job : rejudgeJobRepository.findByStateOrderByIdAsc(RejudgeJobEntity.State.QUEUED)) {
+                if (rejudgeJobRepository.claim(job.getId(), owner, LocalDateTime.now(),
+                        RejudgeJobEntity.State.QUEUED, RejudgeJobEntity.State.RUNNING) == 1) {
+                    run(findJob(job.getId()));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Rejudge coordinator failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Show the running jobs are alive; a job refreshed elsewhere meanwhile (cancelled, or taken over after
+     * this instance stalled) is stopped here
+     */
+    private void refreshJobs() {
+        for (Map.Entry<Long, Progress> entry : running.entrySet()) {
+            try {
+                if (rejudgeJobRepository.refresh(entry.getKey(), owner, LocalDateTime.now(),
+                        RejudgeJobEntity.State.RUNNING) == 0) {
+                    log.info("Rejudge job {} is no longer running here, stopping it", entry.getKey());
+                    entry.getValue().stopped = true;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not refresh rejudge job {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private void run(RejudgeJobEntity job) {
+        Long id = job.getId();
+        Progress progress = new Progress(job);
+        running.put(id, progress);
+        // Compiled once per source while kept; a batch never has two tasks with the same source.
+        // The least recently used are released between batches, when no task uses them.
+        Map<String, CompilationResult> compilations = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompilationResult> eldest) {
+                if (size() <= Math.max(0, config.getCompiledSources())) {
+                    return false;
+                }
+                codeExecutionService.release(eldest.getValue());
+                return true;
+            }
+        };
+        long lastSubmissionId = job.getLastSubmissionId() == null ? 0 : job.getLastSubmissionId();
+        String error = null;
+        try {
+            while (!progress.stopped) {
+                List<SubmissionEntity> batch = submissionRepository.findRejudgeCandidates(job.getProblemId(),
+                        job.getUserId(), job.getSubmissionStatus(), job.getSubmittedFrom(), job.getSubmittedTo(),
+                        lastSubmissionId, PageRequest.of(0, Math.max(1, config.getBatchSize())));
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                Map<String, List<SubmissionEntity>> bySource = new LinkedHashMap<>();
+                for (SubmissionEntity submission : batch) {
+                    bySource.computeIfAbsent(sourceKey(submission), key -> new ArrayList<>()).add(submission);
+                }
+                List<Future<CompilationResult>> tasks = new ArrayList<>();
+                List<String> keys = new ArrayList<>(bySource.keySet());
+                for (String key : keys) {
+                    CompilationResult compiled = compilations.get(key);
+                    List<SubmissionEntity> submissions = bySource.get(key);
+                    tasks.add(workers.submit(() -> rejudgeAll(submissions, compiled, progress)));
+                }
+                for (int i = 0; i < tasks.size(); i++) {
+                    CompilationResult compiled = tasks.get(i).get();
+                    if (compiled != null && !compiled.isSystemFailure()) {
+                        CompilationResult previous = compilations.put(keys.get(i), compiled);
+                        if (previous != null && previous != compiled) {
+                            codeExecutionService.release(previous);
+                        }
+                    }
+                }
+
+                if (progress.stopped) {
+                    // Part of the batch may have been skipped; resuming redoes it from the last checkpoint,
+                    // whose counts do not include this batch either
+                    break;
+                }
+                lastSubmissionId = batch.get(batch.size() - 1).getId();
+                if (rejudgeJobRepository.checkpoint(id, owner, lastSubmissionId, progress.processed.get(),
+                        progress.changed.get(), progress.failed.get(), LocalDateTime.now(),
+                        RejudgeJobEntity.State.RUNNING) == 0) {
+                    // Cancelled, possibly from another instance, or taken over
+                    progress.stopped = true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progress.stopped = true;
+        } catch (ExecutionException | RuntimeException e) {
+            error = e.getMessage();
+            log.error("Rejudge job {} failed", id, e);
+        } finally {
+            running.remove(id);
+            compilations.values().forEach(codeExecutionService::release);
+        }
+
+        if (error != null) {
+            rejudgeJobRepository.finish(id, RejudgeJobEntity.State.FAILED, error, LocalDateTime.now(),
+                    List.of(RejudgeJobEntity.State.RUNNING));
+        } else if (!progress.stopped) {
+            rejudgeJobRepository.finish(id, RejudgeJobEntity.State.COMPLETED, null, LocalDateTime.now(),
+                    List.of(RejudgeJobEntity.State.RUNNING));
+            log.info("Rejudge job {} completed: {} rejudged, {} changed, {} failed", id,
+                    progress.processed.get(), progress.changed.get(), progress.failed.get());
+        }
+        // Stopped by a shutdown: still RUNNING, resumed from the checkpoint on restart
+    }
+
+    /**
+     * Rejudge submissions sharing one source, compiling it unless the job already did
+     *
+     * @return The compilation used
+     */
+    private CompilationResult rejudgeAll(List<SubmissionEntity> submissions, CompilationResult compiled,
+                                         Progress progress) throws InterruptedException {
+        for (SubmissionEntity submission : submissions) {
+            yieldToLiveSubmissions(progress);
+            if (progress.stopped) {
+                break;
+            }
+            if (compiled == null) {
+                compiled = codeExecutionService.compileCode(submission.getSourceCode(), submission.getLanguage());
+            }
+            if (compiled.isSystemFailure()) {
+                // Not a verdict on the source, keep the previous one
+                log.warn("Could not compile submission {} for rejudge: {}", submission.getId(),
+                        compiled.getErrorMessage());
+                progress.failed.incrementAndGet();
+                progress.processed.incrementAndGet();
+                compiled = null;
+                continue;
+            }
+            try {
+                SubmissionEntity.SubmissionStatus before = submission.getStatus();
+                SubmissionEntity.SubmissionStatus after = judgeService.rejudge(submission.getId(), compiled);
+                if (before != after) {
+                    progress.changed.incrementAndGet();
+                    changedVerdicts.increment();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not rejudge submission {}: {}", submission.getId(), e.getMessage());
+                progress.failed.incrementAndGet();
+            }
+            progress.processed.incrementAndGet();
+            rejudged.increment();
+        }
+        return compiled;
+    }
+
+    private void yieldToLiveSubmissions(Progress progress) throws InterruptedException {
+        while (!progress.stopped && judgeQueueService.getQueueDepth() > config.getYieldQueueDepth()) {
+            Thread.sleep(YIELD_SLEEP_MILLIS);
+        }
+    }
+
+    private String sourceKey(SubmissionEntity submission) {
+        return submission.getLanguage() + ":" + hashUtils.sha256(submission.getSourceCode());
+    }
+
+    private RejudgeJobEntity findJob(Long id) {
+        return rejudgeJobRepository.findById(id)
+                .orElseThrow(() -> new ActionFailedException("Rejudge job not found: " + id));
+    }
+
+    private RejudgeJobResponse toResponse(RejudgeJobEntity job) {
+        RejudgeJobResponse response = RejudgeJobResponse.builder()
+                .id(job.getId())
+                .state(job.getState())
+                .problemId(job.getProblemId())
+                .userId(job.getUserId())
+                .submissionStatus(job.getSubmissionStatus())
+                .submittedFrom(job.getSubmittedFrom())
+                .submittedTo(job.getSubmittedTo())
+                .requestedBy(job.getRequestedBy())
+                .totalSubmissions(job.getTotalSubmissions())
+                .processed(job.getProcessed())
+                .changed(job.getChanged())
+                .failed(job.getFailed())
+                .createdAt(job.getCreatedDate())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .errorMessage(job.getErrorMessage())
+                .build();
+
+        Progress progress = running.get(job.getId());
+        if (progress != null) {
+            int processed = progress.processed.get();
+            response.setProcessed(processed);
+            response.setChanged(progress.changed.get());
+            response.setFailed(progress.failed.get());
+            double seconds = (System.nanoTime() - progress.startNanos) / 1e9;
+            int done = processed - progress.processedAtStart;
+            if (seconds > 0 && done > 0) {
+                double throughput = done / seconds;
+                response.setThroughput(throughput);
+                int remaining = Math.max(0, job.getTotalSubmissions() - processed);
+                response.setEtaSeconds((long) Math.ceil(remaining / throughput));
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Live counters of a job running on this instance
+     */
+    private static class Progress {
+        private final AtomicInteger processed;
+        private final AtomicInteger changed;
+        private final AtomicInteger failed;
+        private final int processedAtStart;
+        private final long startNanos = System.nanoTime();
+        private volatile boolean stopped;
+
+        private Progress(RejudgeJobEntity job) {
+            this.processed = new AtomicInteger(job.getProcessed());
+            this.changed = new AtomicInteger(job.getChanged());
+            this.failed = new AtomicInteger(job.getFailed());
+            this.processedAtStart = job.getProcessed();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.fcoder.Fcoder.service.impl;
+
+import com.fcoder.Fcoder.compiler.checker.Checker;
+import com.fcoder.Fcoder.config.JudgeConfig;
+import com.fcoder.Fcoder.model.dto.request.RunRequest;
+import com.fcoder.Fcoder.model.dto.response.RunResponse;
+import com.fcoder.Fcoder.model.entity.ProblemEntity;
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import com.fcoder.Fcoder.model.exception.ActionFailedException;
+import com.fcoder.Fcoder.model.exception.RateLimitExceededException;
+import com.fcoder.Fcoder.model.exception.ValidationException;
+import com.fcoder.Fcoder.model.other.CachedTestCase;
+import com.fcoder.Fcoder.model.other.CompilationResult;
+import com.fcoder.Fcoder.model.other.ExecutionResult;
+import com.fcoder.Fcoder.model.other.TestCaseResult;
+import com.fcoder.Fcoder.repository.ProblemRepository;
+import com.fcoder.Fcoder.service.CheckerService;
+import com.fcoder.Fcoder.service.CodeExecutionService;
+import com.fcoder.Fcoder.service.RunService;
+import com.fcoder.Fcoder.service.TestSetCacheService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * "Run" button: a solution is compiled and run on the sample tests, or on custom input, on the
+ * requesting thread. Shares the compile cache and warm sandboxes with the judge but keeps apart from
+ * it otherwise: no submission is saved, runs are capped per user and per node, and run with limits
+ * no higher than the run caps so they stay cheap next to the judge workers.
+ */
+@Service
+public class RunServiceImpl implements RunService {
+
+    private static final Logger log = LoggerFactory.getLogger(RunServiceImpl.class);
+
+    private static final String RATE_KEY_PREFIX = "RUN_RATE:";
+
+    private final ProblemRepository problemRepository;
+    private final CodeExecutionService codeExecutionService;
+    private final CheckerService checkerService;
+    private final TestSetCacheService testSetCacheService;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final JudgeConfig.Run config;
+    private final Semaphore slots;
+    private final Counter sampleRuns;
+    private final Counter customRuns;
+    private final Counter rejected;
+
+    public RunServiceImpl(ProblemRepository problemRepository,
+                          CodeExecutionService codeExecutionService,
+                          CheckerService checkerService,
+                          TestSetCacheService testSetCacheService,
+                          RedisTemplate<String, Object> redisTemplate,
+                          JudgeConfig judgeConfig,
+                          MeterRegistry meterRegistry) {
+        this.problemRepository = problemRepository;
+        this.codeExecutionService = codeExecutionService;
+        this.checkerService = checkerService;
+        this.testSetCacheService = testSetCacheService;
+        this.redisTemplate = redisTemplate;
+        this.config = judgeConfig.getRun();
+        this.slots = new Semaphore(Math.max(1, config.getMaxConcurrent()));
+        this.sampleRuns = Counter.builder("judge.runs").tag("mode", "sample").register(meterRegistry);
+        this.customRuns = Counter.builder("judge.runs").tag("mode", "custom").register(meterRegistry);
+        this.rejected = Counter.builder("judge.runs.rejected")
+                .description("Runs refused by the per-user rate limit or the per-node concurrency cap")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public RunResponse run(RunRequest request, String username) {
+        if (!config.isEnabled()) {
+            throw new ActionFailedException("Running code is disabled");
+        }
+        String customInput = request.getCustomInput();
+        if (customInput != null
+                && customInput.getBytes(StandardCharsets.UTF_8).length > config.getMaxInputSize().toBytes()) {
+            throw new ValidationException("Custom input is larger than " + config.getMaxInputSize().toKilobytes() + "KB");
+        }
+        ProblemEntity problem = problemRepository.findById(request.getProblemId())
+                .orElseThrow(() -> new ValidationException("Problem not found: " + request.getProblemId()));
+
+        List<CachedTestCase> samples = List.of();
+        if (customInput == null) {
+            samples = testSetCacheService.getTestCases(problem).stream()
+                    .filter(CachedTestCase::isSample)
+                    .toList();
+            if (samples.isEmpty()) {
+                throw new ValidationException("Problem " + problem.getId() + " has no sample tests, run it on custom input");
+            }
+        }
+
+        checkRateLimit(username);
+        if (!slots.tryAcquire()) {
+            rejected.increment();
+            throw new RateLimitExceededException("Too many runs in progress, please try again in a moment");
+        }
+        try {
+            int timeLimit = Math.min(problem.getTimeLimit(), (int) config.getMaxTimeLimit().toMillis());
+            int memoryLimit = Math.min(problem.getMemoryLimit(), (int) config.getMaxMemoryLimit().toMegabytes());
+            RunResponse.RunResponseBuilder response = RunResponse.builder()
+                    .problemId(problem.getId())
+                    .language(request.getLanguage())
+                    .customInput(customInput != null)
+                    .timeLimit(timeLimit)
+                    .memoryLimit(memoryLimit);
+
+            CompilationResult compilationResult = codeExecutionService.compileCode(
+                    request.getSourceCode(), request.getLanguage());
+            if (!compilationResult.isSuccess()) {
+                return response
+                        .status(compilationResult.isSystemFailure()
+                                ? SubmissionEntity.SubmissionStatus.SYSTEM_ERROR
+                                : SubmissionEntity.SubmissionStatus.COMPILE_ERROR)
+                        .compileError(compilationResult.getErrorMessage())
+                        .passedTests(0)
+                        .totalTests(samples.size())
+                        .results(List.of())
+                        .build();
+            }
+
+            try {
+                if (customInput != null) {
+                    customRuns.increment();
+                    TestCaseResult result = codeExecutionService.runWithInput(compilationResult, customInput,
+                            timeLimit, memoryLimit, config.getOutputLimit().toBytes());
+                    return response
+                            .status(result.getStatus() == null ? SubmissionEntity.SubmissionStatus.SYSTEM_ERROR : result.getStatus())
+                            .results(List.of(result))
+                            .build();
+                }
+
+                sampleRuns.increment();
+                ExecutionResult result;
+                try (Checker checker = checkerService.checkerFor(problem)) {
+                    result = codeExecutionService.executeCompiled(compilationResult, samples, timeLimit, memoryLimit,
+                            config.getOutputLimit().toBytes(), checker, CodeExecutionService.TestResultListener.NONE);
+                }
+                return response
+                        .status(result.getStatus())
+                        .passedTests(result.getPassedTests())
+                        .totalTests(samples.size())
+                        .results(result.getTestResults())
+                        .build();
+            } finally {
+                codeExecutionService.release(compilationResult);
+            }
+        } finally {
+            slots.release();
+        }
+    }
+
+    /**
+     * Fixed window counter per user in Redis, shared by every API replica. Fails open when Redis is
+     * unavailable, the per-node cap still applies.
+     */
+    private void checkRateLimit(String username) {
+        long windowMillis = Math.max(1, config.getWindow().toMillis());
+        long window = System.currentTimeMillis() / windowMillis;
+        String key = RATE_KEY_PREFIX + username + ":" + window;
+        Long count;
+        try {
+            count = redisTemplate.opsForValue().increment(key);
+            if (count != null && count == 1) {
+                redisTemplate.expire(key, config.getWindow());
+            }
+        } catch (Exception e) {
+            log.warn("Run rate limit check failed for {}: {}", username, e.getMessage());
+            return;
+        }
+        if (count != null && count > config.getRateLimit()) {
+            rejected.increment();
+            throw new RateLimitExceededException("Run limit of " + config.getRateLimit() + " per "
+                    + config.getWindow().toSeconds() + "s reached, please wait before running again");
+        }
+    }
+}
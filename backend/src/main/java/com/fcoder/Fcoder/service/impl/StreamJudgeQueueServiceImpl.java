@@ -0,0 +1,489 @@
+package com.fcoder.Fcoder.service.impl;
+
+import com.fcoder.Fcoder.config.JudgeConfig;
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import com.fcoder.Fcoder.model.exception.JudgeQueueFullException;
+import com.fcoder.Fcoder.repository.SubmissionRepository;
+import com.fcoder.Fcoder.service.JudgeQueueService;
+import com.fcoder.Fcoder.service.JudgeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamListener;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamMessageListenerContainerOptions;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamReadRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Judge queue over a Redis Stream, so API replicas and judge workers scale independently.
+ * Every instance publishes submissions to the stream; instances with judge.queue.consumer-enabled
+ * (e.g. started with the judge-worker profile) read it through a consumer group, one consumer per
+ * node. A node reads up to prefetch entries ahead of its workers into a {@link FairJudgeQueue} and
+ * judges them in fair order, so fairness between users and lanes holds within that window. An entry is
+ * acknowledged and deleted once its verdict is saved, so the stream length is the backlog. A failed
+ * attempt is re-published, entries left pending by a dead worker are claimed after claim-idle (entries
+ * still waiting in a node's window are kept from looking idle), and a submission is given up on as a
+ * system error after max-deliveries. Redis failing while a worker settles an entry leaves it pending,
+ * it is claimed like the entry of a dead worker.
+ */
+@Service
+@ConditionalOnProperty(prefix = "judge.queue", name = "mode", havingValue = "stream")
+public class StreamJudgeQueueServiceImpl implements JudgeQueueService,
+        StreamListener<String, MapRecord<String, String, String>> {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamJudgeQueueServiceImpl.class);
+
+    private static final String FIELD_SUBMISSION = "submissionId";
+    private static final String FIELD_ATTEMPT = "attempt";
+    private static final String FIELD_USER = "userId";
+    private static final String FIELD_LANE = "lane";
+    private static final String FIELD_COST = "cost";
+    private static final String FIELD_ENQUEUED_AT = "enqueuedAt";
+    private static final int CLAIM_BATCH = 100;
+    private static final int SCAN_BATCH = 1000;
+
+    private final JudgeService judgeService;
+    private final SubmissionRepository submissionRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+    private final JudgeConfig.Queue queueConfig;
+    private final JudgeConfig.SubmissionStream streamConfig;
+    // Submissions in the stream or being judged, so recovery does not publish them twice
+    private final String queuedKey;
+    // Queued ids not found in the stream on the last recovery run, dropped when still missing on the next
+    private final Set<String> missingQueued = new HashSet<>();
+    private final String consumerName;
+    private final ScheduledExecutorService recoveryScheduler;
+    // Entries read by this node, waiting for one of its workers
+    private final FairJudgeQueue prefetched;
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final Counter rejectedCounter;
+    private final Counter retriedCounter;
+    private final Counter claimedCounter;
+    private final Counter failedCounter;
+    private ExecutorService readerExecutor;
+    private ExecutorService workerExecutor;
+    private StreamMessageListenerContainer<String, MapRecord<String, String, String>> listenerContainer;
+
+    public StreamJudgeQueueServiceImpl(JudgeService judgeService,
+                                       SubmissionRepository submissionRepository,
+                                       StringRedisTemplate redisTemplate,
+                                       RedisConnectionFactory connectionFactory,
+                                       JudgeConfig judgeConfig,
+                                       MeterRegistry meterRegistry) {
+        this.judgeService = judgeService;
+        this.submissionRepository = submissionRepository;
+        this.redisTemplate = redisTemplate;
+        this.connectionFactory = connectionFactory;
+        this.queueConfig = judgeConfig.getQueue();
+        this.streamConfig = queueConfig.getStream();
+        this.queuedKey = streamConfig.getKey() + ":queued";
+        // pid@host, unique per JVM
+        this.consumerName = ManagementFactory.getRuntimeMXBean().getName();
+        this.recoveryScheduler = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("judge-queue-recovery-"));
+        this.prefetched = new FairJudgeQueue(Math.max(1, streamConfig.getPrefetch()), queueConfig.getFairness(),
+                meterRegistry);
+
+        Gauge.builder("judge.queue.depth", this, StreamJudgeQueueServiceImpl::getQueueDepth)
+                .description("Submissions waiting for or being judged by a judge worker")
+                .register(meterRegistry);
+        Gauge.builder("judge.queue.active", activeCount, AtomicInteger::get)
+                .description("Submissions currently being judged on this node")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("judge.queue.rejected")
+                .description("Submissions rejected because the judge queue was full")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("judge.queue.retried").register(meterRegistry);
+        this.claimedCounter = Counter.builder("judge.queue.claimed")
+                .description("Submissions taken over from a judge worker that stopped responding")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("judge.queue.failed")
+                .description("Submissions given up on after max-deliveries")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void enqueue(SubmissionEntity submission, Lane lane) {
+        Long submissionId = submission.getId();
+        if (!hasCapacity()) {
+            rejectedCounter.increment();
+            throw new JudgeQueueFullException("Judge queue is full, please try again later");
+        }
+        Long added = redisTemplate.opsForSet().add(queuedKey, submissionId.toString());
+        if (added == null || added == 0) {
+            log.debug("Submission {} is already queued", submissionId);
+            return;
+        }
+        try {
+            publish(JudgeTicket.of(submission, lane), 1);
+        } catch (RuntimeException e) {
+            redisTemplate.opsForSet().remove(queuedKey, submissionId.toString());
+            throw e;
+        }
+        log.info("Queued submission {} on stream {}", submissionId, streamConfig.getKey());
+    }
+
+    @Override
+    public boolean hasCapacity() {
+        return getQueueDepth() < Math.max(1, queueConfig.getCapacity());
+    }
+
+    @Override
+    public int getQueueDepth() {
+        try {
+            Long size = redisTemplate.opsForStream().size(streamConfig.getKey());
+            return size == null ? 0 : size.intValue();
+        } catch (Exception e) {
+            log.debug("Could not read the judge stream length: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    @Override
+    public void enqueuePendingSubmissions() {
+        List<SubmissionEntity> pendingSubmissions = submissionRepository.findPendingSubmissions();
+        for (SubmissionEntity submission : pendingSubmissions) {
+            if (Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(queuedKey, submission.getId().toString()))) {
+                continue;
+            }
+            try {
+                enqueue(submission, Lane.LIVE);
+            } catch (JudgeQueueFullException e) {
+                log.info("Judge queue is full, pending submissions left for the next recovery run");
+                return;
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        createGroup();
+        if (queueConfig.isConsumerEnabled()) {
+            startWorkers();
+        }
+        long interval = Math.max(1, queueConfig.getRecoveryInterval().toMillis());
+        recoveryScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                if (queueConfig.isConsumerEnabled()) {
+                    touchPrefetched();
+                    claimAbandoned();
+                }
+                pruneQueued();
+                enqueuePendingSubmissions();
+            } catch (Exception e) {
+                log.warn("Failed to recover judge stream entries: {}", e.getMessage());
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        recoveryScheduler.shutdownNow();
+        if (listenerContainer != null) {
+            listenerContainer.stop();
+        }
+        // Entries still prefetched stay pending and are claimed by another worker after claim-idle
+        if (readerExecutor != null) {
+            readerExecutor.shutdownNow();
+        }
+        if (workerExecutor != null) {
+            workerExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * One stream entry delivered to this node's consumer, queued for the workers. Blocks the reader
+     * while the prefetch window is full.
+     */
+    @Override
+    public void onMessage(MapRecord<String, String, String> record) {
+        JudgeTicket ticket;
+        try {
+            ticket = ticketOf(record.getId(), record.getValue());
+        } catch (IllegalArgumentException e) {
+            log.warn("Dropping malformed judge stream entry {}: {}", record.getId(), record.getValue());
+            remove(record.getId());
+            return;
+        }
+        try {
+            prefetched.put(ticket);
+        } catch (InterruptedException e) {
+            // Shutting down, the entry stays pending for another worker
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            JudgeTicket ticket;
+            try {
+                ticket = prefetched.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            activeCount.incrementAndGet();
+            try {
+                boolean judged;
+                try {
+                    judgeService.judge(ticket.getSubmissionId());
+                    judged = true;
+                } catch (Exception e) {
+                    log.error("Judge worker failed for submission {} (attempt {})", ticket.getSubmissionId(),
+                            ticket.getAttempt(), e);
+                    judged = false;
+                }
+                // Without Redis the entry stays pending and is claimed after claim-idle, the worker goes on
+                try {
+                    if (judged) {
+                        complete(ticket.getRecordId(), ticket.getSubmissionId());
+                    } else {
+                        retry(ticket);
+                    }
+                } catch (Exception e) {
+                    log.warn("Could not settle judge stream entry {} of submission {}, leaving it pending: {}",
+                            ticket.getRecordId(), ticket.getSubmissionId(), e.getMessage());
+                }
+            } finally {
+                activeCount.decrementAndGet();
+            }
+        }
+    }
+
+    private void startWorkers() {
+        int workers = Math.max(1, queueConfig.getWorkerThreads());
+        workerExecutor = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("judge-worker-"));
+        for (int i = 0; i < workers; i++) {
+            workerExecutor.execute(this::work);
+        }
+        readerExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("judge-stream-reader-"));
+        StreamMessageListenerContainerOptions<String, MapRecord<String, String, String>> options =
+                StreamMessageListenerContainerOptions.builder()
+                        .batchSize(Math.max(1, streamConfig.getPrefetch()))
+                        .pollTimeout(Duration.ofSeconds(2))
+                        .executor(readerExecutor)
+                        .build();
+        listenerContainer = StreamMessageListenerContainer.create(connectionFactory, options);
+        StreamOffset<String> offset = StreamOffset.create(streamConfig.getKey(), ReadOffset.lastConsumed());
+        listenerContainer.register(StreamReadRequest.builder(offset)
+                .consumer(Consumer.from(streamConfig.getGroup(), consumerName))
+                .autoAcknowledge(false)
+                .cancelOnError(e -> false)
+                .errorHandler(e -> log.warn("Judge stream read failed: {}", e.getMessage()))
+                .build(), this);
+        listenerContainer.start();
+        log.info("Judging submissions from stream {} with {} workers as {}", streamConfig.getKey(), workers,
+                consumerName);
+    }
+
+    /**
+     * Reset the idle time of the entries waiting in the prefetch window, so a busy node's backlog
+     * is not mistaken for the one of a dead worker
+     */
+    private void touchPrefetched() {
+        List<JudgeTicket> waiting = prefetched.snapshot();
+        if (waiting.isEmpty()) {
+            return;
+        }
+        RecordId[] ids = waiting.stream().map(JudgeTicket::getRecordId).toArray(RecordId[]::new);
+        redisTemplate.opsForStream().claim(streamConfig.getKey(), streamConfig.getGroup(), consumerName,
+                Duration.ZERO, ids);
+    }
+
+    private void createGroup() {
+        byte[] key = streamConfig.getKey().getBytes(StandardCharsets.UTF_8);
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands()
+                    .xGroupCreate(key, streamConfig.getGroup(), ReadOffset.from("0-0"), true));
+        } catch (Exception e) {
+            if (!String.valueOf(e.getMessage()).contains("BUSYGROUP")
+                    && !(e.getCause() != null && String.valueOf(e.getCause().getMessage()).contains("BUSYGROUP"))) {
+                log.warn("Could not create consumer group {}: {}", streamConfig.getGroup(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Hand entries delivered to workers that stopped responding back to the group, as new entries
+     */
+    private void claimAbandoned() {
+        PendingMessages pending = redisTemplate.opsForStream()
+                .pending(streamConfig.getKey(), streamConfig.getGroup(), Range.unbounded(), CLAIM_BATCH);
+        for (PendingMessage message : pending) {
+            if (message.getElapsedTimeSinceLastDelivery().compareTo(streamConfig.getClaimIdle()) < 0) {
+                continue;
+            }
+            List<MapRecord<String, Object, Object>> claimed = redisTemplate.opsForStream().claim(
+                    streamConfig.getKey(), streamConfig.getGroup(), consumerName + "-recovery",
+                    streamConfig.getClaimIdle(), message.getId());
+            for (MapRecord<String, Object, Object> record : claimed) {
+                JudgeTicket ticket;
+                try {
+                    ticket = ticketOf(record.getId(), record.getValue());
+                } catch (IllegalArgumentException e) {
+                    remove(record.getId());
+                    continue;
+                }
+                log.warn("Submission {} was abandoned by consumer {}, handing it to another worker",
+                        ticket.getSubmissionId(), message.getConsumerName());
+                claimedCounter.increment();
+                retry(ticket);
+            }
+        }
+    }
+
+    /**
+     * Drop queued ids whose entry is gone from the stream (lost with a Redis failover, or left by an
+     * enqueue that failed halfway). An id has to be missing on two runs in a row, so one published
+     * between reading the set and reading the stream is not dropped.
+     */
+    private void pruneQueued() {
+        Set<String> queued = redisTemplate.opsForSet().members(queuedKey);
+        if (queued == null || queued.isEmpty()) {
+            missingQueued.clear();
+            return;
+        }
+        Set<String> missing = new HashSet<>(queued);
+        missing.removeAll(streamSubmissionIds());
+        List<String> lost = missing.stream().filter(missingQueued::contains).toList();
+        if (!lost.isEmpty()) {
+            redisTemplate.opsForSet().remove(queuedKey, lost.toArray());
+            log.warn("Dropped {} queued submission(s) no longer in stream {}: {}", lost.size(),
+                    streamConfig.getKey(), lost);
+        }
+        missingQueued.clear();
+        missingQueued.addAll(missing);
+        lost.forEach(missingQueued::remove);
+    }
+
+    private Set<String> streamSubmissionIds() {
+        Set<String> ids = new HashSet<>();
+        Range<String> range = Range.unbounded();
+        while (true) {
+            List<MapRecord<String, Object, Object>> page = redisTemplate.opsForStream().range(streamConfig.getKey(),
+                    range, Limit.limit().count(SCAN_BATCH));
+            if (page == null) {
+                return ids;
+            }
+            for (MapRecord<String, Object, Object> record : page) {
+                Object submissionId = record.getValue().get(FIELD_SUBMISSION);
+                if (submissionId != null) {
+                    ids.add(submissionId.toString());
+                }
+            }
+            if (page.size() < SCAN_BATCH) {
+                return ids;
+            }
+            // The bound is inclusive, the next page starts with the last entry of this one
+            range = Range.rightUnbounded(Range.Bound.inclusive(page.get(page.size() - 1).getId().getValue()));
+        }
+    }
+
+    private void retry(JudgeTicket ticket) {
+        RecordId recordId = ticket.getRecordId();
+        Long submissionId = ticket.getSubmissionId();
+        int attempt = ticket.getAttempt();
+        if (attempt >= Math.max(1, streamConfig.getMaxDeliveries())) {
+            failedCounter.increment();
+            try {
+                judgeService.failSubmission(submissionId, "Judging failed after " + attempt + " attempts");
+            } catch (Exception e) {
+                log.error("Could not mark submission {} as failed", submissionId, e);
+            }
+            complete(recordId, submissionId);
+            return;
+        }
+        retriedCounter.increment();
+        publish(ticket, attempt + 1);
+        remove(recordId);
+    }
+
+    private void publish(JudgeTicket ticket, int attempt) {
+        Map<String, String> value = new HashMap<>();
+        value.put(FIELD_SUBMISSION, ticket.getSubmissionId().toString());
+        value.put(FIELD_ATTEMPT, String.valueOf(attempt));
+        value.put(FIELD_LANE, ticket.getLane().name());
+        value.put(FIELD_COST, String.valueOf(ticket.getCost()));
+        value.put(FIELD_ENQUEUED_AT, String.valueOf(ticket.getEnqueuedAt()));
+        if (ticket.getUserId() != null) {
+            value.put(FIELD_USER, ticket.getUserId().toString());
+        }
+        redisTemplate.opsForStream().add(StreamRecords.newRecord()
+                .in(streamConfig.getKey())
+                .ofMap(value));
+    }
+
+    /**
+     * @throws IllegalArgumentException When the entry is malformed
+     */
+    private static JudgeTicket ticketOf(RecordId recordId, Map<?, ?> value) {
+        Object submissionId = value.get(FIELD_SUBMISSION);
+        if (submissionId == null) {
+            throw new IllegalArgumentException("No submission id");
+        }
+        Object userId = value.get(FIELD_USER);
+        Object lane = value.get(FIELD_LANE);
+        Object cost = value.get(FIELD_COST);
+        Object attempt = value.get(FIELD_ATTEMPT);
+        Object enqueuedAt = value.get(FIELD_ENQUEUED_AT);
+        // Entries published before lanes existed are live submissions
+        return new JudgeTicket(
+                Long.valueOf(submissionId.toString()),
+                userId == null ? null : Long.valueOf(userId.toString()),
+                lane == null ? Lane.LIVE : Lane.valueOf(lane.toString()),
+                cost == null ? 1 : Integer.parseInt(cost.toString()),
+                enqueuedAt == null ? System.currentTimeMillis() : Long.parseLong(enqueuedAt.toString()),
+                attempt == null ? 1 : Integer.parseInt(attempt.toString()),
+                recordId);
+    }
+
+    private void complete(RecordId recordId, Long submissionId) {
+        remove(recordId);
+        redisTemplate.opsForSet().remove(queuedKey, submissionId.toString());
+    }
+
+    private void remove(RecordId recordId) {
+        redisTemplate.opsForStream().acknowledge(streamConfig.getKey(), streamConfig.getGroup(), recordId);
+        redisTemplate.opsForStream().delete(streamConfig.getKey(), recordId);
+    }
+}
@@ -0,0 +1,234 @@
+package com.fcoder.Fcoder.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fcoder.Fcoder.config.JudgeConfig;
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import com.fcoder.Fcoder.model.exception.ActionFailedException;
+import com.fcoder.Fcoder.model.other.SubmissionEvent;
+import com.fcoder.Fcoder.repository.SubmissionRepository;
+import com.fcoder.Fcoder.service.SubmissionEventService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes submission progress to clients over server-sent events. The judge publishes events on a Redis
+ * channel, every API node forwards them to the connections it holds for that submission, so a client
+ * does not have to be connected to the node that judges. Each connection has a bounded buffer, written
+ * out by a virtual thread of its own while it holds events: a slow client loses intermediate test
+ * progress, never the verdict, and a write blocked on it only holds up that connection's sender, never
+ * the judge or the other clients.
+ */
+@Service
+public class SubmissionEventServiceImpl implements SubmissionEventService, MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SubmissionEventServiceImpl.class);
+
+    private static final String CHANNEL = "judge:submission-events";
+
+    private final SubmissionRepository submissionRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final JudgeConfig.Events config;
+    private final ExecutorService sender;
+    private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Counter dropped;
+
+    public SubmissionEventServiceImpl(SubmissionRepository submissionRepository,
+                                      RedisTemplate<String, Object> redisTemplate,
+                                      RedisMessageListenerContainer listenerContainer,
+                                      ObjectMapper objectMapper,
+                                      JudgeConfig judgeConfig,
+                                      MeterRegistry meterRegistry) {
+        this.submissionRepository = submissionRepository;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.config = judgeConfig.getEvents();
+        this.sender = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("submission-events-", 0).factory());
+        this.dropped = Counter.builder("judge.events.dropped")
+                .description("Test progress events dropped for slow clients")
+                .register(meterRegistry);
+        Gauge.builder("judge.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open submission event streams on this node")
+                .register(meterRegistry);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    public SseEmitter subscribe(Long submissionId) {
+        SseEmitter emitter = new SseEmitter(config.getTimeout().toMillis());
+        Subscription subscription = new Subscription(submissionId, emitter);
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        emitter.onError(e -> unsubscribe(subscription));
+
+        // Registered before reading the current state, so no event between the two is missed
+        subscriptions.compute(submissionId, (id, set) -> {
+            Set<Subscription> subscribers = set != null ? set : ConcurrentHashMap.newKeySet();
+            subscribers.add(subscription);
+            return subscribers;
+        });
+        subscriberCount.incrementAndGet();
+
+        SubmissionEntity submission = submissionRepository.findById(submissionId).orElse(null);
+        if (submission == null) {
+            unsubscribe(subscription);
+            throw new ActionFailedException("Submission not found: " + submissionId);
+        }
+        subscription.offer(SubmissionEvent.of(submission));
+        return emitter;
+    }
+
+    @Override
+    public void publish(SubmissionEvent event) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(event));
+        } catch (Exception e) {
+            // Without Redis only the clients connected to this node are told
+            log.debug("Could not publish event of submission {}: {}", event.getSubmissionId(), e.getMessage());
+            deliver(event);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            deliver(objectMapper.readValue(message.getBody(), SubmissionEvent.class));
+        } catch (IOException e) {
+            log.warn("Could not read submission event: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        subscriptions.values().forEach(set -> set.forEach(subscription -> subscription.emitter.complete()));
+    }
+
+    private void deliver(SubmissionEvent event) {
+        Set<Subscription> subscribers = subscriptions.get(event.getSubmissionId());
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscription subscription : subscribers) {
+            subscription.offer(event);
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        if (!subscription.close()) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        subscriptions.computeIfPresent(subscription.submissionId, (id, set) -> {
+            set.remove(subscription);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * One open event stream. Events are queued by the Redis listener without waiting and written by at
+     * most one sender thread at a time, in order.
+     */
+    private class Subscription {
+        private final Long submissionId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<SubmissionEvent> buffer = new ArrayDeque<>();
+        private boolean sending;
+        private boolean closed;
+
+        private Subscription(Long submissionId, SseEmitter emitter) {
+            this.submissionId = submissionId;
+            this.emitter = emitter;
+        }
+
+        private synchronized void offer(SubmissionEvent event) {
+            if (closed) {
+                return;
+            }
+            if (buffer.size() >= config.getBufferSize()) {
+                dropOldestProgress();
+            }
+            buffer.add(event);
+            if (!sending) {
+                sending = true;
+                sender.execute(this::send);
+            }
+        }
+
+        private void dropOldestProgress() {
+            Iterator<SubmissionEvent> it = buffer.iterator();
+            while (it.hasNext()) {
+                if (!it.next().isFinal()) {
+                    it.remove();
+                    dropped.increment();
+                    return;
+                }
+            }
+        }
+
+        private void send() {
+            while (true) {
+                SubmissionEvent event;
+                synchronized (this) {
+                    event = closed ? null : buffer.poll();
+                    if (event == null) {
+                        sending = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(SseEmitter.event()
+                            .name(event.getType().name().toLowerCase(Locale.ROOT))
+                            .data(event, MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException e) {
+                    // Client went away, the emitter reports the completion
+                    log.debug("Could not send event of submission {}: {}", submissionId, e.getMessage());
+                    unsubscribe(this);
+                    return;
+                }
+                if (event.isFinal()) {
+                    unsubscribe(this);
+                    emitter.complete();
+                    return;
+                }
+            }
+        }
+
+        /**
+         * @return Whether this call closed it
+         */
+        private synchronized boolean close() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            buffer.clear();
+            return true;
+        }
+    }
+}
@@ -6,15 +6,16 @@ import com.fcoder.Fcoder.model.dto.response.SubmissionResponse;
 import com.fcoder.Fcoder.model.entity.AccountEntity;
 import com.fcoder.Fcoder.model.entity.ProblemEntity;
 import com.fcoder.Fcoder.model.entity.SubmissionEntity;
-import com.fcoder.Fcoder.model.entity.TestCaseEntity;
-import com.fcoder.Fcoder.model.other.ExecutionResult;
-import com.fcoder.Fcoder.model.other.TestCaseResult;
+import com.fcoder.Fcoder.model.exception.JudgeQueueFullException;
+import com.fcoder.Fcoder.model.other.CachedTestCase;
+import com.fcoder.Fcoder.model.other.CachedVerdict;
 import com.fcoder.Fcoder.repository.AccountRepository;
 import com.fcoder.Fcoder.repository.ProblemRepository;
 import com.fcoder.Fcoder.repository.SubmissionRepository;
-import com.fcoder.Fcoder.repository.TestCaseRepository;
-import com.fcoder.Fcoder.service.CodeExecutionService;
+import com.fcoder.Fcoder.service.JudgeQueueService;
 import com.fcoder.Fcoder.service.SubmissionService;
+import com.fcoder.Fcoder.service.TestSetCacheService;
+import com.fcoder.Fcoder.service.VerdictCacheService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,10 +23,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -37,14 +40,15 @@ public class SubmissionServiceImpl implements SubmissionService {
         private final SubmissionRepository submissionRepository;
         private final ProblemRepository problemRepository;
         private final AccountRepository accountRepository;
-        private final TestCaseRepository testCaseRepository;
-        private final CodeExecutionService codeExecutionService;
+        private final JudgeQueueService judgeQueueService;
+        private final VerdictCacheService verdictCacheService;
+        private final TestSetCacheService testSetCacheService;
 
         @Override
         public SubmissionResponse submitSolution(SubmissionRequest request, String username) {
                 log.info("Processing submission for user: {}, problem: {}, language: {}", 
                         username, request.getProblemId(), request.getLanguage());
-                
+
                 try {
                         // Validate and get entities
                         AccountEntity user = accountRepository.findByUsername(username)
@@ -53,11 +57,21 @@ public class SubmissionServiceImpl implements SubmissionService {
                         ProblemEntity problem = problemRepository.findById(request.getProblemId())
                                         .orElseThrow(() -> new RuntimeException("Problem not found: " + request.getProblemId()));
                         
-                        List<TestCaseEntity> testCases = testCaseRepository.findByProblem_IdAndIsActiveTrueOrderByTestOrder(request.getProblemId());
+                        List<CachedTestCase> testCases = testSetCacheService.getTestCases(problem);
                         if (testCases.isEmpty()) {
                                 throw new RuntimeException("No test cases found for problem: " + request.getProblemId());
                         }
                         
+                        // Identical source already judged against the same test set
+                        String fingerprint = verdictCacheService.fingerprint(problem, testCases);
+                        Optional<CachedVerdict> cachedVerdict = verdictCacheService.lookup(
+                                        request.getLanguage(), request.getSourceCode(), problem.getId(), fingerprint);
+
+                        // Reject early instead of saving a submission nobody will pick up soon
+                        if (cachedVerdict.isEmpty() && !judgeQueueService.hasCapacity()) {
+                                throw new JudgeQueueFullException("Judge queue is full, please try again later");
+                        }
+
                         // Create submission entity
                         SubmissionEntity submission = SubmissionEntity.builder()
                                         .user(user)
@@ -71,13 +85,24 @@ public class SubmissionServiceImpl implements SubmissionService {
                                         .score(0.0)
                                         .build();
                         
+                        if (cachedVerdict.isPresent()) {
+                                cachedVerdict.get().applyTo(submission);
+                                submission = submissionRepository.save(submission);
+                                log.info("Submission {} answered from the verdict cache: {}",
+                                        submission.getId(), submission.getStatus());
+                                return convertToResponse(submission);
+                        }
+
                         // Save initial submission
                         submission = submissionRepository.save(submission);
                         log.info("Created submission with ID: {}", submission.getId());
                         
-                        // Execute code safely
-                        return executeCodeSafely(request, submission, testCases, problem);
+                        // Judge asynchronously once the PENDING row is visible to the workers
+                        enqueueAfterCommit(submission, JudgeQueueService.Lane.LIVE);
+                        return convertToResponse(submission);
                         
+                } catch (JudgeQueueFullException e) {
+                        throw e;
                 } catch (Exception e) {
                         log.error("Error processing submission for user: {}, problem: {}", 
                                 username, request.getProblemId(), e);
@@ -85,116 +110,23 @@ public class SubmissionServiceImpl implements SubmissionService {
                 }
         }
 
-        private SubmissionResponse executeCodeSafely(SubmissionRequest request,
-                                                     SubmissionEntity submission,
-                                                     List<TestCaseEntity> testCases,
-                                                     ProblemEntity problem) {
-                try {
-                        log.info("Starting code execution for submission: {}", submission.getId());
-
-                        // Update status to COMPILING
-                        submission.setStatus(SubmissionEntity.SubmissionStatus.COMPILING);
-                        submission = submissionRepository.save(submission);
-
-                        // Set timeout for the entire submission process
-                        long startTime = System.currentTimeMillis();
-                        long maxExecutionTime = 60000; // 60 seconds max
-
-                        // Execute code using Docker-based service
-                        ExecutionResult result = codeExecutionService.executeCode(
-                                request.getSourceCode(),
-                                request.getLanguage(),
-                                testCases,
-                                problem.getTimeLimit(),
-                                problem.getMemoryLimit());
-
-                        long totalTime = System.currentTimeMillis() - startTime;
-
-                        // Check for timeout
-                        if (totalTime > maxExecutionTime) {
-                                log.warn("Submission {} exceeded maximum execution time: {}ms", submission.getId(), totalTime);
-                                submission.setStatus(SubmissionEntity.SubmissionStatus.TIME_LIMIT_EXCEEDED);
-                                submission.setCompileError("Maximum submission processing time exceeded");
-                                submission.setPassedTests(0);
-                                submission.setTotalTests(testCases.size());
-                                submission.setScore(0.0);
-                                submission = submissionRepository.save(submission);
-                                return convertToResponse(submission);
-                        }
-
-                        log.info("Code execution completed for submission: {}, status: {}", 
-                                submission.getId(), result.getStatus());
-
-                        // Update submission with execution results
-                        submission.setStatus(result.getStatus());
-                        submission.setExecutionTime((int) result.getExecutionTime());
-                        submission.setMemoryUsed((int) result.getMemoryUsed());
-                        
-                        // Set error messages based on status
-                        if (result.getStatus() == SubmissionEntity.SubmissionStatus.COMPILE_ERROR) {
-                                submission.setCompileError(result.getErrorMessage());
-                        } else if (result.getStatus() == SubmissionEntity.SubmissionStatus.RUNTIME_ERROR ||
-                                   result.getStatus() == SubmissionEntity.SubmissionStatus.SYSTEM_ERROR) {
-                                submission.setRuntimeError(result.getErrorMessage());
-                        }
-
-                        // Handle test case results
-                        List<TestCaseResult> testResults = result.getTestResults();
-                        int passedTests = result.getPassedTests();
-                        int totalTests = result.getTotalTests();
-
-                        // Fallback calculation if results are inconsistent
-                        if (testResults != null && !testResults.isEmpty()) {
-                                passedTests = (int) testResults.stream()
-                                        .mapToLong(tr -> tr.isPassed() ? 1 : 0)
-                                        .sum();
-                                totalTests = testResults.size();
-                                
-                                // Log test case results for debugging
-                                log.debug("Test case results for submission {}: passed={}/{}", 
-                                        submission.getId(), passedTests, totalTests);
-                        }
-
-                        // Update test counts and score
-                        submission.setPassedTests(passedTests);
-                        submission.setTotalTests(totalTests);
-                        
-                        // Calculate score (avoid division by zero)
-                        double score = totalTests > 0 ? (double) passedTests / totalTests * 100.0 : 0.0;
-                        submission.setScore(score);
-
-                        // Set judge message for additional context
-                        if (result.getStatus() == SubmissionEntity.SubmissionStatus.ACCEPTED) {
-                                submission.setJudgeMessage("All test cases passed successfully");
-                        } else if (result.getStatus() == SubmissionEntity.SubmissionStatus.WRONG_ANSWER) {
-                                submission.setJudgeMessage(String.format("Passed %d out of %d test cases", passedTests, totalTests));
-                        } else if (result.getErrorMessage() != null) {
-                                submission.setJudgeMessage(result.getErrorMessage());
-                        }
-
-                        // Save final submission
-                        submission = submissionRepository.save(submission);
-                        
-                        log.info("Submission {} processed successfully: status={}, score={}, passed={}/{}", 
-                                submission.getId(), submission.getStatus(), submission.getScore(), 
-                                submission.getPassedTests(), submission.getTotalTests());
-
-                        return convertToResponse(submission);
-
-                } catch (Exception e) {
-                        log.error("Error during code execution for submission: {}", submission.getId(), e);
-
-                        // Update submission with error status
-                        submission.setStatus(SubmissionEntity.SubmissionStatus.SYSTEM_ERROR);
-                        submission.setRuntimeError("System error during execution: " + e.getMessage());
-                        submission.setJudgeMessage("Internal system error occurred during code execution");
-                        submission.setPassedTests(0);
-                        submission.setTotalTests(testCases.size());
-                        submission.setScore(0.0);
-                        submission = submissionRepository.save(submission);
-
-                        return convertToResponse(submission);
+        private void enqueueAfterCommit(SubmissionEntity submission, JudgeQueueService.Lane lane) {
+                Long submissionId = submission.getId();
+                if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                        judgeQueueService.enqueue(submission, lane);
+                        return;
                 }
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                                try {
+                                        judgeQueueService.enqueue(submission, lane);
+                                } catch (JudgeQueueFullException e) {
+                                        // Still PENDING, the queue recovery run will pick it up
+                                        log.warn("Judge queue filled up before submission {} was queued", submissionId);
+                                }
+                        }
+                });
         }
 
         @Override
@@ -265,22 +197,19 @@ public class SubmissionServiceImpl implements SubmissionService {
 
         @Override
         public void processSubmission(Long submissionId) {
-                // Implementation for processing a specific submission
-                // This would typically involve judging the submission
+                // Re-judge a specific submission through the judge queue
                 SubmissionEntity submission = submissionRepository.findById(submissionId)
                                 .orElseThrow(() -> new RuntimeException("Submission not found: " + submissionId));
 
-                // TODO: Implement actual submission processing logic
-                // This might involve re-running the code execution service
+                submission.setStatus(SubmissionEntity.SubmissionStatus.PENDING);
+                submissionRepository.save(submission);
+                enqueueAfterCommit(submission, JudgeQueueService.Lane.ADMIN);
         }
 
         @Override
         public void processPendingSubmissions() {
-                // Get all pending submissions and process them
-                List<SubmissionEntity> pendingSubmissions = submissionRepository.findPendingSubmissions();
-                for (SubmissionEntity submission : pendingSubmissions) {
-                        processSubmission(submission.getId());
-                }
+                // Get all pending submissions and hand them to the judge queue
+                judgeQueueService.enqueuePendingSubmissions();
         }
 
         @Override
@@ -308,6 +237,8 @@ public class SubmissionServiceImpl implements SubmissionService {
                                 .language(submission.getLanguage())
                                 .status(submission.getStatus())
                                 .executionTime(submission.getExecutionTime())
+                                .cpuTime(submission.getCpuTime())
+                                .wallTime(submission.getWallTime())
                                 .memoryUsed(submission.getMemoryUsed())
                                 .passedTests(submission.getPassedTests())
                                 .totalTests(submission.getTotalTests())
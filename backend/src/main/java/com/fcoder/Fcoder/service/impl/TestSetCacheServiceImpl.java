@@ -0,0 +1,193 @@
+package com.fcoder.Fcoder.service.impl;
+
+import com.fcoder.Fcoder.compiler.TestDataStore;
+import com.fcoder.Fcoder.config.JudgeConfig;
+import com.fcoder.Fcoder.model.entity.ProblemEntity;
+import com.fcoder.Fcoder.model.entity.TestCaseEntity;
+import com.fcoder.Fcoder.model.other.CachedTestCase;
+import com.fcoder.Fcoder.repository.ProblemRepository;
+import com.fcoder.Fcoder.repository.TestCaseRepository;
+import com.fcoder.Fcoder.service.TestSetCacheService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-node memo of each problem's active test cases, keyed by problem id and test set version, so
+ * judging a submission does not query the test cases again. Only hashes and sizes are kept, the test
+ * data itself is served by the {@link TestDataStore} node cache. Nodes are told to drop or preload a test set over Redis pub/sub;
+ * the version check alone already keeps a node from judging with a replaced test set.
+ */
+@Service
+public class TestSetCacheServiceImpl implements TestSetCacheService, MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TestSetCacheServiceImpl.class);
+
+    private static final String CHANNEL = "judge:test-sets";
+    private static final String INVALIDATE = "INVALIDATE:";
+    private static final String PRELOAD = "PRELOAD:";
+
+    private final TestCaseRepository testCaseRepository;
+    private final ProblemRepository problemRepository;
+    private final TestDataStore testDataStore;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final JudgeConfig.TestData.Cache config;
+    private final Map<Long, TestSet> testSets;
+    private final Counter hits;
+    private final Counter misses;
+
+    public TestSetCacheServiceImpl(TestCaseRepository testCaseRepository,
+                                   ProblemRepository problemRepository,
+                                   TestDataStore testDataStore,
+                                   RedisTemplate<String, Object> redisTemplate,
+                                   RedisMessageListenerContainer listenerContainer,
+                                   JudgeConfig judgeConfig,
+                                   MeterRegistry meterRegistry) {
+        this.testCaseRepository = testCaseRepository;
+        this.problemRepository = problemRepository;
+        this.testDataStore = testDataStore;
+        this.redisTemplate = redisTemplate;
+        this.config = judgeConfig.getTestData().getCache();
+        // Access ordered, the least recently judged problem goes first
+        this.testSets = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, TestSet> eldest) {
+                return size() > config.getMaxTestSets();
+            }
+        });
+        this.hits = Counter.builder("judge.test-set.cache.hits").register(meterRegistry);
+        this.misses = Counter.builder("judge.test-set.cache.misses").register(meterRegistry);
+        Gauge.builder("judge.test-set.cache.size", testSets, Map::size).register(meterRegistry);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    public List<CachedTestCase> getTestCases(ProblemEntity problem) {
+        long version = versionOf(problem);
+        if (config.isEnabled()) {
+            TestSet testSet = testSets.get(problem.getId());
+            if (testSet != null && testSet.version == version) {
+                hits.increment();
+                return testSet.testCases;
+            }
+            misses.increment();
+        }
+        TestSet testSet = load(problem.getId(), version);
+        if (config.isEnabled()) {
+            testSets.put(problem.getId(), testSet);
+        }
+        return testSet.testCases;
+    }
+
+    @Override
+    public void preload(Long problemId) {
+        if (!publish(PRELOAD + problemId)) {
+            preloadLocally(problemId);
+        }
+    }
+
+    @Override
+    public void invalidate(Long problemId) {
+        testSets.remove(problemId);
+        publish(INVALIDATE + problemId);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            if (body.startsWith(INVALIDATE)) {
+                testSets.remove(Long.parseLong(body.substring(INVALIDATE.length())));
+            } else if (body.startsWith(PRELOAD)) {
+                preloadLocally(Long.parseLong(body.substring(PRELOAD.length())));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not handle test set message {}: {}", body, e.getMessage());
+        }
+    }
+
+    private void preloadLocally(Long problemId) {
+        ProblemEntity problem = problemRepository.findById(problemId).orElse(null);
+        if (problem == null) {
+            return;
+        }
+        List<CachedTestCase> testCases = getTestCases(problem);
+        long bytes = 0;
+        try {
+            for (CachedTestCase testCase : testCases) {
+                testDataStore.path(testCase.getInputHash());
+                testDataStore.path(testCase.getOutputHash());
+                bytes += testCase.getInputSize() + testCase.getOutputSize();
+            }
+            log.info("Preloaded {} test cases ({} bytes) of problem {}", testCases.size(), bytes, problemId);
+        } catch (IOException e) {
+            log.warn("Could not preload test data of problem {}: {}", problemId, e.getMessage());
+        }
+    }
+
+    private TestSet load(Long problemId, long version) {
+        List<TestCaseEntity> testCases = testCaseRepository.findByProblem_IdAndIsActiveTrueOrderByTestOrder(problemId);
+        // Test cases created before the test data store get their hashes on first load, their inline data
+        // stays in the database until the problem is migrated; files missing on this node are rebuilt from it
+        List<TestCaseEntity> stored = new ArrayList<>();
+        try {
+            for (TestCaseEntity testCase : testCases) {
+                if (testDataStore.storeInline(testCase)) {
+                    stored.add(testCase);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store test data of problem " + problemId, e);
+        }
+        if (!stored.isEmpty()) {
+            log.info("Stored inline data of {} test case(s) in the test data store", stored.size());
+            testCaseRepository.saveAll(stored);
+        }
+        List<CachedTestCase> cached = new ArrayList<>(testCases.size());
+        for (TestCaseEntity testCase : testCases) {
+            cached.add(CachedTestCase.from(testCase));
+        }
+        return new TestSet(version, Collections.unmodifiableList(cached));
+    }
+
+    private boolean publish(String message) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, message);
+            return true;
+        } catch (Exception e) {
+            log.warn("Could not publish test set message {}: {}", message, e.getMessage());
+            return false;
+        }
+    }
+
+    private static long versionOf(ProblemEntity problem) {
+        return problem.getTestSetVersion() == null ? 0 : problem.getTestSetVersion();
+    }
+
+    private static class TestSet {
+        private final long version;
+        private final List<CachedTestCase> testCases;
+
+        private TestSet(long version, List<CachedTestCase> testCases) {
+            this.version = version;
+            this.testCases = testCases;
+        }
+    }
+}
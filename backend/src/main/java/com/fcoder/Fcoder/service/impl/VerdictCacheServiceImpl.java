@@ -0,0 +1,139 @@
+package com.fcoder.Fcoder.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fcoder.Fcoder.config.JudgeConfig;
+import com.fcoder.Fcoder.model.entity.ProblemEntity;
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import com.fcoder.Fcoder.model.other.CachedTestCase;
+import com.fcoder.Fcoder.model.other.CachedVerdict;
+import com.fcoder.Fcoder.service.VerdictCacheService;
+import com.fcoder.Fcoder.util.HashUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Redis backed memo of final verdicts. Identical source + language against an unchanged test set
+ * and unchanged limits always gets the same verdict, so the judge can be skipped entirely.
+ * Redis being unavailable only turns lookups into misses.
+ */
+@Service
+public class VerdictCacheServiceImpl implements VerdictCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(VerdictCacheServiceImpl.class);
+
+    private static final String KEY_PREFIX = "VERDICT:";
+    // Time limit verdicts depend on machine load, errors on the judge itself
+    private static final Set<SubmissionEntity.SubmissionStatus> CACHEABLE_STATUSES = EnumSet.of(
+            SubmissionEntity.SubmissionStatus.ACCEPTED,
+            SubmissionEntity.SubmissionStatus.WRONG_ANSWER,
+            SubmissionEntity.SubmissionStatus.COMPILE_ERROR);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final HashUtils hashUtils;
+    private final JudgeConfig.VerdictCache config;
+    private final Counter hits;
+    private final Counter misses;
+
+    public VerdictCacheServiceImpl(RedisTemplate<String, Object> redisTemplate,
+                                   ObjectMapper objectMapper,
+                                   HashUtils hashUtils,
+                                   JudgeConfig judgeConfig,
+                                   MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.hashUtils = hashUtils;
+        this.config = judgeConfig.getVerdictCache();
+        this.hits = Counter.builder("judge.verdict.cache.hits").register(meterRegistry);
+        this.misses = Counter.builder("judge.verdict.cache.misses").register(meterRegistry);
+    }
+
+    @Override
+    public String fingerprint(ProblemEntity problem, List<CachedTestCase> testCases) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(problem.getTimeLimit()).append(':').append(problem.getMemoryLimit())
+                .append(':').append(problem.getCheckerType())
+                .append(':').append(problem.getCheckerEpsilon())
+                .append(':').append(problem.getCheckerLanguage())
+                .append(':').append(hashUtils.sha256(String.valueOf(problem.getCheckerSource())));
+        for (CachedTestCase testCase : testCases) {
+            sb.append('|').append(testCase.getId())
+                    .append(':').append(testCase.getTestOrder())
+                    .append(':').append(testCase.getPoints())
+                    .append(':').append(testCase.getInputHash())
+                    .append(':').append(testCase.getOutputHash());
+        }
+        return hashUtils.sha256(sb.toString());
+    }
+
+    @Override
+    public Optional<CachedVerdict> lookup(SubmissionEntity.ProgrammingLanguage language, String sourceCode,
+                                          Long problemId, String fingerprint) {
+        if (!config.isEnabled()) {
+            return Optional.empty();
+        }
+        try {
+            Object value = redisTemplate.opsForValue().get(key(problemId, fingerprint, language, sourceCode));
+            if (value == null) {
+                misses.increment();
+                return Optional.empty();
+            }
+            hits.increment();
+            return Optional.of(objectMapper.readValue(value.toString(), CachedVerdict.class));
+        } catch (Exception e) {
+            log.warn("Verdict cache lookup failed for problem {}: {}", problemId, e.getMessage());
+            misses.increment();
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void store(SubmissionEntity submission, String fingerprint) {
+        if (!config.isEnabled() || !CACHEABLE_STATUSES.contains(submission.getStatus())) {
+            return;
+        }
+        try {
+            String key = key(submission.getProblem().getId(), fingerprint,
+                    submission.getLanguage(), submission.getSourceCode());
+            String value = objectMapper.writeValueAsString(CachedVerdict.from(submission));
+            redisTemplate.opsForValue().set(key, value, config.getTtl());
+        } catch (Exception e) {
+            log.warn("Failed to cache verdict of submission {}: {}", submission.getId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void invalidateProblem(Long problemId) {
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(KEY_PREFIX + problemId + ":*")
+                .count(500)
+                .build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            List<String> keys = new ArrayList<>();
+            cursor.forEachRemaining(keys::add);
+            if (!keys.isEmpty()) {
+                redisTemplate.delete(keys);
+            }
+            log.info("Invalidated {} cached verdicts of problem {}", keys.size(), problemId);
+        } catch (Exception e) {
+            log.warn("Failed to invalidate cached verdicts of problem {}: {}", problemId, e.getMessage());
+        }
+    }
+
+    private String key(Long problemId, String fingerprint, SubmissionEntity.ProgrammingLanguage language,
+                       String sourceCode) {
+        return KEY_PREFIX + problemId + ":" + fingerprint + ":" + language.name() + ":" + hashUtils.sha256(sourceCode);
+    }
+}
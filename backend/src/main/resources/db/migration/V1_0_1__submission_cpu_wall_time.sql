@@ -0,0 +1,3 @@
+-- CPU time (user + sys) and wall-clock time of a submission, next to execution_time
+ALTER TABLE submissions ADD COLUMN IF NOT EXISTS cpu_time INTEGER; -- in milliseconds
+ALTER TABLE submissions ADD COLUMN IF NOT EXISTS wall_time INTEGER; -- in milliseconds
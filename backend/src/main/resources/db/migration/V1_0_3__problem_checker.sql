@@ -0,0 +1,5 @@
+-- Per-problem output checker
+ALTER TABLE problems ADD COLUMN IF NOT EXISTS checker_type VARCHAR(20);
+ALTER TABLE problems ADD COLUMN IF NOT EXISTS checker_epsilon DOUBLE PRECISION;
+ALTER TABLE problems ADD COLUMN IF NOT EXISTS checker_source TEXT;
+ALTER TABLE problems ADD COLUMN IF NOT EXISTS checker_language VARCHAR(20);
@@ -0,0 +1,8 @@
+-- Test data moves to the content-addressed test data store, rows only keep hash and size.
+-- Existing inline data is moved the first time its problem is judged.
+ALTER TABLE test_cases ADD COLUMN IF NOT EXISTS input_hash VARCHAR(64);
+ALTER TABLE test_cases ADD COLUMN IF NOT EXISTS input_size BIGINT;
+ALTER TABLE test_cases ADD COLUMN IF NOT EXISTS output_hash VARCHAR(64);
+ALTER TABLE test_cases ADD COLUMN IF NOT EXISTS output_size BIGINT;
+ALTER TABLE test_cases ALTER COLUMN input DROP NOT NULL;
+ALTER TABLE test_cases ALTER COLUMN expected_output DROP NOT NULL;
@@ -0,0 +1,2 @@
+-- Version of a problem's test set, bumped when its test cases are replaced
+ALTER TABLE problems ADD COLUMN IF NOT EXISTS test_set_version BIGINT DEFAULT 0;
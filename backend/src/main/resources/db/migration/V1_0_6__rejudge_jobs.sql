@@ -0,0 +1,24 @@
+-- Bulk rejudge jobs, checkpointed by last_submission_id
+CREATE TABLE IF NOT EXISTS rejudge_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    problem_id BIGINT,
+    user_id BIGINT,
+    submission_status VARCHAR(50),
+    submitted_from TIMESTAMP,
+    submitted_to TIMESTAMP,
+    state VARCHAR(20) NOT NULL,
+    requested_by VARCHAR(255),
+    owner VARCHAR(255),
+    total_submissions INTEGER DEFAULT 0,
+    processed INTEGER DEFAULT 0,
+    changed INTEGER DEFAULT 0,
+    failed INTEGER DEFAULT 0,
+    last_submission_id BIGINT DEFAULT 0,
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP,
+    error_message TEXT,
+    created_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_date TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_rejudge_jobs_state ON rejudge_jobs(state);
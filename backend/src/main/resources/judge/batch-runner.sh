@@ -0,0 +1,65 @@
+#!/bin/sh
+# Runs tests of a submission back-to-back inside one sandbox.
+# Passed inline with sh -c, never written to the workspace where the program could change it:
+# sh -c "<this script>" batch-runner <wall-clock limit ms> <output limit bytes> <tests dir> <first test> <test count> <core|-> <command...>
+# Test i reads <dir>/i.in, its merged stdout/stderr goes to <dir>/i.out and
+# "RESULT <i> <exit code> <elapsed ms> [<peak KB> <user s> <sys s> <wall s>]" is printed as soon as it
+# finishes, the usage fields when GNU time is installed. The GNU time report only travels over this
+# script's stdout, the program has no descriptor it could write a fake one to.
+# Output files are capped just above the output limit.
+# When <dir>/.stop holds a test number, tests after it are not run (stop on first failure).
+
+limit_ms=$1
+output_limit=$2
+dir=$3
+first=$4
+count=$5
+core=$6
+shift 6
+
+limit=$(awk "BEGIN { printf \"%.3f\", $limit_ms / 1000 }")
+# File size limit in 512-byte blocks, one block over the output limit so going over it can be seen
+output_blocks=$((output_limit / 512 + 2))
+
+# Pin every run to the leased core when taskset works in this sandbox
+pin=""
+if [ "$core" != "-" ] && taskset -c "$core" true 2>/dev/null; then
+    pin="taskset -c $core"
+fi
+
+# Measure memory and CPU time when GNU time is installed in the image
+measure=""
+if [ -x /usr/bin/time ]; then
+    measure=1
+fi
+
+i=$first
+end=$((first + count))
+while [ "$i" -lt "$end" ]; do
+    stop=$(cat "$dir/.stop" 2>/dev/null)
+    if [ -n "$stop" ] && [ "$i" -gt "$stop" ]; then
+        break
+    fi
+    start=$(date +%s%N)
+    usage=""
+    if [ -n "$measure" ]; then
+        # GNU time reports on the captured stderr, the program's own descriptors all point at its files
+        report=$(
+            ulimit -f "$output_blocks"
+            exec /usr/bin/time -f "%M %U %S %e" $pin timeout -k 1 "$limit" \
+                sh -c 'exec "$@" < "$0.in" > "$0.out" 2>&1' "$dir/$i" "$@" 2>&1 < /dev/null
+        )
+        code=$?
+        # "Command exited with ..." / "Command terminated by signal ..." come before the numbers
+        usage=$(printf '%s\n' "$report" | awk '/^[0-9]/ { line = $0 } END { print line }')
+    else
+        (
+            ulimit -f "$output_blocks"
+            exec $pin timeout -k 1 "$limit" "$@" < "$dir/$i.in" > "$dir/$i.out" 2>&1
+        )
+        code=$?
+    fi
+    finish=$(date +%s%N)
+    echo "RESULT $i $code $(( (finish - start) / 1000000 )) $usage"
+    i=$((i + 1))
+done
@@ -0,0 +1,127 @@
+package com.fcoder.Fcoder.compiler;
+
+import com.fcoder.Fcoder.config.JudgeConfig;
+import com.fcoder.Fcoder.model.other.CompilationResult;
+import com.fcoder.Fcoder.util.HashUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompileCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void evictsLeastRecentlyUsedEntryPastEntryCap() {
+        JudgeConfig config = config(2, DataSize.ofMegabytes(1));
+        CompileCache cache = cache(config);
+        cache.put("a", compileError(), tempDir);
+        cache.put("b", compileError(), tempDir);
+        assertTrue(cache.get("a", tempDir).isPresent());
+
+        cache.put("c", compileError(), tempDir);
+
+        assertFalse(cache.get("b", tempDir).isPresent());
+        assertFalse(Files.exists(cacheRoot(config).resolve("b")));
+        assertTrue(cache.get("a", tempDir).isPresent());
+        assertTrue(cache.get("c", tempDir).isPresent());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntryPastSizeCap() throws IOException {
+        JudgeConfig config = config(100, DataSize.ofBytes(1500));
+        CompileCache cache = cache(config);
+        Path workspace = workspace("first", 1000);
+        cache.put("a", compiled(workspace), workspace);
+        cache.put("b", compiled(workspace), workspace);
+
+        assertFalse(cache.get("a", tempDir.resolve("out")).isPresent());
+        assertTrue(cache.get("b", tempDir.resolve("out")).isPresent());
+        assertTrue(cache.getTotalSize() > 1000 && cache.getTotalSize() <= 1500);
+    }
+
+    @Test
+    void restoresArtifactsIntoTheWorkspace() throws IOException {
+        CompileCache cache = cache(config(100, DataSize.ofMegabytes(1)));
+        Path workspace = workspace("first", 10);
+        cache.put("a", compiled(workspace), workspace);
+
+        Path target = tempDir.resolve("second");
+        Optional<CompilationResult> result = cache.get("a", target);
+        assertTrue(result.isPresent());
+        assertTrue(result.get().isSuccess());
+        assertEquals(target.resolve("Main.class").toString(), result.get().getExecutablePath());
+        assertEquals(Files.readString(workspace.resolve("Main.class")), Files.readString(target.resolve("Main.class")));
+    }
+
+    @Test
+    void keepsCompileErrorsButNotSystemFailures() {
+        CompileCache cache = cache(config(100, DataSize.ofMegabytes(1)));
+        cache.put("a", compileError(), tempDir);
+        cache.put("b", CompilationResult.systemFailure("Compilation timed out"), tempDir);
+
+        Optional<CompilationResult> error = cache.get("a", tempDir);
+        assertTrue(error.isPresent());
+        assertFalse(error.get().isSuccess());
+        assertEquals("Main.java:1: error", error.get().getErrorMessage());
+        assertFalse(cache.get("b", tempDir).isPresent());
+    }
+
+    @Test
+    void reloadsEntriesOldestAccessFirst() throws IOException {
+        JudgeConfig config = config(2, DataSize.ofMegabytes(1));
+        CompileCache cache = cache(config);
+        cache.put("a", compileError(), tempDir);
+        cache.put("b", compileError(), tempDir);
+        Files.setLastModifiedTime(cacheRoot(config).resolve("a"), FileTime.fromMillis(2000));
+        Files.setLastModifiedTime(cacheRoot(config).resolve("b"), FileTime.fromMillis(1000));
+
+        config.getCompileCache().setMaxEntries(1);
+        CompileCache reloaded = cache(config);
+
+        assertTrue(reloaded.get("a", tempDir).isPresent());
+        assertFalse(reloaded.get("b", tempDir).isPresent());
+    }
+
+    private JudgeConfig config(int maxEntries, DataSize maxSize) {
+        JudgeConfig config = new JudgeConfig();
+        config.getCompileCache().setDirectory(tempDir.resolve("cache").toString());
+        config.getCompileCache().setMaxEntries(maxEntries);
+        config.getCompileCache().setMaxSize(maxSize);
+        return config;
+    }
+
+    private static CompileCache cache(JudgeConfig config) {
+        return new CompileCache(config, new HashUtils(), null, new SimpleMeterRegistry());
+    }
+
+    private static Path cacheRoot(JudgeConfig config) {
+        return Path.of(config.getCompileCache().getDirectory());
+    }
+
+    private Path workspace(String name, int artifactSize) throws IOException {
+        Path workspace = Files.createDirectories(tempDir.resolve(name));
+        Files.writeString(workspace.resolve("Main.class"), "x".repeat(artifactSize));
+        return workspace;
+    }
+
+    private static CompilationResult compiled(Path workspace) {
+        return new CompilationResult(true, workspace.resolve("Main.class").toString(), null);
+    }
+
+    private static CompilationResult compileError() {
+        return new CompilationResult(false, null, "Main.java:1: error");
+    }
+}
@@ -0,0 +1,114 @@
+package com.fcoder.Fcoder.compiler;
+
+import com.fcoder.Fcoder.compiler.checker.ExactChecker;
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutputComparatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void outputAtTheLimitIsChecked() throws IOException {
+        OutputComparator comparator = comparator("0123456789", 10);
+        comparator.consume(stream("0123456789"));
+
+        OutputComparator.Result result = comparator.result();
+        assertFalse(result.isLimitExceeded());
+        assertTrue(result.matches());
+        assertEquals(10, result.getOutputSize());
+        assertEquals("0123456789", result.getActualSnippet());
+    }
+
+    @Test
+    void outputOverTheLimitIsCutThere() throws IOException {
+        OutputComparator comparator = comparator("0123456789", 10);
+        comparator.consume(stream("0123456789X"));
+
+        OutputComparator.Result result = comparator.result();
+        assertTrue(result.isLimitExceeded());
+        assertFalse(result.matches());
+        assertEquals(10, result.getOutputSize());
+        assertEquals("0123456789...", result.getActualSnippet());
+    }
+
+    @Test
+    void limitCountsAcrossWrites() throws IOException {
+        OutputComparator comparator = comparator("x", 10);
+        byte[] chunk = "abcdef".getBytes(StandardCharsets.UTF_8);
+        comparator.write(chunk, 0, chunk.length);
+        assertFalse(comparator.isLimitExceeded());
+        comparator.write(chunk, 0, chunk.length);
+        assertTrue(comparator.isLimitExceeded());
+        comparator.write(chunk, 0, chunk.length);
+
+        assertEquals(10, comparator.result().getOutputSize());
+    }
+
+    @Test
+    void stopsReadingOnceOverTheLimit() throws IOException {
+        ByteArrayInputStream output = new ByteArrayInputStream(new byte[1 << 20]);
+        OutputComparator comparator = comparator("x", 100);
+        comparator.consume(output);
+
+        assertTrue(comparator.isLimitExceeded());
+        assertTrue(output.available() > 0);
+        assertEquals(100, comparator.result().getOutputSize());
+    }
+
+    @Test
+    void keepsOnlyTheBeginningOfTheOutput() throws IOException {
+        String output = "a".repeat(5000);
+        OutputComparator comparator = comparator(output, 1 << 20);
+        comparator.consume(stream(output));
+
+        OutputComparator.Result result = comparator.result();
+        assertTrue(result.matches());
+        assertEquals(5000, result.getOutputSize());
+        assertEquals("a".repeat(1024) + "...", result.getActualSnippet());
+        assertEquals("a".repeat(1024) + "...", result.getExpectedSnippet());
+    }
+
+    @Test
+    void reportsTheCheckerVerdict() throws IOException {
+        OutputComparator comparator = comparator("1 2 3", 100);
+        comparator.consume(stream("1 2 4"));
+
+        OutputComparator.Result result = comparator.result();
+        assertFalse(result.matches());
+        assertEquals(SubmissionEntity.SubmissionStatus.WRONG_ANSWER, result.getVerdict().getStatus());
+        assertEquals(result.getVerdict().getMessage(), result.getDifference());
+    }
+
+    @Test
+    void identicalOutputIsAcceptedWithoutTheChecker() throws IOException {
+        Path output = Files.writeString(tempDir.resolve("output.txt"), "1 2 3");
+        OutputComparator comparator = comparator("1 2 3", 100);
+
+        OutputComparator.Result result = comparator.identical(output, Files.size(output));
+        assertTrue(result.matches());
+        assertEquals(5, result.getOutputSize());
+        assertEquals("1 2 3", result.getActualSnippet());
+    }
+
+    private OutputComparator comparator(String expected, long outputLimit) throws IOException {
+        Path expectedFile = Files.writeString(tempDir.resolve("expected.txt"), expected);
+        return new OutputComparator(new ExactChecker().start(null, expectedFile), expectedFile, outputLimit);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,51 @@
+package com.fcoder.Fcoder.compiler;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResourceUsageTest {
+
+    @Test
+    void parsesGnuTimeReport() {
+        ResourceUsage usage = ResourceUsage.parse("262144 0.50 0.25 1.02\n");
+        assertTrue(usage.isMeasured());
+        assertEquals(262144, usage.getPeakMemoryKb());
+        assertEquals(750, usage.getCpuTimeMs());
+        assertEquals(1020, usage.getWallTimeMs());
+    }
+
+    @Test
+    void skipsStatusLinesOfGnuTime() {
+        ResourceUsage exited = ResourceUsage.parse("Command exited with non-zero status 1\n1024 0.01 0.00 0.02\n");
+        assertTrue(exited.isMeasured());
+        assertEquals(1024, exited.getPeakMemoryKb());
+        assertEquals(10, exited.getCpuTimeMs());
+
+        ResourceUsage killed = ResourceUsage.parse("Command terminated by signal 9\n524288 2.00 0.10 2.50\n");
+        assertEquals(524288, killed.getPeakMemoryKb());
+        assertEquals(2100, killed.getCpuTimeMs());
+        assertEquals(2500, killed.getWallTimeMs());
+    }
+
+    @Test
+    void missingOrMalformedReportIsNotMeasured() {
+        assertSame(ResourceUsage.NONE, ResourceUsage.parse(null));
+        assertSame(ResourceUsage.NONE, ResourceUsage.parse(""));
+        assertSame(ResourceUsage.NONE, ResourceUsage.parse("Command terminated by signal 9\n"));
+        assertSame(ResourceUsage.NONE, ResourceUsage.parse("1024 0.01\n"));
+        assertFalse(ResourceUsage.NONE.isMeasured());
+    }
+
+    @Test
+    void wrapsCommandWithoutAnyReportFile() {
+        String[] wrapped = ResourceUsage.measured("./main", "arg");
+        assertEquals(6, wrapped.length);
+        assertArrayEquals(new String[]{"sh", "-c"}, new String[]{wrapped[0], wrapped[1]});
+        assertArrayEquals(new String[]{"./main", "arg"}, new String[]{wrapped[4], wrapped[5]});
+    }
+}
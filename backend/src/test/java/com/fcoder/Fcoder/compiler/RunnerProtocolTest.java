@@ -0,0 +1,135 @@
+package com.fcoder.Fcoder.compiler;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunnerProtocolTest {
+
+    @Test
+    void parsesResultFrames() throws IOException {
+        byte[] hash = new byte[32];
+        hash[0] = (byte) 0xab;
+        hash[31] = 0x01;
+        DataInputStream in = frames(resultFrame(3, 1, 0, 250, 400, 65536, 12, 0, hash),
+                resultFrame(4, -1, 9, -1, 1000, 1024, 0, 3, new byte[32]));
+
+        RunnerProtocol.Result first = RunnerProtocol.readResult(in);
+        assertEquals(3, first.getIndex());
+        assertEquals(1, first.getExitCode());
+        assertEquals(0, first.getSignal());
+        assertEquals(250, first.getCpuTimeMs());
+        assertEquals(400, first.getWallTimeMs());
+        assertEquals(65536, first.getPeakMemoryKb());
+        assertEquals(12, first.getOutputSize());
+        assertFalse(first.isTimedOut());
+        assertFalse(first.isOutputLimitExceeded());
+        assertEquals("ab" + "00".repeat(30) + "01", first.getOutputHash());
+
+        RunnerProtocol.Result second = RunnerProtocol.readResult(in);
+        assertEquals(-1, second.getExitCode());
+        assertEquals(9, second.getSignal());
+        // Times are unsigned on the wire
+        assertEquals(0xffffffffL, second.getCpuTimeMs());
+        assertTrue(second.isTimedOut());
+        assertTrue(second.isOutputLimitExceeded());
+    }
+
+    @Test
+    void doneFrameEndsTheSession() throws IOException {
+        assertNull(RunnerProtocol.readResult(frames(frame('D', new byte[0]))));
+    }
+
+    @Test
+    void errorFrameThrowsTheRunnerMessage() {
+        DataInputStream in = frames(frame('E', "bad request".getBytes(StandardCharsets.UTF_8)));
+        RunnerProtocol.RunnerException e = assertThrows(RunnerProtocol.RunnerException.class,
+                () -> RunnerProtocol.readResult(in));
+        assertEquals("bad request", e.getMessage());
+    }
+
+    @Test
+    void rejectsUnknownFrames() {
+        DataInputStream in = frames(frame('X', new byte[0]));
+        IOException e = assertThrows(IOException.class, () -> RunnerProtocol.readResult(in));
+        assertFalse(e instanceof RunnerProtocol.RunnerException);
+    }
+
+    @Test
+    void closedOrTruncatedStreamIsEndOfFile() {
+        assertThrows(EOFException.class, () -> RunnerProtocol.readResult(frames()));
+
+        byte[] frame = resultFrame(0, 0, 0, 0, 0, 0, 0, 0, new byte[32]);
+        byte[] truncated = new byte[frame.length - 1];
+        System.arraycopy(frame, 0, truncated, 0, truncated.length);
+        assertThrows(EOFException.class, () -> RunnerProtocol.readResult(frames(truncated)));
+    }
+
+    @Test
+    void writesRequest() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        RunnerProtocol.writeRequest(output, new RunLimits(2000, "256m", 1 << 20), null, "tests",
+                new String[]{"java", "Main"}, 5, 10);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(output.toByteArray()));
+        assertEquals(0x46435231, in.readInt());
+        assertEquals(2000, in.readInt());
+        assertEquals(1 << 20, in.readLong());
+        assertEquals(-1, in.readInt());
+        assertEquals("tests", in.readUTF());
+        assertEquals(2, in.readUnsignedShort());
+        assertEquals("java", in.readUTF());
+        assertEquals("Main", in.readUTF());
+        assertEquals(5, in.readInt());
+        assertEquals(10, in.readInt());
+        assertEquals(-1, in.read());
+    }
+
+    private static byte[] resultFrame(int index, int exitCode, int signal, int cpuTimeMs, int wallTimeMs,
+            long peakMemoryKb, long outputSize, int flags, byte[] hash) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(payload)) {
+            out.writeInt(index);
+            out.writeInt(exitCode);
+            out.writeInt(signal);
+            out.writeInt(cpuTimeMs);
+            out.writeInt(wallTimeMs);
+            out.writeLong(peakMemoryKb);
+            out.writeLong(outputSize);
+            out.writeByte(flags);
+            out.write(hash);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return frame('R', payload.toByteArray());
+    }
+
+    private static byte[] frame(int type, byte[] payload) {
+        byte[] frame = new byte[3 + payload.length];
+        frame[0] = (byte) type;
+        frame[1] = (byte) (payload.length >>> 8);
+        frame[2] = (byte) payload.length;
+        System.arraycopy(payload, 0, frame, 3, payload.length);
+        return frame;
+    }
+
+    private static DataInputStream frames(byte[]... frames) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (byte[] frame : frames) {
+            stream.writeBytes(frame);
+        }
+        return new DataInputStream(new ByteArrayInputStream(stream.toByteArray()));
+    }
+}
@@ -0,0 +1,147 @@
+package com.fcoder.Fcoder.compiler;
+
+import com.fcoder.Fcoder.config.JudgeConfig;
+import com.fcoder.Fcoder.model.entity.TestCaseEntity;
+import com.fcoder.Fcoder.util.HashUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestDataStoreTest {
+
+    private final HashUtils hashUtils = new HashUtils();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void putStoresContentUnderItsHash() throws IOException {
+        TestDataStore store = store(config());
+        String hash = store.put("1 2\n");
+
+        assertEquals(hashUtils.sha256("1 2\n"), hash);
+        Path file = tempDir.resolve("store").resolve(hash.substring(0, 2)).resolve(hash);
+        assertEquals("1 2\n", Files.readString(file));
+        assertEquals(hash, store.put("1 2\n"));
+        try (Stream<Path> files = Files.list(file.getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void pathServesLocalCopy() throws IOException {
+        TestDataStore store = store(config());
+        String hash = store.put("hello");
+
+        Path path = store.path(hash);
+        assertEquals(tempDir.resolve("cache").resolve(hash), path);
+        assertEquals("hello", Files.readString(path));
+        assertEquals(path, store.path(hash));
+        assertEquals(5, store.getCachedSize());
+    }
+
+    @Test
+    void pathWithoutCacheIsStoreFile() throws IOException {
+        JudgeConfig config = config();
+        config.getTestData().getCache().setEnabled(false);
+        TestDataStore store = store(config);
+        String hash = store.put("hello");
+
+        assertEquals(tempDir.resolve("store").resolve(hash.substring(0, 2)).resolve(hash), store.path(hash));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedLocalCopies() throws IOException {
+        JudgeConfig config = config();
+        config.getTestData().getCache().setMaxSize(DataSize.ofBytes(10));
+        TestDataStore store = store(config);
+        String first = store.put("aaaaaaaa");
+        String second = store.put("bbbbbbbb");
+
+        Path firstCopy = store.path(first);
+        store.path(second);
+
+        assertFalse(Files.exists(firstCopy));
+        assertEquals(8, store.getCachedSize());
+        assertEquals("aaaaaaaa", store.read(first));
+    }
+
+    @Test
+    void rejectsMissingAndInvalidHashes() {
+        TestDataStore store = store(config());
+        assertThrows(NoSuchFileException.class, () -> store.path(hashUtils.sha256("missing")));
+        assertThrows(IllegalArgumentException.class, () -> store.path("../../etc/passwd"));
+    }
+
+    @Test
+    void storeInlineKeepsInlineDataAndRebuildsMissingFiles() throws IOException {
+        TestDataStore store = store(config());
+        TestCaseEntity testCase = testCase();
+
+        assertTrue(store.storeInline(testCase));
+        assertEquals(hashUtils.sha256("1 2"), testCase.getInputHash());
+        assertEquals(3L, testCase.getInputSize());
+        assertEquals(hashUtils.sha256("3"), testCase.getOutputHash());
+        assertEquals("1 2", testCase.getInput());
+
+        Path input = tempDir.resolve("store").resolve(testCase.getInputHash().substring(0, 2))
+                .resolve(testCase.getInputHash());
+        Files.delete(input);
+        assertFalse(store.storeInline(testCase));
+        assertEquals("1 2", Files.readString(input));
+    }
+
+    @Test
+    void dropInlineOnlyOnceShared() throws IOException {
+        TestCaseEntity testCase = testCase();
+        assertThrows(IllegalStateException.class, () -> store(config()).dropInline(testCase));
+
+        JudgeConfig config = config();
+        config.getTestData().setShared(true);
+        TestDataStore store = store(config);
+        assertTrue(store.dropInline(testCase));
+        assertNull(testCase.getInput());
+        assertNull(testCase.getExpectedOutput());
+        assertEquals("1 2", store.readInput(testCase));
+        assertFalse(store.dropInline(testCase));
+    }
+
+    @Test
+    void streamModeNeedsAbsoluteDirectory() {
+        JudgeConfig config = config();
+        config.getQueue().setMode(JudgeConfig.Queue.Mode.STREAM);
+        config.getTestData().setDirectory("data/test-data");
+        assertThrows(IllegalStateException.class, () -> store(config));
+    }
+
+    private JudgeConfig config() {
+        JudgeConfig config = new JudgeConfig();
+        config.getTestData().setDirectory(tempDir.resolve("store").toString());
+        config.getTestData().getCache().setDirectory(tempDir.resolve("cache").toString());
+        return config;
+    }
+
+    private TestDataStore store(JudgeConfig config) {
+        return new TestDataStore(config, hashUtils, new SimpleMeterRegistry());
+    }
+
+    private static TestCaseEntity testCase() {
+        TestCaseEntity testCase = new TestCaseEntity();
+        testCase.setInput("1 2");
+        testCase.setExpectedOutput("3");
+        return testCase;
+    }
+}
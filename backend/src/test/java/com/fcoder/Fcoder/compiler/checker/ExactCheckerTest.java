@@ -0,0 +1,74 @@
+package com.fcoder.Fcoder.compiler.checker;
+
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExactCheckerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void acceptsIdenticalOutput() throws IOException {
+        assertTrue(check("1 2\n3\n", "1 2\n3\n").isAccepted());
+    }
+
+    @Test
+    void ignoresSurroundingWhitespaceAndCarriageReturns() throws IOException {
+        assertTrue(check("1 2\n3\n", "\n  1 2\r\n3\r\n\r\n").isAccepted());
+        assertTrue(check("  1 2\n3  ", "1 2\n3").isAccepted());
+    }
+
+    @Test
+    void whitespaceOnlyDifferenceIsPresentationError() throws IOException {
+        CheckVerdict verdict = check("1 2\n3\n", "1  2\n3\n");
+        assertEquals(SubmissionEntity.SubmissionStatus.PRESENTATION_ERROR, verdict.getStatus());
+        assertEquals("Line 1: expected \"1 2\", found \"1  2\"", verdict.getMessage());
+
+        assertEquals(SubmissionEntity.SubmissionStatus.PRESENTATION_ERROR, check("1 2\n3\n", "1 2 3\n").getStatus());
+    }
+
+    @Test
+    void differentTokenIsWrongAnswer() throws IOException {
+        CheckVerdict verdict = check("1 2\n3\n", "1 2\n4\n");
+        assertEquals(SubmissionEntity.SubmissionStatus.WRONG_ANSWER, verdict.getStatus());
+        assertEquals("Line 2: expected \"3\", found \"4\"", verdict.getMessage());
+    }
+
+    @Test
+    void shorterOrLongerOutputIsWrongAnswer() throws IOException {
+        assertEquals(SubmissionEntity.SubmissionStatus.WRONG_ANSWER, check("1 2\n3\n", "1 2\n").getStatus());
+        assertEquals(SubmissionEntity.SubmissionStatus.WRONG_ANSWER, check("1 2\n3\n", "1 2\n3\n4\n").getStatus());
+        assertEquals(SubmissionEntity.SubmissionStatus.WRONG_ANSWER, check("1 2\n3\n", "").getStatus());
+    }
+
+    @Test
+    void verdictDoesNotDependOnChunking() throws IOException {
+        Path expected = write("1 2\n3\n");
+        Checker.Session session = new ExactChecker().start(null, expected);
+        for (byte b : "1 2\r\n3\n".getBytes(StandardCharsets.UTF_8)) {
+            session.write(new byte[]{b}, 0, 1);
+        }
+        assertTrue(session.finish().isAccepted());
+    }
+
+    private CheckVerdict check(String expected, String output) throws IOException {
+        Checker.Session session = new ExactChecker().start(null, write(expected));
+        byte[] bytes = output.getBytes(StandardCharsets.UTF_8);
+        session.write(bytes, 0, bytes.length);
+        return session.finish();
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(Files.createTempFile(tempDir, "expected", ".txt"), content);
+    }
+}
@@ -0,0 +1,79 @@
+package com.fcoder.Fcoder.compiler.checker;
+
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenCheckerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void ignoresLayout() throws IOException {
+        assertTrue(check(null, "1\n2\n3\n", "  1 2\r\n\t3").isAccepted());
+    }
+
+    @Test
+    void reportsFirstDifferentToken() throws IOException {
+        CheckVerdict verdict = check(null, "1 2\n3\n", "1 2 4");
+        assertEquals(SubmissionEntity.SubmissionStatus.WRONG_ANSWER, verdict.getStatus());
+        assertEquals("Token 3 (line 2): expected \"3\", found \"4\"", verdict.getMessage());
+    }
+
+    @Test
+    void tokenPrefixDoesNotMatch() throws IOException {
+        assertFalse(check(null, "12", "1").isAccepted());
+        assertFalse(check(null, "1", "12").isAccepted());
+    }
+
+    @Test
+    void reportsMissingAndExtraTokens() throws IOException {
+        assertEquals("Token 3 (line 1): expected \"3\", found end of output",
+                check(null, "1 2 3", "1 2").getMessage());
+        assertEquals("Token 3: expected end of output, found \"3\"",
+                check(null, "1 2", "1 2 3").getMessage());
+    }
+
+    @Test
+    void comparesNumbersExactlyWithoutEpsilon() throws IOException {
+        assertFalse(check(null, "1", "1.0").isAccepted());
+    }
+
+    @Test
+    void acceptsNumbersWithinAbsoluteEpsilon() throws IOException {
+        assertTrue(check(1e-6, "0.33333333", "0.3333333").isAccepted());
+        assertTrue(check(1e-6, "1.5", "1.5e0").isAccepted());
+        assertFalse(check(1e-6, "0.333", "0.334").isAccepted());
+    }
+
+    @Test
+    void acceptsNumbersWithinRelativeEpsilon() throws IOException {
+        assertTrue(check(1e-6, "1000000", "1000000.5").isAccepted());
+        assertFalse(check(1e-6, "1000000", "1000002").isAccepted());
+    }
+
+    @Test
+    void epsilonOnlyAppliesToPlainNumbers() throws IOException {
+        assertFalse(check(1e-6, "1", "1d").isAccepted());
+        assertFalse(check(1e-6, "1", "NaN").isAccepted());
+        assertFalse(check(1e-6, "abc", "abd").isAccepted());
+    }
+
+    private CheckVerdict check(Double epsilon, String expected, String output) throws IOException {
+        Path expectedFile = Files.writeString(Files.createTempFile(tempDir, "expected", ".txt"), expected);
+        Checker.Session session = new TokenChecker(epsilon).start(null, expectedFile);
+        byte[] bytes = output.getBytes(StandardCharsets.UTF_8);
+        session.write(bytes, 0, bytes.length);
+        return session.finish();
+    }
+}
@@ -0,0 +1,56 @@
+package com.fcoder.Fcoder.compiler.checker;
+
+import com.fcoder.Fcoder.model.entity.SubmissionEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UnorderedLinesCheckerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void acceptsLinesInAnyOrder() throws IOException {
+        assertTrue(check("a\nb\nb\n", "b\na\nb").isAccepted());
+    }
+
+    @Test
+    void ignoresSurroundingWhitespaceAndBlankLines() throws IOException {
+        assertTrue(check("a\nb\n", "  b \r\n\n\ta\n\n").isAccepted());
+    }
+
+    @Test
+    void reportsUnexpectedLine() throws IOException {
+        CheckVerdict verdict = check("a\nb\n", "b\nc\na\n");
+        assertEquals(SubmissionEntity.SubmissionStatus.WRONG_ANSWER, verdict.getStatus());
+        assertEquals("Line 2: unexpected \"c\"", verdict.getMessage());
+    }
+
+    @Test
+    void duplicatesCountAsUnexpected() throws IOException {
+        assertEquals("Line 3: unexpected \"b\"", check("a\nb\n", "a\nb\nb").getMessage());
+    }
+
+    @Test
+    void reportsMissingLines() throws IOException {
+        CheckVerdict verdict = check("a\nb\nb\n", "b\n");
+        assertEquals(SubmissionEntity.SubmissionStatus.WRONG_ANSWER, verdict.getStatus());
+        assertTrue(verdict.getMessage().startsWith("2 expected line(s) missing"));
+    }
+
+    private CheckVerdict check(String expected, String output) throws IOException {
+        Path expectedFile = Files.writeString(Files.createTempFile(tempDir, "expected", ".txt"), expected);
+        Checker.Session session = new UnorderedLinesChecker().start(null, expectedFile);
+        byte[] bytes = output.getBytes(StandardCharsets.UTF_8);
+        session.write(bytes, 0, bytes.length);
+        return session.finish();
+    }
+}
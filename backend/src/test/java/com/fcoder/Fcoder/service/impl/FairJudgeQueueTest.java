@@ -0,0 +1,118 @@
+package com.fcoder.Fcoder.service.impl;
+
+import com.fcoder.Fcoder.config.JudgeConfig;
+import com.fcoder.Fcoder.service.JudgeQueueService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FairJudgeQueueTest {
+
+    @Test
+    void usersTakeTurns() throws InterruptedException {
+        FairJudgeQueue queue = queue(10, 8, 1, 1);
+        queue.put(ticket(1, 1, JudgeQueueService.Lane.LIVE, 1));
+        queue.put(ticket(2, 1, JudgeQueueService.Lane.LIVE, 1));
+        queue.put(ticket(3, 1, JudgeQueueService.Lane.LIVE, 1));
+        queue.put(ticket(4, 2, JudgeQueueService.Lane.LIVE, 1));
+
+        assertEquals(List.of(1L, 4L, 2L, 3L), takeAll(queue));
+    }
+
+    @Test
+    void heavySubmissionsWaitForMoreTurns() throws InterruptedException {
+        FairJudgeQueue queue = queue(10, 8, 1, 10);
+        queue.put(ticket(1, 1, JudgeQueueService.Lane.LIVE, 30));
+        queue.put(ticket(2, 2, JudgeQueueService.Lane.LIVE, 10));
+        queue.put(ticket(3, 2, JudgeQueueService.Lane.LIVE, 10));
+        queue.put(ticket(4, 2, JudgeQueueService.Lane.LIVE, 10));
+
+        assertEquals(List.of(2L, 3L, 1L, 4L), takeAll(queue));
+    }
+
+    @Test
+    void lanesShareByWeight() throws InterruptedException {
+        FairJudgeQueue queue = queue(10, 2, 1, 10);
+        queue.put(ticket(1, 9, JudgeQueueService.Lane.ADMIN, 1));
+        queue.put(ticket(2, 9, JudgeQueueService.Lane.ADMIN, 1));
+        queue.put(ticket(3, 9, JudgeQueueService.Lane.ADMIN, 1));
+        queue.put(ticket(4, 1, JudgeQueueService.Lane.LIVE, 1));
+        queue.put(ticket(5, 1, JudgeQueueService.Lane.LIVE, 1));
+        queue.put(ticket(6, 1, JudgeQueueService.Lane.LIVE, 1));
+        queue.put(ticket(7, 1, JudgeQueueService.Lane.LIVE, 1));
+
+        assertEquals(3, queue.size(JudgeQueueService.Lane.ADMIN));
+        assertEquals(4, queue.size(JudgeQueueService.Lane.LIVE));
+        assertEquals(List.of(1L, 4L, 5L, 2L, 6L, 7L, 3L), takeAll(queue));
+    }
+
+    @Test
+    void offerFailsWhenFull() throws InterruptedException {
+        FairJudgeQueue queue = queue(2, 8, 1, 10);
+        assertTrue(queue.offer(ticket(1, 1, JudgeQueueService.Lane.LIVE, 1)));
+        assertTrue(queue.offer(ticket(2, 2, JudgeQueueService.Lane.ADMIN, 1)));
+        assertFalse(queue.offer(ticket(3, 3, JudgeQueueService.Lane.LIVE, 1)));
+        assertEquals(0, queue.remainingCapacity());
+        assertEquals(2, queue.snapshot().size());
+
+        queue.take();
+        assertEquals(1, queue.remainingCapacity());
+        assertTrue(queue.offer(ticket(3, 3, JudgeQueueService.Lane.LIVE, 1)));
+    }
+
+    @Test
+    void capacityIsAtLeastOne() {
+        FairJudgeQueue queue = queue(0, 8, 1, 10);
+        assertTrue(queue.offer(ticket(1, 1, JudgeQueueService.Lane.LIVE, 1)));
+        assertFalse(queue.offer(ticket(2, 1, JudgeQueueService.Lane.LIVE, 1)));
+    }
+
+    @Test
+    void putWaitsForRoom() throws InterruptedException {
+        FairJudgeQueue queue = queue(1, 8, 1, 10);
+        queue.put(ticket(1, 1, JudgeQueueService.Lane.LIVE, 1));
+        Thread producer = new Thread(() -> {
+            try {
+                queue.put(ticket(2, 2, JudgeQueueService.Lane.LIVE, 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        while (producer.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, queue.size());
+
+        assertEquals(1L, queue.take().getSubmissionId());
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+        assertEquals(2L, queue.take().getSubmissionId());
+    }
+
+    private static FairJudgeQueue queue(int capacity, int liveWeight, int adminWeight, int userQuantum) {
+        JudgeConfig.Fairness fairness = new JudgeConfig.Fairness();
+        fairness.setLiveWeight(liveWeight);
+        fairness.setAdminWeight(adminWeight);
+        fairness.setUserQuantum(userQuantum);
+        return new FairJudgeQueue(capacity, fairness, new SimpleMeterRegistry());
+    }
+
+    private static JudgeTicket ticket(long submissionId, long userId, JudgeQueueService.Lane lane, int cost) {
+        return new JudgeTicket(submissionId, userId, lane, cost, System.currentTimeMillis(), 1, null);
+    }
+
+    private static List<Long> takeAll(FairJudgeQueue queue) throws InterruptedException {
+        List<Long> order = new ArrayList<>();
+        while (queue.size() > 0) {
+            order.add(queue.take().getSubmissionId());
+        }
+        return order;
+    }
+}
@@ -0,0 +1,42 @@
+package com.fcoder.Fcoder.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JudgeEventLogServiceImplTest {
+
+    @Test
+    void quotesField() {
+        assertEquals(" actual=\"1 2 3\"", field("actual", "1 2 3", 100));
+    }
+
+    @Test
+    void escapesQuotesBackslashesAndLineBreaks() {
+        assertEquals(" error=\"say \\\"hi\\\"\\\\n\"", field("error", "say \"hi\"\\n", 100));
+        assertEquals(" actual=\"a\\nb\\r\\nc\\td\"", field("actual", "a\nb\r\nc\td", 100));
+    }
+
+    @Test
+    void replacesOtherControlCharacters() {
+        assertEquals(" actual=\"a?b?\"", field("actual", "a\u0000b\u001b", 100));
+    }
+
+    @Test
+    void cutsAtTheLimit() {
+        assertEquals(" expected=\"abc...\"", field("expected", "abcdef", 3));
+        assertEquals(" expected=\"...\"", field("expected", "abcdef", 0));
+        assertEquals(" expected=\"abc\"", field("expected", "abc", 3));
+    }
+
+    @Test
+    void skipsMissingValues() {
+        assertEquals("", field("error", null, 100));
+    }
+
+    private static String field(String name, String value, int limit) {
+        StringBuilder line = new StringBuilder();
+        JudgeEventLogServiceImpl.appendField(line, name, value, limit);
+        return line.toString();
+    }
+}
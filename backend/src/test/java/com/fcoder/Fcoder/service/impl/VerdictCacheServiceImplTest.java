@@ -0,0 +1,74 @@
+package com.fcoder.Fcoder.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fcoder.Fcoder.config.JudgeConfig;
+import com.fcoder.Fcoder.model.entity.ProblemEntity;
+import com.fcoder.Fcoder.model.other.CachedTestCase;
+import com.fcoder.Fcoder.util.HashUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class VerdictCacheServiceImplTest {
+
+    private final HashUtils hashUtils = new HashUtils();
+    private final VerdictCacheServiceImpl verdictCache = new VerdictCacheServiceImpl(null, new ObjectMapper(),
+            hashUtils, new JudgeConfig(), new SimpleMeterRegistry());
+
+    @Test
+    void sameProblemAndTestsGiveSameFingerprint() {
+        assertEquals(fingerprint(problem -> { }, testCase(1L, 1, 1, "1 2", "3")),
+                fingerprint(problem -> { }, testCase(1L, 1, 1, "1 2", "3")));
+    }
+
+    @Test
+    void sizesAndSampleFlagDoNotChangeFingerprint() {
+        CachedTestCase testCase = testCase(1L, 1, 1, "1 2", "3");
+        CachedTestCase sample = new CachedTestCase(1L, 1, testCase.getInputHash(), 100, testCase.getOutputHash(),
+                100, true, 1);
+        assertEquals(fingerprint(problem -> { }, testCase), fingerprint(problem -> { }, sample));
+    }
+
+    @Test
+    void limitsAndCheckerChangeFingerprint() {
+        CachedTestCase testCase = testCase(1L, 1, 1, "1 2", "3");
+        String base = fingerprint(problem -> { }, testCase);
+        assertNotEquals(base, fingerprint(problem -> problem.setTimeLimit(2000), testCase));
+        assertNotEquals(base, fingerprint(problem -> problem.setMemoryLimit(512), testCase));
+        assertNotEquals(base, fingerprint(problem -> problem.setCheckerType(ProblemEntity.CheckerType.TOKEN), testCase));
+        assertNotEquals(base, fingerprint(problem -> problem.setCheckerEpsilon(1e-6), testCase));
+        assertNotEquals(base, fingerprint(problem -> problem.setCheckerSource("int main() {}"), testCase));
+    }
+
+    @Test
+    void testCasesChangeFingerprint() {
+        String base = fingerprint(problem -> { }, testCase(1L, 1, 1, "1 2", "3"));
+        assertNotEquals(base, fingerprint(problem -> { }, testCase(1L, 1, 1, "1 2", "4")));
+        assertNotEquals(base, fingerprint(problem -> { }, testCase(1L, 1, 1, "1 3", "3")));
+        assertNotEquals(base, fingerprint(problem -> { }, testCase(1L, 2, 1, "1 2", "3")));
+        assertNotEquals(base, fingerprint(problem -> { }, testCase(1L, 1, 5, "1 2", "3")));
+        assertNotEquals(base, fingerprint(problem -> { }, testCase(2L, 1, 1, "1 2", "3")));
+        assertNotEquals(base, fingerprint(problem -> { }, testCase(1L, 1, 1, "1 2", "3"),
+                testCase(2L, 2, 1, "1 2", "3")));
+    }
+
+    private String fingerprint(Consumer<ProblemEntity> change, CachedTestCase... testCases) {
+        ProblemEntity problem = new ProblemEntity();
+        problem.setId(1L);
+        problem.setTimeLimit(1000);
+        problem.setMemoryLimit(256);
+        problem.setCheckerType(ProblemEntity.CheckerType.EXACT);
+        change.accept(problem);
+        return verdictCache.fingerprint(problem, List.of(testCases));
+    }
+
+    private CachedTestCase testCase(Long id, int testOrder, int points, String input, String expectedOutput) {
+        return new CachedTestCase(id, testOrder, hashUtils.sha256(input), input.length(),
+                hashUtils.sha256(expectedOutput), expectedOutput.length(), false, points);
+    }
+}